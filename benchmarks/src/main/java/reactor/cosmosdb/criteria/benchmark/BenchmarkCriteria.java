@@ -0,0 +1,56 @@
+package reactor.cosmosdb.criteria.benchmark;
+
+import reactor.cosmosdb.criteria.domain.AppCriteriaBuilder;
+import reactor.cosmosdb.criteria.domain.CriteriaOperator;
+import reactor.cosmosdb.criteria.domain.CriteriaQuery;
+
+import java.util.List;
+
+/**
+ * Criteria builder used by the benchmarks, equivalent to the TestingCriteria example of the README
+ */
+public final class BenchmarkCriteria {
+
+    private BenchmarkCriteria() {
+    }
+
+    public static class Builder extends AppCriteriaBuilder<Builder> {
+
+        public static Builder builder() {
+            return new Builder();
+        }
+
+        private Builder() {
+            super();
+        }
+
+        public Builder code(CriteriaOperator criteriaType, List<String> code) {
+            this.addWhereCondition(super.conditionalCreator(criteriaType, "code", code));
+            return this;
+        }
+
+        public Builder codeNull(CriteriaOperator criteriaType) {
+            this.addWhereCondition(super.nullConditionCreator(criteriaType, "code"));
+            return this;
+        }
+
+        public Builder state(CriteriaOperator criteriaType, List<String> state) {
+            this.addWhereCondition(super.conditionalCreator(criteriaType, "state", state));
+            return this;
+        }
+
+        public Builder contactOwner(CriteriaOperator criteriaType, List<String> contactOwnerId) {
+            this.addWhereCondition(super.conditionalCreator(criteriaType, "contactOwner.userId", contactOwnerId));
+            return this;
+        }
+
+        public Builder contactOwnerListId(CriteriaOperator criteriaType, List<String> contactOwnerListId) {
+            this.addWhereCondition(super.conditionalCreatorAgainstArray(criteriaType, "contactOwnerList.userId", contactOwnerListId));
+            return this;
+        }
+
+        public CriteriaQuery build() {
+            return super.buildCriteriaQuery();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package reactor.cosmosdb.criteria.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.cosmosdb.criteria.domain.AppFilterOrder;
+import reactor.cosmosdb.criteria.domain.CriteriaOperator;
+import reactor.cosmosdb.criteria.domain.CriteriaQuery;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures build() of criteria that combine several conditions: or_start/or_end groups, group by and custom selects.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CriteriaCompositionBenchmark {
+    private static final List<String> CODES = List.of("code1", "code2", "code3");
+    private static final List<String> STATES = List.of("state1");
+    private static final List<String> OWNERS = List.of("owner1", "owner2");
+
+    @Param({"1", "5", "20"})
+    private int orGroups;
+
+    @Benchmark
+    public CriteriaQuery orGroupChain() {
+        BenchmarkCriteria.Builder builder = BenchmarkCriteria.Builder.builder()
+                .code(CriteriaOperator.EQUALS, CODES);
+        for (int i = 0; i < orGroups; i++) {
+            builder.or_start()
+                    .state(CriteriaOperator.EQUALS, STATES)
+                    .contactOwner(CriteriaOperator.LIKE, OWNERS)
+                    .contactOwnerListId(CriteriaOperator.CONTAINS, OWNERS)
+                    .or_end();
+        }
+        return builder.setOrderBySentence("code", AppFilterOrder.ASC).build();
+    }
+
+    @Benchmark
+    public CriteriaQuery groupByWithCustomSelect() {
+        return BenchmarkCriteria.Builder.builder()
+                .selectCustom("c.state AS state, COUNT(1) AS total")
+                .code(CriteriaOperator.EQUALS, CODES)
+                .contactOwner(CriteriaOperator.NOT_EQUALS, OWNERS)
+                .groupBy("c.state")
+                .build();
+    }
+
+    @Benchmark
+    public CriteriaQuery selectCustom() {
+        return BenchmarkCriteria.Builder.builder()
+                .selectCustom("c.id AS id, c.code AS code")
+                .code(CriteriaOperator.EQUALS, CODES)
+                .state(CriteriaOperator.LIKE_STRICT, STATES)
+                .build();
+    }
+}
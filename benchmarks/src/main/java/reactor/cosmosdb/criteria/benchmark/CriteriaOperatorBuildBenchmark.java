@@ -0,0 +1,65 @@
+package reactor.cosmosdb.criteria.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.cosmosdb.criteria.domain.CriteriaOperator;
+import reactor.cosmosdb.criteria.domain.CriteriaQuery;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures build() of a criteria with one condition for every CriteriaOperator and size of the value list.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CriteriaOperatorBuildBenchmark {
+
+    @Param({"EQUALS", "EQUALS_STRICT", "NOT_EQUALS_STRICT", "EQUALS_STRICT_IGNORING_CAMEL_CASE", "CONTAINS", "NOT_CONTAINS",
+            "NOT_EQUALS", "LIKE", "MORE_THAN", "MORE_OR_EQUALS_THAN", "LESS_THAN", "LESS_OR_EQUALS_THAN", "LIKE_STRICT",
+            "NOT_NULL", "NULL"})
+    private CriteriaOperator operator;
+
+    @Param({"1", "10", "1000"})
+    private int values;
+
+    private List<String> valueList;
+
+    @Setup
+    public void setUp() {
+        valueList = new ArrayList<>(values);
+        for (int i = 0; i < values; i++) {
+            valueList.add("value " + i);
+        }
+    }
+
+    @Benchmark
+    public CriteriaQuery buildAgainstAttribute() {
+        BenchmarkCriteria.Builder builder = BenchmarkCriteria.Builder.builder();
+        if (operator == CriteriaOperator.NULL || operator == CriteriaOperator.NOT_NULL) {
+            return builder.codeNull(operator).build();
+        }
+        return builder.code(operator, valueList).build();
+    }
+
+    @Benchmark
+    public CriteriaQuery buildAgainstArray() {
+        return BenchmarkCriteria.Builder.builder()
+                .contactOwnerListId(operator, valueList)
+                .build();
+    }
+}
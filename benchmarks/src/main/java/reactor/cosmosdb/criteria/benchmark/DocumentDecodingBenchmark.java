@@ -0,0 +1,190 @@
+package reactor.cosmosdb.criteria.benchmark;
+
+import com.azure.cosmos.CosmosAsyncClient;
+import com.azure.cosmos.models.CosmosQueryRequestOptions;
+import com.azure.cosmos.models.SqlQuerySpec;
+import com.azure.cosmos.util.CosmosPagedFlux;
+import com.fasterxml.jackson.annotation.JsonAnySetter;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.cosmosdb.criteria.application.ReactorOperationsCosmosDbRepository;
+import reactor.cosmosdb.criteria.domain.ContainerCosmosDbInfo;
+import reactor.cosmosdb.criteria.domain.CriteriaOperator;
+import reactor.cosmosdb.criteria.domain.CriteriaQuery;
+import reactor.cosmosdb.criteria.domain.ProjectionPaginated;
+import reactor.cosmosdb.criteria.domain.QueryExecutionOptions;
+import reactor.cosmosdb.criteria.domain.ResultMapping;
+import reactor.cosmosdb.criteria.domain.TotalCountMode;
+import reactor.cosmosdb.criteria.domain.TotalCountResponse;
+import reactor.cosmosdb.criteria.infraestructure.JacksonDocumentCodec;
+import reactor.cosmosdb.criteria.infraestructure.ReactorCosmosDbQueryLauncher;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the decoding of wide documents through the container class (findByCriteriaPaginated, every document of every page
+ * is deserialized into the container class and then mapped to the entity) with the decoding mode (ResultMapping.decoded,
+ * raw json decoded straight into the entity only for the page asked), with a reflection-cached codec and a hand written one.
+ * The last page is asked, so every page is read.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DocumentDecodingBenchmark {
+    private static final int PAGE_SIZE = 50;
+    private static final ObjectMapper MAPPER = new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private static final QueryExecutionOptions SKIP_COUNT = QueryExecutionOptions.builder()
+            .totalCountMode(TotalCountMode.SKIP)
+            .build();
+
+    @Param({"10", "100"})
+    private int attributes;
+
+    @Param({"1", "10"})
+    private int pages;
+
+    private ReactorOperationsCosmosDbRepository<Contact, WideDocument> repository;
+    private ContainerCosmosDbInfo<WideDocument> containerInfo;
+    private CriteriaQuery criteria;
+    private ResultMapping<JsonNode, Contact> jacksonCodec;
+    private ResultMapping<JsonNode, Contact> handWrittenCodec;
+
+    @Setup
+    public void setUp() {
+        int documents = pages * PAGE_SIZE;
+        CosmosPagedFlux<WideDocument> containerFlux = InMemoryCosmosPagedFlux.of(documents, Duration.ZERO, this::document, DocumentDecodingBenchmark::deserialize);
+        CosmosPagedFlux<JsonNode> rawFlux = InMemoryCosmosPagedFlux.of(documents, Duration.ZERO, this::document);
+        repository = new ReactorOperationsCosmosDbRepository<>(new WideDocumentQueryLauncher(containerFlux, rawFlux),
+                new RepositoryPaginationBenchmark.InMemoryQueryLauncher<>(InMemoryCosmosPagedFlux.of(1, Duration.ZERO, i -> new TotalCountResponse(documents))));
+        containerInfo = new ContainerCosmosDbInfo<>("testing", WideDocument.class);
+        criteria = BenchmarkCriteria.Builder.builder()
+                .code(CriteriaOperator.EQUALS, List.of("code1"))
+                .build();
+        jacksonCodec = ResultMapping.decoded(JacksonDocumentCodec.of(Contact.class));
+        handWrittenCodec = ResultMapping.decoded(document -> new Contact(document.path("id").asText(), document.path("code").asText(), document.path("name").asText()));
+    }
+
+    @Benchmark
+    public ProjectionPaginated<Contact> containerClass() {
+        return repository.findByCriteriaPaginated(criteria, pages - 1, PAGE_SIZE, containerInfo,
+                document -> new Contact(document.id, document.code, document.name), SKIP_COUNT).block();
+    }
+
+    @Benchmark
+    public ProjectionPaginated<Contact> decodedWithJacksonCodec() {
+        return repository.findByCriteriaPaginated(criteria, pages - 1, PAGE_SIZE, containerInfo, jacksonCodec, SKIP_COUNT).block();
+    }
+
+    @Benchmark
+    public ProjectionPaginated<Contact> decodedWithHandWrittenCodec() {
+        return repository.findByCriteriaPaginated(criteria, pages - 1, PAGE_SIZE, containerInfo, handWrittenCodec, SKIP_COUNT).block();
+    }
+
+    private JsonNode document(int position) {
+        ObjectNode document = MAPPER.createObjectNode()
+                .put("id", "id" + position)
+                .put("code", "code1")
+                .put("name", "name" + position);
+        for (int i = 0; i < attributes; i++) {
+            document.put("attribute" + i, i % 2 == 0 ? "value" + i : String.valueOf(position * i));
+        }
+        return document;
+    }
+
+    private static WideDocument deserialize(JsonNode document) {
+        try {
+            return MAPPER.treeToValue(document, WideDocument.class);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Container class with every attribute of the document
+     */
+    public static class WideDocument {
+        public String id;
+        public String code;
+        public String name;
+        private final Map<String, Object> attributes = new HashMap<>();
+
+        @JsonAnySetter
+        public void setAttribute(String name, Object value) {
+            attributes.put(name, value);
+        }
+    }
+
+    /**
+     * Entity that only needs some attributes of the document
+     */
+    public static class Contact {
+        public String id;
+        public String code;
+        public String name;
+
+        public Contact() {
+        }
+
+        public Contact(String id, String code, String name) {
+            this.id = id;
+            this.code = code;
+            this.name = name;
+        }
+    }
+
+    /**
+     * Launcher that returns the documents deserialized into the container class, or raw for the decoding mode
+     */
+    static final class WideDocumentQueryLauncher implements ReactorCosmosDbQueryLauncher<WideDocument> {
+        private final CosmosPagedFlux<WideDocument> containerFlux;
+        private final CosmosPagedFlux<JsonNode> rawFlux;
+
+        WideDocumentQueryLauncher(CosmosPagedFlux<WideDocument> containerFlux, CosmosPagedFlux<JsonNode> rawFlux) {
+            this.containerFlux = containerFlux;
+            this.rawFlux = rawFlux;
+        }
+
+        @Override
+        public String getDatabaseName() {
+            return "benchmark";
+        }
+
+        @Override
+        public CosmosAsyncClient getClientAsync() {
+            throw new UnsupportedOperationException("in-memory launcher does not connect to cosmosdb");
+        }
+
+        @Override
+        public CosmosPagedFlux<WideDocument> launch(SqlQuerySpec querySpec, String containerName, Class<WideDocument> targetClass, CosmosQueryRequestOptions options) {
+            return containerFlux;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <P> CosmosPagedFlux<P> launchProjection(SqlQuerySpec querySpec, String containerName, Class<P> projectionClass, CosmosQueryRequestOptions options) {
+            return (CosmosPagedFlux<P>) rawFlux;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package reactor.cosmosdb.criteria.benchmark;
+
+import com.azure.cosmos.models.FeedResponse;
+import com.azure.cosmos.models.ModelBridgeInternal;
+import com.azure.cosmos.util.CosmosPagedFlux;
+import com.azure.cosmos.util.UtilBridgeInternal;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * Stand-in of the CosmosPagedFlux returned by cosmosdb that serves documents from memory.
+ * Every page can be delayed to simulate the latency of a round trip.
+ */
+public final class InMemoryCosmosPagedFlux {
+
+    private InMemoryCosmosPagedFlux() {
+    }
+
+    /**
+     * @param documents : number of documents returned by the query
+     * @param pageLatency : delay applied to every page, zero to serve them immediately
+     * @param document : creates the document of each position
+     * @return paged flux that honours the page size and continuation token asked with byPage
+     */
+    public static <T> CosmosPagedFlux<T> of(int documents, Duration pageLatency, IntFunction<T> document) {
+        return of(documents, pageLatency, document, Function.identity());
+    }
+
+    /**
+     * Deserializes the documents of every page when the page is served, as cosmosdb client does with the results of a query
+     * @param documents : number of documents returned by the query
+     * @param pageLatency : delay applied to every page, zero to serve them immediately
+     * @param document : creates the raw document of each position
+     * @param deserializer : deserializes a raw document into the class of the results
+     * @return paged flux that honours the page size and continuation token asked with byPage
+     */
+    public static <S, T> CosmosPagedFlux<T> of(int documents, Duration pageLatency, IntFunction<S> document, Function<S, T> deserializer) {
+        List<S> results = new ArrayList<>(documents);
+        for (int i = 0; i < documents; i++) {
+            results.add(document.apply(i));
+        }
+        return UtilBridgeInternal.createCosmosPagedFlux(options -> {
+            int pageSize = options.getMaxItemCount() != null ? options.getMaxItemCount() : 100;
+            int start = options.getRequestContinuation() != null ? Integer.parseInt(options.getRequestContinuation()) : 0;
+            Flux<FeedResponse<T>> pages = Flux.range(0, Math.max(1, (results.size() - start + pageSize - 1) / pageSize))
+                    .map(page -> {
+                        int from = start + page * pageSize;
+                        int to = Math.min(results.size(), from + pageSize);
+                        Map<String, String> headers = new HashMap<>();
+                        headers.put("x-ms-request-charge", "2.5");
+                        if (to < results.size()) {
+                            headers.put("x-ms-continuation", String.valueOf(to));
+                        }
+                        List<T> pageResults = new ArrayList<>(to - Math.min(from, to));
+                        for (S result : results.subList(Math.min(from, to), to)) {
+                            pageResults.add(deserializer.apply(result));
+                        }
+                        return ModelBridgeInternal.createFeedResponse(pageResults, headers);
+                    });
+            return pageLatency.isZero() ? pages : pages.delayElements(pageLatency);
+        });
+    }
+}
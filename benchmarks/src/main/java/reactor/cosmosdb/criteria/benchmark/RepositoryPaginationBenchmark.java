@@ -0,0 +1,101 @@
+package reactor.cosmosdb.criteria.benchmark;
+
+import com.azure.cosmos.CosmosAsyncClient;
+import com.azure.cosmos.models.CosmosQueryRequestOptions;
+import com.azure.cosmos.models.SqlQuerySpec;
+import com.azure.cosmos.util.CosmosPagedFlux;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.cosmosdb.criteria.application.ReactorOperationsCosmosDbRepository;
+import reactor.cosmosdb.criteria.domain.ContainerCosmosDbInfo;
+import reactor.cosmosdb.criteria.domain.CriteriaOperator;
+import reactor.cosmosdb.criteria.domain.CriteriaQuery;
+import reactor.cosmosdb.criteria.domain.ProjectionPaginated;
+import reactor.cosmosdb.criteria.domain.TotalCountResponse;
+import reactor.cosmosdb.criteria.infraestructure.ReactorCosmosDbQueryLauncher;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures findByCriteriaPaginated against an in-memory stand-in of cosmosdb
+ * with a configurable number of pages and latency per page. The total count is launched alongside the page,
+ * as findByCriteriaPaginated does by default, and it takes the latency of one page.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RepositoryPaginationBenchmark {
+    private static final int PAGE_SIZE = 50;
+
+    @Param({"1", "10", "100"})
+    private int pages;
+
+    @Param({"0", "200"})
+    private int pageLatencyMicros;
+
+    private ReactorOperationsCosmosDbRepository<String, String> repository;
+    private ContainerCosmosDbInfo<String> containerInfo;
+    private CriteriaQuery criteria;
+
+    @Setup
+    public void setUp() {
+        Duration pageLatency = Duration.ofNanos(pageLatencyMicros * 1000L);
+        CosmosPagedFlux<String> pagedFlux = InMemoryCosmosPagedFlux.of(pages * PAGE_SIZE, pageLatency, i -> "document" + i);
+        CosmosPagedFlux<TotalCountResponse> countFlux = InMemoryCosmosPagedFlux.of(1, pageLatency, i -> new TotalCountResponse(pages * PAGE_SIZE));
+        repository = new ReactorOperationsCosmosDbRepository<>(new InMemoryQueryLauncher<>(pagedFlux), new InMemoryQueryLauncher<>(countFlux));
+        containerInfo = new ContainerCosmosDbInfo<>("testing", String.class);
+        criteria = BenchmarkCriteria.Builder.builder()
+                .code(CriteriaOperator.EQUALS, List.of("code1"))
+                .build();
+    }
+
+    @Benchmark
+    public ProjectionPaginated<String> firstPage() {
+        return repository.findByCriteriaPaginated(criteria, 0, PAGE_SIZE, containerInfo, String::toUpperCase).block();
+    }
+
+    @Benchmark
+    public ProjectionPaginated<String> lastPage() {
+        return repository.findByCriteriaPaginated(criteria, pages - 1, PAGE_SIZE, containerInfo, String::toUpperCase).block();
+    }
+
+    /**
+     * Launcher that always returns the same in-memory paged flux
+     */
+    static final class InMemoryQueryLauncher<T> implements ReactorCosmosDbQueryLauncher<T> {
+        private final CosmosPagedFlux<T> pagedFlux;
+
+        InMemoryQueryLauncher(CosmosPagedFlux<T> pagedFlux) {
+            this.pagedFlux = pagedFlux;
+        }
+
+        @Override
+        public String getDatabaseName() {
+            return "benchmark";
+        }
+
+        @Override
+        public CosmosAsyncClient getClientAsync() {
+            throw new UnsupportedOperationException("in-memory launcher does not connect to cosmosdb");
+        }
+
+        @Override
+        public CosmosPagedFlux<T> launch(SqlQuerySpec querySpec, String containerName, Class<T> targetClass, CosmosQueryRequestOptions options) {
+            return pagedFlux;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package reactor.cosmosdb.criteria.application;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.cosmosdb.criteria.domain.ContainerCosmosDbInfo;
+import reactor.cosmosdb.criteria.domain.DocumentCodec;
+import reactor.cosmosdb.criteria.domain.FacetResult;
+import reactor.cosmosdb.criteria.domain.PaginatedCriteria;
+import reactor.cosmosdb.criteria.domain.ProjectionPaginated;
+import reactor.cosmosdb.criteria.domain.QueryExecutionOptions;
+import reactor.cosmosdb.criteria.domain.QueryMetricsListener;
+import reactor.cosmosdb.criteria.domain.ResultMapping;
+import reactor.cosmosdb.criteria.domain.TotalCountResponse;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Repository that serves the results of the repository decorated from a {@link QueryResultCache}.
+ * Identical requests launched while the first one is in flight share its query.
+ * Results are keyed by query text, parameters, container and pagination, so the same decorator must map
+ * every container class with the same toEntity function. Projection results are keyed by their projection class too,
+ * and decoded results by their codec instance ({@link ResultMapping#getResultKey()}), so keep the codecs instead of creating them on every call.
+ * Call {@link #invalidateContainer(String)} after writing on a container.
+ * @param <E> : Entity (ej: Testing)
+ * @param <C> : Container (ej: TestingContainer)
+ */
+public class CachingReactorOperationsCosmosDbRepository<E,C> extends ReactorOperationsCosmosDbRepository<E,C> {
+
+    private static final String COUNT_OPERATION = "count";
+    private static final String PAGINATED_OPERATION = "paginated";
+    private static final String PAGE_OPERATION = "page";
+    private static final String KEYSET_OPERATION = "keyset";
+    private static final String EXISTS_OPERATION = "exists";
+    private static final String TOP_OPERATION = "top";
+    private static final String AGGREGATE_OPERATION = "aggregate";
+    private static final String FACET_OPERATION = "facet";
+
+    private final ReactorOperationsCosmosDbRepository<E,C> delegate;
+
+    private final QueryResultCache cache;
+
+    /**
+     * @param delegate : repository that launches the queries not cached
+     * @param cache : cache of the results, it can be shared between repositories
+     */
+    public CachingReactorOperationsCosmosDbRepository(ReactorOperationsCosmosDbRepository<E,C> delegate, QueryResultCache cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    public QueryExecutionOptions getDefaultExecutionOptions() {
+        return delegate.getDefaultExecutionOptions();
+    }
+
+    @Override
+    public void setDefaultExecutionOptions(QueryExecutionOptions defaultExecutionOptions) {
+        delegate.setDefaultExecutionOptions(defaultExecutionOptions);
+    }
+
+    @Override
+    public QueryMetricsListener getMetricsListener() {
+        return delegate.getMetricsListener();
+    }
+
+    @Override
+    public void setMetricsListener(QueryMetricsListener metricsListener) {
+        delegate.setMetricsListener(metricsListener);
+    }
+
+    @Override
+    public SlowQueryLog getSlowQueryLog() {
+        return delegate.getSlowQueryLog();
+    }
+
+    @Override
+    public void setSlowQueryLog(SlowQueryLog slowQueryLog) {
+        delegate.setSlowQueryLog(slowQueryLog);
+    }
+
+    @Override
+    public RequestUnitScheduler getRequestUnitScheduler() {
+        return delegate.getRequestUnitScheduler();
+    }
+
+    @Override
+    public void setRequestUnitScheduler(RequestUnitScheduler requestUnitScheduler) {
+        delegate.setRequestUnitScheduler(requestUnitScheduler);
+    }
+
+    @Override
+    public long getPointReadCount() {
+        return delegate.getPointReadCount();
+    }
+
+    @Override
+    public Mono<TotalCountResponse> findBySelectCountCriteria(PaginatedCriteria criteria, String containerName, QueryExecutionOptions options) {
+        return cache.get(QueryResultCache.key(COUNT_OPERATION, containerName, criteria),
+                () -> delegate.findBySelectCountCriteria(criteria, containerName, options));
+    }
+
+    @Override
+    public <T> Mono<ProjectionPaginated<E>> findByCriteriaPaginated(PaginatedCriteria criteria, int desiredPage, int pageSize, ContainerCosmosDbInfo<C> containerCosmosDbInfo, ResultMapping<T,E> mapping,
+                                                                    QueryExecutionOptions options) {
+        return cache.get(QueryResultCache.key(PAGINATED_OPERATION, containerCosmosDbInfo.getName(), criteria, desiredPage, pageSize, mapping.getResultKey()),
+                () -> delegate.findByCriteriaPaginated(criteria, desiredPage, pageSize, containerCosmosDbInfo, mapping, options));
+    }
+
+    @Override
+    public <R> Mono<List<R>> aggregateByCriteria(PaginatedCriteria criteria, ContainerCosmosDbInfo<C> containerCosmosDbInfo, DocumentCodec<R> codec, QueryExecutionOptions options) {
+        return cache.get(QueryResultCache.key(AGGREGATE_OPERATION, containerCosmosDbInfo.getName(), criteria, codec),
+                () -> delegate.aggregateByCriteria(criteria, containerCosmosDbInfo, codec, options));
+    }
+
+    @Override
+    public Mono<FacetResult> facetByCriteria(PaginatedCriteria criteria, List<String> facetFields, int top, ContainerCosmosDbInfo<C> containerCosmosDbInfo, QueryExecutionOptions options) {
+        return cache.get(QueryResultCache.key(FACET_OPERATION, containerCosmosDbInfo.getName(), criteria, List.copyOf(facetFields), top),
+                () -> delegate.facetByCriteria(criteria, facetFields, top, containerCosmosDbInfo, options));
+    }
+
+    @Override
+    public Mono<Boolean> existsByCriteria(PaginatedCriteria criteria, ContainerCosmosDbInfo<C> containerCosmosDbInfo, QueryExecutionOptions options) {
+        return cache.get(QueryResultCache.key(EXISTS_OPERATION, containerCosmosDbInfo.getName(), criteria),
+                () -> delegate.existsByCriteria(criteria, containerCosmosDbInfo, options));
+    }
+
+    @Override
+    public Mono<List<E>> findTopByCriteria(PaginatedCriteria criteria, int top, ContainerCosmosDbInfo<C> containerCosmosDbInfo, Function<C,E> toEntity, QueryExecutionOptions options) {
+        return cache.get(QueryResultCache.key(TOP_OPERATION, containerCosmosDbInfo.getName(), criteria, top),
+                () -> delegate.findTopByCriteria(criteria, top, containerCosmosDbInfo, toEntity, options));
+    }
+
+    @Override
+    public <T> Mono<ProjectionPaginated<E>> findByCriteriaPage(PaginatedCriteria criteria, String continuationToken, int pageSize, ContainerCosmosDbInfo<C> containerCosmosDbInfo, ResultMapping<T,E> mapping,
+                                                               QueryExecutionOptions options) {
+        return cache.get(QueryResultCache.key(PAGE_OPERATION, containerCosmosDbInfo.getName(), criteria, continuationToken, pageSize, mapping.getResultKey()),
+                () -> delegate.findByCriteriaPage(criteria, continuationToken, pageSize, containerCosmosDbInfo, mapping, options));
+    }
+
+    @Override
+    public <T> Mono<ProjectionPaginated<E>> findByCriteriaKeyset(PaginatedCriteria criteria, int pageSize, ContainerCosmosDbInfo<C> containerCosmosDbInfo, ResultMapping<T,E> mapping,
+                                                                 QueryExecutionOptions options) {
+        return cache.get(QueryResultCache.key(KEYSET_OPERATION, containerCosmosDbInfo.getName(), criteria, pageSize, mapping.getResultKey()),
+                () -> delegate.findByCriteriaKeyset(criteria, pageSize, containerCosmosDbInfo, mapping, options));
+    }
+
+    /**
+     * Streams are never cached
+     */
+    @Override
+    public <T> Flux<E> streamByCriteria(PaginatedCriteria criteria, ContainerCosmosDbInfo<C> containerCosmosDbInfo, ResultMapping<T,E> mapping, QueryExecutionOptions options,
+                                        String continuationToken, Consumer<String> checkpoint) {
+        return delegate.streamByCriteria(criteria, containerCosmosDbInfo, mapping, options, continuationToken, checkpoint);
+    }
+
+    @Override
+    public Mono<TotalCountResponse> countByCriteria(PaginatedCriteria criteria, ContainerCosmosDbInfo<C> containerCosmosDbInfo, QueryExecutionOptions options) {
+        return cache.get(QueryResultCache.key(COUNT_OPERATION, containerCosmosDbInfo.getName(), criteria),
+                () -> delegate.countByCriteria(criteria, containerCosmosDbInfo, options));
+    }
+
+    /**
+     * Evicts every result obtained from the container, call it after writing on it
+     * @param containerName : name of the container
+     */
+    public void invalidateContainer(String containerName) {
+        cache.invalidateContainer(containerName);
+    }
+
+    /**
+     * @return cache of the results, to read its statistics
+     */
+    public QueryResultCache getCache() {
+        return cache;
+    }
+}
@@ -0,0 +1,380 @@
+package reactor.cosmosdb.criteria.application;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.cosmosdb.criteria.domain.ChangeFeedBatch;
+import reactor.cosmosdb.criteria.domain.ChangeFeedSource;
+import reactor.cosmosdb.criteria.domain.ContainerCosmosDbInfo;
+import reactor.cosmosdb.criteria.domain.CriteriaPredicate;
+import reactor.cosmosdb.criteria.domain.CriteriaQuery;
+import reactor.cosmosdb.criteria.domain.DocumentKeys;
+import reactor.cosmosdb.criteria.domain.PaginatedCriteria;
+import reactor.cosmosdb.criteria.domain.TotalCountResponse;
+import reactor.cosmosdb.criteria.domain.exception.AppCriteriaBuilderException;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts of criteria polled constantly kept in memory, so they are read without launching a count query every time.
+ * The count of a criteria is computed once when it is registered, reading the keys of the documents that satisfy it,
+ * and then it is kept up to date evaluating the criteria in memory against every document of the change feed of its container
+ * (see {@link CriteriaPredicate} for the criteria that can be evaluated).
+ * Counts are served from memory while they are fresher than the max staleness, the count query is launched otherwise.
+ * The keys of the documents that satisfy every registered criteria are kept in memory. When the change feed fails it is subscribed again
+ * and the counts of the container are computed again once it has caught up.
+ * The change feed of cosmosdb does not deliver the documents deleted, so a source that does not deliver deletes
+ * (see {@link ChangeFeedSource#deliversDeletes()}) is only accepted when the documents are deleted logically:
+ * they are replaced with an attribute excluded by every registered criteria (and a time to live) instead of being deleted.
+ * @param <C> class of the target container
+ */
+public class MaterializedCounts<C> {
+    private static final String OPERATION = "materializeCount";
+    private static final Duration MIN_RETRY_BACKOFF = Duration.ofSeconds(1);
+    private static final Duration MAX_RETRY_BACKOFF = Duration.ofMinutes(1);
+
+    private final ReactorOperationsCosmosDbRepository<?, C> repository;
+    private final ChangeFeedSource changeFeedSource;
+    private final long maxStalenessNanos;
+    private final boolean logicalDeletes;
+    private final Map<String, ContainerFeed> feeds = new ConcurrentHashMap<>();
+    private final LongAdder materializedReadCount = new LongAdder();
+    private final LongAdder liveReadCount = new LongAdder();
+
+    /**
+     * @param repository : repository used to compute the counts and to launch the count queries when they are not fresh
+     * @param changeFeedSource : source of the changes of the containers
+     * @param maxStaleness : maximum time since a count was known to be up to date to serve it from memory
+     */
+    public MaterializedCounts(ReactorOperationsCosmosDbRepository<?, C> repository, ChangeFeedSource changeFeedSource, Duration maxStaleness) {
+        this(repository, changeFeedSource, maxStaleness, false);
+    }
+
+    /**
+     * @param repository : repository used to compute the counts and to launch the count queries when they are not fresh
+     * @param changeFeedSource : source of the changes of the containers
+     * @param maxStaleness : maximum time since a count was known to be up to date to serve it from memory
+     * @param logicalDeletes : true if the documents are never deleted but replaced with an attribute excluded by the criteria registered,
+     * required when the change feed source does not deliver deletes (ej: CosmosChangeFeedSource)
+     */
+    public MaterializedCounts(ReactorOperationsCosmosDbRepository<?, C> repository, ChangeFeedSource changeFeedSource, Duration maxStaleness, boolean logicalDeletes) {
+        if (maxStaleness.isNegative() || maxStaleness.isZero()) {
+            throw new IllegalArgumentException("maxStaleness must be positive");
+        }
+        this.repository = repository;
+        this.changeFeedSource = changeFeedSource;
+        this.maxStalenessNanos = maxStaleness.toNanos();
+        this.logicalDeletes = logicalDeletes;
+    }
+
+    /**
+     * Registers the criteria and computes its count. The change feed of the container is subscribed with the first criteria registered,
+     * and the count is computed once it has caught up. Registering again the same criteria returns the same count.
+     * It fails with an AppCriteriaBuilderException when the change feed source does not deliver deletes and logical deletes have not been enabled,
+     * because the documents deleted would be counted forever.
+     * @param criteria : criteria generated by a criteria builder that can be evaluated in memory, it fails with an AppCriteriaBuilderException otherwise
+     * @param containerCosmosDbInfo : contains necessary attributes (name of the container and partition key paths) to launch the query against the target container.
+     * Without partition key paths the documents are identified only by their id
+     * @return number of results of the criteria once it has been computed
+     */
+    public Mono<TotalCountResponse> register(PaginatedCriteria criteria, ContainerCosmosDbInfo<C> containerCosmosDbInfo) {
+        if (!this.logicalDeletes && !this.changeFeedSource.deliversDeletes()) {
+            throw new AppCriteriaBuilderException("the change feed source does not deliver the documents deleted, "
+                    + "create the materialized counts with logical deletes when the documents are deleted logically");
+        }
+        CriteriaPredicate predicate = CriteriaPredicate.of(criteria);
+        CriteriaQuery countQuery = criteria.getCriteriaQuery().getCountQuery();
+        DocumentKeys keys = DocumentKeys.of(containerCosmosDbInfo);
+        CriteriaQuery keysQuery = criteria.getCriteriaQuery().getProjectionQuery(keys.getProjection());
+        return Mono.defer(() -> {
+            MaterializedCount count;
+            synchronized (this.feeds) {
+                ContainerFeed feed = this.feeds.get(containerCosmosDbInfo.getName());
+                boolean started = feed != null;
+                if (!started) {
+                    feed = new ContainerFeed(containerCosmosDbInfo.getName());
+                    this.feeds.put(containerCosmosDbInfo.getName(), feed);
+                }
+                count = feed.counts.get(countQuery);
+                if (count == null) {
+                    count = new MaterializedCount(feed, countQuery, containerCosmosDbInfo, predicate, keys, keysQuery);
+                    feed.counts.put(countQuery, count);
+                }
+                if (!started) {
+                    feed.start();
+                }
+            }
+            return count.registration.map(TotalCountResponse::new);
+        });
+    }
+
+    /**
+     * Counts the results of the criteria from memory when it is registered and its count is fresh,
+     * otherwise the count query is launched (see {@link ReactorOperationsCosmosDbRepository#countByCriteria}).
+     * @param criteria : criteria to launch again target container
+     * @param containerCosmosDbInfo : contains necessary attributes (name of the container and partition key paths) to launch the query against the target container
+     * @return number of results of the criteria
+     */
+    public Mono<TotalCountResponse> countByCriteria(PaginatedCriteria criteria, ContainerCosmosDbInfo<C> containerCosmosDbInfo) {
+        return Mono.defer(() -> {
+            MaterializedCount count = find(criteria, containerCosmosDbInfo.getName());
+            if (count != null && count.isFresh(System.nanoTime())) {
+                materializedReadCount.increment();
+                return Mono.just(new TotalCountResponse(count.value));
+            }
+            liveReadCount.increment();
+            return repository.countByCriteria(criteria, containerCosmosDbInfo);
+        });
+    }
+
+    /**
+     * Stops keeping the count of the criteria, the change feed of the container is cancelled with its last criteria
+     * @param criteria : criteria registered
+     * @param containerCosmosDbInfo : target container
+     * @return true if the criteria was registered
+     */
+    public boolean unregister(PaginatedCriteria criteria, ContainerCosmosDbInfo<C> containerCosmosDbInfo) {
+        MaterializedCount count = find(criteria, containerCosmosDbInfo.getName());
+        return count != null && remove(count);
+    }
+
+    /**
+     * Cancels the change feed of every container and forgets every count
+     */
+    public void close() {
+        synchronized (this.feeds) {
+            this.feeds.values().forEach(ContainerFeed::stop);
+            this.feeds.clear();
+        }
+    }
+
+    /**
+     * @return number of counts served from memory
+     */
+    public long getMaterializedReadCount() {
+        return this.materializedReadCount.sum();
+    }
+
+    /**
+     * @return number of counts that have launched the count query, because they were not registered or they were not fresh
+     */
+    public long getLiveReadCount() {
+        return this.liveReadCount.sum();
+    }
+
+    private MaterializedCount find(PaginatedCriteria criteria, String containerName) {
+        ContainerFeed feed = this.feeds.get(containerName);
+        CriteriaQuery countQuery = feed != null ? criteria.getCriteriaQuery().getCountQuery() : null;
+        return countQuery != null ? feed.counts.get(countQuery) : null;
+    }
+
+    private boolean remove(MaterializedCount count) {
+        synchronized (this.feeds) {
+            ContainerFeed feed = count.feed;
+            if (!feed.counts.remove(count.countQuery, count)) {
+                return false;
+            }
+            if (feed.counts.isEmpty() && this.feeds.remove(feed.containerName, feed)) {
+                feed.stop();
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Change feed of a container, applied to every count registered on it
+     */
+    private final class ContainerFeed {
+        private final String containerName;
+        private final Map<CriteriaQuery, MaterializedCount> counts = new ConcurrentHashMap<>();
+        private final Sinks.One<Boolean> ready = Sinks.one();
+        private volatile boolean caughtUp;
+        private volatile long caughtUpAt;
+        private volatile int generation;
+        private Disposable subscription;
+
+        private ContainerFeed(String containerName) {
+            this.containerName = containerName;
+        }
+
+        private void start() {
+            this.subscription = changeFeedSource.changes(this.containerName)
+                    .doOnError(e -> this.fail())
+                    .retryWhen(Retry.backoff(Long.MAX_VALUE, MIN_RETRY_BACKOFF).maxBackoff(MAX_RETRY_BACKOFF))
+                    .subscribe(this::apply);
+        }
+
+        private void stop() {
+            this.caughtUp = false;
+            if (this.subscription != null) {
+                this.subscription.dispose();
+            }
+        }
+
+        private void apply(ChangeFeedBatch batch) {
+            for (MaterializedCount count : this.counts.values()) {
+                count.apply(batch);
+            }
+            if (!batch.isCaughtUp()) {
+                return;
+            }
+            this.caughtUpAt = System.nanoTime();
+            this.caughtUp = true;
+            this.ready.tryEmitValue(Boolean.TRUE);
+            for (MaterializedCount count : this.counts.values()) {
+                if (count.needsLoad()) {
+                    count.load().subscribe(value -> { }, e -> { });
+                }
+            }
+        }
+
+        /**
+         * changes may have been lost, so every count is computed again once the feed has caught up again
+         */
+        private void fail() {
+            this.caughtUp = false;
+            this.generation++;
+            for (MaterializedCount count : this.counts.values()) {
+                count.invalidate();
+            }
+        }
+    }
+
+    /**
+     * Keys of the documents that satisfy a criteria, loaded with a query and kept up to date with the change feed.
+     * The changes received while the keys are being loaded are applied once they have been loaded
+     */
+    private final class MaterializedCount {
+        private final ContainerFeed feed;
+        private final CriteriaQuery countQuery;
+        private final ContainerCosmosDbInfo<C> containerCosmosDbInfo;
+        private final CriteriaPredicate predicate;
+        private final DocumentKeys keys;
+        private final CriteriaQuery keysQuery;
+        private final Mono<Integer> registration;
+        private Set<String> matchingKeys = new HashSet<>();
+        private List<ChangeFeedBatch> pendingBatches;
+        private boolean loaded;
+        private boolean stale = true;
+        private volatile int value;
+        private volatile long loadedAt;
+        private volatile boolean fresh;
+
+        private MaterializedCount(ContainerFeed feed, CriteriaQuery countQuery, ContainerCosmosDbInfo<C> containerCosmosDbInfo, CriteriaPredicate predicate,
+                                  DocumentKeys keys, CriteriaQuery keysQuery) {
+            this.feed = feed;
+            this.countQuery = countQuery;
+            this.containerCosmosDbInfo = containerCosmosDbInfo;
+            this.predicate = predicate;
+            this.keys = keys;
+            this.keysQuery = keysQuery;
+            this.registration = feed.ready.asMono()
+                    .then(this.load())
+                    .doOnError(e -> remove(this))
+                    .cache();
+        }
+
+        private Mono<Integer> load() {
+            return Mono.defer(() -> {
+                int generation = this.feed.generation;
+                boolean trusted = this.feed.caughtUp;
+                synchronized (this) {
+                    this.pendingBatches = new ArrayList<>();
+                }
+                Set<String> loadedKeys = new HashSet<>();
+                return repository.streamRows(OPERATION, this.keysQuery, this.containerCosmosDbInfo, null)
+                        .doOnNext(row -> this.addKey(loadedKeys, row))
+                        .then(Mono.fromSupplier(() -> this.loaded(loadedKeys, trusted && generation == this.feed.generation)))
+                        .doOnError(e -> this.loadFailed());
+            });
+        }
+
+        private void addKey(Set<String> loadedKeys, JsonNode row) {
+            String key = this.keys.ofRow(row);
+            if (key != null) {
+                loadedKeys.add(key);
+            }
+        }
+
+        /**
+         * @param trusted : false when the change feed has failed during the load, so changes may have been lost and it must be loaded again
+         */
+        private synchronized int loaded(Set<String> loadedKeys, boolean trusted) {
+            this.matchingKeys = loadedKeys;
+            for (ChangeFeedBatch batch : this.pendingBatches) {
+                this.applyChanges(batch);
+            }
+            this.pendingBatches = null;
+            this.value = this.matchingKeys.size();
+            this.loaded = true;
+            this.stale = !trusted;
+            this.loadedAt = System.nanoTime();
+            this.fresh = trusted;
+            return this.value;
+        }
+
+        private synchronized void loadFailed() {
+            this.pendingBatches = null;
+            this.stale = true;
+            this.fresh = false;
+        }
+
+        private synchronized void apply(ChangeFeedBatch batch) {
+            if (this.pendingBatches != null) {
+                this.pendingBatches.add(batch);
+            } else if (!this.stale) {
+                this.applyChanges(batch);
+            }
+        }
+
+        private void applyChanges(ChangeFeedBatch batch) {
+            for (JsonNode document : batch.getDocuments()) {
+                String key = this.keys.ofDocument(document);
+                if (key == null) {
+                    continue;
+                }
+                if (this.predicate.test(document)) {
+                    this.matchingKeys.add(key);
+                } else {
+                    this.matchingKeys.remove(key);
+                }
+            }
+            for (JsonNode document : batch.getDeletedDocuments()) {
+                String key = this.keys.ofDocument(document);
+                if (key != null) {
+                    this.matchingKeys.remove(key);
+                }
+            }
+            this.value = this.matchingKeys.size();
+        }
+
+        /**
+         * the count is not served from memory until it is loaded again
+         */
+        private synchronized void invalidate() {
+            this.stale = true;
+            this.fresh = false;
+        }
+
+        /**
+         * @return true if the count has been registered, it is stale and it is not being loaded
+         */
+        private synchronized boolean needsLoad() {
+            return this.loaded && this.stale && this.pendingBatches == null;
+        }
+
+        private boolean isFresh(long now) {
+            return this.fresh && this.feed.caughtUp
+                    && (now - this.loadedAt <= maxStalenessNanos || now - this.feed.caughtUpAt <= maxStalenessNanos);
+        }
+    }
+}
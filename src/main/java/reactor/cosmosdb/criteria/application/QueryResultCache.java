@@ -0,0 +1,220 @@
+package reactor.cosmosdb.criteria.application;
+
+import com.azure.cosmos.models.SqlQuerySpec;
+import reactor.core.publisher.Mono;
+import reactor.cosmosdb.criteria.domain.PaginatedCriteria;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of query results with a time to live.
+ * Concurrent requests of the same key share a single upstream query, whose result is cached when it succeeds.
+ * Failed queries are never cached.
+ */
+public class QueryResultCache {
+    private final int maxEntries;
+    private final long timeToLiveNanos;
+    private final Map<Key, CachedResult> entries;
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    /**
+     * @param maxEntries : maximum number of results kept in memory, the least recently used one is evicted when it is full
+     * @param timeToLive : time a result is served from memory since it was obtained
+     */
+    public QueryResultCache(int maxEntries, Duration timeToLive) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be greater than 0");
+        }
+        if (timeToLive.isNegative() || timeToLive.isZero()) {
+            throw new IllegalArgumentException("timeToLive must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.timeToLiveNanos = timeToLive.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, CachedResult> eldest) {
+                boolean full = size() > QueryResultCache.this.maxEntries;
+                if (full) {
+                    evictionCount.incrementAndGet();
+                }
+                return full;
+            }
+        };
+    }
+
+    /**
+     * @param operation : name of the repository operation
+     * @param containerName : name of the target container
+     * @param criteria : criteria launched
+     * @param pagination : page or continuation token, page size and any other argument that changes the result
+     * @return key of the result
+     */
+    public static Key key(String operation, String containerName, PaginatedCriteria criteria, Object... pagination) {
+        SqlQuerySpec querySpec = criteria.getQuerySpec();
+        return new Key(operation, containerName, querySpec.getQueryText(), querySpec.getParameters(), Arrays.asList(pagination));
+    }
+
+    /**
+     * @param key : key of the result
+     * @param loader : launches the upstream query when the result is not cached nor in flight
+     * @return cached result, the one of the query in flight for the same key, or a new query
+     */
+    @SuppressWarnings("unchecked")
+    public <R> Mono<R> get(Key key, Supplier<Mono<R>> loader) {
+        return Mono.defer(() -> {
+            CachedResult entry;
+            synchronized (entries) {
+                entry = entries.get(key);
+                if (entry != null && entry.isExpired(System.nanoTime())) {
+                    entries.remove(key);
+                    evictionCount.incrementAndGet();
+                    entry = null;
+                }
+                if (entry != null) {
+                    hitCount.incrementAndGet();
+                } else {
+                    missCount.incrementAndGet();
+                    entry = new CachedResult();
+                    CachedResult created = entry;
+                    entry.response = loader.get()
+                            .doOnSuccess(value -> created.expiresAt = System.nanoTime() + timeToLiveNanos)
+                            .doOnError(e -> remove(key, created))
+                            .cache(value -> Duration.ofNanos(timeToLiveNanos), e -> Duration.ZERO, () -> Duration.ZERO);
+                    entries.put(key, entry);
+                }
+            }
+            return (Mono<R>) entry.response;
+        });
+    }
+
+    /**
+     * Evicts every result obtained from the container, call it after writing on it
+     * @param containerName : name of the container
+     */
+    public void invalidateContainer(String containerName) {
+        synchronized (entries) {
+            Iterator<Key> keys = entries.keySet().iterator();
+            while (keys.hasNext()) {
+                if (keys.next().containerName.equals(containerName)) {
+                    keys.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * Evicts every result
+     */
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * @return number of results kept in memory, including the ones in flight
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * @return number of requests served from memory or from a query in flight
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * @return number of requests that launched a new query
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * @return number of results evicted because the cache was full or they expired
+     */
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    /**
+     * @return ratio of requests served without launching a new query, 0 when there are no requests yet
+     */
+    public double getHitRatio() {
+        long hits = hitCount.get();
+        long total = hits + missCount.get();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    private void remove(Key key, CachedResult entry) {
+        synchronized (entries) {
+            entries.remove(key, entry);
+        }
+    }
+
+    private static final class CachedResult {
+        private Mono<?> response;
+        private volatile long expiresAt = Long.MAX_VALUE;
+
+        private boolean isExpired(long now) {
+            return expiresAt != Long.MAX_VALUE && now - expiresAt >= 0;
+        }
+    }
+
+    /**
+     * Identifies a result by operation, container, query text, parameters and pagination
+     */
+    public static final class Key {
+        private final String operation;
+        private final String containerName;
+        private final String queryText;
+        private final List<?> parameters;
+        private final List<Object> pagination;
+        private final int hash;
+
+        private Key(String operation, String containerName, String queryText, List<?> parameters, List<Object> pagination) {
+            this.operation = operation;
+            this.containerName = containerName;
+            this.queryText = queryText;
+            this.parameters = parameters;
+            this.pagination = pagination;
+            this.hash = Objects.hash(operation, containerName, queryText, parameters, pagination);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key that = (Key) o;
+            return hash == that.hash
+                    && operation.equals(that.operation)
+                    && containerName.equals(that.containerName)
+                    && queryText.equals(that.queryText)
+                    && parameters.equals(that.parameters)
+                    && pagination.equals(that.pagination);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
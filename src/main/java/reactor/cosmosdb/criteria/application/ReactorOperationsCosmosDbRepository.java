@@ -1,9 +1,42 @@
 package reactor.cosmosdb.criteria.application;
 
+import com.azure.cosmos.ConsistencyLevel;
+import com.azure.cosmos.CosmosException;
+import com.azure.cosmos.models.CosmosItemIdentity;
+import com.azure.cosmos.models.CosmosQueryRequestOptions;
 import com.azure.cosmos.models.FeedResponse;
+import com.azure.cosmos.models.PartitionKey;
+import com.azure.cosmos.models.SqlQuerySpec;
 import com.azure.cosmos.util.CosmosPagedFlux;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+import reactor.cosmosdb.criteria.domain.Aggregation;
+import reactor.cosmosdb.criteria.domain.BatchItemResult;
+import reactor.cosmosdb.criteria.domain.BatchOptions;
+import reactor.cosmosdb.criteria.domain.BatchResult;
+import reactor.cosmosdb.criteria.domain.ContinuationTokenCodec;
+import reactor.cosmosdb.criteria.domain.DocumentCodec;
+import reactor.cosmosdb.criteria.domain.FacetResult;
+import reactor.cosmosdb.criteria.domain.FacetValue;
+import reactor.cosmosdb.criteria.domain.CriteriaQuery;
+import reactor.cosmosdb.criteria.domain.KeysetOrder;
+import reactor.cosmosdb.criteria.domain.PageMetrics;
+import reactor.cosmosdb.criteria.domain.PartitionKeyRouting;
+import reactor.cosmosdb.criteria.domain.PointReadRouting;
+import reactor.cosmosdb.criteria.domain.QueryExecutionMetrics;
+import reactor.cosmosdb.criteria.domain.QueryExecutionOptions;
+import reactor.cosmosdb.criteria.domain.QueryMetricsListener;
+import reactor.cosmosdb.criteria.domain.QueryShape;
+import reactor.cosmosdb.criteria.domain.QueryStatistics;
+import reactor.cosmosdb.criteria.domain.ResultMapping;
+import reactor.cosmosdb.criteria.domain.TotalCountMode;
 import reactor.cosmosdb.criteria.domain.TotalCountResponse;
 import reactor.cosmosdb.criteria.domain.exception.AppCriteriaBuilderException;
 import reactor.cosmosdb.criteria.infraestructure.ReactorCosmosDbQueryLauncher;
@@ -11,8 +44,17 @@ import reactor.cosmosdb.criteria.domain.ContainerCosmosDbInfo;
 import reactor.cosmosdb.criteria.domain.PaginatedCriteria;
 import reactor.cosmosdb.criteria.domain.ProjectionPaginated;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 
@@ -23,10 +65,31 @@ import java.util.stream.Collectors;
  */
 public class ReactorOperationsCosmosDbRepository<E,C> {
 
+    private static final int DEFAULT_MAX_PARTITION_QUERY_CONCURRENCY = 4;
+
+    private static final int DEFAULT_STREAM_PAGE_SIZE = 100;
+
+    private static final ObjectMapper KEYSET_MAPPER = new ObjectMapper().registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private static final QueryExecutionOptions APPROXIMATE_COUNT_OPTIONS = QueryExecutionOptions.builder()
+            .consistencyLevel(ConsistencyLevel.EVENTUAL)
+            .build();
+
     private ReactorCosmosDbQueryLauncher<C> queryLauncher;
 
     private ReactorCosmosDbQueryLauncher<TotalCountResponse> queryCountLauncher;
 
+    private QueryExecutionOptions defaultExecutionOptions = QueryExecutionOptions.defaults();
+
+    private QueryMetricsListener metricsListener = QueryMetricsListener.NOOP;
+
+    private SlowQueryLog slowQueryLog;
+
+    private RequestUnitScheduler requestUnitScheduler;
+
+    private final LongAdder pointReadCount = new LongAdder();
+
     public ReactorOperationsCosmosDbRepository() {
     }
 
@@ -38,6 +101,69 @@ public class ReactorOperationsCosmosDbRepository<E,C> {
         this.queryCountLauncher = queryCountLauncher;
     }
 
+    /**
+     * @return options used to launch every query, unless they are overridden on each call
+     */
+    public QueryExecutionOptions getDefaultExecutionOptions() {
+        return this.defaultExecutionOptions;
+    }
+
+    /**
+     * @param defaultExecutionOptions : options used to launch every query, unless they are overridden on each call
+     */
+    public void setDefaultExecutionOptions(QueryExecutionOptions defaultExecutionOptions) {
+        this.defaultExecutionOptions = defaultExecutionOptions != null ? defaultExecutionOptions : QueryExecutionOptions.defaults();
+    }
+
+    /**
+     * @return listener that receives the metrics of every query launched
+     */
+    public QueryMetricsListener getMetricsListener() {
+        return this.metricsListener;
+    }
+
+    /**
+     * @param metricsListener : listener that receives the metrics of every query launched, null to stop collecting metrics
+     */
+    public void setMetricsListener(QueryMetricsListener metricsListener) {
+        this.metricsListener = metricsListener != null ? metricsListener : QueryMetricsListener.NOOP;
+    }
+
+    /**
+     * @return log of the slow queries, null when it is disabled
+     */
+    public SlowQueryLog getSlowQueryLog() {
+        return this.slowQueryLog;
+    }
+
+    /**
+     * @param slowQueryLog : log where the slow queries are captured, null to disable it
+     */
+    public void setSlowQueryLog(SlowQueryLog slowQueryLog) {
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    /**
+     * @return scheduler that admits the queries launched, null when they are launched at once
+     */
+    public RequestUnitScheduler getRequestUnitScheduler() {
+        return this.requestUnitScheduler;
+    }
+
+    /**
+     * @param requestUnitScheduler : scheduler that admits the queries launched by the request units available on their container, null to launch them at once
+     */
+    public void setRequestUnitScheduler(RequestUnitScheduler requestUnitScheduler) {
+        this.requestUnitScheduler = requestUnitScheduler;
+    }
+
+    /**
+     * @return number of criteria that have been read directly (point read or read many) instead of launching a query
+     */
+    public long getPointReadCount() {
+        return this.pointReadCount.sum();
+    }
+
     /**
      *
      * @param criteria : criteria to launch again target container
@@ -45,15 +171,32 @@ public class ReactorOperationsCosmosDbRepository<E,C> {
      * @return
      */
     public Mono<TotalCountResponse> findBySelectCountCriteria(PaginatedCriteria criteria,String containerName){
+        return findBySelectCountCriteria(criteria, containerName, QueryExecutionOptions.defaults());
+    }
+
+    /**
+     *
+     * @param criteria : criteria to launch again target container
+     * @param containerName : name of the target container
+     * @param options : options to launch the query, the ones not set are taken from the default execution options
+     * @return
+     */
+    public Mono<TotalCountResponse> findBySelectCountCriteria(PaginatedCriteria criteria,String containerName,QueryExecutionOptions options){
         if(!criteria.isCountQuery()){
             throw new AppCriteriaBuilderException("the criteria provided does not have countQuery enabled, please enabled it with selectCount() method");
         }
-        CosmosPagedFlux<TotalCountResponse> dbResponse = queryCountLauncher.launch(criteria.getQuerySentence(),containerName,TotalCountResponse.class);
-        return dbResponse.collectList().map(a-> !a.isEmpty() ? a.get(0) : new TotalCountResponse(0));
+        QueryExecutionOptions executionOptions = resolveOptions(options);
+        return execute("findBySelectCountCriteria", criteria, containerName, executionOptions, () -> {
+            CosmosPagedFlux<TotalCountResponse> dbResponse = queryCountLauncher.launch(criteria.getQuerySpec(),containerName,TotalCountResponse.class,executionOptions);
+            return withTimeout(QueryStatistics.record(dbResponse.byPage())
+                    .flatMapIterable(FeedResponse::getResults)
+                    .collectList().map(a-> !a.isEmpty() ? a.get(0) : new TotalCountResponse(0)), executionOptions);
+        });
     }
 
     /**
-     *
+     * totalResult is calculated with a count query launched at the same time than the page,
+     * unless another totalCountMode is set on the execution options.
      * @param criteria : criteria to launch again target container
      * @param desiredPage : desired page that you want to ask for
      * @param pageSize : size of the result you want to retrieve
@@ -62,33 +205,948 @@ public class ReactorOperationsCosmosDbRepository<E,C> {
      * @return
      */
     public Mono<ProjectionPaginated<E>> findByCriteriaPaginated(PaginatedCriteria criteria, int desiredPage, int pageSize, ContainerCosmosDbInfo<C> containerCosmosDbInfo, Function<C,E> toEntity) {
-        CosmosPagedFlux<C> pagedIterable = queryLauncher
-                .launch(criteria.getQuerySentence(), containerCosmosDbInfo.getName(), containerCosmosDbInfo.getContainerClass());
+        return findByCriteriaPaginated(criteria, desiredPage, pageSize, containerCosmosDbInfo, ResultMapping.toEntity(toEntity), QueryExecutionOptions.defaults());
+    }
+
+    /**
+     * See findByCriteriaPaginated with a ResultMapping
+     */
+    public Mono<ProjectionPaginated<E>> findByCriteriaPaginated(PaginatedCriteria criteria, int desiredPage, int pageSize, ContainerCosmosDbInfo<C> containerCosmosDbInfo, Function<C,E> toEntity, QueryExecutionOptions options) {
+        return findByCriteriaPaginated(criteria, desiredPage, pageSize, containerCosmosDbInfo, ResultMapping.toEntity(toEntity), options);
+    }
+
+    /**
+     * See findByCriteriaPaginated with a ResultMapping
+     */
+    public <T> Mono<ProjectionPaginated<E>> findByCriteriaPaginated(PaginatedCriteria criteria, int desiredPage, int pageSize, ContainerCosmosDbInfo<C> containerCosmosDbInfo, ResultMapping<T,E> mapping) {
+        return findByCriteriaPaginated(criteria, desiredPage, pageSize, containerCosmosDbInfo, mapping, QueryExecutionOptions.defaults());
+    }
+
+    /**
+     * totalResult is calculated with a count query launched at the same time than the page,
+     * unless another totalCountMode is set on the execution options.
+     * @param criteria : criteria to launch again target container
+     * @param desiredPage : desired page that you want to ask for
+     * @param pageSize : size of the result you want to retrieve
+     * @param containerCosmosDbInfo : contains necessary attributes (name of the container, class type and partition key paths) to launch the query against the target container
+     * @param mapping : how the results are received and mapped to the entity (whole documents, a projection class or a codec)
+     * @param options : options to launch the query, the ones not set are taken from the default execution options
+     * @return
+     */
+    public <T> Mono<ProjectionPaginated<E>> findByCriteriaPaginated(PaginatedCriteria criteria, int desiredPage, int pageSize, ContainerCosmosDbInfo<C> containerCosmosDbInfo, ResultMapping<T,E> mapping,
+                                                                    QueryExecutionOptions options) {
+        QueryExecutionOptions executionOptions = resolveOptions(options);
+        return execute("findByCriteriaPaginated", criteria, containerCosmosDbInfo.getName(), executionOptions, () -> {
+            List<CosmosItemIdentity> identities = resolvePointReads(criteria, containerCosmosDbInfo, mapping, executionOptions);
+            if (!identities.isEmpty()) {
+                return withTimeout(readItems(identities, containerCosmosDbInfo, executionOptions)
+                        .map(results -> toProjection(results, desiredPage, pageSize, containerMapper(mapping))), executionOptions);
+            }
+            return paginate(criteria, desiredPage, pageSize, containerCosmosDbInfo, resultClassOf(mapping, containerCosmosDbInfo), mapping.getMapper(), executionOptions);
+        });
+    }
+
+    private <T> Mono<ProjectionPaginated<E>> paginate(PaginatedCriteria criteria, int desiredPage, int pageSize, ContainerCosmosDbInfo<C> containerCosmosDbInfo, Class<T> resultClass,
+                                                      Function<T,E> toEntity, QueryExecutionOptions executionOptions) {
+        TotalCountMode totalCountMode = executionOptions.getTotalCountModeOrDefault();
+        CriteriaQuery countQuery = criteria.getCriteriaQuery().getCountQuery();
+        if (totalCountMode != TotalCountMode.SKIP && countQuery == null) {
+            return withTimeout(findPages(criteria, pageSize, containerCosmosDbInfo, resultClass, executionOptions)
+                    .reduceWith(() -> new PageAccumulator<T>(desiredPage), PageAccumulator::accumulate)
+                    .map(accumulator -> accumulator.toProjection(toEntity)), executionOptions);
+        }
+        Mono<PageAccumulator<T>> page = findPages(criteria, pageSize, containerCosmosDbInfo, resultClass, executionOptions)
+                .take(desiredPage + 2L)
+                .reduceWith(() -> new PageAccumulator<T>(desiredPage), PageAccumulator::accumulate);
+        switch (totalCountMode) {
+            case SKIP:
+                return withTimeout(page.map(accumulator -> accumulator.toProjection(toEntity, 0)), executionOptions);
+            case APPROXIMATE:
+                return withTimeout(Mono.zip(page, countResults(countQuery, containerCosmosDbInfo, APPROXIMATE_COUNT_OPTIONS.withDefaults(executionOptions)))
+                        .map(response -> response.getT1().toProjection(toEntity, response.getT2().getTotalCount())), executionOptions);
+            default:
+                return withTimeout(Mono.zip(page, countResults(countQuery, containerCosmosDbInfo, executionOptions))
+                        .map(response -> response.getT1().toProjection(toEntity, response.getT2().getTotalCount())), executionOptions);
+        }
+    }
+
+    /**
+     * Launches a batch of criteria against the same container, at most 4 at the same time.
+     * @param criteria : criteria to launch again target container
+     * @param desiredPage : desired page that you want to ask for on every criteria
+     * @param pageSize : size of the result you want to retrieve on every criteria
+     * @param containerCosmosDbInfo : contains necessary attributes (name of the container and class type ) to launch the query against the target container
+     * @param toEntity : entity where mapping the results obtained
+     * @return result of every criteria in the same order they are provided
+     */
+    public Mono<BatchResult<E>> findByCriteriaPaginatedBatch(List<? extends PaginatedCriteria> criteria, int desiredPage, int pageSize, ContainerCosmosDbInfo<C> containerCosmosDbInfo, Function<C,E> toEntity) {
+        return findByCriteriaPaginatedBatch(criteria, desiredPage, pageSize, containerCosmosDbInfo, toEntity, BatchOptions.defaults());
+    }
+
+    /**
+     * Launches a batch of criteria against the same container with a limit of criteria launched at the same time.
+     * The failure of a criteria does not fail the batch, it is reported on its own result.
+     * Identical criteria (same query and parameters) are launched only once and share the same result.
+     * @param criteria : criteria to launch again target container
+     * @param desiredPage : desired page that you want to ask for on every criteria
+     * @param pageSize : size of the result you want to retrieve on every criteria
+     * @param containerCosmosDbInfo : contains necessary attributes (name of the container and class type ) to launch the query against the target container
+     * @param toEntity : entity where mapping the results obtained
+     * @param batchOptions : concurrency, priority and execution options of the batch
+     * @return result of every criteria in the same order they are provided
+     */
+    public Mono<BatchResult<E>> findByCriteriaPaginatedBatch(List<? extends PaginatedCriteria> criteria, int desiredPage, int pageSize, ContainerCosmosDbInfo<C> containerCosmosDbInfo, Function<C,E> toEntity, BatchOptions batchOptions) {
+        return Mono.defer(() -> {
+            long startedAt = System.nanoTime();
+            int[] launchedIndexes = new int[criteria.size()];
+            List<Integer> criteriaToLaunch = new ArrayList<>(criteria.size());
+            Map<QueryResultCache.Key, Integer> indexesByQuery = new HashMap<>();
+            for (int i = 0; i < criteria.size(); i++) {
+                Integer launchedIndex = indexesByQuery.putIfAbsent(QueryResultCache.key("batch", containerCosmosDbInfo.getName(), criteria.get(i)), i);
+                launchedIndexes[i] = launchedIndex != null ? launchedIndex : i;
+                if (launchedIndex == null) {
+                    criteriaToLaunch.add(i);
+                }
+            }
+            if (batchOptions.getPriority() != null) {
+                criteriaToLaunch.sort(Comparator.comparingInt((Integer i) -> batchOptions.getPriority().applyAsInt(criteria.get(i))).reversed());
+            }
+            return Flux.fromIterable(criteriaToLaunch)
+                    .flatMap(i -> findBatchItem(criteria.get(i), desiredPage, pageSize, containerCosmosDbInfo, toEntity, batchOptions.getExecutionOptions())
+                            .map(result -> Map.entry(i, result)), batchOptions.getMaxConcurrency())
+                    .collectMap(Map.Entry::getKey, Map.Entry::getValue)
+                    .map(resultsByIndex -> {
+                        List<BatchItemResult<E>> results = new ArrayList<>(criteria.size());
+                        for (int i = 0; i < criteria.size(); i++) {
+                            BatchItemResult<E> result = resultsByIndex.get(launchedIndexes[i]);
+                            results.add(launchedIndexes[i] == i ? result : result.duplicatedFor(criteria.get(i)));
+                        }
+                        return new BatchResult<>(results, Duration.ofNanos(System.nanoTime() - startedAt));
+                    });
+        });
+    }
+
+    /**
+     * @return result of one criteria of a batch with its cost, it never fails
+     */
+    private Mono<BatchItemResult<E>> findBatchItem(PaginatedCriteria criteria, int desiredPage, int pageSize, ContainerCosmosDbInfo<C> containerCosmosDbInfo, Function<C,E> toEntity, QueryExecutionOptions options) {
+        QueryStatistics statistics = new QueryStatistics();
+        return Mono.defer(() -> {
+            long startedAt = System.nanoTime();
+            return Mono.defer(() -> findByCriteriaPaginated(criteria, desiredPage, pageSize, containerCosmosDbInfo, toEntity, options))
+                    .map(result -> BatchItemResult.success(criteria, result, statistics.getRequestCharge(), Duration.ofNanos(System.nanoTime() - startedAt)))
+                    .onErrorResume(e -> Mono.just(BatchItemResult.failure(criteria, e, statistics.getRequestCharge(), Duration.ofNanos(System.nanoTime() - startedAt))));
+        }).contextWrite(Context.of(QueryStatistics.class, statistics));
+    }
+
+    /**
+     * Streams every result of the criteria, reading the pages from cosmosdb as they are demanded by the subscriber.
+     * @param criteria : criteria to launch again target container
+     * @param containerCosmosDbInfo : contains necessary attributes (name of the container and class type ) to launch the query against the target container
+     * @param toEntity : entity where mapping the results obtained
+     * @return results of the criteria
+     */
+    public Flux<E> streamByCriteria(PaginatedCriteria criteria, ContainerCosmosDbInfo<C> containerCosmosDbInfo, Function<C,E> toEntity) {
+        return streamByCriteria(criteria, containerCosmosDbInfo, ResultMapping.toEntity(toEntity), QueryExecutionOptions.defaults(), null, null);
+    }
+
+    /**
+     * See streamByCriteria with a ResultMapping
+     */
+    public Flux<E> streamByCriteria(PaginatedCriteria criteria, ContainerCosmosDbInfo<C> containerCosmosDbInfo, Function<C,E> toEntity, QueryExecutionOptions options) {
+        return streamByCriteria(criteria, containerCosmosDbInfo, ResultMapping.toEntity(toEntity), options, null, null);
+    }
+
+    /**
+     * See streamByCriteria with a ResultMapping
+     */
+    public Flux<E> streamByCriteria(PaginatedCriteria criteria, ContainerCosmosDbInfo<C> containerCosmosDbInfo, Function<C,E> toEntity, QueryExecutionOptions options,
+                                    String continuationToken, Consumer<String> checkpoint) {
+        return streamByCriteria(criteria, containerCosmosDbInfo, ResultMapping.toEntity(toEntity), options, continuationToken, checkpoint);
+    }
+
+    /**
+     * See streamByCriteria with a ResultMapping
+     */
+    public <T> Flux<E> streamByCriteria(PaginatedCriteria criteria, ContainerCosmosDbInfo<C> containerCosmosDbInfo, ResultMapping<T,E> mapping) {
+        return streamByCriteria(criteria, containerCosmosDbInfo, mapping, QueryExecutionOptions.defaults(), null, null);
+    }
+
+    /**
+     * Streams every result of the criteria, reading the pages from cosmosdb as they are demanded by the subscriber.
+     * Only the page being emitted and the next one are kept in memory. The end to end timeout is not applied to streams.
+     * A checkpoint is emitted every time the last result of a page has been delivered, so a stream that fails can be
+     * resumed from the last checkpoint received without delivering again the results of the previous pages.
+     * @param criteria : criteria to launch again target container
+     * @param containerCosmosDbInfo : contains necessary attributes (name of the container, class type and partition key paths) to launch the query against the target container
+     * @param mapping : how the results are received and mapped to the entity (whole documents, a projection class or a codec)
+     * @param options : options to launch the query, maxItemCount is the size of the pages read (100 by default)
+     * @param continuationToken : checkpoint to resume the stream from, null or empty to start from the first result
+     * @param checkpoint : receives the token to resume the stream after every page delivered, null when the stream has completed. It can be null
+     * @return results of the criteria
+     */
+    public <T> Flux<E> streamByCriteria(PaginatedCriteria criteria, ContainerCosmosDbInfo<C> containerCosmosDbInfo, ResultMapping<T,E> mapping, QueryExecutionOptions options,
+                                        String continuationToken, Consumer<String> checkpoint) {
+        QueryExecutionOptions executionOptions = resolveOptions(options);
+        return executeStream("streamByCriteria", criteria, containerCosmosDbInfo.getName(), executionOptions, () -> Flux.defer(() -> {
+            String cosmosContinuationToken = ContinuationTokenCodec.decode(continuationToken);
+            List<CosmosItemIdentity> identities = cosmosContinuationToken == null
+                    ? resolvePointReads(criteria, containerCosmosDbInfo, mapping, executionOptions)
+                    : List.of();
+            if (!identities.isEmpty()) {
+                Flux<E> results = readItems(identities, containerCosmosDbInfo, executionOptions).flatMapIterable(Function.identity()).map(containerMapper(mapping));
+                return checkpoint == null ? results : results.concatWith(Mono.fromRunnable(() -> checkpoint.accept(null)));
+            }
+            return stream(criteria, containerCosmosDbInfo, resultClassOf(mapping, containerCosmosDbInfo), mapping.getMapper(), executionOptions, cosmosContinuationToken, checkpoint);
+        }));
+    }
+
+    private <T> Flux<E> stream(PaginatedCriteria criteria, ContainerCosmosDbInfo<C> containerCosmosDbInfo, Class<T> resultClass, Function<T,E> toEntity, QueryExecutionOptions executionOptions,
+                               String cosmosContinuationToken, Consumer<String> checkpoint) {
+        Flux<FeedResponse<T>> pages = QueryStatistics.record(launch(criteria, containerCosmosDbInfo, resultClass, executionOptions)
+                .byPage(cosmosContinuationToken, executionOptions.getMaxItemCountOrDefault(DEFAULT_STREAM_PAGE_SIZE)));
+        if (checkpoint == null) {
+            return pages.concatMapIterable(FeedResponse::getResults, 1).map(toEntity);
+        }
+        return pages.concatMap(page -> Flux.fromIterable(page.getResults())
+                .map(toEntity)
+                .concatWith(Mono.fromRunnable(() -> checkpoint.accept(ContinuationTokenCodec.encode(page.getContinuationToken())))), 1);
+    }
+
+    /**
+     * Counts the results of a criteria with the count query derived by the criteria builder.
+     * The query is not launched until the response is subscribed, so it can be composed only when the total is needed.
+     * @param criteria : criteria to launch again target container
+     * @param containerCosmosDbInfo : contains necessary attributes (name of the container and class type ) to launch the query against the target container
+     * @return number of results of the criteria
+     */
+    public Mono<TotalCountResponse> countByCriteria(PaginatedCriteria criteria, ContainerCosmosDbInfo<C> containerCosmosDbInfo) {
+        return countByCriteria(criteria, containerCosmosDbInfo, QueryExecutionOptions.defaults());
+    }
+
+    /**
+     * Counts the results of a criteria with the count query derived by the criteria builder.
+     * The query is not launched until the response is subscribed, so it can be composed only when the total is needed.
+     * @param criteria : criteria to launch again target container
+     * @param containerCosmosDbInfo : contains necessary attributes (name of the container and class type ) to launch the query against the target container
+     * @param options : options to launch the query, the ones not set are taken from the default execution options
+     * @return number of results of the criteria
+     */
+    public Mono<TotalCountResponse> countByCriteria(PaginatedCriteria criteria, ContainerCosmosDbInfo<C> containerCosmosDbInfo, QueryExecutionOptions options) {
+        return Mono.defer(() -> {
+            CriteriaQuery countQuery = criteria.getCriteriaQuery().getCountQuery();
+            if (countQuery == null) {
+                return Mono.error(new AppCriteriaBuilderException("the criteria provided does not have a count query, please build it with a criteria builder or use findBySelectCountCriteria"));
+            }
+            QueryExecutionOptions executionOptions = resolveOptions(options);
+            return execute("countByCriteria", countQuery, containerCosmosDbInfo.getName(), executionOptions,
+                    () -> withTimeout(countResults(countQuery, containerCosmosDbInfo, executionOptions), executionOptions));
+        });
+    }
+
+    /**
+     * Launches a criteria with aggregate functions (sum, avg, min, max, count or countDistinct) and returns one row per group,
+     * the partial rows returned by every partition are merged. The query is routed to a single partition when the criteria pins one partition key value.
+     * @param criteria : criteria with aggregate functions to launch again target container
+     * @param containerCosmosDbInfo : contains necessary attributes (name of the container and partition key paths) to launch the query against the target container
+     * @param codec : decodes every aggregate row, with the attributes of the group and the result of every function by its alias (ej: JacksonDocumentCodec.of(SalesByCode.class))
+     * @return aggregate rows, one per group
+     */
+    public <R> Mono<List<R>> aggregateByCriteria(PaginatedCriteria criteria, ContainerCosmosDbInfo<C> containerCosmosDbInfo, DocumentCodec<R> codec) {
+        return aggregateByCriteria(criteria, containerCosmosDbInfo, codec, QueryExecutionOptions.defaults());
+    }
+
+    /**
+     * Launches a criteria with aggregate functions (sum, avg, min, max, count or countDistinct) and returns one row per group,
+     * the partial rows returned by every partition are merged. The query is routed to a single partition when the criteria pins one partition key value.
+     * Every countDistinct reads one row per distinct value and group, it fails with an AppCriteriaBuilderException when they are more than Aggregation.MAX_COUNT_DISTINCT_ROWS.
+     * @param criteria : criteria with aggregate functions to launch again target container
+     * @param containerCosmosDbInfo : contains necessary attributes (name of the container and partition key paths) to launch the query against the target container
+     * @param codec : decodes every aggregate row, with the attributes of the group and the result of every function by its alias (ej: JacksonDocumentCodec.of(SalesByCode.class))
+     * @param options : options to launch the query, maxItemCount is the size of the pages read (100 by default)
+     * @return aggregate rows, one per group
+     */
+    public <R> Mono<List<R>> aggregateByCriteria(PaginatedCriteria criteria, ContainerCosmosDbInfo<C> containerCosmosDbInfo, DocumentCodec<R> codec, QueryExecutionOptions options) {
+        Aggregation aggregation = criteria.getCriteriaQuery().getAggregation();
+        if (aggregation == null) {
+            throw new AppCriteriaBuilderException("the criteria provided does not have aggregate functions, please add them with sum, avg, min, max, count or countDistinct methods");
+        }
+        List<CriteriaQuery> countDistinctQueries = criteria.getCriteriaQuery().getCountDistinctQueries();
+        QueryExecutionOptions executionOptions = resolveOptions(options);
+        return execute("aggregateByCriteria", criteria, containerCosmosDbInfo.getName(), executionOptions, () -> {
+            Mono<List<JsonNode>> rows = aggregation.hasMainQuery()
+                    ? readAll(criteria, containerCosmosDbInfo, executionOptions)
+                    : Mono.just(List.of());
+            Mono<List<List<JsonNode>>> countDistinctRows = Flux.fromIterable(countDistinctQueries)
+                    .flatMapSequential(countDistinctQuery -> readAll(countDistinctQuery, containerCosmosDbInfo, executionOptions, Aggregation.MAX_COUNT_DISTINCT_ROWS))
+                    .collectList();
+            return withTimeout(Mono.zip(rows, countDistinctRows)
+                    .map(response -> aggregation.merge(response.getT1(), response.getT2()).stream()
+                            .map(codec::decode)
+                            .collect(Collectors.toList())), executionOptions);
+        });
+    }
+
+    /**
+     * Counts the documents of every value of the facet fields under the criteria, one GROUP BY query per facet launched at the same time,
+     * so all the facets of a search screen take about one round trip.
+     * @param criteria : criteria whose where conditions are shared by the facets
+     * @param facetFields : attributes of the documents (ej: state, contactOwner.userId)
+     * @param top : maximum number of values of every facet, the ones with more documents. 0 for every value
+     * @param containerCosmosDbInfo : contains necessary attributes (name of the container and partition key paths) to launch the query against the target container
+     * @return values of every facet sorted from the one with more documents to the one with less
+     */
+    public Mono<FacetResult> facetByCriteria(PaginatedCriteria criteria, List<String> facetFields, int top, ContainerCosmosDbInfo<C> containerCosmosDbInfo) {
+        return facetByCriteria(criteria, facetFields, top, containerCosmosDbInfo, QueryExecutionOptions.defaults());
+    }
+
+    /**
+     * Counts the documents of every value of the facet fields under the criteria, one GROUP BY query per facet launched at the same time,
+     * so all the facets of a search screen take about one round trip.
+     * @param criteria : criteria whose where conditions are shared by the facets
+     * @param facetFields : attributes of the documents (ej: state, contactOwner.userId)
+     * @param top : maximum number of values of every facet, the ones with more documents. 0 for every value
+     * @param containerCosmosDbInfo : contains necessary attributes (name of the container and partition key paths) to launch the query against the target container
+     * @param options : options to launch the queries, maxItemCount is the size of the pages read (100 by default)
+     * @return values of every facet sorted from the one with more documents to the one with less
+     */
+    public Mono<FacetResult> facetByCriteria(PaginatedCriteria criteria, List<String> facetFields, int top, ContainerCosmosDbInfo<C> containerCosmosDbInfo, QueryExecutionOptions options) {
+        if (facetFields == null || facetFields.isEmpty()) {
+            throw new AppCriteriaBuilderException("Invalid facets. You must provide at least one facet field");
+        }
+        List<CriteriaQuery> facetQueries = new ArrayList<>(facetFields.size());
+        for (String facetField : facetFields) {
+            CriteriaQuery facetQuery = criteria.getCriteriaQuery().getFacetQuery(facetField);
+            if (facetQuery == null) {
+                throw new AppCriteriaBuilderException("the criteria provided can not be faceted, only criteria generated by a criteria builder that select documents can be faceted");
+            }
+            facetQueries.add(facetQuery);
+        }
+        QueryExecutionOptions executionOptions = resolveOptions(options);
+        return execute("facetByCriteria", criteria, containerCosmosDbInfo.getName(), executionOptions,
+                () -> withTimeout(Flux.fromIterable(facetQueries)
+                        .flatMapSequential(facetQuery -> readAll(facetQuery, containerCosmosDbInfo, executionOptions)
+                                .map(rows -> FacetValue.rank(facetQuery.getAggregation().merge(rows, List.of()), top)), facetQueries.size())
+                        .collectList()
+                        .map(facets -> {
+                            Map<String, List<FacetValue>> facetsByField = new LinkedHashMap<>();
+                            for (int i = 0; i < facetFields.size(); i++) {
+                                facetsByField.put(facetFields.get(i), facets.get(i));
+                            }
+                            return new FacetResult(facetsByField);
+                        }), executionOptions));
+    }
+
+    private Mono<List<JsonNode>> readAll(PaginatedCriteria criteria, ContainerCosmosDbInfo<C> containerCosmosDbInfo, QueryExecutionOptions executionOptions) {
+        return findPages(criteria, executionOptions.getMaxItemCountOrDefault(DEFAULT_STREAM_PAGE_SIZE), containerCosmosDbInfo, JsonNode.class, executionOptions)
+                .flatMapIterable(Function.identity())
+                .collectList();
+    }
+
+    /**
+     * Reads one row more than the maximum to know if the query exceeds it, the query is cancelled once it is read
+     */
+    private Mono<List<JsonNode>> readAll(CriteriaQuery query, ContainerCosmosDbInfo<C> containerCosmosDbInfo, QueryExecutionOptions executionOptions, int maxRows) {
+        return findPages(query, executionOptions.getMaxItemCountOrDefault(DEFAULT_STREAM_PAGE_SIZE), containerCosmosDbInfo, JsonNode.class, executionOptions)
+                .flatMapIterable(Function.identity())
+                .take(maxRows + 1L)
+                .collectList()
+                .flatMap(rows -> rows.size() > maxRows
+                        ? Mono.error(new AppCriteriaBuilderException("countDistinct exceeds " + maxRows + " distinct values, the query of its distinct values was cancelled: " + query.getQuerySentence()))
+                        : Mono.just(rows));
+    }
+
+    /**
+     * Streams the results of the criteria as raw json, routed to the partitions of the container that contain them
+     * @param operation : name of the call in the metrics
+     */
+    Flux<JsonNode> streamRows(String operation, PaginatedCriteria criteria, ContainerCosmosDbInfo<C> containerCosmosDbInfo, QueryExecutionOptions options) {
+        QueryExecutionOptions executionOptions = resolveOptions(options);
+        return executeStream(operation, criteria, containerCosmosDbInfo.getName(), executionOptions,
+                () -> findPages(criteria, executionOptions.getMaxItemCountOrDefault(DEFAULT_STREAM_PAGE_SIZE), containerCosmosDbInfo, JsonNode.class, executionOptions)
+                        .flatMapIterable(Function.identity()));
+    }
+
+    /**
+     * Checks if any document satisfies the criteria with SELECT TOP 1 VALUE 1, the query is cancelled once the first result is read,
+     * so it costs the same whatever the number of documents that satisfy the criteria.
+     * @param criteria : criteria to launch again target container
+     * @param containerCosmosDbInfo : contains necessary attributes (name of the container and partition key paths) to launch the query against the target container
+     * @return true if any document satisfies the criteria
+     */
+    public Mono<Boolean> existsByCriteria(PaginatedCriteria criteria, ContainerCosmosDbInfo<C> containerCosmosDbInfo) {
+        return existsByCriteria(criteria, containerCosmosDbInfo, QueryExecutionOptions.defaults());
+    }
+
+    /**
+     * Checks if any document satisfies the criteria with SELECT TOP 1 VALUE 1, the query is cancelled once the first result is read,
+     * so it costs the same whatever the number of documents that satisfy the criteria.
+     * @param criteria : criteria to launch again target container
+     * @param containerCosmosDbInfo : contains necessary attributes (name of the container and partition key paths) to launch the query against the target container
+     * @param options : options to launch the query, the ones not set are taken from the default execution options
+     * @return true if any document satisfies the criteria
+     */
+    public Mono<Boolean> existsByCriteria(PaginatedCriteria criteria, ContainerCosmosDbInfo<C> containerCosmosDbInfo, QueryExecutionOptions options) {
+        CriteriaQuery existsQuery = criteria.getCriteriaQuery().getExistsQuery();
+        QueryExecutionOptions executionOptions = resolveOptions(options);
+        return execute("existsByCriteria", criteria, containerCosmosDbInfo.getName(), executionOptions,
+                () -> readFirst(existsQuery != null ? existsQuery : criteria, 1, containerCosmosDbInfo, JsonNode.class, executionOptions)
+                        .map(results -> !results.isEmpty()));
+    }
+
+    /**
+     * Reads only the first result of the criteria, see findTopByCriteria
+     * @param criteria : criteria to launch again target container
+     * @param containerCosmosDbInfo : contains necessary attributes (name of the container and class type ) to launch the query against the target container
+     * @param toEntity : entity where mapping the results obtained
+     * @return first result of the criteria, empty when there are no results
+     */
+    public Mono<E> findFirstByCriteria(PaginatedCriteria criteria, ContainerCosmosDbInfo<C> containerCosmosDbInfo, Function<C,E> toEntity) {
+        return findFirstByCriteria(criteria, containerCosmosDbInfo, toEntity, QueryExecutionOptions.defaults());
+    }
+
+    /**
+     * Reads only the first result of the criteria, see findTopByCriteria
+     * @param criteria : criteria to launch again target container
+     * @param containerCosmosDbInfo : contains necessary attributes (name of the container and class type ) to launch the query against the target container
+     * @param toEntity : entity where mapping the results obtained
+     * @param options : options to launch the query, the ones not set are taken from the default execution options
+     * @return first result of the criteria, empty when there are no results
+     */
+    public Mono<E> findFirstByCriteria(PaginatedCriteria criteria, ContainerCosmosDbInfo<C> containerCosmosDbInfo, Function<C,E> toEntity, QueryExecutionOptions options) {
+        return findTopByCriteria(criteria, 1, containerCosmosDbInfo, toEntity, options)
+                .flatMap(results -> results.isEmpty() ? Mono.empty() : Mono.just(results.get(0)));
+    }
+
+    /**
+     * Reads only the first results of the criteria with SELECT TOP n, the query is cancelled once they are read,
+     * so it costs the same whatever the number of documents that satisfy the criteria.
+     * @param criteria : criteria to launch again target container
+     * @param top : maximum number of results
+     * @param containerCosmosDbInfo : contains necessary attributes (name of the container and class type ) to launch the query against the target container
+     * @param toEntity : entity where mapping the results obtained
+     * @return first results of the criteria in order
+     */
+    public Mono<List<E>> findTopByCriteria(PaginatedCriteria criteria, int top, ContainerCosmosDbInfo<C> containerCosmosDbInfo, Function<C,E> toEntity) {
+        return findTopByCriteria(criteria, top, containerCosmosDbInfo, toEntity, QueryExecutionOptions.defaults());
+    }
+
+    /**
+     * Reads only the first results of the criteria with SELECT TOP n, the query is cancelled once they are read,
+     * so it costs the same whatever the number of documents that satisfy the criteria.
+     * @param criteria : criteria to launch again target container
+     * @param top : maximum number of results
+     * @param containerCosmosDbInfo : contains necessary attributes (name of the container and class type ) to launch the query against the target container
+     * @param toEntity : entity where mapping the results obtained
+     * @param options : options to launch the query, the ones not set are taken from the default execution options
+     * @return first results of the criteria in order
+     */
+    public Mono<List<E>> findTopByCriteria(PaginatedCriteria criteria, int top, ContainerCosmosDbInfo<C> containerCosmosDbInfo, Function<C,E> toEntity, QueryExecutionOptions options) {
+        CriteriaQuery topQuery = criteria.getCriteriaQuery().getTopQuery(top);
+        QueryExecutionOptions executionOptions = resolveOptions(options);
+        return execute("findTopByCriteria", criteria, containerCosmosDbInfo.getName(), executionOptions, () -> {
+            List<CosmosItemIdentity> identities = resolvePointReads(criteria, containerCosmosDbInfo, ResultMapping.toEntity(toEntity), executionOptions);
+            Mono<List<C>> results = !identities.isEmpty()
+                    ? withTimeout(readItems(identities, containerCosmosDbInfo, executionOptions), executionOptions)
+                    : readFirst(topQuery != null ? topQuery : criteria, top, containerCosmosDbInfo, containerCosmosDbInfo.getContainerClass(), executionOptions);
+            return results.map(documents -> documents.stream().limit(top).map(toEntity).collect(Collectors.toList()));
+        });
+    }
+
+    /**
+     * Reads only one page of the criteria, resuming the query from the continuation token provided.
+     * totalResult is not calculated by this method.
+     * @param criteria : criteria to launch again target container
+     * @param continuationToken : token returned on the previous page, null or empty to ask for the first page
+     * @param pageSize : size of the result you want to retrieve
+     * @param containerCosmosDbInfo : contains necessary attributes (name of the container and class type ) to launch the query against the target container
+     * @param toEntity : entity where mapping the results obtained
+     * @return page asked with the continuation token of the next page
+     */
+    public Mono<ProjectionPaginated<E>> findByCriteriaPage(PaginatedCriteria criteria, String continuationToken, int pageSize, ContainerCosmosDbInfo<C> containerCosmosDbInfo, Function<C,E> toEntity) {
+        return findByCriteriaPage(criteria, continuationToken, pageSize, containerCosmosDbInfo, ResultMapping.toEntity(toEntity), QueryExecutionOptions.defaults());
+    }
+
+    /**
+     * See findByCriteriaPage with a ResultMapping
+     */
+    public Mono<ProjectionPaginated<E>> findByCriteriaPage(PaginatedCriteria criteria, String continuationToken, int pageSize, ContainerCosmosDbInfo<C> containerCosmosDbInfo, Function<C,E> toEntity, QueryExecutionOptions options) {
+        return findByCriteriaPage(criteria, continuationToken, pageSize, containerCosmosDbInfo, ResultMapping.toEntity(toEntity), options);
+    }
+
+    /**
+     * See findByCriteriaPage with a ResultMapping
+     */
+    public <T> Mono<ProjectionPaginated<E>> findByCriteriaPage(PaginatedCriteria criteria, String continuationToken, int pageSize, ContainerCosmosDbInfo<C> containerCosmosDbInfo, ResultMapping<T,E> mapping) {
+        return findByCriteriaPage(criteria, continuationToken, pageSize, containerCosmosDbInfo, mapping, QueryExecutionOptions.defaults());
+    }
 
-        Flux<FeedResponse<C>> feedResponse = pagedIterable.byPage(pageSize);
+    /**
+     * Reads only one page of the criteria, resuming the query from the continuation token provided.
+     * totalResult is not calculated by this method.
+     * @param criteria : criteria to launch again target container
+     * @param continuationToken : token returned on the previous page, null or empty to ask for the first page
+     * @param pageSize : size of the result you want to retrieve
+     * @param containerCosmosDbInfo : contains necessary attributes (name of the container, class type and partition key paths) to launch the query against the target container
+     * @param mapping : how the results are received and mapped to the entity (whole documents, a projection class or a codec)
+     * @param options : options to launch the query, the ones not set are taken from the default execution options
+     * @return page asked with the continuation token of the next page
+     */
+    public <T> Mono<ProjectionPaginated<E>> findByCriteriaPage(PaginatedCriteria criteria, String continuationToken, int pageSize, ContainerCosmosDbInfo<C> containerCosmosDbInfo, ResultMapping<T,E> mapping,
+                                                               QueryExecutionOptions options) {
+        String cosmosContinuationToken = ContinuationTokenCodec.decode(continuationToken);
+        QueryExecutionOptions executionOptions = resolveOptions(options);
+        return execute("findByCriteriaPage", criteria, containerCosmosDbInfo.getName(), executionOptions, () -> {
+            List<CosmosItemIdentity> identities = cosmosContinuationToken == null
+                    ? resolvePointReads(criteria, containerCosmosDbInfo, mapping, executionOptions)
+                    : List.of();
+            if (!identities.isEmpty() && identities.size() <= pageSize) {
+                return withTimeout(readItems(identities, containerCosmosDbInfo, executionOptions)
+                        .map(results -> toProjection(results, 0, pageSize, containerMapper(mapping))), executionOptions);
+            }
+            return readPage(criteria, cosmosContinuationToken, pageSize, containerCosmosDbInfo, resultClassOf(mapping, containerCosmosDbInfo), mapping.getMapper(), executionOptions);
+        });
+    }
+
+    /**
+     * Reads one page of a criteria paginated by keyset (seekAfter): only the documents after the cursor of the criteria are read,
+     * so every page costs the same whatever its position, and the cursor of the next page is returned as continuation token.
+     * totalResult is not calculated by this method.
+     * @param criteria : criteria paginated by keyset to launch again target container
+     * @param pageSize : size of the result you want to retrieve
+     * @param containerCosmosDbInfo : contains necessary attributes (name of the container and class type ) to launch the query against the target container
+     * @param toEntity : entity where mapping the results obtained
+     * @return page asked with the cursor of the next page as continuation token
+     */
+    public Mono<ProjectionPaginated<E>> findByCriteriaKeyset(PaginatedCriteria criteria, int pageSize, ContainerCosmosDbInfo<C> containerCosmosDbInfo, Function<C,E> toEntity) {
+        return findByCriteriaKeyset(criteria, pageSize, containerCosmosDbInfo, ResultMapping.toEntity(toEntity), QueryExecutionOptions.defaults());
+    }
 
-        var builder = ProjectionPaginated.<E>builder();
+    /**
+     * See findByCriteriaKeyset with a ResultMapping
+     */
+    public Mono<ProjectionPaginated<E>> findByCriteriaKeyset(PaginatedCriteria criteria, int pageSize, ContainerCosmosDbInfo<C> containerCosmosDbInfo, Function<C,E> toEntity, QueryExecutionOptions options) {
+        return findByCriteriaKeyset(criteria, pageSize, containerCosmosDbInfo, ResultMapping.toEntity(toEntity), options);
+    }
 
-        var totalResult = feedResponse.collectList()
-                .map(response -> (pageSize * (response.size() - 1)) + response.get(response.size() - 1).getResults().size());
-        var monoHasNextChecker = feedResponse.elementAt(desiredPage + 1)
-                .map(response->true)
-                .onErrorReturn(IndexOutOfBoundsException.class,Boolean.FALSE);
+    /**
+     * See findByCriteriaKeyset with a ResultMapping
+     */
+    public <T> Mono<ProjectionPaginated<E>> findByCriteriaKeyset(PaginatedCriteria criteria, int pageSize, ContainerCosmosDbInfo<C> containerCosmosDbInfo, ResultMapping<T,E> mapping) {
+        return findByCriteriaKeyset(criteria, pageSize, containerCosmosDbInfo, mapping, QueryExecutionOptions.defaults());
+    }
 
-        var monoResponse = feedResponse.elementAt(desiredPage)
-                .flatMap(response->{
+    /**
+     * Reads one page of a criteria paginated by keyset (seekAfter): only the documents after the cursor of the criteria are read,
+     * so every page costs the same whatever its position, and the cursor of the next page is returned as continuation token.
+     * totalResult is not calculated by this method.
+     * @param criteria : criteria paginated by keyset to launch again target container
+     * @param pageSize : size of the result you want to retrieve
+     * @param containerCosmosDbInfo : contains necessary attributes (name of the container, class type and partition key paths) to launch the query against the target container
+     * @param mapping : how the results are received and mapped to the entity, the results must contain the sort columns of the criteria
+     * @param options : options to launch the query, the ones not set are taken from the default execution options
+     * @return page asked with the cursor of the next page as continuation token
+     */
+    public <T> Mono<ProjectionPaginated<E>> findByCriteriaKeyset(PaginatedCriteria criteria, int pageSize, ContainerCosmosDbInfo<C> containerCosmosDbInfo, ResultMapping<T,E> mapping,
+                                                                 QueryExecutionOptions options) {
+        KeysetOrder keysetOrder = keysetOrderOf(criteria);
+        QueryExecutionOptions executionOptions = resolveOptions(options);
+        return execute("findByCriteriaKeyset", criteria, containerCosmosDbInfo.getName(), executionOptions,
+                () -> readKeysetPage(criteria, keysetOrder, pageSize, containerCosmosDbInfo, resultClassOf(mapping, containerCosmosDbInfo), mapping.getMapper(), executionOptions));
+    }
+
+    private static KeysetOrder keysetOrderOf(PaginatedCriteria criteria) {
+        KeysetOrder keysetOrder = criteria.getCriteriaQuery().getKeysetOrder();
+        if (keysetOrder == null) {
+            throw new AppCriteriaBuilderException("Invalid keyset pagination. Use seekAfter to paginate the criteria by keyset");
+        }
+        return keysetOrder;
+    }
+
+    /**
+     * Reads one result more than the page size to know if there is a next page, the query is cancelled once it is read.
+     * The cursor of the next page is the sort key of the last result of the page
+     */
+    private <T> Mono<ProjectionPaginated<E>> readKeysetPage(PaginatedCriteria criteria, KeysetOrder keysetOrder, int pageSize, ContainerCosmosDbInfo<C> containerCosmosDbInfo, Class<T> resultClass,
+                                                            Function<T,E> toEntity, QueryExecutionOptions executionOptions) {
+        CosmosPagedFlux<T> pagedIterable = launch(criteria, containerCosmosDbInfo, resultClass, executionOptions);
+
+        return withTimeout(QueryStatistics.record(pagedIterable.byPage(pageSize + 1))
+                .flatMapIterable(FeedResponse::getResults)
+                .take(pageSize + 1L)
+                .collectList()
+                .map(results -> {
+                    boolean hasNextPage = results.size() > pageSize;
+                    List<T> page = hasNextPage ? results.subList(0, pageSize) : results;
+                    return ProjectionPaginated.<E>builder()
+                            .hasNextPage(hasNextPage)
+                            .data(page.stream().map(toEntity).collect(Collectors.toList()))
+                            .continuationToken(hasNextPage ? keysetOrder.cursorOf(toJson(page.get(page.size() - 1))) : null)
+                            .build();
+                }), executionOptions);
+    }
+
+    private static JsonNode toJson(Object result) {
+        return result instanceof JsonNode ? (JsonNode) result : KEYSET_MAPPER.valueToTree(result);
+    }
+
+    private <T> Mono<ProjectionPaginated<E>> readPage(PaginatedCriteria criteria, String cosmosContinuationToken, int pageSize, ContainerCosmosDbInfo<C> containerCosmosDbInfo, Class<T> resultClass,
+                                                      Function<T,E> toEntity, QueryExecutionOptions executionOptions) {
+        CosmosPagedFlux<T> pagedIterable = launch(criteria, containerCosmosDbInfo, resultClass, executionOptions);
+
+        return withTimeout(QueryStatistics.record(pagedIterable.byPage(cosmosContinuationToken, pageSize))
+                .next()
+                .map(response -> {
+                    String nextToken = response.getContinuationToken();
                     List<E> projectionList = response.getResults().stream()
                             .map(toEntity).collect(Collectors.toList());
-                    return Mono.just(projectionList);
-                });
+                    return ProjectionPaginated.<E>builder()
+                            .hasNextPage(nextToken != null)
+                            .data(projectionList)
+                            .continuationToken(ContinuationTokenCodec.encode(nextToken))
+                            .build();
+                })
+                .defaultIfEmpty(ProjectionPaginated.<E>builder().hasNextPage(false).data(List.of()).build()), executionOptions);
+    }
+
+    /**
+     * Reads the first results of the criteria, pages of the size of the results asked are read until they are found and the query is cancelled
+     */
+    private <T> Mono<List<T>> readFirst(PaginatedCriteria criteria, int top, ContainerCosmosDbInfo<C> containerCosmosDbInfo, Class<T> resultClass, QueryExecutionOptions executionOptions) {
+        return withTimeout(findPages(criteria, top, containerCosmosDbInfo, resultClass, executionOptions)
+                .flatMapIterable(Function.identity())
+                .take(top)
+                .collectList(), executionOptions);
+    }
+
+    /**
+     * Pages of the criteria, the query is routed to the partitions of the container that contain its results:
+     * a single partition query when the criteria pins one partition key value, or one query per partition key
+     * merged and split again in pages when it pins several values and the documents are neither sorted nor aggregated.
+     */
+    private <T> Flux<List<T>> findPages(PaginatedCriteria criteria, int pageSize, ContainerCosmosDbInfo<C> containerCosmosDbInfo, Class<T> resultClass, QueryExecutionOptions executionOptions) {
+        List<PartitionKey> partitionKeys = PartitionKeyRouting.resolve(criteria, containerCosmosDbInfo);
+        if (partitionKeys.size() > 1 && criteria.getCriteriaQuery().isPartitionSplittable()) {
+            return launchByPartitionKeys(criteria, containerCosmosDbInfo, resultClass, partitionKeys, executionOptions)
+                    .buffer(pageSize);
+        }
+        CosmosQueryRequestOptions options = executionOptions.toCosmosQueryRequestOptions();
+        if (partitionKeys.size() == 1) {
+            options.setPartitionKey(partitionKeys.get(0));
+        }
+        return QueryStatistics.record(launch(criteria.getQuerySpec(), containerCosmosDbInfo, resultClass, options)
+                        .byPage(pageSize))
+                .map(FeedResponse::getResults);
+    }
+
+    /**
+     * Launches the query deserializing the results into the class of the container, or into a projection class
+     * when the criteria selects only some attributes of the documents
+     */
+    @SuppressWarnings("unchecked")
+    private <T> CosmosPagedFlux<T> launch(SqlQuerySpec querySpec, ContainerCosmosDbInfo<C> containerCosmosDbInfo, Class<T> resultClass, CosmosQueryRequestOptions options) {
+        if (resultClass == containerCosmosDbInfo.getContainerClass()) {
+            return (CosmosPagedFlux<T>) queryLauncher.launch(querySpec, containerCosmosDbInfo.getName(), containerCosmosDbInfo.getContainerClass(), options);
+        }
+        return queryLauncher.launchProjection(querySpec, containerCosmosDbInfo.getName(), resultClass, options);
+    }
+
+    /**
+     * Launches the criteria against the only partition that contains its results when it pins one partition key value
+     */
+    @SuppressWarnings("unchecked")
+    private <T> CosmosPagedFlux<T> launch(PaginatedCriteria criteria, ContainerCosmosDbInfo<C> containerCosmosDbInfo, Class<T> resultClass, QueryExecutionOptions executionOptions) {
+        if (resultClass == containerCosmosDbInfo.getContainerClass()) {
+            return (CosmosPagedFlux<T>) queryLauncher.launch(criteria, containerCosmosDbInfo, executionOptions);
+        }
+        CosmosQueryRequestOptions options = executionOptions.toCosmosQueryRequestOptions();
+        List<PartitionKey> partitionKeys = PartitionKeyRouting.resolve(criteria, containerCosmosDbInfo);
+        if (partitionKeys.size() == 1) {
+            options.setPartitionKey(partitionKeys.get(0));
+        }
+        return queryLauncher.launchProjection(criteria.getQuerySpec(), containerCosmosDbInfo.getName(), resultClass, options);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Flux<T> launchByPartitionKeys(PaginatedCriteria criteria, ContainerCosmosDbInfo<C> containerCosmosDbInfo, Class<T> resultClass, List<PartitionKey> partitionKeys,
+                                              QueryExecutionOptions executionOptions) {
+        int maxConcurrency = executionOptions.getMaxPartitionQueryConcurrencyOrDefault(DEFAULT_MAX_PARTITION_QUERY_CONCURRENCY);
+        if (resultClass == containerCosmosDbInfo.getContainerClass()) {
+            return (Flux<T>) queryLauncher.launchByPartitionKeys(criteria.getQuerySpec(), containerCosmosDbInfo.getName(), containerCosmosDbInfo.getContainerClass(),
+                    partitionKeys, executionOptions::toCosmosQueryRequestOptions, maxConcurrency);
+        }
+        return queryLauncher.launchProjectionByPartitionKeys(criteria.getQuerySpec(), containerCosmosDbInfo.getName(), resultClass,
+                partitionKeys, executionOptions::toCosmosQueryRequestOptions, maxConcurrency);
+    }
+
+    /**
+     * Projections and decoded results are never read directly, because a point read always returns the whole document
+     * deserialized into the class of the container
+     * @return identities of the documents to read directly, empty when the query must be launched
+     */
+    private List<CosmosItemIdentity> resolvePointReads(PaginatedCriteria criteria, ContainerCosmosDbInfo<C> containerCosmosDbInfo, ResultMapping<?,E> mapping, QueryExecutionOptions executionOptions) {
+        return mapping.isContainerMapping() && executionOptions.isPointReadsEnabledOrDefault() ? PointReadRouting.resolve(criteria, containerCosmosDbInfo) : List.of();
+    }
+
+    /**
+     * @return class where the results of the mapping are deserialized
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> Class<T> resultClassOf(ResultMapping<T,?> mapping, ContainerCosmosDbInfo<?> containerCosmosDbInfo) {
+        return mapping.isContainerMapping() ? (Class<T>) (Class<?>) containerCosmosDbInfo.getContainerClass() : mapping.getResultClass();
+    }
+
+    /**
+     * @return mapper of the documents read directly, only called for mappings of the container class
+     */
+    @SuppressWarnings("unchecked")
+    private Function<C,E> containerMapper(ResultMapping<?,E> mapping) {
+        return (Function<C,E>) (Function<?,E>) mapping.getMapper();
+    }
+
+    /**
+     * Reads the documents directly: a point read for a single document, or a read many for several documents.
+     * Read many does not accept request options, so the documents are read with concurrent point reads
+     * when the options set the consistency level or the staleness of the integrated cache.
+     * Documents that do not exist are not returned.
+     */
+    private Mono<List<C>> readItems(List<CosmosItemIdentity> identities, ContainerCosmosDbInfo<C> containerCosmosDbInfo, QueryExecutionOptions executionOptions) {
+        pointReadCount.increment();
+        if (identities.size() > 1 && !executionOptions.hasItemRequestOptions()) {
+            return QueryStatistics.record(queryLauncher.readMany(identities, containerCosmosDbInfo.getName(), containerCosmosDbInfo.getContainerClass()).flux())
+                    .next()
+                    .map(FeedResponse::getResults)
+                    .defaultIfEmpty(List.of());
+        }
+        return Flux.fromIterable(identities)
+                .flatMapSequential(identity -> readItem(identity, containerCosmosDbInfo, executionOptions), executionOptions.getMaxPartitionQueryConcurrencyOrDefault(DEFAULT_MAX_PARTITION_QUERY_CONCURRENCY))
+                .collectList();
+    }
+
+    /**
+     * @return the document read, empty when it does not exist
+     */
+    private Mono<C> readItem(CosmosItemIdentity identity, ContainerCosmosDbInfo<C> containerCosmosDbInfo, QueryExecutionOptions executionOptions) {
+        return Mono.deferContextual(context -> {
+            QueryStatistics statistics = context.getOrDefault(QueryStatistics.class, null);
+            return queryLauncher.readItem(identity.getId(), identity.getPartitionKey(), containerCosmosDbInfo.getName(), containerCosmosDbInfo.getContainerClass(),
+                            executionOptions.toCosmosItemRequestOptions())
+                    .map(response -> {
+                        if (statistics != null) {
+                            statistics.record(PageMetrics.of(response.getRequestCharge(), 1, response.getDiagnostics()));
+                        }
+                        return response.getItem();
+                    })
+                    .onErrorResume(CosmosException.class, e -> {
+                        if (e.getStatusCode() != 404) {
+                            return Mono.error(e);
+                        }
+                        if (statistics != null) {
+                            statistics.record(PageMetrics.of(e.getRequestCharge(), 0, e.getDiagnostics()));
+                        }
+                        return Mono.empty();
+                    });
+        });
+    }
+
+    /**
+     * @param results : every result of the criteria
+     * @return page of the results
+     */
+    private static <C,E> ProjectionPaginated<E> toProjection(List<C> results, int desiredPage, int pageSize, Function<C,E> toEntity) {
+        long from = (long) desiredPage * pageSize;
+        if (from >= results.size()) {
+            return ProjectionPaginated.<E>builder().hasNextPage(false).data(List.of()).totalResult(results.size()).build();
+        }
+        int to = (int) Math.min(results.size(), from + pageSize);
+        return ProjectionPaginated.<E>builder()
+                .hasNextPage(to < results.size())
+                .data(results.subList((int) from, to).stream().map(toEntity).collect(Collectors.toList()))
+                .totalResult(results.size())
+                .build();
+    }
+
+    /**
+     * Launches a count query routed to the partition of the container that contains its results when the criteria pins one partition key value.
+     */
+    private Mono<TotalCountResponse> countResults(CriteriaQuery countQuery, ContainerCosmosDbInfo<C> containerCosmosDbInfo, QueryExecutionOptions executionOptions) {
+        CosmosQueryRequestOptions options = executionOptions.toCosmosQueryRequestOptions();
+        List<PartitionKey> partitionKeys = PartitionKeyRouting.resolve(countQuery, containerCosmosDbInfo);
+        if (partitionKeys.size() == 1) {
+            options.setPartitionKey(partitionKeys.get(0));
+        }
+        return QueryStatistics.record(queryCountLauncher
+                        .launch(countQuery.getQuerySpec(), containerCosmosDbInfo.getName(), TotalCountResponse.class, options)
+                        .byPage())
+                .flatMapIterable(FeedResponse::getResults)
+                .collectList()
+                .map(a -> !a.isEmpty() ? a.get(0) : new TotalCountResponse(0));
+    }
+
+    /**
+     * @param options : options provided on the call, null to use the default execution options
+     * @return options provided on the call completed with the default execution options
+     */
+    private QueryExecutionOptions resolveOptions(QueryExecutionOptions options) {
+        return options != null ? options.withDefaults(defaultExecutionOptions) : defaultExecutionOptions;
+    }
+
+    /**
+     * Launches the call through the request unit scheduler when there is one, and collects its metrics when there is
+     * a metrics listener or a slow query log. The call is launched as it is otherwise.
+     * The statistics of the call are chained to the ones found in the subscriber context, so both record every page.
+     */
+    private <R> Mono<R> execute(String operation, PaginatedCriteria criteria, String containerName, QueryExecutionOptions executionOptions, Supplier<Mono<R>> call) {
+        RequestUnitScheduler scheduler = this.requestUnitScheduler;
+        Supplier<Mono<R>> scheduledCall = scheduler == null ? call
+                : () -> withTimeout(scheduler.schedule(containerName, executionOptions.getPriorityOrDefault(), call), executionOptions);
+        QueryMetricsListener listener = this.metricsListener;
+        SlowQueryLog slowQueries = this.slowQueryLog;
+        if (listener == QueryMetricsListener.NOOP && slowQueries == null) {
+            return scheduledCall.get();
+        }
+        return Mono.deferContextual(context -> {
+            Execution execution = new Execution(QueryShape.of(operation, containerName, criteria.getQuerySentence()), context, listener, slowQueries);
+            return scheduledCall.get()
+                    .doOnError(execution::onError)
+                    .doFinally(execution::finish)
+                    .contextWrite(Context.of(QueryStatistics.class, execution.statistics));
+        });
+    }
 
-        return Mono.zip(monoHasNextChecker,monoResponse,totalResult).map(tupple-> builder
-                        .hasNextPage(tupple.getT1())
-                        .data(tupple.getT2())
-                        .totalResult(tupple.getT3())
-                        .build()
-                )
-                .onErrorReturn(IndexOutOfBoundsException.class,builder.hasNextPage(false).data(List.of()).build());
+    /**
+     * Launches the streamed call through the request unit scheduler when there is one, and collects its metrics when there is
+     * a metrics listener or a slow query log. The call is launched as it is otherwise.
+     */
+    private <R> Flux<R> executeStream(String operation, PaginatedCriteria criteria, String containerName, QueryExecutionOptions executionOptions, Supplier<Flux<R>> call) {
+        RequestUnitScheduler scheduler = this.requestUnitScheduler;
+        Supplier<Flux<R>> scheduledCall = scheduler == null ? call
+                : () -> scheduler.scheduleStream(containerName, executionOptions.getPriorityOrDefault(), call);
+        QueryMetricsListener listener = this.metricsListener;
+        SlowQueryLog slowQueries = this.slowQueryLog;
+        if (listener == QueryMetricsListener.NOOP && slowQueries == null) {
+            return scheduledCall.get();
+        }
+        return Flux.deferContextual(context -> {
+            Execution execution = new Execution(QueryShape.of(operation, containerName, criteria.getQuerySentence()), context, listener, slowQueries);
+            return scheduledCall.get()
+                    .doOnError(execution::onError)
+                    .doFinally(execution::finish)
+                    .contextWrite(Context.of(QueryStatistics.class, execution.statistics));
+        });
+    }
 
+    /**
+     * @return response that fails with a TimeoutException when it is not obtained within the end to end timeout of the options
+     */
+    private static <R> Mono<R> withTimeout(Mono<R> response, QueryExecutionOptions executionOptions) {
+        return executionOptions.getEndToEndTimeout() != null ? response.timeout(executionOptions.getEndToEndTimeout()) : response;
+    }
+
+    /**
+     * Metrics of a call being executed, they are delivered to the listener and the slow query log once the call has finished.
+     * The first pages are retained only when there is a slow query log, to capture their diagnostics if the call is slow.
+     */
+    private static final class Execution implements QueryMetricsListener {
+        private final QueryShape shape;
+        private final QueryStatistics statistics;
+        private final QueryMetricsListener listener;
+        private final SlowQueryLog slowQueryLog;
+        private final List<PageMetrics> pages;
+        private final long startedAt = System.nanoTime();
+        private volatile Throwable error;
+
+        private Execution(QueryShape shape, ContextView context, QueryMetricsListener listener, SlowQueryLog slowQueryLog) {
+            this.shape = shape;
+            this.statistics = new QueryStatistics(context.getOrDefault(QueryStatistics.class, null), shape, this);
+            this.listener = listener;
+            this.slowQueryLog = slowQueryLog;
+            this.pages = slowQueryLog != null ? new ArrayList<>() : List.of();
+        }
+
+        @Override
+        public void onPage(QueryShape shape, PageMetrics page) {
+            listener.onPage(shape, page);
+            if (slowQueryLog != null) {
+                synchronized (pages) {
+                    if (pages.size() < slowQueryLog.getMaxCapturedPages()) {
+                        pages.add(page);
+                    }
+                }
+            }
+        }
+
+        private void onError(Throwable error) {
+            this.error = error;
+            if (error instanceof CosmosException && ((CosmosException) error).getStatusCode() == 429) {
+                statistics.recordThrottle();
+            }
+        }
+
+        private void finish(SignalType signal) {
+            QueryExecutionMetrics.Outcome outcome = signal == SignalType.CANCEL ? QueryExecutionMetrics.Outcome.CANCELLED
+                    : error != null ? QueryExecutionMetrics.Outcome.ERROR : QueryExecutionMetrics.Outcome.SUCCESS;
+            QueryExecutionMetrics metrics = new QueryExecutionMetrics(shape, outcome, error, Duration.ofNanos(System.nanoTime() - startedAt), statistics);
+            listener.onExecution(metrics);
+            if (slowQueryLog != null) {
+                List<PageMetrics> capturedPages;
+                synchronized (pages) {
+                    capturedPages = List.copyOf(pages);
+                }
+                slowQueryLog.offer(metrics, capturedPages);
+            }
+        }
+    }
+
+    /**
+     * Keeps the state needed to build a paginated projection while the query is consumed only once.
+     * Only the results of the desired page are retained, the rest of the pages are just counted.
+     * When the total is calculated apart, the pages after the next one to the desired page are not fetched.
+     * @param <T> : class of the results of the pages (the container class, a projection class or JsonNode)
+     */
+    private static final class PageAccumulator<T> {
+        private final int desiredPage;
+        private int currentPage;
+        private int totalResult;
+        private boolean hasNextPage;
+        private List<T> desiredPageResults;
+
+        private PageAccumulator(int desiredPage) {
+            this.desiredPage = desiredPage;
+        }
+
+        private PageAccumulator<T> accumulate(List<T> results) {
+            if (currentPage == desiredPage) {
+                desiredPageResults = results;
+            } else if (currentPage == desiredPage + 1) {
+                hasNextPage = true;
+            }
+            totalResult += results.size();
+            currentPage++;
+            return this;
+        }
+
+        private <E> ProjectionPaginated<E> toProjection(Function<T,E> toEntity) {
+            if (desiredPageResults == null) {
+                return ProjectionPaginated.<E>builder().hasNextPage(false).data(List.of()).build();
+            }
+            return toProjection(toEntity, totalResult);
+        }
+
+        /**
+         * @param totalResult : number of results of the query, calculated apart from the pages accumulated
+         */
+        private <E> ProjectionPaginated<E> toProjection(Function<T,E> toEntity, int totalResult) {
+            var builder = ProjectionPaginated.<E>builder().totalResult(totalResult);
+            if (desiredPageResults == null) {
+                return builder.hasNextPage(false).data(List.of()).build();
+            }
+            List<E> projectionList = desiredPageResults.stream()
+                    .map(toEntity).collect(Collectors.toList());
+            return builder
+                    .hasNextPage(hasNextPage)
+                    .data(projectionList)
+                    .build();
+        }
     }
 }
@@ -0,0 +1,225 @@
+package reactor.cosmosdb.criteria.application;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Scheduler;
+import reactor.cosmosdb.criteria.domain.PageMetrics;
+import reactor.cosmosdb.criteria.domain.QueryMetricsListener;
+import reactor.cosmosdb.criteria.domain.QueryPriority;
+import reactor.cosmosdb.criteria.domain.QueryShape;
+import reactor.cosmosdb.criteria.domain.exception.QueryRejectedException;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Token bucket of request units of a container. Queries are admitted while the bucket has request units,
+ * reserving the request charge estimated from the previous queries, and the request charge of every page
+ * received is taken from the bucket, so it can get into debt with expensive queries.
+ * Queries that are not admitted wait in their priority lane until the bucket is refilled.
+ */
+final class RequestUnitBudget implements QueryMetricsListener {
+    private static final double ESTIMATE_WEIGHT = 0.2;
+
+    private final String containerName;
+    private final double requestUnitsPerNano;
+    private final double capacity;
+    private final int maxQueuedQueries;
+    private final Scheduler timer;
+    private final Deque<Waiter> interactive = new ArrayDeque<>();
+    private final Deque<Waiter> batch = new ArrayDeque<>();
+    private double tokens;
+    private double estimatedRequestCharge;
+    private long refilledAt;
+    private long pausedUntil;
+    private boolean drainScheduled;
+
+    RequestUnitBudget(String containerName, double requestUnitsPerSecond, Duration burst, double estimatedRequestCharge, int maxQueuedQueries, Scheduler timer) {
+        this.containerName = containerName;
+        this.requestUnitsPerNano = requestUnitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.capacity = requestUnitsPerSecond * burst.toNanos() / TimeUnit.SECONDS.toNanos(1);
+        this.maxQueuedQueries = maxQueuedQueries;
+        this.timer = timer;
+        this.tokens = capacity;
+        this.estimatedRequestCharge = estimatedRequestCharge;
+        this.refilledAt = System.nanoTime();
+    }
+
+    /**
+     * @param priority : lane where the query waits
+     * @return reservation of request units, emitted once the query is admitted.
+     * It fails with a QueryRejectedException when the query can not wait because the queue is full
+     */
+    Mono<Reservation> admit(QueryPriority priority) {
+        return Mono.create(sink -> {
+            Waiter waiter = new Waiter(sink);
+            Reservation reservation = null;
+            boolean rejected = false;
+            synchronized (this) {
+                long now = System.nanoTime();
+                refill(now);
+                if (canAdmit(now) && (interactive.isEmpty() && (priority == QueryPriority.INTERACTIVE || batch.isEmpty()))) {
+                    reservation = reserve();
+                } else if (interactive.size() + batch.size() >= maxQueuedQueries) {
+                    rejected = true;
+                } else {
+                    (priority == QueryPriority.INTERACTIVE ? interactive : batch).addLast(waiter);
+                    scheduleDrain(now);
+                }
+            }
+            if (reservation != null) {
+                sink.success(reservation);
+            } else if (rejected) {
+                sink.error(new QueryRejectedException("the queue of queries waiting for request units of the container " + containerName + " is full"));
+            } else {
+                sink.onCancel(() -> cancel(waiter));
+            }
+        });
+    }
+
+    /**
+     * Takes the request charge of a page received from the bucket
+     */
+    @Override
+    public void onPage(QueryShape shape, PageMetrics page) {
+        synchronized (this) {
+            tokens -= page.getRequestCharge();
+        }
+    }
+
+    /**
+     * Stops admitting queries during the time requested by cosmosdb after a request has been throttled
+     * @param retryAfter : time to wait before launching requests again
+     */
+    void throttled(Duration retryAfter) {
+        synchronized (this) {
+            long now = System.nanoTime();
+            refill(now);
+            pausedUntil = Math.max(pausedUntil, now + retryAfter.toNanos());
+            tokens = Math.min(tokens, 0);
+        }
+    }
+
+    /**
+     * @return request units available to admit queries, negative when the bucket is in debt
+     */
+    synchronized double getAvailableRequestUnits() {
+        refill(System.nanoTime());
+        return tokens;
+    }
+
+    /**
+     * @return number of queries waiting to be admitted
+     */
+    synchronized int getQueuedQueries() {
+        return interactive.size() + batch.size();
+    }
+
+    /**
+     * @return request charge reserved to admit a query, average of the request charges of the last queries
+     */
+    synchronized double getEstimatedRequestCharge() {
+        return estimatedRequestCharge;
+    }
+
+    private void drain() {
+        List<Waiter> admitted = new ArrayList<>();
+        synchronized (this) {
+            drainScheduled = false;
+            long now = System.nanoTime();
+            refill(now);
+            while (canAdmit(now) && !(interactive.isEmpty() && batch.isEmpty())) {
+                Waiter waiter = !interactive.isEmpty() ? interactive.pollFirst() : batch.pollFirst();
+                waiter.reservation = reserve();
+                admitted.add(waiter);
+            }
+            if (!interactive.isEmpty() || !batch.isEmpty()) {
+                scheduleDrain(now);
+            }
+        }
+        for (Waiter waiter : admitted) {
+            waiter.sink.success(waiter.reservation);
+        }
+    }
+
+    private void cancel(Waiter waiter) {
+        boolean removed;
+        synchronized (this) {
+            removed = interactive.remove(waiter) || batch.remove(waiter);
+        }
+        if (!removed && waiter.reservation != null) {
+            waiter.reservation.release(0);
+        }
+    }
+
+    private void release(double reservedRequestCharge, double requestCharge) {
+        synchronized (this) {
+            tokens += reservedRequestCharge;
+            if (requestCharge > 0) {
+                estimatedRequestCharge += (requestCharge - estimatedRequestCharge) * ESTIMATE_WEIGHT;
+            }
+        }
+        drain();
+    }
+
+    private Reservation reserve() {
+        tokens -= estimatedRequestCharge;
+        return new Reservation(estimatedRequestCharge);
+    }
+
+    private boolean canAdmit(long now) {
+        return now >= pausedUntil && tokens > 0;
+    }
+
+    private void refill(long now) {
+        tokens = Math.min(capacity, tokens + (now - refilledAt) * requestUnitsPerNano);
+        refilledAt = now;
+    }
+
+    /**
+     * Schedules the admission of the queries waiting once the bucket has request units again
+     */
+    private void scheduleDrain(long now) {
+        if (drainScheduled) {
+            return;
+        }
+        drainScheduled = true;
+        long delay = Math.max(pausedUntil - now, tokens > 0 ? 0 : (long) Math.ceil((1 - tokens) / requestUnitsPerNano));
+        timer.schedule(this::drain, Math.max(delay, TimeUnit.MILLISECONDS.toNanos(1)), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Request units reserved by an admitted query, they are given back when the query finishes
+     */
+    final class Reservation {
+        private final double reservedRequestCharge;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Reservation(double reservedRequestCharge) {
+            this.reservedRequestCharge = reservedRequestCharge;
+        }
+
+        /**
+         * @param requestCharge : request charge of the query admitted, already taken from the bucket page by page
+         */
+        void release(double requestCharge) {
+            if (released.compareAndSet(false, true)) {
+                RequestUnitBudget.this.release(reservedRequestCharge, requestCharge);
+            }
+        }
+    }
+
+    private static final class Waiter {
+        private final MonoSink<Reservation> sink;
+        private Reservation reservation;
+
+        private Waiter(MonoSink<Reservation> sink) {
+            this.sink = sink;
+        }
+    }
+}
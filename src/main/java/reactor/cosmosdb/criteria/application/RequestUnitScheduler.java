@@ -0,0 +1,285 @@
+package reactor.cosmosdb.criteria.application;
+
+import com.azure.cosmos.CosmosException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.cosmosdb.criteria.domain.QueryPriority;
+import reactor.cosmosdb.criteria.domain.QueryStatistics;
+import reactor.util.context.Context;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Admission control of the queries launched against each container, so bursts of queries wait on the client
+ * instead of being throttled by cosmosdb. Every container has a token bucket of request units per second:
+ * <ul>
+ *     <li>A query is admitted while the bucket has request units, the request charge of every page received is taken from it</li>
+ *     <li>Queries not admitted wait in their lane, interactive queries are admitted before batch queries</li>
+ *     <li>When too many queries are waiting, new ones are rejected at once with a QueryRejectedException</li>
+ *     <li>When a query is throttled (429) anyway, the container stops admitting queries for the time requested by cosmosdb and the query is launched again</li>
+ * </ul>
+ * Disable the retries of throttled requests of cosmosdb client (ThrottlingRetryOptions) so they are handled by the scheduler.
+ */
+public class RequestUnitScheduler {
+    private static final int THROTTLED_STATUS_CODE = 429;
+
+    private final double requestUnitsPerSecond;
+    private final Map<String, Double> requestUnitsPerSecondByContainer;
+    private final Duration burst;
+    private final double estimatedRequestCharge;
+    private final int maxQueuedQueries;
+    private final int maxRetries;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Scheduler timer;
+    private final Map<String, RequestUnitBudget> budgets = new ConcurrentHashMap<>();
+    private final LongAdder throttledCount = new LongAdder();
+
+    private RequestUnitScheduler(RequestUnitSchedulerBuilder builder) {
+        this.requestUnitsPerSecond = builder.requestUnitsPerSecond;
+        this.requestUnitsPerSecondByContainer = Map.copyOf(builder.requestUnitsPerSecondByContainer);
+        this.burst = builder.burst;
+        this.estimatedRequestCharge = builder.estimatedRequestCharge;
+        this.maxQueuedQueries = builder.maxQueuedQueries;
+        this.maxRetries = builder.maxRetries;
+        this.initialBackoff = builder.initialBackoff;
+        this.maxBackoff = builder.maxBackoff;
+        this.timer = builder.timer;
+    }
+
+    public static RequestUnitSchedulerBuilder builder() {
+        return new RequestUnitSchedulerBuilder();
+    }
+
+    /**
+     * Launches the call once it is admitted, and launches it again when it is throttled
+     * @param containerName : name of the container the call is launched against
+     * @param priority : lane where the call waits to be admitted
+     * @param call : call to launch, it is launched again on every retry
+     * @return response of the call
+     */
+    public <R> Mono<R> schedule(String containerName, QueryPriority priority, Supplier<Mono<R>> call) {
+        RequestUnitBudget budget = budgetOf(containerName);
+        return Mono.deferContextual(context -> {
+            QueryStatistics parent = context.getOrDefault(QueryStatistics.class, null);
+            Mono<R> attempt = Mono.defer(() -> {
+                QueryStatistics statistics = new QueryStatistics(parent, null, budget);
+                return Mono.usingWhen(budget.admit(priority),
+                        reservation -> call.get().contextWrite(Context.of(QueryStatistics.class, statistics)),
+                        reservation -> Mono.fromRunnable(() -> reservation.release(statistics.getRequestCharge())),
+                        (reservation, error) -> Mono.fromRunnable(() -> reservation.release(statistics.getRequestCharge())),
+                        reservation -> Mono.fromRunnable(() -> reservation.release(statistics.getRequestCharge())));
+            });
+            return attempt.retryWhen(Retry.from(signals -> signals.concatMap(signal -> {
+                Throwable error = signal.failure();
+                if (!isThrottled(error) || signal.totalRetries() >= maxRetries) {
+                    return Mono.error(error);
+                }
+                Duration backoff = backoffOf((CosmosException) error, signal.totalRetries());
+                throttledCount.increment();
+                budget.throttled(backoff);
+                if (parent != null) {
+                    parent.recordThrottle();
+                    parent.recordRetry();
+                }
+                return Mono.delay(backoff, timer);
+            })));
+        });
+    }
+
+    /**
+     * Launches the streamed call once it is admitted. Streams are not launched again when they are throttled,
+     * because their results may have been delivered already
+     * @param containerName : name of the container the call is launched against
+     * @param priority : lane where the call waits to be admitted
+     * @param call : call to launch
+     * @return response of the call
+     */
+    public <R> Flux<R> scheduleStream(String containerName, QueryPriority priority, Supplier<Flux<R>> call) {
+        RequestUnitBudget budget = budgetOf(containerName);
+        return Flux.deferContextual(context -> {
+            QueryStatistics statistics = new QueryStatistics(context.getOrDefault(QueryStatistics.class, null), null, budget);
+            return Flux.usingWhen(budget.admit(priority),
+                    reservation -> call.get().contextWrite(Context.of(QueryStatistics.class, statistics)),
+                    reservation -> Mono.fromRunnable(() -> reservation.release(statistics.getRequestCharge())),
+                    (reservation, error) -> Mono.fromRunnable(() -> {
+                        if (isThrottled(error)) {
+                            throttledCount.increment();
+                            budget.throttled(backoffOf((CosmosException) error, 0));
+                        }
+                        reservation.release(statistics.getRequestCharge());
+                    }),
+                    reservation -> Mono.fromRunnable(() -> reservation.release(statistics.getRequestCharge())));
+        });
+    }
+
+    /**
+     * @param containerName : name of the container
+     * @return request units available to admit queries, negative when the container is in debt
+     */
+    public double getAvailableRequestUnits(String containerName) {
+        return budgetOf(containerName).getAvailableRequestUnits();
+    }
+
+    /**
+     * @param containerName : name of the container
+     * @return number of queries waiting to be admitted
+     */
+    public int getQueuedQueries(String containerName) {
+        return budgetOf(containerName).getQueuedQueries();
+    }
+
+    /**
+     * @param containerName : name of the container
+     * @return request units reserved to admit a query, average of the request charges of the last queries
+     */
+    public double getEstimatedRequestCharge(String containerName) {
+        return budgetOf(containerName).getEstimatedRequestCharge();
+    }
+
+    /**
+     * @return number of requests throttled by cosmosdb (429) that have been received by the scheduler
+     */
+    public long getThrottledCount() {
+        return throttledCount.sum();
+    }
+
+    private RequestUnitBudget budgetOf(String containerName) {
+        return budgets.computeIfAbsent(containerName, name -> new RequestUnitBudget(name,
+                requestUnitsPerSecondByContainer.getOrDefault(name, requestUnitsPerSecond), burst, estimatedRequestCharge, maxQueuedQueries, timer));
+    }
+
+    private static boolean isThrottled(Throwable error) {
+        return error instanceof CosmosException && ((CosmosException) error).getStatusCode() == THROTTLED_STATUS_CODE;
+    }
+
+    /**
+     * @return time requested by cosmosdb to wait, or an exponential backoff when it is not provided, with a jitter to spread the retries
+     */
+    private Duration backoffOf(CosmosException error, long retry) {
+        Duration retryAfter = error.getRetryAfterDuration();
+        long backoff = retryAfter != null && !retryAfter.isZero() && !retryAfter.isNegative()
+                ? retryAfter.toMillis()
+                : initialBackoff.toMillis() << Math.min(retry, 16);
+        backoff = Math.min(backoff, maxBackoff.toMillis());
+        return Duration.ofMillis(backoff + ThreadLocalRandom.current().nextLong(backoff / 10 + 1));
+    }
+
+    public static class RequestUnitSchedulerBuilder {
+        private double requestUnitsPerSecond = 400;
+        private final Map<String, Double> requestUnitsPerSecondByContainer = new HashMap<>();
+        private Duration burst = Duration.ofSeconds(1);
+        private double estimatedRequestCharge = 5;
+        private int maxQueuedQueries = 256;
+        private int maxRetries = 3;
+        private Duration initialBackoff = Duration.ofMillis(100);
+        private Duration maxBackoff = Duration.ofSeconds(5);
+        private Scheduler timer = Schedulers.parallel();
+
+        RequestUnitSchedulerBuilder() {
+        }
+
+        /**
+         * @param requestUnitsPerSecond : request units per second consumed by the queries of every container (400 by default),
+         *                              usually the throughput provisioned divided by the number of instances of the application
+         */
+        public RequestUnitSchedulerBuilder requestUnitsPerSecond(double requestUnitsPerSecond) {
+            if (requestUnitsPerSecond <= 0) {
+                throw new IllegalArgumentException("requestUnitsPerSecond must be greater than 0");
+            }
+            this.requestUnitsPerSecond = requestUnitsPerSecond;
+            return this;
+        }
+
+        /**
+         * @param containerName : name of the container
+         * @param requestUnitsPerSecond : request units per second consumed by the queries of the container
+         */
+        public RequestUnitSchedulerBuilder requestUnitsPerSecond(String containerName, double requestUnitsPerSecond) {
+            if (requestUnitsPerSecond <= 0) {
+                throw new IllegalArgumentException("requestUnitsPerSecond must be greater than 0");
+            }
+            this.requestUnitsPerSecondByContainer.put(containerName, requestUnitsPerSecond);
+            return this;
+        }
+
+        /**
+         * @param burst : time of request units that can be accumulated while there are no queries, 1 second by default
+         */
+        public RequestUnitSchedulerBuilder burst(Duration burst) {
+            if (burst == null || burst.isNegative() || burst.isZero()) {
+                throw new IllegalArgumentException("burst must be positive");
+            }
+            this.burst = burst;
+            return this;
+        }
+
+        /**
+         * @param estimatedRequestCharge : request units reserved to admit the first queries (5 by default),
+         *                               then it is the average of the request charges observed
+         */
+        public RequestUnitSchedulerBuilder estimatedRequestCharge(double estimatedRequestCharge) {
+            if (estimatedRequestCharge < 0) {
+                throw new IllegalArgumentException("estimatedRequestCharge must not be negative");
+            }
+            this.estimatedRequestCharge = estimatedRequestCharge;
+            return this;
+        }
+
+        /**
+         * @param maxQueuedQueries : queries that can wait to be admitted on every container, 256 by default
+         */
+        public RequestUnitSchedulerBuilder maxQueuedQueries(int maxQueuedQueries) {
+            if (maxQueuedQueries < 0) {
+                throw new IllegalArgumentException("maxQueuedQueries must not be negative");
+            }
+            this.maxQueuedQueries = maxQueuedQueries;
+            return this;
+        }
+
+        /**
+         * @param maxRetries : times a throttled query is launched again, 3 by default
+         */
+        public RequestUnitSchedulerBuilder maxRetries(int maxRetries) {
+            if (maxRetries < 0) {
+                throw new IllegalArgumentException("maxRetries must not be negative");
+            }
+            this.maxRetries = maxRetries;
+            return this;
+        }
+
+        /**
+         * @param initialBackoff : time waited after the first throttle when cosmosdb does not provide it, doubled on every retry (100 milliseconds by default)
+         * @param maxBackoff : maximum time waited after a throttle (5 seconds by default)
+         */
+        public RequestUnitSchedulerBuilder backoff(Duration initialBackoff, Duration maxBackoff) {
+            if (initialBackoff == null || maxBackoff == null || initialBackoff.isNegative() || maxBackoff.compareTo(initialBackoff) < 0) {
+                throw new IllegalArgumentException("backoff must be positive and initialBackoff must not be greater than maxBackoff");
+            }
+            this.initialBackoff = initialBackoff;
+            this.maxBackoff = maxBackoff;
+            return this;
+        }
+
+        /**
+         * @param timer : scheduler used to wait for request units and backoffs, parallel scheduler by default
+         */
+        public RequestUnitSchedulerBuilder timer(Scheduler timer) {
+            this.timer = timer;
+            return this;
+        }
+
+        public RequestUnitScheduler build() {
+            return new RequestUnitScheduler(this);
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package reactor.cosmosdb.criteria.application;
+
+import reactor.cosmosdb.criteria.domain.PageMetrics;
+import reactor.cosmosdb.criteria.domain.QueryExecutionMetrics;
+import reactor.cosmosdb.criteria.domain.SlowQueryEntry;
+import reactor.cosmosdb.criteria.domain.SlowQuerySink;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Captures the repository calls slower or more expensive than the thresholds, and a sample of the rest of them,
+ * with the diagnostics of the pages they read. The last entries captured are kept in a bounded ring buffer and
+ * every entry is delivered to the sinks (ej: {@link reactor.cosmosdb.criteria.infraestructure.Slf4jSlowQuerySink}).
+ * <pre>
+ * repository.setSlowQueryLog(SlowQueryLog.builder()
+ *         .latencyThreshold(Duration.ofMillis(500))
+ *         .requestChargeThreshold(100)
+ *         .sampleRate(0.001)
+ *         .sink(new Slf4jSlowQuerySink())
+ *         .build());
+ * </pre>
+ * The diagnostics of the pages are only serialized for the calls captured.
+ */
+public class SlowQueryLog {
+
+    private final Duration latencyThreshold;
+    private final double requestChargeThreshold;
+    private final double sampleRate;
+    private final int maxCapturedPages;
+    private final List<SlowQuerySink> sinks;
+    private final SlowQueryEntry[] entries;
+    private final LongAdder capturedCount = new LongAdder();
+    private int next;
+    private int size;
+
+    private SlowQueryLog(SlowQueryLogBuilder builder) {
+        this.latencyThreshold = builder.latencyThreshold;
+        this.requestChargeThreshold = builder.requestChargeThreshold;
+        this.sampleRate = builder.sampleRate;
+        this.maxCapturedPages = builder.maxCapturedPages;
+        this.sinks = List.copyOf(builder.sinks);
+        this.entries = new SlowQueryEntry[builder.capacity];
+    }
+
+    public static SlowQueryLogBuilder builder() {
+        return new SlowQueryLogBuilder();
+    }
+
+    /**
+     * @return maximum number of pages captured per call, the repository does not retain more pages than these ones
+     */
+    public int getMaxCapturedPages() {
+        return this.maxCapturedPages;
+    }
+
+    /**
+     * Captures the call when it exceeds any threshold or it is sampled
+     * @param metrics : metrics of the call finished
+     * @param pages : first pages read by the call
+     * @return entry captured, null when the call has not been captured
+     */
+    public SlowQueryEntry offer(QueryExecutionMetrics metrics, List<PageMetrics> pages) {
+        SlowQueryEntry.Reason reason = reasonOf(metrics);
+        if (reason == null) {
+            return null;
+        }
+        List<SlowQueryEntry.CapturedPage> capturedPages = pages.stream()
+                .limit(maxCapturedPages)
+                .map(SlowQueryEntry.CapturedPage::new)
+                .collect(Collectors.toList());
+        SlowQueryEntry entry = new SlowQueryEntry(Instant.now(), reason, metrics, capturedPages,
+                (int) Math.max(0, metrics.getPageCount() - capturedPages.size()));
+        synchronized (entries) {
+            entries[next] = entry;
+            next = (next + 1) % entries.length;
+            size = Math.min(size + 1, entries.length);
+        }
+        capturedCount.increment();
+        for (SlowQuerySink sink : sinks) {
+            sink.accept(entry);
+        }
+        return entry;
+    }
+
+    /**
+     * @return entries kept in the ring buffer, the newest first
+     */
+    public List<SlowQueryEntry> getEntries() {
+        return getEntries(entry -> true);
+    }
+
+    /**
+     * @param filter : condition of the entries returned (ej: entry -> entry.getContainerName().equals("containerName"))
+     * @return entries kept in the ring buffer that match the filter, the newest first
+     */
+    public List<SlowQueryEntry> getEntries(Predicate<SlowQueryEntry> filter) {
+        List<SlowQueryEntry> result = new ArrayList<>();
+        synchronized (entries) {
+            for (int i = 1; i <= size; i++) {
+                SlowQueryEntry entry = entries[Math.floorMod(next - i, entries.length)];
+                if (filter.test(entry)) {
+                    result.add(entry);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return number of calls captured since the log was created, including the ones no longer kept in the ring buffer
+     */
+    public long getCapturedCount() {
+        return capturedCount.sum();
+    }
+
+    /**
+     * Removes every entry kept in the ring buffer
+     */
+    public void clear() {
+        synchronized (entries) {
+            Arrays.fill(entries, null);
+            next = 0;
+            size = 0;
+        }
+    }
+
+    private SlowQueryEntry.Reason reasonOf(QueryExecutionMetrics metrics) {
+        if (latencyThreshold != null && metrics.getDuration().compareTo(latencyThreshold) >= 0) {
+            return SlowQueryEntry.Reason.LATENCY;
+        }
+        if (requestChargeThreshold > 0 && metrics.getRequestCharge() >= requestChargeThreshold) {
+            return SlowQueryEntry.Reason.REQUEST_CHARGE;
+        }
+        if (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            return SlowQueryEntry.Reason.SAMPLED;
+        }
+        return null;
+    }
+
+    public static class SlowQueryLogBuilder {
+        private Duration latencyThreshold = Duration.ofSeconds(1);
+        private double requestChargeThreshold;
+        private double sampleRate;
+        private int capacity = 100;
+        private int maxCapturedPages = 10;
+        private final List<SlowQuerySink> sinks = new ArrayList<>();
+
+        SlowQueryLogBuilder() {
+        }
+
+        /**
+         * @param latencyThreshold : calls that last at least this time are captured (1 second by default), null to not check the latency
+         */
+        public SlowQueryLogBuilder latencyThreshold(Duration latencyThreshold) {
+            this.latencyThreshold = latencyThreshold;
+            return this;
+        }
+
+        /**
+         * @param requestChargeThreshold : calls that consume at least these request units are captured, 0 (by default) to not check the request units
+         */
+        public SlowQueryLogBuilder requestChargeThreshold(double requestChargeThreshold) {
+            if (requestChargeThreshold < 0) {
+                throw new IllegalArgumentException("requestChargeThreshold must not be negative");
+            }
+            this.requestChargeThreshold = requestChargeThreshold;
+            return this;
+        }
+
+        /**
+         * @param sampleRate : fraction (between 0 and 1) of the calls under the thresholds that are captured, 0 by default
+         */
+        public SlowQueryLogBuilder sampleRate(double sampleRate) {
+            if (sampleRate < 0 || sampleRate > 1) {
+                throw new IllegalArgumentException("sampleRate must be between 0 and 1");
+            }
+            this.sampleRate = sampleRate;
+            return this;
+        }
+
+        /**
+         * @param capacity : number of entries kept in the ring buffer, 100 by default
+         */
+        public SlowQueryLogBuilder capacity(int capacity) {
+            if (capacity <= 0) {
+                throw new IllegalArgumentException("capacity must be greater than 0");
+            }
+            this.capacity = capacity;
+            return this;
+        }
+
+        /**
+         * @param maxCapturedPages : maximum number of pages captured per call, 10 by default
+         */
+        public SlowQueryLogBuilder maxCapturedPages(int maxCapturedPages) {
+            if (maxCapturedPages < 0) {
+                throw new IllegalArgumentException("maxCapturedPages must not be negative");
+            }
+            this.maxCapturedPages = maxCapturedPages;
+            return this;
+        }
+
+        /**
+         * @param sink : receives every entry captured, it can be called several times to add several sinks
+         */
+        public SlowQueryLogBuilder sink(SlowQuerySink sink) {
+            this.sinks.add(sink);
+            return this;
+        }
+
+        public SlowQueryLog build() {
+            return new SlowQueryLog(this);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package reactor.cosmosdb.criteria.domain;
+
+import reactor.cosmosdb.criteria.domain.exception.AppCriteriaBuilderException;
+
+/**
+ * Aggregate function of a criteria, computed over an attribute of the documents and returned with an alias on every aggregate row
+ */
+public final class AggregateFunction {
+    private static final String SUM_PREFIX = "_sum_";
+    private static final String COUNT_PREFIX = "_count_";
+
+    private final AggregateType type;
+    private final String column;
+    private final String alias;
+
+    /**
+     * @param type : aggregate function
+     * @param column : attribute of the documents (ej: amount), null for COUNT
+     * @param alias : name of the result in the aggregate rows
+     */
+    AggregateFunction(AggregateType type, String column, String alias) {
+        if (type != AggregateType.COUNT && (column == null || column.isBlank())) {
+            throw new AppCriteriaBuilderException("Invalid aggregation. You can not aggregate an empty or null attribute");
+        }
+        if (alias == null || !Projection.isIdentifier(alias)) {
+            throw new AppCriteriaBuilderException("Invalid aggregation. " + alias + " can not be used as alias, it must be an identifier and not a reserved word");
+        }
+        this.type = type;
+        this.column = column != null && column.startsWith("c.") ? column.substring(2) : column;
+        this.alias = alias;
+    }
+
+    public AggregateType getType() {
+        return this.type;
+    }
+
+    /**
+     * @return attribute of the documents without the alias of the container, null for COUNT
+     */
+    public String getColumn() {
+        return this.column;
+    }
+
+    /**
+     * @return name of the result in the aggregate rows
+     */
+    public String getAlias() {
+        return this.alias;
+    }
+
+    /**
+     * @return name of the partial sum of an average
+     */
+    String getSumAlias() {
+        return SUM_PREFIX + this.alias;
+    }
+
+    /**
+     * @return name of the partial count of an average
+     */
+    String getCountAlias() {
+        return COUNT_PREFIX + this.alias;
+    }
+
+    /**
+     * appends the function as it is selected, averages are selected as their sum and count (ej: SUM(c.amount) AS _sum_avgAmount, COUNT(c.amount) AS _count_avgAmount)
+     */
+    void appendTo(StringBuilder sentence) {
+        switch (this.type) {
+            case COUNT:
+                sentence.append("COUNT(1) AS ").append(this.alias);
+                break;
+            case AVG:
+                sentence.append("SUM(c.").append(this.column).append(") AS ").append(this.getSumAlias())
+                        .append(", COUNT(c.").append(this.column).append(") AS ").append(this.getCountAlias());
+                break;
+            default:
+                sentence.append(this.type.getValue()).append("(c.").append(this.column).append(") AS ").append(this.alias);
+        }
+    }
+
+    public String toString() {
+        return "AggregateFunction(type=" + this.type + ", column=" + this.column + ", alias=" + this.alias + ")";
+    }
+}
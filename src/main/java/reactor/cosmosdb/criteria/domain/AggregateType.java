@@ -0,0 +1,41 @@
+package reactor.cosmosdb.criteria.domain;
+
+/**
+ * Enum used to define the aggregate functions computed by cosmosdb for every group of documents.
+ */
+public enum AggregateType {
+    /**
+     * number of documents, COUNT(1)
+     */
+    COUNT("COUNT"),
+    /**
+     * sum of the numeric values of an attribute, SUM(c.x)
+     */
+    SUM("SUM"),
+    /**
+     * average of the numeric values of an attribute, computed from its sum and count so partial results can be merged
+     */
+    AVG("AVG"),
+    /**
+     * minimum value of an attribute, MIN(c.x)
+     */
+    MIN("MIN"),
+    /**
+     * maximum value of an attribute, MAX(c.x)
+     */
+    MAX("MAX"),
+    /**
+     * number of distinct values of an attribute, computed with a query grouped by the attribute because cosmosdb does not support COUNT(DISTINCT)
+     */
+    COUNT_DISTINCT("COUNT");
+
+    private final String value;
+
+    AggregateType(String value){
+        this.value = value;
+    }
+
+    public String getValue(){
+        return this.value;
+    }
+}
@@ -0,0 +1,244 @@
+package reactor.cosmosdb.criteria.domain;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Aggregate functions of a criteria (sum, avg, min, max, count and countDistinct), computed by cosmosdb for every group of documents.
+ * When the query is launched across partitions cosmosdb may return one partial row per partition and group, so the rows are merged
+ * by the attributes of the group: sums and counts are added, minimums and maximums are compared, and averages are computed from their merged sum and count.
+ * Distinct values are counted with one query per countDistinct grouped by the attribute, their rows are merged with the ones of the other functions.
+ * Every distinct value (of every group) is a row read from cosmosdb, so a countDistinct is as expensive as its number of distinct values,
+ * and it fails when they are more than {@link #MAX_COUNT_DISTINCT_ROWS}.
+ */
+public final class Aggregation {
+    /**
+     * maximum number of rows read by the query of every countDistinct, one per distinct value and group
+     */
+    public static final int MAX_COUNT_DISTINCT_ROWS = 10_000;
+    private static final JsonNodeFactory NODES = JsonNodeFactory.instance;
+    static final String FACET_VALUE = "facetValue";
+    static final String FACET_COUNT = "facetCount";
+    /**
+     * aggregation of the facet queries, that count the documents of every value of an attribute
+     */
+    static final Aggregation FACET = new Aggregation(List.of(new AggregateFunction(AggregateType.COUNT, null, FACET_COUNT)), true, true, List.of());
+
+    private final List<AggregateFunction> functions;
+    private final boolean grouped;
+    private final boolean mainQuery;
+    private final List<String> countDistinctQuerySentences;
+
+    /**
+     * @param functions : aggregate functions of the criteria
+     * @param grouped : true if the criteria has a group by sentence
+     * @param mainQuery : true if the query of the criteria selects any attribute, false when it only counts distinct values without group by
+     * @param countDistinctQuerySentences : sql sentences that select the distinct values of every countDistinct, in order
+     */
+    Aggregation(List<AggregateFunction> functions, boolean grouped, boolean mainQuery, List<String> countDistinctQuerySentences) {
+        this.functions = List.copyOf(functions);
+        this.grouped = grouped;
+        this.mainQuery = mainQuery;
+        this.countDistinctQuerySentences = List.copyOf(countDistinctQuerySentences);
+    }
+
+    /**
+     * @return aggregate functions in the order they were added
+     */
+    public List<AggregateFunction> getFunctions() {
+        return this.functions;
+    }
+
+    /**
+     * @return true if the query of the criteria must be launched, false when every function is a countDistinct without group by
+     */
+    public boolean hasMainQuery() {
+        return this.mainQuery;
+    }
+
+    /**
+     * @return sql sentences that select the distinct values of every countDistinct, with the same placeholders than the criteria
+     */
+    List<String> getCountDistinctQuerySentences() {
+        return this.countDistinctQuerySentences;
+    }
+
+    /**
+     * @param rows : rows returned by the query of the criteria, partial rows of the same group included
+     * @param countDistinctRows : rows returned by the query of every countDistinct, in order
+     * @return one row per group with the attributes of the group and the result of every function by its alias.
+     * Without group by there is always one row
+     */
+    public List<ObjectNode> merge(List<JsonNode> rows, List<List<JsonNode>> countDistinctRows) {
+        Set<String> aggregatedFields = new HashSet<>();
+        List<AggregateFunction> countDistinctFunctions = new ArrayList<>();
+        for (AggregateFunction function : this.functions) {
+            if (function.getType() == AggregateType.AVG) {
+                aggregatedFields.add(function.getSumAlias());
+                aggregatedFields.add(function.getCountAlias());
+            } else if (function.getType() == AggregateType.COUNT_DISTINCT) {
+                countDistinctFunctions.add(function);
+            } else {
+                aggregatedFields.add(function.getAlias());
+            }
+        }
+        Map<ObjectNode, Group> groups = new LinkedHashMap<>();
+        if (!this.grouped) {
+            groups.put(NODES.objectNode(), new Group(countDistinctFunctions.size()));
+        }
+        for (JsonNode row : rows) {
+            groupOf(groups, row, aggregatedFields, countDistinctFunctions.size()).accumulate(row);
+        }
+        for (int i = 0; i < countDistinctRows.size(); i++) {
+            String alias = countDistinctFunctions.get(i).getAlias();
+            for (JsonNode row : countDistinctRows.get(i)) {
+                JsonNode value = row.get(alias);
+                Group group = groupOf(groups, row, Set.of(alias), countDistinctFunctions.size());
+                if (value != null) {
+                    group.distinctValues.get(i).add(value);
+                }
+            }
+        }
+        List<ObjectNode> merged = new ArrayList<>(groups.size());
+        groups.forEach((key, group) -> merged.add(group.toRow(key)));
+        return merged;
+    }
+
+    private Group groupOf(Map<ObjectNode, Group> groups, JsonNode row, Set<String> aggregatedFields, int countDistinctFunctions) {
+        ObjectNode key = NODES.objectNode();
+        if (this.grouped) {
+            Iterator<Map.Entry<String, JsonNode>> fields = row.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                if (!aggregatedFields.contains(field.getKey())) {
+                    key.set(field.getKey(), field.getValue());
+                }
+            }
+        }
+        return groups.computeIfAbsent(key, k -> new Group(countDistinctFunctions));
+    }
+
+    public String toString() {
+        return "Aggregation(functions=" + this.functions + ", grouped=" + this.grouped + ")";
+    }
+
+    /**
+     * Results of the functions of a group merged from its partial rows
+     */
+    private final class Group {
+        private final JsonNode[] values = new JsonNode[functions.size()];
+        private final long[] counts = new long[functions.size()];
+        private final List<Set<JsonNode>> distinctValues;
+
+        private Group(int countDistinctFunctions) {
+            this.distinctValues = new ArrayList<>(countDistinctFunctions);
+            for (int i = 0; i < countDistinctFunctions; i++) {
+                this.distinctValues.add(new HashSet<>());
+            }
+        }
+
+        private void accumulate(JsonNode row) {
+            for (int i = 0; i < functions.size(); i++) {
+                AggregateFunction function = functions.get(i);
+                switch (function.getType()) {
+                    case COUNT:
+                    case SUM:
+                        this.values[i] = add(this.values[i], row.get(function.getAlias()));
+                        break;
+                    case AVG:
+                        this.values[i] = add(this.values[i], row.get(function.getSumAlias()));
+                        JsonNode count = row.get(function.getCountAlias());
+                        this.counts[i] += count != null && count.isNumber() ? count.longValue() : 0;
+                        break;
+                    case MIN:
+                    case MAX:
+                        JsonNode value = row.get(function.getAlias());
+                        if (value != null && (this.values[i] == null || compare(value, this.values[i]) * (function.getType() == AggregateType.MIN ? 1 : -1) < 0)) {
+                            this.values[i] = value;
+                        }
+                        break;
+                    default:
+                }
+            }
+        }
+
+        private ObjectNode toRow(ObjectNode key) {
+            ObjectNode row = key.deepCopy();
+            int distinct = 0;
+            for (int i = 0; i < functions.size(); i++) {
+                AggregateFunction function = functions.get(i);
+                switch (function.getType()) {
+                    case COUNT:
+                        row.set(function.getAlias(), this.values[i] != null ? this.values[i] : NODES.numberNode(0L));
+                        break;
+                    case COUNT_DISTINCT:
+                        row.put(function.getAlias(), (long) this.distinctValues.get(distinct++).size());
+                        break;
+                    case AVG:
+                        if (this.values[i] != null && this.counts[i] > 0) {
+                            row.put(function.getAlias(), this.values[i].doubleValue() / this.counts[i]);
+                        }
+                        break;
+                    default:
+                        if (this.values[i] != null) {
+                            row.set(function.getAlias(), this.values[i]);
+                        }
+                }
+            }
+            return row;
+        }
+    }
+
+    /**
+     * @return sum of both values, integral when both are integral. Values that are not numbers are ignored
+     */
+    private static JsonNode add(JsonNode accumulated, JsonNode value) {
+        if (value == null || !value.isNumber()) {
+            return accumulated;
+        }
+        if (accumulated == null) {
+            return value;
+        }
+        if (accumulated.isIntegralNumber() && value.isIntegralNumber()) {
+            return NODES.numberNode(accumulated.longValue() + value.longValue());
+        }
+        return NODES.numberNode(accumulated.doubleValue() + value.doubleValue());
+    }
+
+    /**
+     * Compares the values as cosmosdb sorts them: null, booleans, numbers and strings
+     * @return negative, zero or positive when the first value is lower, equal or greater than the second one
+     */
+    private static int compare(JsonNode first, JsonNode second) {
+        int rank = Integer.compare(rankOf(first), rankOf(second));
+        if (rank != 0) {
+            return rank;
+        }
+        if (first.isBoolean()) {
+            return Boolean.compare(first.booleanValue(), second.booleanValue());
+        }
+        if (first.isNumber()) {
+            return first.decimalValue().compareTo(second.decimalValue());
+        }
+        return first.asText().compareTo(second.asText());
+    }
+
+    private static int rankOf(JsonNode value) {
+        if (value.isNull()) {
+            return 0;
+        }
+        if (value.isBoolean()) {
+            return 1;
+        }
+        return value.isNumber() ? 2 : 3;
+    }
+}
@@ -2,9 +2,11 @@ package reactor.cosmosdb.criteria.domain;
 
 import reactor.cosmosdb.criteria.domain.exception.AppCriteriaBuilderException;
 
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 /**
  * This class is responsible for generating the sql statement that will be executed in cosmosdb
@@ -14,12 +16,27 @@ import java.util.stream.Collectors;
 public abstract class AppCriteriaBuilder<T> {
     private final String SELECT_SENTENCE = "SELECT VALUE c FROM c ";
     private final String SELECT_COUNT_SENTENCE = "SELECT COUNT(1) AS totalCount FROM c ";
+    private static final List<String> NULL_VALUE = List.of("nullValue");
+    private static final String SELECT_PREFIX = "SELECT ";
+    private static final String COUNT_PREFIX = "SELECT COUNT(1) AS totalCount FROM ";
+    private static final String EXISTS_PREFIX = "SELECT TOP 1 VALUE 1 FROM ";
 
     private String selectCustomSentence;
 
     private final StringBuilder querySentence;
+    private String countQuerySentence;
     private final StringBuilder queryWheres;
+    private final List<Object> parameterValues;
+    private final List<ParameterBinding> parameterBindings;
+    private final StringBuilder conditionBuffer;
+    private final Map<String, int[]> equalityFilterIndexes;
+    private final List<ConditionClause> clauses;
+    private List<CriteriaCondition> orGroupConditions;
+    private List<CriteriaCondition> pendingConditions;
+    private String pendingConditionSentence;
     private String orderBySentence;
+    private final List<String> orderColumns;
+    private final List<AppFilterOrder> orderDirections;
 
     private String groupBySentence;
 
@@ -31,10 +48,26 @@ public abstract class AppCriteriaBuilder<T> {
 
     private boolean ignoreAutoGeneratedFirstConditional;
 
+    private boolean isManualConditionalUsed;
+
     private QueryType queryType;
 
     private boolean isGroupByActive;
 
+    private boolean isStructured;
+
+    private boolean omitTautology;
+
+    private boolean isKeysetActive;
+
+    private KeysetOrder keysetOrder;
+
+    private List<Object> seekValues;
+
+    private final List<AggregateFunction> aggregateFunctions;
+
+    private Aggregation aggregation;
+
 
     /**
      *
@@ -42,13 +75,156 @@ public abstract class AppCriteriaBuilder<T> {
      */
     protected StringBuilder getQuerySentence(){return this.querySentence;}
 
+    /**
+     * @return values of the placeholders (@p0, @p1, ...) used inside the query sentence
+     */
+    protected List<Object> getParameterValues(){return this.parameterValues;}
+
+    /**
+     * generates the sql sentence and returns it together with the values of its placeholders
+     * @return query that can be launched against cosmosdb
+     */
+    protected CriteriaQuery buildCriteriaQuery(){
+        this.generateSqlSentence();
+        return CriteriaQuery.create(this.querySentence.toString(),this.countQuerySentence,new ArrayList<>(this.parameterValues),this.isCountQuery(),this.getEqualityFilterIndexes(),this.isPartitionSplittable(),this.getCriteriaModel(),this.keysetOrder,this.aggregation);
+    }
+
+    /**
+     * generates the sql sentence and rewrites it with the rules of the rewriter
+     * @param rewriter : rewriter applied to the query
+     * @return query that can be launched against cosmosdb
+     */
+    protected CriteriaQuery buildCriteriaQuery(QueryRewriter rewriter){
+        return rewriter.rewrite(this.buildCriteriaQuery());
+    }
+
+    /**
+     * @return structured representation of the criteria, null when it has where conditions not generated by the builder
+     * or ignoreAutoGeneratedFirstConditional has been used
+     */
+    private CriteriaModel getCriteriaModel(){
+        if(!this.isStructured || this.isManualConditionalUsed){
+            return null;
+        }
+        return new CriteriaModel(this.queryType,this.selectCustomSentence,this.groupBySentence,this.orderBySentence,this.clauses,this.keysetOrder,this.seekValues,this.aggregateFunctions);
+    }
+
+    /**
+     * copies the select, group by and order by sentences of the model and its keyset, the where sentence is rendered without 1=1
+     * @param model : structured representation of a criteria
+     */
+    void applyModel(CriteriaModel model){
+        this.queryType = model.getQueryType();
+        this.selectCustomSentence = model.getSelectCustomSentence();
+        this.groupBySentence = model.getGroupBySentence();
+        this.isGroupByActive = !model.getGroupBySentence().isEmpty();
+        this.orderBySentence = model.getOrderBySentence();
+        this.keysetOrder = model.getKeysetOrder();
+        this.isKeysetActive = this.keysetOrder != null;
+        this.seekValues = model.getSeekValues();
+        this.aggregateFunctions.addAll(model.getAggregateFunctions());
+        this.omitTautology = true;
+    }
+
+    /**
+     * renders the clauses provided as where sentence of the query
+     * @param clauses : clauses joined with AND
+     * @return query that can be launched against cosmosdb
+     */
+    CriteriaQuery buildCriteriaQuery(List<ConditionClause> clauses){
+        for(ConditionClause clause : clauses){
+            List<CriteriaCondition> conditions = clause.getConditions();
+            if(!clause.isOrGroup()){
+                this.addWhereCondition(this.conditionalCreatorGenerator(conditions.get(0)));
+                continue;
+            }
+            this.or_start();
+            for(int i = 0; i < conditions.size(); i++){
+                CriteriaCondition condition = conditions.get(i);
+                int end = i + 1;
+                while(condition.isSharedSubQuery() && end < conditions.size() && conditions.get(end).isSharedSubQuery()
+                        && conditions.get(end).getRoot().equals(condition.getRoot())){
+                    end++;
+                }
+                this.addWhereCondition(end - i > 1
+                        ? this.arraySubQueryCreator(conditions.subList(i,end))
+                        : this.conditionalCreatorGenerator(condition));
+                i = end - 1;
+            }
+            this.or_end();
+        }
+        return this.buildCriteriaQuery();
+    }
+
+    /**
+     * Compiles the criteria into a reusable template. The values used while building are only examples,
+     * they define the shape of the query (number of values of every condition) but they are not kept.
+     * Criteria paginated by keyset can not be compiled, because the shape of the query depends on the cursor.
+     * @return immutable template that can be bound with new values on every request
+     * @see CriteriaTemplateCache
+     */
+    public CriteriaTemplate compile(){
+        if(this.isKeysetActive){
+            throw new AppCriteriaBuilderException("Invalid compilation. Criteria paginated by keyset can not be compiled");
+        }
+        this.generateSqlSentence();
+        return new CriteriaTemplate(this.querySentence.toString(),this.countQuerySentence,this.parameterBindings,this.isCountQuery(),this.getEqualityFilterIndexes(),this.isPartitionSplittable(),this.aggregation);
+    }
+
+    /**
+     * @return placeholders of the EQUALS conditions that every result satisfies, by column. Columns compared more than once are left out
+     */
+    private Map<String, int[]> getEqualityFilterIndexes(){
+        if(this.isManualConditionalUsed){
+            return Map.of();
+        }
+        Map<String, int[]> indexes = new LinkedHashMap<>();
+        this.equalityFilterIndexes.forEach((column,columnIndexes)->{
+            if(columnIndexes != null){
+                indexes.put(column,columnIndexes);
+            }
+        });
+        return Collections.unmodifiableMap(indexes);
+    }
+
+    /**
+     * @return true if the results can be obtained by merging one query per partition key, which means that
+     * the query does not aggregate (count, custom select, group by) nor sort the documents
+     */
+    private boolean isPartitionSplittable(){
+        return (this.queryType == QueryType.NORMAL || this.queryType == QueryType.PROJECTION) && !this.isGroupByActive && this.orderBySentence.isEmpty()
+                && !this.isKeysetActive;
+    }
+
     /**
      * @param condition: a piece of where condition that is going to be added to the query
      */
     protected void addWhereCondition(String condition){
+        this.recordConditions(condition);
         this.queryWheres.append(condition);
     }
 
+    /**
+     * keeps the structured representation of the conditions generated by the builder,
+     * any other where condition makes the criteria impossible to rewrite
+     * @param condition : piece of where condition added to the query
+     */
+    private void recordConditions(String condition){
+        if(this.pendingConditions != null && condition == this.pendingConditionSentence){
+            if(this.isOrActive){
+                this.orGroupConditions.addAll(this.pendingConditions);
+            }else{
+                for(CriteriaCondition pendingCondition : this.pendingConditions){
+                    this.clauses.add(ConditionClause.of(pendingCondition));
+                }
+            }
+        }else if(!condition.isEmpty()){
+            this.isStructured = false;
+        }
+        this.pendingConditions = null;
+        this.pendingConditionSentence = null;
+    }
+
     /**
      * constructor of the class that initializes all necessaries attributes
      */
@@ -56,10 +232,19 @@ public abstract class AppCriteriaBuilder<T> {
         this.ignoreAutoGeneratedFirstConditional = false;
         this.queryType = QueryType.NORMAL;
         this.queryWheres = new StringBuilder();
+        this.parameterValues = new ArrayList<>();
+        this.parameterBindings = new ArrayList<>();
+        this.conditionBuffer = new StringBuilder(128);
+        this.equalityFilterIndexes = new LinkedHashMap<>();
+        this.clauses = new ArrayList<>();
+        this.isStructured = true;
         this.querySentence = new StringBuilder();
         this.isEmpty = true;
         this.isGroupByActive = false;
         this.orderBySentence = "";
+        this.orderColumns = new ArrayList<>();
+        this.orderDirections = new ArrayList<>();
+        this.aggregateFunctions = new ArrayList<>();
         this.groupBySentence = "";
     }
 
@@ -70,6 +255,7 @@ public abstract class AppCriteriaBuilder<T> {
      */
     public T ignoreAutoGeneratedFirstConditional(){
         this.ignoreAutoGeneratedFirstConditional = true;
+        this.isManualConditionalUsed = true;
         this.queryWheres.append("AND ");
         return (T) this;
     }
@@ -115,6 +301,42 @@ public abstract class AppCriteriaBuilder<T> {
         return (T) this;
     }
 
+    /**
+     * Selects only the attributes of the projection instead of the whole documents,
+     * the results can be deserialized straight into a projection class
+     * @param projection : attributes selected
+     * @return container criteria builder with projection query type enabled
+     */
+    public T selectProjection(Projection projection){
+        if(projection == null){
+            throw new AppCriteriaBuilderException("Invalid projection. You can not provide a null projection");
+        }
+        this.queryType = QueryType.PROJECTION;
+        this.selectCustomSentence = "SELECT " + projection.getSelectSentence() + " FROM c ";
+        return (T) this;
+    }
+
+    /**
+     * Selects only the attributes of the fields of the projection class, see {@link Projection#of(Class)}
+     * @param projectionClass : class where the results are going to be deserialized
+     * @return container criteria builder with projection query type enabled
+     */
+    public T selectProjection(Class<?> projectionClass){
+        if(projectionClass == null){
+            throw new AppCriteriaBuilderException("Invalid projection. You can not provide a null projection class");
+        }
+        return this.selectProjection(Projection.of(projectionClass));
+    }
+
+    /**
+     * Selects only the attributes provided, nested attributes are separated by dots (ej: address.city)
+     * @param paths : attributes selected with the name of their last attribute
+     * @return container criteria builder with projection query type enabled
+     */
+    public T selectFields(String... paths){
+        return this.selectProjection(Projection.of(paths));
+    }
+
     /**
      * @return container criteria builder with AND clause
      */
@@ -157,7 +379,8 @@ public abstract class AppCriteriaBuilder<T> {
         }
         this.isOrActive = true;
         this.isOrJustStarted = true;
-        this.queryWheres.append("AND ( ");
+        this.orGroupConditions = new ArrayList<>();
+        this.queryWheres.append(this.isFirstCondition() ? " ( " : "AND ( ");
         return (T) this;
     }
 
@@ -172,10 +395,88 @@ public abstract class AppCriteriaBuilder<T> {
             throw new AppCriteriaBuilderException("malformed sentence, or_start forgotten before or_end");
         }
         this.isOrActive = false;
+        if(!this.orGroupConditions.isEmpty()){
+            this.clauses.add(new ConditionClause(this.orGroupConditions));
+        }
         this.queryWheres.append(") ");
         return (T) this;
     }
 
+    /**
+     * Counts the documents of every group, see {@link #sum(String, String)}
+     * @param alias : name of the result in the aggregate rows
+     * @return container criteria builder with aggregate query type enabled
+     */
+    public T count(String alias){
+        return this.aggregate(AggregateType.COUNT,null,alias);
+    }
+
+    /**
+     * Sums an attribute of the documents of every group. Aggregate functions can be combined between them and with groupBy,
+     * every aggregate row has the attributes of the group by sentence and the result of every function by its alias.
+     * Launch the criteria with aggregateByCriteria of the repository, that merges the partial rows returned by every partition
+     * @param targetColumn : attribute from cosmosdb container
+     * @param alias : name of the result in the aggregate rows
+     * @return container criteria builder with aggregate query type enabled
+     */
+    public T sum(String targetColumn,String alias){
+        return this.aggregate(AggregateType.SUM,targetColumn,alias);
+    }
+
+    /**
+     * Averages an attribute of the documents of every group, see {@link #sum(String, String)}
+     * @param targetColumn : attribute from cosmosdb container
+     * @param alias : name of the result in the aggregate rows
+     * @return container criteria builder with aggregate query type enabled
+     */
+    public T avg(String targetColumn,String alias){
+        return this.aggregate(AggregateType.AVG,targetColumn,alias);
+    }
+
+    /**
+     * Minimum value of an attribute of the documents of every group, see {@link #sum(String, String)}
+     * @param targetColumn : attribute from cosmosdb container
+     * @param alias : name of the result in the aggregate rows
+     * @return container criteria builder with aggregate query type enabled
+     */
+    public T min(String targetColumn,String alias){
+        return this.aggregate(AggregateType.MIN,targetColumn,alias);
+    }
+
+    /**
+     * Maximum value of an attribute of the documents of every group, see {@link #sum(String, String)}
+     * @param targetColumn : attribute from cosmosdb container
+     * @param alias : name of the result in the aggregate rows
+     * @return container criteria builder with aggregate query type enabled
+     */
+    public T max(String targetColumn,String alias){
+        return this.aggregate(AggregateType.MAX,targetColumn,alias);
+    }
+
+    /**
+     * Number of distinct values of an attribute of the documents of every group, see {@link #sum(String, String)}.
+     * Cosmosdb does not support COUNT(DISTINCT), so the distinct values are selected by another query grouped by the attribute:
+     * it reads one row per distinct value and group, and fails when they are more than Aggregation.MAX_COUNT_DISTINCT_ROWS
+     * @param targetColumn : attribute from cosmosdb container
+     * @param alias : name of the result in the aggregate rows
+     * @return container criteria builder with aggregate query type enabled
+     */
+    public T countDistinct(String targetColumn,String alias){
+        return this.aggregate(AggregateType.COUNT_DISTINCT,targetColumn,alias);
+    }
+
+    private T aggregate(AggregateType type,String targetColumn,String alias){
+        AggregateFunction function = new AggregateFunction(type,targetColumn,alias);
+        for(AggregateFunction aggregateFunction : this.aggregateFunctions){
+            if(aggregateFunction.getAlias().equals(alias)){
+                throw new AppCriteriaBuilderException("Invalid aggregation. The alias " + alias + " is used by more than one aggregate function");
+            }
+        }
+        this.queryType = QueryType.AGGREGATE;
+        this.aggregateFunctions.add(function);
+        return (T) this;
+    }
+
     /**
      * BE CAREFUL! when you use this method, you need to be aware to create a right group by sentence.
      * Always use alias c. for your group by sentence
@@ -210,18 +511,17 @@ public abstract class AppCriteriaBuilder<T> {
         if(ignoreAutoGeneratedFirstConditional){
             return firstConditional;
         }
-        if (!isOrJustStarted) {
+        if (!isOrJustStarted && !isFirstCondition()) {
             firstConditional = isOrActive ? "OR" : "AND";
         }
         return firstConditional;
     }
 
     /**
-     * @param criteriaType: criteria operator to compare with null operators
-     * @return true if criteria operator is from null type
+     * @return true if the where sentence is rendered without 1=1 and there is no condition yet, so it must not start with AND
      */
-    private boolean isOperatorNullType(CriteriaOperator criteriaType){
-        return CriteriaOperator.NOT_NULL.getId().equals(criteriaType.getId()) || CriteriaOperator.NULL.getId().equals(criteriaType.getId());
+    private boolean isFirstCondition(){
+        return this.omitTautology && this.queryWheres.length() == 0;
     }
 
     /**
@@ -229,17 +529,14 @@ public abstract class AppCriteriaBuilder<T> {
      * @return true if criteria operator is a negative operator against array
      */
     private boolean isOperatorNegative(CriteriaOperator criteriaType){
-        return CriteriaOperator.NOT_CONTAINS.equals(criteriaType)
-                || CriteriaOperator.NOT_EQUALS.equals(criteriaType)
-                || CriteriaOperator.NOT_EQUALS_STRICT.equals(criteriaType);
-    }
-
-    /**
-     * @param criteriaType: criteria operator to compare with like operators
-     * @return true if criteria operator is from like type
-     */
-    private boolean isOperatorLikeType(CriteriaOperator criteriaType){
-        return CriteriaOperator.LIKE.getId().equals(criteriaType.getId()) || CriteriaOperator.LIKE_STRICT.getId().equals(criteriaType.getId());
+        switch (criteriaType){
+            case NOT_CONTAINS:
+            case NOT_EQUALS:
+            case NOT_EQUALS_STRICT:
+                return true;
+            default:
+                return false;
+        }
     }
 
     /**
@@ -248,14 +545,20 @@ public abstract class AppCriteriaBuilder<T> {
      * @return true if you are comparison against one unique value and operator that is from detailed below on method
      */
     private boolean isOperatorEqualsTypeAndValueLengthEqualsOne(CriteriaOperator criteriaType,List<String> value) {
-        return value.size() <= 1 && (
-                CriteriaOperator.EQUALS.getId().equals(criteriaType.getId())
-                        || CriteriaOperator.NOT_EQUALS.getId().equals(criteriaType.getId())
-                        || CriteriaOperator.MORE_THAN.getId().equals(criteriaType.getId())
-                        || CriteriaOperator.MORE_OR_EQUALS_THAN.getId().equals(criteriaType.getId())
-                        || CriteriaOperator.LESS_THAN.getId().equals(criteriaType.getId())
-                        || CriteriaOperator.LESS_OR_EQUALS_THAN.getId().equals(criteriaType.getId())
-        );
+        if(value.size() > 1){
+            return false;
+        }
+        switch (criteriaType){
+            case EQUALS:
+            case NOT_EQUALS:
+            case MORE_THAN:
+            case MORE_OR_EQUALS_THAN:
+            case LESS_THAN:
+            case LESS_OR_EQUALS_THAN:
+                return true;
+            default:
+                return false;
+        }
     }
 
     /**
@@ -265,21 +568,59 @@ public abstract class AppCriteriaBuilder<T> {
      * @return container criteria builder with order sentence set
      */
     public T setOrderBySentence(String targetColumn,AppFilterOrder appFilterOrder){
-        String targetColumnParsed = "c."+targetColumn;
-        this.orderBySentence = String.format("ORDER BY %s %s",targetColumnParsed,appFilterOrder.getValue());
+        this.orderBySentence = "ORDER BY c." + targetColumn + " " + appFilterOrder.getValue();
+        this.orderColumns.clear();
+        this.orderDirections.clear();
+        this.orderColumns.add(targetColumn);
+        this.orderDirections.add(appFilterOrder);
         return (T) this;
     }
 
     /**
+     * Function that adds another sort column to the order by sentence, used when the previous columns are equal.
+     * Sorting by more than one column needs a composite index with the same columns and orders
      * @param targetColumn : attribute from cosmosdb container
+     * @param appFilterOrder: object that represents the order of the column
+     * @return container criteria builder with the sort column added
+     */
+    public T thenOrderBy(String targetColumn,AppFilterOrder appFilterOrder){
+        if(this.orderBySentence.isEmpty()){
+            throw new AppCriteriaBuilderException("Invalid order by sentence. You must call setOrderBySentence before thenOrderBy");
+        }
+        this.orderBySentence = this.orderBySentence + ", c." + targetColumn + " " + appFilterOrder.getValue();
+        this.orderColumns.add(targetColumn);
+        this.orderDirections.add(appFilterOrder);
+        return (T) this;
+    }
+
+    /**
+     * Paginates the criteria by keyset (seek pagination): the documents are sorted by the columns of the order by sentence
+     * followed by their id, and only the documents after the cursor are read, so the cost of a page does not grow with its position
+     * and the cursor stays valid over time. The cursor of the next page is returned by the keyset methods of the repository.
+     * The sort columns must be defined in every document and can not be null.
+     * @param cursor : cursor returned with the previous page, null or empty to read the first page
+     * @return container criteria builder paginated by keyset
+     * @see KeysetOrder
+     */
+    public T seekAfter(String cursor){
+        this.isKeysetActive = true;
+        this.seekValues = KeysetCursor.decode(cursor);
+        return (T) this;
+    }
+
+    /**
+     * appends the beginning of a sub query against the root array of the column
+     * @param query : sentence where the sub query is appended
+     * @param columnPath : attribute from cosmosdb container
      * @param criteriaOperator : criteria operator to compare
-     * @return a sub query sentence
      * @see <a href= "https://learn.microsoft.com/en-us/azure/cosmos-db/nosql/query/subquery">cosmosdb subqueries</a>
      */
-    private String generateSubQueryExists(String targetColumn,CriteriaOperator criteriaOperator){
-        String [] targetColumnSplit = targetColumn.split("\\.");
-        String subQueryFirstPart = isOperatorNegative(criteriaOperator) ? "NOT EXISTS": "EXISTS";
-        return String.format("%s(SELECT %s FROM %s IN c.%s WHERE ",subQueryFirstPart,targetColumnSplit[0],targetColumnSplit[0],targetColumnSplit[0]);
+    private void appendSubQueryExists(StringBuilder query,ColumnPath columnPath,CriteriaOperator criteriaOperator){
+        query.append(isOperatorNegative(criteriaOperator) ? "NOT EXISTS" : "EXISTS")
+                .append("(SELECT ").append(columnPath.getRoot())
+                .append(" FROM ").append(columnPath.getRoot())
+                .append(" IN ").append(columnPath.getQualifiedRoot())
+                .append(" WHERE ");
     }
 
 
@@ -310,12 +651,7 @@ public abstract class AppCriteriaBuilder<T> {
      * @return conditional sentence against an attribute from container
      */
     protected String nullConditionCreator(CriteriaOperator criteriaType,String targetColumn){
-        return this.conditionalCreatorGenerator(criteriaType,targetColumn,List.of("nullValue"),false);
-    }
-
-
-    private String getTargetColumn(boolean againstArray, String targetColumn){
-        return againstArray ? targetColumn : "c."+targetColumn;
+        return this.conditionalCreatorGenerator(criteriaType,targetColumn,NULL_VALUE,false);
     }
 
     /**
@@ -329,188 +665,443 @@ public abstract class AppCriteriaBuilder<T> {
         if(value.isEmpty()) {
             return "";
         }
+        return this.conditionalCreatorGenerator(new CriteriaCondition(criteriaType,targetColumn,value,againstArray));
+    }
 
+    /**
+     * @param condition : condition to render
+     * @return conditional sentence against any attribute from container
+     */
+    private String conditionalCreatorGenerator(CriteriaCondition condition){
         this.isEmpty = false;
 
-        StringBuilder firstPart = new StringBuilder(getFirstConditional());
-        String closeSentence = "";
+        StringBuilder query = this.conditionBuffer;
+        query.setLength(0);
+        query.append(getFirstConditional());
+        isOrJustStarted = false;
+
+        CriteriaOperator criteriaType = condition.getOperator();
+        boolean againstArray = condition.isAgainstArray();
+        ColumnPath columnPath = ColumnPath.of(condition.getColumn());
+        String column = againstArray ? columnPath.getColumn() : columnPath.getQualifiedColumn();
         if(againstArray){
-            firstPart.append(" ").append(generateSubQueryExists(targetColumn,criteriaType));
-            closeSentence = ")";
+            query.append(' ');
+            appendSubQueryExists(query,columnPath,criteriaType);
         }
+        if(criteriaType == CriteriaOperator.EQUALS && !againstArray){
+            registerEqualityFilter(columnPath,condition.getValues().size());
+        }
+        appendCondition(query,criteriaType,columnPath,column,condition.getValues(),againstArray,condition.getFunction());
+        if(againstArray){
+            query.append(')');
+        }
+        return this.pending(List.of(condition),query.append(' ').toString());
+    }
 
+    /**
+     * renders conditions against the same array inside a single EXISTS sub query, joined with OR
+     * @param conditions : positive conditions against the same array
+     * @return conditional sentence against an array attribute from container
+     */
+    private String arraySubQueryCreator(List<CriteriaCondition> conditions){
+        this.isEmpty = false;
 
+        StringBuilder query = this.conditionBuffer;
+        query.setLength(0);
+        query.append(getFirstConditional());
         isOrJustStarted = false;
 
-        if(isOperatorNullType(criteriaType)){
-            if(criteriaType == CriteriaOperator.NULL){
-                return String.format("%s ( %s %s OR NOT IS_DEFINED(%s) )%s ",
-                        firstPart,
-                        getTargetColumn(againstArray,targetColumn),
-                        criteriaType.getValue(),
-                        getTargetColumn(againstArray,targetColumn),
-                        closeSentence
-                );
-            }
-            return String.format("%s %s %s %s ",
-                    firstPart,
-                    getTargetColumn(againstArray,targetColumn),
-                    criteriaType.getValue(),
-                    closeSentence
-            );
-        }
-
-        if(isOperatorLikeType(criteriaType)){
-            List<String> valueLikeParsed = CriteriaOperator.LIKE_STRICT.getId().equals(criteriaType.getId())
-                    ? value
-                    : value.stream()
-                    .map(x->Arrays.stream(x.split(" ")).reduce("",(acc, element)->acc + "%" + element))
-                    .collect(Collectors.toList());
-            StringBuilder query = new StringBuilder();
-            query.append(String.format("%s ( ",firstPart));
-            for(int i =0 ;i<valueLikeParsed.size();i++){
-                query.append(String.format("UPPER(%s) %s UPPER('%%%s%%') ",getTargetColumn(againstArray,targetColumn),criteriaType.getValue(),valueLikeParsed.get(i)));
-                query.append(i<valueLikeParsed.size() -1 ? "OR " : ") ");
-            }
-            return query.append(closeSentence).append(" ").toString();
+        query.append(' ');
+        appendSubQueryExists(query,ColumnPath.of(conditions.get(0).getColumn()),conditions.get(0).getOperator());
+        for(int i = 0; i < conditions.size(); i++){
+            CriteriaCondition condition = conditions.get(i);
+            ColumnPath columnPath = ColumnPath.of(condition.getColumn());
+            query.append(i > 0 ? " OR (" : " (");
+            appendCondition(query,condition.getOperator(),columnPath,columnPath.getColumn(),condition.getValues(),true,condition.getFunction());
+            query.append(" )");
+        }
+        query.append(')');
+        return this.pending(conditions,query.append(' ').toString());
+    }
+
+    /**
+     * @param conditions : conditions rendered
+     * @param sentence : conditional sentence of the conditions
+     * @return the conditional sentence, which conditions are recorded once it is added to the query
+     */
+    private String pending(List<CriteriaCondition> conditions,String sentence){
+        this.pendingConditions = conditions;
+        this.pendingConditionSentence = sentence;
+        return sentence;
+    }
+
+    /**
+     * registers the placeholders of an EQUALS condition when it must be satisfied by every result,
+     * so the query can be routed to the partitions of its values
+     * @param columnPath : attribute from cosmosdb container
+     * @param values : number of values compared
+     */
+    private void registerEqualityFilter(ColumnPath columnPath,int values){
+        if(this.isOrActive || this.isManualConditionalUsed){
+            return;
+        }
+        if(this.equalityFilterIndexes.containsKey(columnPath.getColumn())){
+            this.equalityFilterIndexes.put(columnPath.getColumn(),null);
+            return;
+        }
+        int[] indexes = new int[values];
+        for(int i = 0; i < values; i++){
+            indexes[i] = this.parameterValues.size() + i;
+        }
+        this.equalityFilterIndexes.put(columnPath.getColumn(),indexes);
+    }
+
+    /**
+     * appends the comparison of the column with the values, without the first conditional and the close of the sub query
+     * @param query : sentence where the condition is appended
+     * @param criteriaType : criteria operator to compare
+     * @param columnPath : attribute from cosmosdb container
+     * @param column : column as it has to be written in the comparison
+     * @param value : value to compare with
+     * @param againstArray : boolean that indicates if you are comparing against an array attribute or a simple attribute from cosmosdb container
+     * @param function : sql function used instead of the operator
+     */
+    private void appendCondition(StringBuilder query, CriteriaOperator criteriaType, ColumnPath columnPath, String column, List<String> value, boolean againstArray, CriteriaCondition.SqlFunction function){
+        switch (criteriaType){
+            case NULL:
+                query.append(" ( ").append(column).append(' ').append(criteriaType.getValue())
+                        .append(" OR NOT IS_DEFINED(").append(column).append(") )");
+                return;
+            case NOT_NULL:
+                query.append(' ').append(column).append(' ').append(criteriaType.getValue()).append(' ');
+                return;
+            case LIKE:
+            case LIKE_STRICT:
+                if(function == CriteriaCondition.SqlFunction.CONTAINS_IGNORE_CASE){
+                    query.append(" ( ");
+                    for(int i =0 ;i<value.size();i++){
+                        query.append("CONTAINS(").append(column).append(", ");
+                        appendParameter(query,value.get(i),ParameterBinding.VALUE);
+                        query.append(", true) ").append(i<value.size() -1 ? "OR " : ") ");
+                    }
+                    return;
+                }
+                ParameterBinding binding = criteriaType == CriteriaOperator.LIKE_STRICT
+                        ? ParameterBinding.LIKE_STRICT
+                        : ParameterBinding.LIKE;
+                query.append(" ( ");
+                for(int i =0 ;i<value.size();i++){
+                    query.append("UPPER(").append(column).append(") ").append(criteriaType.getValue()).append(" UPPER(");
+                    appendParameter(query,value.get(i),binding);
+                    query.append(") ").append(i<value.size() -1 ? "OR " : ") ");
+                }
+                return;
+            default:
+                break;
         }
 
         if (isOperatorEqualsTypeAndValueLengthEqualsOne(criteriaType,value)) {
-            return String.format("%s %s %s '%s' %s ",
-                    firstPart,
-                    getTargetColumn(againstArray,targetColumn),
-                    criteriaType.getValue(),
-                    value.get(0),
-                    closeSentence
-            );
-        }
-
-        if(CriteriaOperator.EQUALS_STRICT_IGNORING_CAMEL_CASE.getId().equals(criteriaType.getId())){
-            return String.format("%s ARRAY_LENGTH(%s) = %d AND UPPER(%s) IN %s %s ",
-                    firstPart,
-                    getParentTargetColumnForLengthChecking(targetColumn),
-                    value.size(),
-                    getTargetColumn(againstArray,targetColumn),
-                    this.mapListUPPERToSqlArray(value),
-                    closeSentence
-            );
-        }
-
-        if (CriteriaOperator.EQUALS_STRICT.getId().equals(criteriaType.getId())) {
-            return String.format("%s ARRAY_LENGTH(%s) = %d AND %s IN %s %s ",
-                    firstPart,
-                    getParentTargetColumnForLengthChecking(targetColumn),
-                    value.size(),
-                    getTargetColumn(againstArray,targetColumn),
-                    this.mapListToSqlArray(value),
-                    closeSentence
-            );
-        }
-        if (CriteriaOperator.EQUALS.getId().equals(criteriaType.getId())) {
-            return String.format("%s %s IN %s %s ",
-                    firstPart,
-                    getTargetColumn(againstArray,targetColumn),
-                    this.mapListToSqlArray(value),
-                    closeSentence
-            );
-        }
-
-        if (CriteriaOperator.NOT_EQUALS_STRICT.getId().equals(criteriaType.getId())) {
-            return String.format("%s ( ARRAY_LENGTH(%s) != %d OR ( ARRAY_LENGTH(%s) = %d AND %s %s %s ) ) %s ",
-                    firstPart,
-                    getParentTargetColumnForLengthChecking(targetColumn),
-                    value.size(),
-                    getParentTargetColumnForLengthChecking(targetColumn),
-                    value.size(),
-                    getTargetColumn(againstArray,targetColumn),
-                    againstArray ? "IN" : "NOT IN",
-                    this.mapListToSqlArray(value),
-                    closeSentence
-            );
-        }
-        if (CriteriaOperator.NOT_EQUALS.getId().equals(criteriaType.getId())) {
-            return String.format("%s %s %s %s ) ) %s ",
-                    firstPart,
-                    getTargetColumn(againstArray,targetColumn),
-                    againstArray ? "IN" : "NOT IN",
-                    this.mapListToSqlArray(value),
-                    closeSentence
-            );
-        }
-
-        if(againstArray && CriteriaOperator.NOT_CONTAINS.equals(criteriaType)){
-            return String.format("%s %s IN %s %s ", firstPart,getTargetColumn(true,targetColumn), this.mapListToSqlArray(value),closeSentence);
-        }
-
-        return String.format("%s %s %s %s %s ", firstPart,getTargetColumn(againstArray,targetColumn), criteriaType.getValue(), this.mapListToSqlArray(value),closeSentence);
+            query.append(' ').append(column).append(' ').append(criteriaType.getValue()).append(' ');
+            appendParameter(query,value.get(0),ParameterBinding.VALUE);
+            query.append(' ');
+            return;
+        }
+
+        switch (criteriaType){
+            case EQUALS_STRICT_IGNORING_CAMEL_CASE:
+                query.append(" ARRAY_LENGTH(").append(columnPath.getQualifiedRoot()).append(") = ").append(value.size())
+                        .append(" AND UPPER(").append(column).append(") IN ");
+                appendSqlArray(query,value,true);
+                break;
+            case EQUALS_STRICT:
+                query.append(" ARRAY_LENGTH(").append(columnPath.getQualifiedRoot()).append(") = ").append(value.size())
+                        .append(" AND ").append(column).append(" IN ");
+                appendSqlArray(query,value,false);
+                break;
+            case EQUALS:
+                query.append(' ').append(column).append(" IN ");
+                appendSqlArray(query,value,false);
+                break;
+            case NOT_EQUALS_STRICT:
+                query.append(" ( ARRAY_LENGTH(").append(columnPath.getQualifiedRoot()).append(") != ").append(value.size())
+                        .append(" OR ( ARRAY_LENGTH(").append(columnPath.getQualifiedRoot()).append(") = ").append(value.size())
+                        .append(" AND ").append(column).append(againstArray ? " IN " : " NOT IN ");
+                appendSqlArray(query,value,false);
+                query.append(" ) )");
+                break;
+            case NOT_EQUALS:
+                query.append(' ').append(column).append(againstArray ? " IN " : " NOT IN ");
+                appendSqlArray(query,value,false);
+                query.append(" ) )");
+                break;
+            case NOT_CONTAINS:
+                if(againstArray){
+                    query.append(' ').append(column).append(" IN ");
+                    appendSqlArray(query,value,false);
+                } else {
+                    appendOperatorSqlArray(query,criteriaType,column,value);
+                }
+                break;
+            default:
+                appendOperatorSqlArray(query,criteriaType,column,value);
+        }
+        query.append(' ');
+    }
+
+    /**
+     * appends the column compared with the operator against the array of values (ej: c.code NOT IN (@p0,@p1))
+     * @param query : sentence where the condition is appended
+     * @param criteriaType : operator of the condition
+     * @param column : qualified column (ej: c.code)
+     * @param value : values of the condition
+     */
+    private void appendOperatorSqlArray(StringBuilder query,CriteriaOperator criteriaType,String column,List<String> value){
+        query.append(' ').append(column).append(' ').append(criteriaType.getValue()).append(' ');
+        appendSqlArray(query,value,false);
     }
 
     /**
      * This function generate de sql sentence needed to launch a query against cosmosdb
      */
     protected void generateSqlSentence(){
+        if(this.isKeysetActive){
+            this.validateKeyset();
+        }
         String sentence;
         switch (queryType){
             case COUNT:
                 sentence = SELECT_COUNT_SENTENCE;
                 break;
             case CUSTOM:
+            case PROJECTION:
                 sentence = selectCustomSentence;
                 break;
+            case AGGREGATE:
+                sentence = this.generateAggregateSentence();
+                break;
             default:
                 sentence = SELECT_SENTENCE;
         }
+        if(this.isOrActive) {
+            throw new AppCriteriaBuilderException("malformed query sentence, or_end forgotten");
+        }
+        this.querySentence.ensureCapacity(this.querySentence.length() + sentence.length() + this.queryWheres.length()
+                + this.groupBySentence.length() + this.orderBySentence.length() + 32);
         if(isGroupByActive){
             this.querySentence.append("SELECT * FROM ( ");
         }
         this.querySentence.append(sentence);
-        if(this.isOrActive) {
-            throw new AppCriteriaBuilderException("malformed query sentence, or_end forgotten");
+        this.appendWhereSentence(this.querySentence);
+        if(this.isKeysetActive && this.seekValues != null){
+            this.appendSeekSentence(this.querySentence);
         }
-        this.querySentence.append("WHERE 1=1 ");
-        this.querySentence.append(this.queryWheres);
         this.querySentence.append(this.groupBySentence);
-        this.querySentence.append(this.orderBySentence);
+        this.querySentence.append(this.isKeysetActive ? this.keysetOrder.getOrderBySentence() : this.orderBySentence);
         if(isGroupByActive){
             this.querySentence.append(" )");
         }
+        this.countQuerySentence = generateCountSentence();
+    }
 
+    /**
+     * Derives the count query of the criteria from the same where conditions, without the order by sentence.
+     * Projections are counted as the whole documents. Custom selects, aggregates and group by sentences do not return one row per document
+     * and cosmosdb can not count them with a subquery, so they do not have a count query and their rows are counted while they are read.
+     * @return sql sentence that counts the results of the criteria, null if the criteria is already a count query or its rows can not be counted
+     */
+    private String generateCountSentence(){
+        if(this.queryType == QueryType.COUNT || this.queryType == QueryType.CUSTOM || this.queryType == QueryType.AGGREGATE || isGroupByActive){
+            return null;
+        }
+        StringBuilder countSentence = new StringBuilder(SELECT_COUNT_SENTENCE.length() + this.queryWheres.length() + 16);
+        countSentence.append(SELECT_COUNT_SENTENCE);
+        this.appendWhereSentence(countSentence);
+        return countSentence.toString();
     }
 
     /**
-     * @param array : array of values that you want to compare with
-     * @return an array from correctly cosmosdb sql interpretation
+     * builds the keyset of the criteria from its order by sentence, and checks that the criteria and the cursor can be paginated by keyset
+     */
+    private void validateKeyset(){
+        if(this.queryType != QueryType.NORMAL || this.isGroupByActive){
+            throw new AppCriteriaBuilderException("Invalid keyset pagination. Only criteria that select whole documents without group by can be paginated by keyset");
+        }
+        if(this.keysetOrder == null){
+            this.keysetOrder = new KeysetOrder(this.orderColumns,this.orderDirections);
+        }
+        if(this.seekValues != null && this.seekValues.size() != this.keysetOrder.getColumns().size()){
+            throw new AppCriteriaBuilderException("Invalid keyset cursor. It does not match the order by sentence of the criteria");
+        }
+    }
+
+    /**
+     * appends the condition that only keeps the documents after the cursor, comparing the sort columns in order
+     * (ej: ( c.createdAt < @p1 OR ( c.createdAt = @p1 AND ( c.id < @p2 ) ) ) )
+     * @param sentence : sentence where the condition is appended, after the where sentence
      */
-    private String mapListToSqlArray(List<String> array){
-        StringBuilder stb = new StringBuilder();
-        array.forEach(x->stb.append(String.format("'%s',",x)));
-        stb.deleteCharAt(stb.length() -1);
-        return String.format("(%s)",stb);
+    private void appendSeekSentence(StringBuilder sentence){
+        List<String> columns = this.keysetOrder.getColumns();
+        List<AppFilterOrder> orders = this.keysetOrder.getOrders();
+        sentence.append(this.omitTautology && this.queryWheres.length() == 0 ? "WHERE " : "AND ");
+        int firstParameter = this.parameterValues.size();
+        for(int i = 0; i < columns.size(); i++){
+            if(i > 0){
+                sentence.append(" OR ( c.").append(columns.get(i - 1)).append(" = ").append(CriteriaQuery.parameterName(firstParameter + i - 1)).append(" AND ");
+            }
+            sentence.append("( c.").append(columns.get(i)).append(orders.get(i) == AppFilterOrder.DESC ? " < " : " > ");
+            this.appendParameter(sentence,this.seekValues.get(i),ParameterBinding.VALUE);
+        }
+        for(int i = 0; i < columns.size(); i++){
+            sentence.append(i > 0 ? " ) )" : " )");
+        }
+        sentence.append(' ');
     }
 
     /**
-     * @param array : array of values ignoring camel case that you want to compare with
-     * @return an array from correctly cosmosdb sql interpretation
+     * Renders the select sentence of the aggregate functions preceded by the attributes of the group by sentence
+     * (ej: SELECT c.code, SUM(c.amount) AS total FROM c ), and the queries that select the distinct values of every countDistinct
+     * (ej: SELECT c.code, c.userId AS users FROM c WHERE ... GROUP BY c.code, c.userId)
+     * @return select sentence of the aggregate functions
      */
-    private String mapListUPPERToSqlArray(List<String> array){
-        StringBuilder stb = new StringBuilder();
-        array.forEach(x->stb.append(String.format("UPPER('%s'),",x)));
-        stb.deleteCharAt(stb.length() -1);
-        return String.format("(%s)",stb);
+    private String generateAggregateSentence(){
+        String groupColumns = this.isGroupByActive ? this.groupBySentence.substring(" GROUP BY ".length()) : "";
+        StringBuilder sentence = new StringBuilder(SELECT_PREFIX).append(groupColumns);
+        List<String> countDistinctQuerySentences = new ArrayList<>();
+        for(AggregateFunction function : this.aggregateFunctions){
+            if(function.getType() == AggregateType.COUNT_DISTINCT){
+                StringBuilder countDistinctSentence = new StringBuilder("SELECT * FROM ( SELECT ");
+                String distinctColumns = (groupColumns.isEmpty() ? "" : groupColumns + ", ") + "c." + function.getColumn();
+                countDistinctSentence.append(distinctColumns).append(" AS ").append(function.getAlias()).append(" FROM c ");
+                this.appendWhereSentence(countDistinctSentence);
+                countDistinctSentence.append(" GROUP BY ").append(distinctColumns).append(" )");
+                countDistinctQuerySentences.add(countDistinctSentence.toString());
+                continue;
+            }
+            if(sentence.length() > SELECT_PREFIX.length()){
+                sentence.append(", ");
+            }
+            function.appendTo(sentence);
+        }
+        boolean mainQuery = sentence.length() > SELECT_PREFIX.length();
+        this.aggregation = new Aggregation(this.aggregateFunctions,this.isGroupByActive,mainQuery,countDistinctQuerySentences);
+        return sentence.append(mainQuery ? "" : "VALUE 1").append(" FROM c ").toString();
     }
 
     /**
+     * Renders the count of the documents of every value of an attribute from the count query of a criteria, with the same placeholders
+     * (ej: SELECT * FROM ( SELECT c.state AS facetValue, COUNT(1) AS facetCount FROM c WHERE ... GROUP BY c.state ) )
+     * @param countSentence : sql sentence that counts the results of a criteria generated by a criteria builder
      * @param targetColumn : attribute from cosmosdb container
-     * @return properly sentence to put inside ARRAY_LENGTH() , wicht is a cosmos db sql function
+     * @return sql sentence of the facet, null if it is not a count sentence of a criteria that selects documents
+     */
+    static String generateFacetSentence(String countSentence,String targetColumn){
+        if(targetColumn == null || targetColumn.isBlank()){
+            throw new AppCriteriaBuilderException("Invalid facet. You can not provide an empty or null attribute");
+        }
+        if(countSentence == null || !countSentence.startsWith(COUNT_PREFIX + "c ")){
+            return null;
+        }
+        String column = "c." + (targetColumn.startsWith("c.") ? targetColumn.substring(2) : targetColumn);
+        return "SELECT * FROM ( SELECT " + column + " AS " + Aggregation.FACET_VALUE + ", COUNT(1) AS " + Aggregation.FACET_COUNT + " "
+                + countSentence.substring(COUNT_PREFIX.length() - "FROM ".length()) + " GROUP BY " + column + " )";
+    }
+
+    /**
+     * Renders the selection of some attributes of the documents of a criteria from its count query, with the same placeholders and without order by sentence
+     * (ej: SELECT c.id, c.tenantId FROM c WHERE ...)
+     * @param countSentence : sql sentence that counts the results of a criteria generated by a criteria builder
+     * @param projection : attributes selected
+     * @return sql sentence that selects the attributes, null if it is not a count sentence of a criteria that selects documents
+     */
+    static String generateProjectionSentence(String countSentence,Projection projection){
+        if(countSentence == null || !countSentence.startsWith(COUNT_PREFIX + "c ")){
+            return null;
+        }
+        return SELECT_PREFIX + projection.getSelectSentence() + " " + countSentence.substring(COUNT_PREFIX.length() - "FROM ".length());
+    }
+
+    /**
+     * Renders the query limited to its first results, with the same placeholders (ej: SELECT TOP 5 VALUE c FROM c WHERE ...)
+     * @param querySentence : sql sentence generated by a criteria builder, null if it is unknown
+     * @param top : maximum number of results
+     * @return sql sentence that selects only the first results, null if the query sentence is unknown
+     */
+    static String generateTopSentence(String querySentence,int top){
+        if(top <= 0){
+            throw new AppCriteriaBuilderException("Invalid top. You must ask for at least one result");
+        }
+        if(querySentence == null){
+            return null;
+        }
+        return SELECT_PREFIX + "TOP " + top + " " + querySentence.substring(SELECT_PREFIX.length());
+    }
+
+    /**
+     * Renders the existence check of a criteria from its count query, with the same placeholders and without order by sentence
+     * (ej: SELECT TOP 1 VALUE 1 FROM c WHERE ...)
+     * @param countSentence : sql sentence that counts the results of a criteria generated by a criteria builder
+     * @return sql sentence that returns one result when any document satisfies the criteria, null if it is not a count sentence of a criteria builder
+     */
+    static String generateExistsSentence(String countSentence){
+        if(countSentence == null || !countSentence.startsWith(COUNT_PREFIX)){
+            return null;
+        }
+        return EXISTS_PREFIX + countSentence.substring(COUNT_PREFIX.length());
+    }
+
+    /**
+     * appends the where sentence, starting with 1=1 unless the criteria has been rewritten
+     * @param sentence : sentence where the where sentence is appended
+     */
+    private void appendWhereSentence(StringBuilder sentence){
+        if(!this.omitTautology){
+            sentence.append("WHERE 1=1 ");
+        }else if(this.queryWheres.length() > 0){
+            sentence.append("WHERE");
+        }
+        sentence.append(this.queryWheres);
+    }
+
+    /**
+     * registers a new value to be sent as a parameter of the query and appends its placeholder
+     * @param query : sentence where the placeholder is appended
+     * @param value : value to compare with, as provided by the user
+     * @param binding : transformation applied to the value before sending it as a parameter
      */
-    private String getParentTargetColumnForLengthChecking(String targetColumn){
-        String[] split = targetColumn.split("\\.");
-        return "c."+split[0];
+    private void appendParameter(StringBuilder query,Object value,ParameterBinding binding){
+        query.append(CriteriaQuery.PARAMETER_PREFIX).append(this.parameterValues.size());
+        this.parameterValues.add(binding.bind(value));
+        this.parameterBindings.add(binding);
+    }
+
+    /**
+     * appends an array from correctly cosmosdb sql interpretation
+     * @param query : sentence where the array is appended
+     * @param array : array of values that you want to compare with
+     * @param ignoringCamelCase : true if every value must be compared in upper case
+     */
+    private void appendSqlArray(StringBuilder query,List<String> array,boolean ignoringCamelCase){
+        query.append('(');
+        for(int i = 0; i < array.size(); i++){
+            if(i > 0){
+                query.append(',');
+            }
+            if(ignoringCamelCase){
+                query.append("UPPER(");
+                appendParameter(query,array.get(i),ParameterBinding.VALUE);
+                query.append(')');
+            } else {
+                appendParameter(query,array.get(i),ParameterBinding.VALUE);
+            }
+        }
+        query.append(')');
     }
 
     enum QueryType {
         NORMAL,
         CUSTOM,
+        PROJECTION,
+        AGGREGATE,
         COUNT
     }
-}
\ No newline at end of file
+}
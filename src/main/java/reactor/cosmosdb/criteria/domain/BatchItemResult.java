@@ -0,0 +1,89 @@
+package reactor.cosmosdb.criteria.domain;
+
+import java.time.Duration;
+
+/**
+ * Result of one criteria of a batch: its page, or the error that prevented obtaining it.
+ * @param <T> : DataResponse you expect to receive
+ */
+public final class BatchItemResult<T> {
+    private final PaginatedCriteria criteria;
+    private final ProjectionPaginated<T> result;
+    private final Throwable error;
+    private final double requestCharge;
+    private final Duration latency;
+    private final boolean duplicated;
+
+    private BatchItemResult(PaginatedCriteria criteria, ProjectionPaginated<T> result, Throwable error, double requestCharge, Duration latency, boolean duplicated) {
+        this.criteria = criteria;
+        this.result = result;
+        this.error = error;
+        this.requestCharge = requestCharge;
+        this.latency = latency;
+        this.duplicated = duplicated;
+    }
+
+    public static <T> BatchItemResult<T> success(PaginatedCriteria criteria, ProjectionPaginated<T> result, double requestCharge, Duration latency) {
+        return new BatchItemResult<>(criteria, result, null, requestCharge, latency, false);
+    }
+
+    public static <T> BatchItemResult<T> failure(PaginatedCriteria criteria, Throwable error, double requestCharge, Duration latency) {
+        return new BatchItemResult<>(criteria, null, error, requestCharge, latency, false);
+    }
+
+    /**
+     * @param criteria : criteria identical to the one launched
+     * @return the same result for a criteria that was not launched because it is identical to this one, without cost
+     */
+    public BatchItemResult<T> duplicatedFor(PaginatedCriteria criteria) {
+        return new BatchItemResult<>(criteria, result, error, 0, Duration.ZERO, true);
+    }
+
+    public PaginatedCriteria getCriteria() {
+        return this.criteria;
+    }
+
+    /**
+     * @return page obtained, null when the criteria failed
+     */
+    public ProjectionPaginated<T> getResult() {
+        return this.result;
+    }
+
+    /**
+     * @return error that prevented obtaining the page, null when the criteria succeeded
+     */
+    public Throwable getError() {
+        return this.error;
+    }
+
+    public boolean isSuccessful() {
+        return this.error == null;
+    }
+
+    /**
+     * @return request units consumed by the criteria, 0 when it is duplicated
+     */
+    public double getRequestCharge() {
+        return this.requestCharge;
+    }
+
+    /**
+     * @return time spent since the criteria was launched until its result was obtained, 0 when it is duplicated
+     */
+    public Duration getLatency() {
+        return this.latency;
+    }
+
+    /**
+     * @return true if the criteria was not launched because an identical criteria was provided before in the batch
+     */
+    public boolean isDuplicated() {
+        return this.duplicated;
+    }
+
+    public String toString() {
+        return "BatchItemResult(criteria=" + this.criteria + ", result=" + this.result + ", error=" + this.error + ", requestCharge=" + this.requestCharge
+                + ", latency=" + this.latency + ", duplicated=" + this.duplicated + ")";
+    }
+}
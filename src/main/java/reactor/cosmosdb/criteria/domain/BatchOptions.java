@@ -0,0 +1,88 @@
+package reactor.cosmosdb.criteria.domain;
+
+import java.util.function.ToIntFunction;
+
+/**
+ * Immutable options of a batch of criteria launched together.
+ */
+public final class BatchOptions {
+    private static final int DEFAULT_MAX_CONCURRENCY = 4;
+    private static final BatchOptions DEFAULTS = BatchOptions.builder().build();
+
+    private final int maxConcurrency;
+    private final ToIntFunction<PaginatedCriteria> priority;
+    private final QueryExecutionOptions executionOptions;
+
+    private BatchOptions(BatchOptionsBuilder builder) {
+        this.maxConcurrency = builder.maxConcurrency;
+        this.priority = builder.priority;
+        this.executionOptions = builder.executionOptions;
+    }
+
+    /**
+     * @return options with a maximum of 4 criteria launched at the same time in the order they are provided
+     */
+    public static BatchOptions defaults() {
+        return DEFAULTS;
+    }
+
+    public static BatchOptionsBuilder builder() {
+        return new BatchOptionsBuilder();
+    }
+
+    /**
+     * @return maximum number of criteria launched at the same time
+     */
+    public int getMaxConcurrency() {
+        return this.maxConcurrency;
+    }
+
+    /**
+     * @return priority of every criteria, the ones with higher priority are launched first. Null to launch them in the order they are provided
+     */
+    public ToIntFunction<PaginatedCriteria> getPriority() {
+        return this.priority;
+    }
+
+    /**
+     * @return options used to launch every criteria of the batch
+     */
+    public QueryExecutionOptions getExecutionOptions() {
+        return this.executionOptions;
+    }
+
+    public String toString() {
+        return "BatchOptions(maxConcurrency=" + this.maxConcurrency + ", priority=" + this.priority + ", executionOptions=" + this.executionOptions + ")";
+    }
+
+    public static class BatchOptionsBuilder {
+        private int maxConcurrency = DEFAULT_MAX_CONCURRENCY;
+        private ToIntFunction<PaginatedCriteria> priority;
+        private QueryExecutionOptions executionOptions = QueryExecutionOptions.defaults();
+
+        BatchOptionsBuilder() {
+        }
+
+        public BatchOptionsBuilder maxConcurrency(int maxConcurrency) {
+            if (maxConcurrency <= 0) {
+                throw new IllegalArgumentException("maxConcurrency must be greater than 0");
+            }
+            this.maxConcurrency = maxConcurrency;
+            return this;
+        }
+
+        public BatchOptionsBuilder priority(ToIntFunction<PaginatedCriteria> priority) {
+            this.priority = priority;
+            return this;
+        }
+
+        public BatchOptionsBuilder executionOptions(QueryExecutionOptions executionOptions) {
+            this.executionOptions = executionOptions != null ? executionOptions : QueryExecutionOptions.defaults();
+            return this;
+        }
+
+        public BatchOptions build() {
+            return new BatchOptions(this);
+        }
+    }
+}
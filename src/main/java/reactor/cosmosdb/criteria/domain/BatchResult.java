@@ -0,0 +1,101 @@
+package reactor.cosmosdb.criteria.domain;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Results of a batch of criteria, in the same order that the criteria were provided, with the aggregated cost of the batch.
+ * @param <T> : DataResponse you expect to receive
+ */
+public final class BatchResult<T> {
+    private final List<BatchItemResult<T>> results;
+    private final Duration duration;
+
+    public BatchResult(List<BatchItemResult<T>> results, Duration duration) {
+        this.results = List.copyOf(results);
+        this.duration = duration;
+    }
+
+    /**
+     * @return result of every criteria, in the same order that the criteria were provided
+     */
+    public List<BatchItemResult<T>> getResults() {
+        return this.results;
+    }
+
+    /**
+     * @return time spent since the batch was launched until the last result was obtained
+     */
+    public Duration getDuration() {
+        return this.duration;
+    }
+
+    /**
+     * @return request units consumed by all the criteria
+     */
+    public double getTotalRequestCharge() {
+        double requestCharge = 0;
+        for (BatchItemResult<T> result : results) {
+            requestCharge += result.getRequestCharge();
+        }
+        return requestCharge;
+    }
+
+    /**
+     * @return highest latency of the criteria launched
+     */
+    public Duration getMaxLatency() {
+        Duration maxLatency = Duration.ZERO;
+        for (BatchItemResult<T> result : results) {
+            if (result.getLatency().compareTo(maxLatency) > 0) {
+                maxLatency = result.getLatency();
+            }
+        }
+        return maxLatency;
+    }
+
+    /**
+     * @return average latency of the criteria launched, duplicated criteria are not included
+     */
+    public Duration getAverageLatency() {
+        long totalNanos = 0;
+        int launched = 0;
+        for (BatchItemResult<T> result : results) {
+            if (!result.isDuplicated()) {
+                totalNanos += result.getLatency().toNanos();
+                launched++;
+            }
+        }
+        return launched == 0 ? Duration.ZERO : Duration.ofNanos(totalNanos / launched);
+    }
+
+    /**
+     * @return number of criteria that failed
+     */
+    public int getFailureCount() {
+        int failures = 0;
+        for (BatchItemResult<T> result : results) {
+            if (!result.isSuccessful()) {
+                failures++;
+            }
+        }
+        return failures;
+    }
+
+    /**
+     * @return number of criteria that were not launched because they were identical to a previous one
+     */
+    public int getDuplicatedCount() {
+        int duplicated = 0;
+        for (BatchItemResult<T> result : results) {
+            if (result.isDuplicated()) {
+                duplicated++;
+            }
+        }
+        return duplicated;
+    }
+
+    public String toString() {
+        return "BatchResult(results=" + this.results + ", duration=" + this.duration + ")";
+    }
+}
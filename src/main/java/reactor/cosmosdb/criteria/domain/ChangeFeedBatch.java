@@ -0,0 +1,49 @@
+package reactor.cosmosdb.criteria.domain;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.List;
+
+/**
+ * Changes of the documents of a container read from its change feed, in the order they were made.
+ * A batch without changes only tells that the feed has caught up.
+ */
+public final class ChangeFeedBatch {
+    private final List<JsonNode> documents;
+    private final List<JsonNode> deletedDocuments;
+    private final boolean caughtUp;
+
+    /**
+     * @param documents : last version of the documents created or replaced
+     * @param deletedDocuments : documents deleted, with their id and the attributes of their partition key at least
+     * @param caughtUp : true if every change made before the batch was read has been delivered
+     */
+    public ChangeFeedBatch(List<JsonNode> documents, List<JsonNode> deletedDocuments, boolean caughtUp) {
+        this.documents = List.copyOf(documents);
+        this.deletedDocuments = List.copyOf(deletedDocuments);
+        this.caughtUp = caughtUp;
+    }
+
+    /**
+     * @return batch without changes that tells that the feed has caught up
+     */
+    public static ChangeFeedBatch caughtUp() {
+        return new ChangeFeedBatch(List.of(), List.of(), true);
+    }
+
+    public List<JsonNode> getDocuments() {
+        return this.documents;
+    }
+
+    public List<JsonNode> getDeletedDocuments() {
+        return this.deletedDocuments;
+    }
+
+    public boolean isCaughtUp() {
+        return this.caughtUp;
+    }
+
+    public String toString() {
+        return "ChangeFeedBatch(documents=" + this.documents.size() + ", deletedDocuments=" + this.deletedDocuments.size() + ", caughtUp=" + this.caughtUp + ")";
+    }
+}
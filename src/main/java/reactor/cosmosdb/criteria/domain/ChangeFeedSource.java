@@ -0,0 +1,27 @@
+package reactor.cosmosdb.criteria.domain;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * Source of the changes of the documents of a container, used to keep the materialized counts up to date
+ * (ej: CosmosChangeFeedSource, or LocalChangeFeedSource to run them without cosmosdb).
+ */
+public interface ChangeFeedSource {
+
+    /**
+     * The changes of every document must be delivered in the order they were made. A caught up batch must be delivered as soon as
+     * the source reads the changes made after the subscription, and every time it polls the feed without finding changes,
+     * so the counts know how fresh they are.
+     * @param containerName : name of the container
+     * @return changes made after the subscription, until it is cancelled
+     */
+    Flux<ChangeFeedBatch> changes(String containerName);
+
+    /**
+     * @return true if the documents deleted are delivered as deleted documents of the batches,
+     * false when they are never delivered and the documents must be deleted logically to be discounted
+     */
+    default boolean deliversDeletes() {
+        return false;
+    }
+}
@@ -0,0 +1,70 @@
+package reactor.cosmosdb.criteria.domain;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Precomputed representations of an attribute of a cosmosdb container used while rendering a criteria.
+ * Instances are cached because the columns used by the criteria builders are a small and fixed set.
+ */
+final class ColumnPath {
+    private static final int MAX_CACHED_COLUMNS = 1024;
+    private static final Map<String, ColumnPath> CACHE = new ConcurrentHashMap<>();
+
+    private final String column;
+    private final String qualifiedColumn;
+    private final String root;
+    private final String qualifiedRoot;
+
+    private ColumnPath(String column) {
+        int separator = column.indexOf('.');
+        this.column = column;
+        this.qualifiedColumn = "c." + column;
+        this.root = separator < 0 ? column : column.substring(0, separator);
+        this.qualifiedRoot = "c." + this.root;
+    }
+
+    /**
+     * @param column : attribute from cosmosdb container (ej: contactOwnerList.id)
+     * @return precomputed path of the column
+     */
+    static ColumnPath of(String column) {
+        ColumnPath path = CACHE.get(column);
+        if (path != null) {
+            return path;
+        }
+        path = new ColumnPath(column);
+        if (CACHE.size() < MAX_CACHED_COLUMNS) {
+            CACHE.putIfAbsent(column, path);
+        }
+        return path;
+    }
+
+    /**
+     * @return column as it was provided (ej: contactOwnerList.id)
+     */
+    String getColumn() {
+        return column;
+    }
+
+    /**
+     * @return column with the alias of the container (ej: c.contactOwnerList.id)
+     */
+    String getQualifiedColumn() {
+        return qualifiedColumn;
+    }
+
+    /**
+     * @return first attribute of the column (ej: contactOwnerList)
+     */
+    String getRoot() {
+        return root;
+    }
+
+    /**
+     * @return first attribute of the column with the alias of the container (ej: c.contactOwnerList)
+     */
+    String getQualifiedRoot() {
+        return qualifiedRoot;
+    }
+}
@@ -0,0 +1,58 @@
+package reactor.cosmosdb.criteria.domain;
+
+import java.util.List;
+
+/**
+ * Immutable clause of the where sentence of a criteria: its conditions are joined with OR,
+ * and every clause of the criteria is joined with AND.
+ * A condition added outside or_start/or_end is a clause with a single condition.
+ */
+public final class ConditionClause {
+    private final List<CriteriaCondition> conditions;
+
+    public ConditionClause(List<CriteriaCondition> conditions) {
+        if (conditions.isEmpty()) {
+            throw new IllegalArgumentException("a clause must have at least one condition");
+        }
+        this.conditions = List.copyOf(conditions);
+    }
+
+    public static ConditionClause of(CriteriaCondition condition) {
+        return new ConditionClause(List.of(condition));
+    }
+
+    /**
+     * @return conditions joined with OR
+     */
+    public List<CriteriaCondition> getConditions() {
+        return this.conditions;
+    }
+
+    /**
+     * @return true if the clause has more than one condition, so it is rendered as an or group
+     */
+    public boolean isOrGroup() {
+        return this.conditions.size() > 1;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ConditionClause)) {
+            return false;
+        }
+        return conditions.equals(((ConditionClause) o).conditions);
+    }
+
+    @Override
+    public int hashCode() {
+        return conditions.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "ConditionClause(conditions=" + this.conditions + ")";
+    }
+}
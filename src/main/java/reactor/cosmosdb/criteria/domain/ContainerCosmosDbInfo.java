@@ -1,5 +1,7 @@
 package reactor.cosmosdb.criteria.domain;
 
+import java.util.List;
+
 /**
  *
  * @param <C> class of the target container (ej: TestingContainer.class)
@@ -7,6 +9,7 @@ package reactor.cosmosdb.criteria.domain;
 public class ContainerCosmosDbInfo<C> {
     private final String name;
     private final Class<C> containerClass;
+    private final List<String> partitionKeyPaths;
 
     /**
      *
@@ -14,8 +17,29 @@ public class ContainerCosmosDbInfo<C> {
      * @param containerClass : class of the target container (Ej: TestingContainer.class)
      */
     public ContainerCosmosDbInfo(String name, Class<C> containerClass) {
+        this(name, containerClass, List.of());
+    }
+
+    /**
+     *
+     * @param name : name of the target container
+     * @param containerClass : class of the target container (Ej: TestingContainer.class)
+     * @param partitionKeyPaths : paths of the partition key of the container in order (Ej: "/tenantId" or "/tenantId", "/userId" for hierarchical keys)
+     */
+    public ContainerCosmosDbInfo(String name, Class<C> containerClass, String... partitionKeyPaths) {
+        this(name, containerClass, List.of(partitionKeyPaths));
+    }
+
+    /**
+     *
+     * @param name : name of the target container
+     * @param containerClass : class of the target container (Ej: TestingContainer.class)
+     * @param partitionKeyPaths : paths of the partition key of the container in order (Ej: "/tenantId" or "/tenantId", "/userId" for hierarchical keys)
+     */
+    public ContainerCosmosDbInfo(String name, Class<C> containerClass, List<String> partitionKeyPaths) {
         this.name = name;
         this.containerClass = containerClass;
+        this.partitionKeyPaths = List.copyOf(partitionKeyPaths);
     }
 
     public String getName() {
@@ -25,4 +49,11 @@ public class ContainerCosmosDbInfo<C> {
     public Class<C> getContainerClass() {
         return this.containerClass;
     }
+
+    /**
+     * @return paths of the partition key of the container, empty when they are unknown
+     */
+    public List<String> getPartitionKeyPaths() {
+        return this.partitionKeyPaths;
+    }
 }
@@ -0,0 +1,43 @@
+package reactor.cosmosdb.criteria.domain;
+
+import reactor.cosmosdb.criteria.domain.exception.AppCriteriaBuilderException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Encodes cosmosdb continuation tokens into opaque values that can be safely put in urls
+ * and decodes them back when a client asks for the next page.
+ */
+public final class ContinuationTokenCodec {
+
+    private ContinuationTokenCodec() {
+    }
+
+    /**
+     * @param continuationToken : continuation token returned by cosmosdb
+     * @return url safe token, null when there is no continuation token
+     */
+    public static String encode(String continuationToken) {
+        if (continuationToken == null) {
+            return null;
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(continuationToken.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param token : url safe token previously obtained with encode method
+     * @return continuation token understood by cosmosdb, null when no token is provided
+     */
+    public static String decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            return new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new AppCriteriaBuilderException("Invalid continuation token provided");
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package reactor.cosmosdb.criteria.domain;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Immutable condition of a criteria, as it was provided to the criteria builder.
+ * It is the structured representation used by {@link QueryRewriter} to rewrite the query without parsing its sql sentence.
+ */
+public final class CriteriaCondition {
+
+    /**
+     * Sql function used to render the condition instead of its operator
+     */
+    public enum SqlFunction {
+        /**
+         * the operator of the condition
+         */
+        NONE,
+        /**
+         * CONTAINS(column, value, true), only for LIKE_STRICT conditions whose values do not have wildcards
+         */
+        CONTAINS_IGNORE_CASE
+    }
+
+    private final CriteriaOperator operator;
+    private final String column;
+    private final List<String> values;
+    private final boolean againstArray;
+    private final SqlFunction function;
+    private final boolean sharedSubQuery;
+
+    CriteriaCondition(CriteriaOperator operator, String column, List<String> values, boolean againstArray) {
+        this(operator, column, Collections.unmodifiableList(new ArrayList<>(values)), againstArray, SqlFunction.NONE, false);
+    }
+
+    private CriteriaCondition(CriteriaOperator operator, String column, List<String> values, boolean againstArray, SqlFunction function, boolean sharedSubQuery) {
+        this.operator = operator;
+        this.column = column;
+        this.values = values;
+        this.againstArray = againstArray;
+        this.function = function;
+        this.sharedSubQuery = sharedSubQuery;
+    }
+
+    public CriteriaOperator getOperator() {
+        return this.operator;
+    }
+
+    /**
+     * @return attribute from cosmosdb container, without alias (ej: contactOwner.userId)
+     */
+    public String getColumn() {
+        return this.column;
+    }
+
+    /**
+     * @return values to compare with, as provided by the user
+     */
+    public List<String> getValues() {
+        return this.values;
+    }
+
+    /**
+     * @return true if the column is compared with the elements of an array, inside an EXISTS sub query
+     */
+    public boolean isAgainstArray() {
+        return this.againstArray;
+    }
+
+    public SqlFunction getFunction() {
+        return this.function;
+    }
+
+    /**
+     * @return true if the condition is rendered inside the same EXISTS sub query than the conditions next to it
+     * against the same array, joined with OR
+     */
+    public boolean isSharedSubQuery() {
+        return this.sharedSubQuery;
+    }
+
+    /**
+     * @return true if the operator negates the condition, so it is rendered with NOT EXISTS against arrays
+     */
+    public boolean isNegative() {
+        switch (operator) {
+            case NOT_CONTAINS:
+            case NOT_EQUALS:
+            case NOT_EQUALS_STRICT:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * @return root of the column, the array iterated by the EXISTS sub query when the condition is against an array
+     */
+    public String getRoot() {
+        return ColumnPath.of(column).getRoot();
+    }
+
+    public CriteriaCondition withValues(List<String> values) {
+        return new CriteriaCondition(operator, column, Collections.unmodifiableList(new ArrayList<>(values)), againstArray, function, sharedSubQuery);
+    }
+
+    public CriteriaCondition withFunction(SqlFunction function) {
+        return new CriteriaCondition(operator, column, values, againstArray, Objects.requireNonNull(function), sharedSubQuery);
+    }
+
+    public CriteriaCondition withSharedSubQuery(boolean sharedSubQuery) {
+        return new CriteriaCondition(operator, column, values, againstArray, function, sharedSubQuery);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CriteriaCondition)) {
+            return false;
+        }
+        CriteriaCondition that = (CriteriaCondition) o;
+        return againstArray == that.againstArray
+                && sharedSubQuery == that.sharedSubQuery
+                && operator == that.operator
+                && function == that.function
+                && column.equals(that.column)
+                && values.equals(that.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(operator, column, values, againstArray, function, sharedSubQuery);
+    }
+
+    @Override
+    public String toString() {
+        return "CriteriaCondition(operator=" + this.operator + ", column=" + this.column + ", values=" + this.values + ", againstArray=" + this.againstArray
+                + ", function=" + this.function + ", sharedSubQuery=" + this.sharedSubQuery + ")";
+    }
+}
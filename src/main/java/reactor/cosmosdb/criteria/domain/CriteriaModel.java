@@ -0,0 +1,61 @@
+package reactor.cosmosdb.criteria.domain;
+
+import java.util.List;
+
+/**
+ * Structured representation of a criteria recorded by the criteria builder, used to render it again once it is rewritten.
+ */
+final class CriteriaModel {
+    private final AppCriteriaBuilder.QueryType queryType;
+    private final String selectCustomSentence;
+    private final String groupBySentence;
+    private final String orderBySentence;
+    private final List<ConditionClause> clauses;
+    private final KeysetOrder keysetOrder;
+    private final List<Object> seekValues;
+    private final List<AggregateFunction> aggregateFunctions;
+
+    CriteriaModel(AppCriteriaBuilder.QueryType queryType, String selectCustomSentence, String groupBySentence, String orderBySentence, List<ConditionClause> clauses,
+                  KeysetOrder keysetOrder, List<Object> seekValues, List<AggregateFunction> aggregateFunctions) {
+        this.queryType = queryType;
+        this.selectCustomSentence = selectCustomSentence;
+        this.groupBySentence = groupBySentence;
+        this.orderBySentence = orderBySentence;
+        this.clauses = List.copyOf(clauses);
+        this.keysetOrder = keysetOrder;
+        this.seekValues = seekValues;
+        this.aggregateFunctions = List.copyOf(aggregateFunctions);
+    }
+
+    AppCriteriaBuilder.QueryType getQueryType() {
+        return this.queryType;
+    }
+
+    String getSelectCustomSentence() {
+        return this.selectCustomSentence;
+    }
+
+    String getGroupBySentence() {
+        return this.groupBySentence;
+    }
+
+    String getOrderBySentence() {
+        return this.orderBySentence;
+    }
+
+    List<ConditionClause> getClauses() {
+        return this.clauses;
+    }
+
+    KeysetOrder getKeysetOrder() {
+        return this.keysetOrder;
+    }
+
+    List<Object> getSeekValues() {
+        return this.seekValues;
+    }
+
+    List<AggregateFunction> getAggregateFunctions() {
+        return this.aggregateFunctions;
+    }
+}
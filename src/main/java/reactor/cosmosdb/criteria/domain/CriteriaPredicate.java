@@ -0,0 +1,199 @@
+package reactor.cosmosdb.criteria.domain;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import reactor.cosmosdb.criteria.domain.exception.AppCriteriaBuilderException;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Where conditions of a criteria evaluated in memory against a document, with the same result that cosmosdb gives to the query.
+ * Only a subset of the criteria can be evaluated: criteria generated by a criteria builder that select or count documents
+ * (no custom select, group by, aggregate functions nor keyset), whose conditions are not against arrays and use the operators
+ * EQUALS, NOT_EQUALS, CONTAINS, NOT_CONTAINS, NULL, NOT_NULL, or MORE_THAN, MORE_OR_EQUALS_THAN, LESS_THAN and LESS_OR_EQUALS_THAN with a single value.
+ * The values of the criteria are strings, so they are compared as cosmosdb compares string parameters: an attribute that is not a string
+ * is never equal to them nor ordered with them, and an attribute that is not defined only satisfies NULL.
+ * Comparisons between different types are undefined in cosmosdb, so != and NOT IN (NOT_EQUALS and NOT_CONTAINS) are not satisfied either
+ * by an attribute that is not a string (ej: a number, a boolean or null).
+ */
+public final class CriteriaPredicate {
+    private static final Set<CriteriaOperator> EVALUABLE_OPERATORS = EnumSet.of(CriteriaOperator.EQUALS, CriteriaOperator.NOT_EQUALS,
+            CriteriaOperator.CONTAINS, CriteriaOperator.NOT_CONTAINS, CriteriaOperator.NULL, CriteriaOperator.NOT_NULL,
+            CriteriaOperator.MORE_THAN, CriteriaOperator.MORE_OR_EQUALS_THAN, CriteriaOperator.LESS_THAN, CriteriaOperator.LESS_OR_EQUALS_THAN);
+    private static final Set<CriteriaOperator> SINGLE_VALUE_OPERATORS = EnumSet.of(CriteriaOperator.MORE_THAN, CriteriaOperator.MORE_OR_EQUALS_THAN,
+            CriteriaOperator.LESS_THAN, CriteriaOperator.LESS_OR_EQUALS_THAN);
+
+    private final List<List<Condition>> clauses;
+
+    private CriteriaPredicate(List<List<Condition>> clauses) {
+        this.clauses = clauses;
+    }
+
+    /**
+     * @param criteria : criteria generated by a criteria builder
+     * @return predicate of the where conditions of the criteria, it fails with an AppCriteriaBuilderException when they can not be evaluated in memory
+     */
+    public static CriteriaPredicate of(PaginatedCriteria criteria) {
+        CriteriaModel model = criteria.getCriteriaQuery().getCriteriaModel();
+        String rejection = rejectionOf(model);
+        if (rejection != null) {
+            throw new AppCriteriaBuilderException("the criteria provided can not be evaluated in memory, " + rejection);
+        }
+        List<List<Condition>> clauses = new ArrayList<>(model.getClauses().size());
+        for (ConditionClause clause : model.getClauses()) {
+            List<Condition> conditions = new ArrayList<>(clause.getConditions().size());
+            for (CriteriaCondition condition : clause.getConditions()) {
+                conditions.add(new Condition(condition));
+            }
+            clauses.add(conditions);
+        }
+        return new CriteriaPredicate(clauses);
+    }
+
+    /**
+     * @param criteria : criteria to launch against the target container
+     * @return true if the where conditions of the criteria can be evaluated in memory
+     */
+    public static boolean isEvaluable(PaginatedCriteria criteria) {
+        return rejectionOf(criteria.getCriteriaQuery().getCriteriaModel()) == null;
+    }
+
+    /**
+     * @param document : document of the container as raw json
+     * @return true if the document satisfies every clause of the criteria
+     */
+    public boolean test(JsonNode document) {
+        for (List<Condition> clause : this.clauses) {
+            if (!anyMatch(clause, document)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean anyMatch(List<Condition> clause, JsonNode document) {
+        for (Condition condition : clause) {
+            if (condition.test(document)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return reason why the criteria can not be evaluated in memory, null if it can be
+     */
+    private static String rejectionOf(CriteriaModel model) {
+        if (model == null) {
+            return "only criteria generated by a criteria builder without ignoreAutoGeneratedFirstConditional can be evaluated";
+        }
+        AppCriteriaBuilder.QueryType queryType = model.getQueryType();
+        if ((queryType != AppCriteriaBuilder.QueryType.NORMAL && queryType != AppCriteriaBuilder.QueryType.COUNT && queryType != AppCriteriaBuilder.QueryType.PROJECTION)
+                || !model.getGroupBySentence().isEmpty() || model.getKeysetOrder() != null) {
+            return "only criteria that select or count documents can be evaluated, without custom select, group by, aggregate functions nor keyset";
+        }
+        for (ConditionClause clause : model.getClauses()) {
+            for (CriteriaCondition condition : clause.getConditions()) {
+                if (condition.isAgainstArray() || condition.getFunction() != CriteriaCondition.SqlFunction.NONE) {
+                    return "the condition against " + condition.getColumn() + " is evaluated against an array";
+                }
+                if (!EVALUABLE_OPERATORS.contains(condition.getOperator())) {
+                    return "the operator " + condition.getOperator() + " of " + condition.getColumn() + " is not supported";
+                }
+                if (SINGLE_VALUE_OPERATORS.contains(condition.getOperator()) && condition.getValues().size() != 1) {
+                    return "the operator " + condition.getOperator() + " of " + condition.getColumn() + " must be compared with a single value";
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param document : document of the container as raw json
+     * @param attributes : attributes of the path, nested attributes in order
+     * @return value of the attribute, null if it is not defined
+     */
+    static JsonNode valueOf(JsonNode document, String[] attributes) {
+        JsonNode value = document;
+        for (String attribute : attributes) {
+            if (value == null) {
+                return null;
+            }
+            value = value.get(attribute);
+        }
+        return value;
+    }
+
+    /**
+     * @param column : attribute of the document, nested attributes separated by dots, with or without the alias of the container (ej: c.contactOwner.userId)
+     * @return attributes of the path in order
+     */
+    static String[] attributesOf(String column) {
+        return (column.startsWith("c.") ? column.substring(2) : column).split("\\.");
+    }
+
+    public String toString() {
+        return "CriteriaPredicate(clauses=" + this.clauses + ")";
+    }
+
+    /**
+     * Condition of the criteria compiled to be evaluated against documents
+     */
+    private static final class Condition {
+        private final CriteriaOperator operator;
+        private final String column;
+        private final String[] attributes;
+        private final Set<String> values;
+        private final String value;
+
+        private Condition(CriteriaCondition condition) {
+            this.operator = condition.getOperator();
+            this.column = condition.getColumn();
+            this.attributes = attributesOf(condition.getColumn());
+            this.values = new HashSet<>(condition.getValues());
+            this.value = condition.getValues().get(0);
+        }
+
+        private boolean test(JsonNode document) {
+            JsonNode attribute = valueOf(document, this.attributes);
+            switch (this.operator) {
+                case NULL:
+                    return attribute == null || attribute.isNull();
+                case NOT_NULL:
+                    return attribute != null && !attribute.isNull();
+                case EQUALS:
+                case CONTAINS:
+                    return attribute != null && isOneOfValues(attribute);
+                case NOT_EQUALS:
+                case NOT_CONTAINS:
+                    return attribute != null && attribute.isTextual() && !this.values.contains(attribute.textValue());
+                default:
+                    return attribute != null && attribute.isTextual() && isOrdered(attribute.textValue().compareTo(this.value));
+            }
+        }
+
+        private boolean isOneOfValues(JsonNode attribute) {
+            return attribute.isTextual() && this.values.contains(attribute.textValue());
+        }
+
+        private boolean isOrdered(int comparison) {
+            switch (this.operator) {
+                case MORE_THAN:
+                    return comparison > 0;
+                case MORE_OR_EQUALS_THAN:
+                    return comparison >= 0;
+                case LESS_THAN:
+                    return comparison < 0;
+                default:
+                    return comparison <= 0;
+            }
+        }
+
+        public String toString() {
+            return "Condition(operator=" + this.operator + ", column=" + this.column + ", values=" + this.values + ")";
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package reactor.cosmosdb.criteria.domain;
+
+import com.azure.cosmos.models.SqlParameter;
+import com.azure.cosmos.models.SqlQuerySpec;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Immutable result of a criteria builder: the sql sentence with its placeholders (@p0, @p1, ...)
+ * and the values bound to each one of them.
+ * It can be launched directly or wrapped by your own criteria class.
+ */
+public final class CriteriaQuery implements PaginatedCriteria {
+    static final String PARAMETER_PREFIX = "@p";
+
+    private final String querySentence;
+    private final String countQuerySentence;
+    private final List<Object> parameterValues;
+    private final boolean countQuery;
+    private final Map<String, int[]> equalityFilterIndexes;
+    private final boolean partitionSplittable;
+    private final CriteriaModel criteriaModel;
+    private final KeysetOrder keysetOrder;
+    private final Aggregation aggregation;
+
+    /**
+     * @param querySentence : sql sentence with placeholders named @p0, @p1, ... in order of appearance
+     * @param parameterValues : values of the placeholders, the position of each value is the index of its placeholder
+     * @param countQuery : true if the sentence is a select count query
+     */
+    public CriteriaQuery(String querySentence, List<Object> parameterValues, boolean countQuery) {
+        this(Objects.requireNonNull(querySentence), null, Collections.unmodifiableList(new ArrayList<>(parameterValues)), countQuery, Map.of(), false, null, null, null);
+    }
+
+    private CriteriaQuery(String querySentence, String countQuerySentence, List<Object> parameterValues, boolean countQuery, Map<String, int[]> equalityFilterIndexes, boolean partitionSplittable,
+                          CriteriaModel criteriaModel, KeysetOrder keysetOrder, Aggregation aggregation) {
+        this.querySentence = querySentence;
+        this.countQuerySentence = countQuerySentence;
+        this.parameterValues = parameterValues;
+        this.countQuery = countQuery;
+        this.equalityFilterIndexes = equalityFilterIndexes;
+        this.partitionSplittable = partitionSplittable;
+        this.criteriaModel = criteriaModel;
+        this.keysetOrder = keysetOrder;
+        this.aggregation = aggregation;
+    }
+
+    /**
+     * Creates the query without copying its attributes, they must not be modified afterwards
+     * @param countQuerySentence : sql sentence that counts the results of the query with the same placeholders, null if it is unknown
+     * @param equalityFilterIndexes : placeholders of the EQUALS conditions that must be satisfied by every result, by column
+     * @param partitionSplittable : true if the results of the query can be obtained by merging one query per partition key
+     * @param criteriaModel : structured representation of the criteria to rewrite it, null if it can not be rewritten
+     * @param keysetOrder : sort columns of the query when it is paginated by keyset, null otherwise
+     * @param aggregation : aggregate functions of the query, null if it does not aggregate
+     */
+    static CriteriaQuery create(String querySentence, String countQuerySentence, List<Object> parameterValues, boolean countQuery, Map<String, int[]> equalityFilterIndexes, boolean partitionSplittable,
+                                CriteriaModel criteriaModel, KeysetOrder keysetOrder, Aggregation aggregation) {
+        return new CriteriaQuery(querySentence, countQuerySentence, Collections.unmodifiableList(parameterValues), countQuery, equalityFilterIndexes, partitionSplittable, criteriaModel, keysetOrder,
+                aggregation);
+    }
+
+    /**
+     * @param index : position of the placeholder
+     * @return name of the placeholder used inside the query sentence
+     */
+    public static String parameterName(int index) {
+        return PARAMETER_PREFIX + index;
+    }
+
+    @Override
+    public String getQuerySentence() {
+        return this.querySentence;
+    }
+
+    @Override
+    public boolean isCountQuery() {
+        return this.countQuery;
+    }
+
+    /**
+     * The count query shares the where conditions and the values of the placeholders of this query, without its order by sentence.
+     * @return query that counts the results of this query, this query if it is already a count query,
+     * or null when the count query is unknown (queries not generated by a criteria builder)
+     */
+    public CriteriaQuery getCountQuery() {
+        if (this.countQuery) {
+            return this;
+        }
+        if (this.countQuerySentence == null) {
+            return null;
+        }
+        return new CriteriaQuery(this.countQuerySentence, null, this.parameterValues, true, this.equalityFilterIndexes, false, null, null, null);
+    }
+
+    /**
+     * Cosmosdb stops reading once it has found the results, so the cost of the query is bounded whatever the number of documents that satisfy it.
+     * @param top : maximum number of results
+     * @return query that selects only the first results of this query (SELECT TOP n),
+     * or null when the query is a count query or it is not generated by a criteria builder
+     */
+    public CriteriaQuery getTopQuery(int top) {
+        String sentence = AppCriteriaBuilder.generateTopSentence(this.countQuerySentence != null ? this.querySentence : null, top);
+        if (sentence == null) {
+            return null;
+        }
+        return new CriteriaQuery(sentence, null, this.parameterValues, this.countQuery,
+                this.equalityFilterIndexes, this.partitionSplittable, null, null, null);
+    }
+
+    /**
+     * The exists query shares the where conditions and the values of the placeholders of this query, without its order by sentence.
+     * @return query that returns one result when any document satisfies this query (SELECT TOP 1 VALUE 1),
+     * or null when the query is not generated by a criteria builder
+     */
+    public CriteriaQuery getExistsQuery() {
+        String sentence = AppCriteriaBuilder.generateExistsSentence(this.countQuery ? this.querySentence : this.countQuerySentence);
+        if (sentence == null) {
+            return null;
+        }
+        return new CriteriaQuery(sentence, null, this.parameterValues, false,
+                this.equalityFilterIndexes, this.partitionSplittable, null, null, null);
+    }
+
+    /**
+     * The facet query shares the where conditions and the values of the placeholders of this query, without its order by sentence.
+     * Its rows are merged with the aggregation of the query, see {@link FacetValue#rank(List, int)}.
+     * @param field : attribute of the documents (ej: contactOwner.userId)
+     * @return query that counts the documents of every value of the attribute (GROUP BY), or null when this query
+     * does not select documents (custom selects, group by or aggregate functions) or it is not generated by a criteria builder
+     */
+    public CriteriaQuery getFacetQuery(String field) {
+        String sentence = AppCriteriaBuilder.generateFacetSentence(this.countQuery ? this.querySentence : this.countQuerySentence, field);
+        if (sentence == null) {
+            return null;
+        }
+        return new CriteriaQuery(sentence, null, this.parameterValues, false, this.equalityFilterIndexes, false, null, null, Aggregation.FACET);
+    }
+
+    /**
+     * The projection query shares the where conditions and the values of the placeholders of this query, without its order by sentence.
+     * @param projection : attributes of the documents selected (ej: Projection.of("id", "tenantId"))
+     * @return query that selects the attributes of every document of this query, or null when this query
+     * does not select documents (custom selects, group by or aggregate functions) or it is not generated by a criteria builder
+     */
+    public CriteriaQuery getProjectionQuery(Projection projection) {
+        String sentence = AppCriteriaBuilder.generateProjectionSentence(this.countQuery ? this.querySentence : this.countQuerySentence, projection);
+        if (sentence == null) {
+            return null;
+        }
+        return new CriteriaQuery(sentence, null, this.parameterValues, false, this.equalityFilterIndexes, true, null, null, null);
+    }
+
+    /**
+     * @return values of the placeholders in order
+     */
+    public List<Object> getParameterValues() {
+        return this.parameterValues;
+    }
+
+    /**
+     * Only conditions joined with AND (outside or_start/or_end groups and without ignoreAutoGeneratedFirstConditional) are included,
+     * and columns compared more than once are left out.
+     * @return values of the EQUALS conditions that every result satisfies, by column (ej: contactOwner.userId)
+     */
+    public Map<String, List<Object>> getEqualityFilters() {
+        Map<String, List<Object>> equalityFilters = new LinkedHashMap<>();
+        equalityFilterIndexes.forEach((column, indexes) -> {
+            List<Object> values = new ArrayList<>(indexes.length);
+            for (int index : indexes) {
+                values.add(parameterValues.get(index));
+            }
+            equalityFilters.put(column, values);
+        });
+        return equalityFilters;
+    }
+
+    /**
+     * @return true if the results of the query can be obtained by merging one query per partition key
+     * (no count, custom select, group by or order by sentences)
+     */
+    public boolean isPartitionSplittable() {
+        return this.partitionSplittable;
+    }
+
+    /**
+     * @return sort columns of the query when it is paginated by keyset (seekAfter), null otherwise
+     */
+    public KeysetOrder getKeysetOrder() {
+        return this.keysetOrder;
+    }
+
+    /**
+     * @return aggregate functions of the query (sum, avg, min, max, count or countDistinct), null if it does not aggregate
+     */
+    public Aggregation getAggregation() {
+        return this.aggregation;
+    }
+
+    /**
+     * The queries share the where conditions and the values of the placeholders of this query.
+     * @return queries that select the distinct values of every countDistinct of the aggregation, empty if there are none
+     */
+    public List<CriteriaQuery> getCountDistinctQueries() {
+        if (this.aggregation == null) {
+            return List.of();
+        }
+        List<CriteriaQuery> queries = new ArrayList<>();
+        for (String sentence : this.aggregation.getCountDistinctQuerySentences()) {
+            queries.add(new CriteriaQuery(sentence, null, this.parameterValues, false, this.equalityFilterIndexes, false, null, null, null));
+        }
+        return queries;
+    }
+
+    Map<String, int[]> getEqualityFilterIndexes() {
+        return this.equalityFilterIndexes;
+    }
+
+    CriteriaModel getCriteriaModel() {
+        return this.criteriaModel;
+    }
+
+    @Override
+    public List<SqlParameter> getQueryParameters() {
+        List<SqlParameter> parameters = new ArrayList<>(parameterValues.size());
+        for (int i = 0; i < parameterValues.size(); i++) {
+            parameters.add(new SqlParameter(parameterName(i), parameterValues.get(i)));
+        }
+        return parameters;
+    }
+
+    @Override
+    public CriteriaQuery getCriteriaQuery() {
+        return this;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CriteriaQuery)) {
+            return false;
+        }
+        CriteriaQuery that = (CriteriaQuery) o;
+        return countQuery == that.countQuery
+                && querySentence.equals(that.querySentence)
+                && parameterValues.equals(that.parameterValues);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(querySentence, parameterValues, countQuery);
+    }
+
+    @Override
+    public String toString() {
+        return "CriteriaQuery(querySentence=" + this.querySentence + ", parameterValues=" + this.parameterValues + ", countQuery=" + this.countQuery + ")";
+    }
+}
@@ -0,0 +1,78 @@
+package reactor.cosmosdb.criteria.domain;
+
+import reactor.cosmosdb.criteria.domain.exception.AppCriteriaBuilderException;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable and thread safe criteria compiled with {@link AppCriteriaBuilder#compile()}.
+ * The sql sentence is rendered only once, every request just binds the new values of the placeholders.
+ * Values must be provided in the same order and quantity that were used to compile the template,
+ * as they are provided to the builder (like operators apply their wildcards when binding).
+ */
+public final class CriteriaTemplate {
+    private final String querySentence;
+    private final String countQuerySentence;
+    private final ParameterBinding[] parameterBindings;
+    private final boolean countQuery;
+    private final Map<String, int[]> equalityFilterIndexes;
+    private final boolean partitionSplittable;
+    private final Aggregation aggregation;
+
+    CriteriaTemplate(String querySentence, String countQuerySentence, List<ParameterBinding> parameterBindings, boolean countQuery, Map<String, int[]> equalityFilterIndexes, boolean partitionSplittable,
+                     Aggregation aggregation) {
+        this.querySentence = querySentence;
+        this.countQuerySentence = countQuerySentence;
+        this.parameterBindings = parameterBindings.toArray(new ParameterBinding[0]);
+        this.countQuery = countQuery;
+        this.equalityFilterIndexes = equalityFilterIndexes;
+        this.partitionSplittable = partitionSplittable;
+        this.aggregation = aggregation;
+    }
+
+    /**
+     * @return sql sentence with placeholders shared by all the queries bound from this template
+     */
+    public String getQuerySentence() {
+        return this.querySentence;
+    }
+
+    /**
+     * @return number of values that must be provided when binding the template
+     */
+    public int getParameterCount() {
+        return this.parameterBindings.length;
+    }
+
+    /**
+     * @return true if the template is a count query
+     */
+    public boolean isCountQuery() {
+        return this.countQuery;
+    }
+
+    /**
+     * @param values : values of the placeholders in order
+     * @return query ready to be launched against cosmosdb
+     */
+    public CriteriaQuery bind(Object... values) {
+        if (values.length != parameterBindings.length) {
+            throw new AppCriteriaBuilderException(String.format("Invalid number of values, the template expects %d values but %d were provided", parameterBindings.length, values.length));
+        }
+        Object[] boundValues = new Object[values.length];
+        for (int i = 0; i < values.length; i++) {
+            boundValues[i] = parameterBindings[i].bind(values[i]);
+        }
+        return CriteriaQuery.create(querySentence, countQuerySentence, Arrays.asList(boundValues), countQuery, equalityFilterIndexes, partitionSplittable, null, null, aggregation);
+    }
+
+    /**
+     * @param values : values of the placeholders in order
+     * @return query ready to be launched against cosmosdb
+     */
+    public CriteriaQuery bind(List<?> values) {
+        return bind(values.toArray());
+    }
+}
@@ -0,0 +1,67 @@
+package reactor.cosmosdb.criteria.domain;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Bounded and thread safe cache of compiled criteria templates keyed by query shape.
+ * When the cache is full the least recently used template is evicted.
+ */
+public class CriteriaTemplateCache {
+    private final int maxSize;
+    private final Map<Object, CriteriaTemplate> templates;
+
+    /**
+     * @param maxSize : maximum number of templates kept in memory
+     */
+    public CriteriaTemplateCache(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be greater than 0");
+        }
+        this.maxSize = maxSize;
+        this.templates = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, CriteriaTemplate> eldest) {
+                return size() > CriteriaTemplateCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * @param shapeKey : key that identifies the shape of the query (ej: "testing-by-code-and-state")
+     * @param compiler : compiles the template when it is not cached yet (ej: () -> Builder.builder().code(...).compile())
+     * @return cached template for the shape provided
+     */
+    public CriteriaTemplate get(Object shapeKey, Supplier<CriteriaTemplate> compiler) {
+        synchronized (templates) {
+            CriteriaTemplate template = templates.get(shapeKey);
+            if (template != null) {
+                return template;
+            }
+        }
+        CriteriaTemplate compiled = compiler.get();
+        synchronized (templates) {
+            CriteriaTemplate template = templates.putIfAbsent(shapeKey, compiled);
+            return template != null ? template : compiled;
+        }
+    }
+
+    /**
+     * @param shapeKey : key that identifies the shape of the query
+     */
+    public void invalidate(Object shapeKey) {
+        synchronized (templates) {
+            templates.remove(shapeKey);
+        }
+    }
+
+    /**
+     * @return number of templates cached
+     */
+    public int size() {
+        synchronized (templates) {
+            return templates.size();
+        }
+    }
+}
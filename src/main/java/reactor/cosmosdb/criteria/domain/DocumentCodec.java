@@ -0,0 +1,23 @@
+package reactor.cosmosdb.criteria.domain;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Decodes the documents returned by cosmosdb, received as raw json, straight into the entity returned by the repository
+ * or a lightweight view of the document, without creating an instance of the container class first.
+ * <pre>
+ * DocumentCodec&lt;Contact&gt; codec = JacksonDocumentCodec.of(Contact.class);
+ * DocumentCodec&lt;ContactView&gt; view = document -&gt; new ContactView(document.path("id").asText(), document.path("name").asText());
+ * </pre>
+ * Codecs are shared by every query, so they must be thread safe.
+ * @param <E> : Entity where the documents are decoded
+ */
+@FunctionalInterface
+public interface DocumentCodec<E> {
+
+    /**
+     * @param document : document as it is returned by cosmosdb
+     * @return entity decoded, it fails with a DocumentDecodingException when the document can not be decoded
+     */
+    E decode(JsonNode document);
+}
@@ -0,0 +1,93 @@
+package reactor.cosmosdb.criteria.domain;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Identifies the documents of a container by their id and the values of their partition key, the id of a document is only unique inside its partition.
+ * The keys are read from the documents themselves, or from the rows of the query that selects the projection of the keys.
+ */
+public final class DocumentKeys {
+    private static final String ID_COLUMN = "id";
+    private static final String KEY_ALIAS = "key";
+    private static final char SEPARATOR = '\u0000';
+
+    private final List<String[]> documentPaths;
+    private final List<String[]> rowPaths;
+    private final Projection projection;
+
+    private DocumentKeys(List<String> columns) {
+        this.documentPaths = new ArrayList<>(columns.size());
+        this.rowPaths = new ArrayList<>(columns.size());
+        Projection.ProjectionBuilder builder = Projection.builder().field(ID_COLUMN);
+        this.documentPaths.add(CriteriaPredicate.attributesOf(ID_COLUMN));
+        this.rowPaths.add(new String[]{ID_COLUMN});
+        for (int i = 1; i < columns.size(); i++) {
+            builder.field(columns.get(i), KEY_ALIAS + i);
+            this.documentPaths.add(CriteriaPredicate.attributesOf(columns.get(i)));
+            this.rowPaths.add(new String[]{KEY_ALIAS + i});
+        }
+        this.projection = builder.build();
+    }
+
+    /**
+     * @param containerCosmosDbInfo : target container, documents are identified only by their id when its partition key paths are unknown
+     * @return keys of the documents of the container
+     */
+    public static DocumentKeys of(ContainerCosmosDbInfo<?> containerCosmosDbInfo) {
+        List<String> columns = new ArrayList<>();
+        columns.add(ID_COLUMN);
+        for (String partitionKeyPath : containerCosmosDbInfo.getPartitionKeyPaths()) {
+            String column = PartitionKeyRouting.toColumn(partitionKeyPath);
+            if (!columns.contains(column)) {
+                columns.add(column);
+            }
+        }
+        return new DocumentKeys(columns);
+    }
+
+    /**
+     * @return attributes selected to read the keys of the documents (ej: SELECT c.id, c.tenantId AS key1)
+     */
+    public Projection getProjection() {
+        return this.projection;
+    }
+
+    /**
+     * @param document : document of the container as raw json
+     * @return key of the document, null if it does not have an id
+     */
+    public String ofDocument(JsonNode document) {
+        return keyOf(document, this.documentPaths);
+    }
+
+    /**
+     * @param row : row selected with the projection of the keys
+     * @return key of the document of the row, null if it does not have an id
+     */
+    public String ofRow(JsonNode row) {
+        return keyOf(row, this.rowPaths);
+    }
+
+    private static String keyOf(JsonNode node, List<String[]> paths) {
+        JsonNode id = CriteriaPredicate.valueOf(node, paths.get(0));
+        if (id == null || !id.isTextual()) {
+            return null;
+        }
+        if (paths.size() == 1) {
+            return id.textValue();
+        }
+        StringBuilder key = new StringBuilder(id.textValue());
+        for (int i = 1; i < paths.size(); i++) {
+            JsonNode value = CriteriaPredicate.valueOf(node, paths.get(i));
+            key.append(SEPARATOR).append(value != null ? value.toString() : "");
+        }
+        return key.toString();
+    }
+
+    public String toString() {
+        return "DocumentKeys(" + this.projection.getSelectSentence() + ")";
+    }
+}
@@ -0,0 +1,39 @@
+package reactor.cosmosdb.criteria.domain;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Values of every facet of a criteria with their number of documents, sorted from the value with more documents to the one with less
+ */
+public final class FacetResult {
+    private final Map<String, List<FacetValue>> facets;
+
+    /**
+     * @param facets : values of every facet, by field in the order they were asked
+     */
+    public FacetResult(Map<String, List<FacetValue>> facets) {
+        this.facets = Collections.unmodifiableMap(new LinkedHashMap<>(facets));
+    }
+
+    /**
+     * @return values of every facet, by field in the order they were asked
+     */
+    public Map<String, List<FacetValue>> getFacets() {
+        return this.facets;
+    }
+
+    /**
+     * @param field : field of the facet (ej: contactOwner.userId)
+     * @return values of the facet, empty if the facet was not asked
+     */
+    public List<FacetValue> getFacet(String field) {
+        return this.facets.getOrDefault(field, List.of());
+    }
+
+    public String toString() {
+        return "FacetResult(facets=" + this.facets + ")";
+    }
+}
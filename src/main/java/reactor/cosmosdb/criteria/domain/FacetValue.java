@@ -0,0 +1,85 @@
+package reactor.cosmosdb.criteria.domain;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Value of a facet with the number of documents of the criteria that have it
+ */
+public final class FacetValue {
+    private final Object value;
+    private final long count;
+
+    public FacetValue(Object value, long count) {
+        this.value = value;
+        this.count = count;
+    }
+
+    /**
+     * @param rows : rows of a facet query merged by value (see {@link CriteriaQuery#getFacetQuery(String)})
+     * @param top : maximum number of values, the ones with more documents. 0 or less for every value
+     * @return values of the facet sorted from the one with more documents to the one with less. Documents without the attribute are left out
+     */
+    public static List<FacetValue> rank(List<ObjectNode> rows, int top) {
+        List<FacetValue> values = new ArrayList<>(rows.size());
+        for (ObjectNode row : rows) {
+            JsonNode value = row.get(Aggregation.FACET_VALUE);
+            if (value != null) {
+                values.add(of(value, row.path(Aggregation.FACET_COUNT).longValue()));
+            }
+        }
+        values.sort(Comparator.comparingLong(FacetValue::getCount).reversed());
+        return top > 0 && values.size() > top ? List.copyOf(values.subList(0, top)) : values;
+    }
+
+    /**
+     * @param value : value of the attribute as returned by cosmosdb
+     * @param count : number of documents that have the value
+     * @return facet value with the json value converted into a string, number or boolean
+     */
+    static FacetValue of(JsonNode value, long count) {
+        Object converted = value.isNumber() ? value.numberValue() : value.isBoolean() ? (Object) value.booleanValue() : value.isNull() ? null
+                : value.isValueNode() ? value.asText() : value;
+        return new FacetValue(converted, count);
+    }
+
+    /**
+     * @return value of the attribute, null when the attribute is null. Arrays and objects are returned as JsonNode
+     */
+    public Object getValue() {
+        return this.value;
+    }
+
+    /**
+     * @return number of documents of the criteria that have the value
+     */
+    public long getCount() {
+        return this.count;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof FacetValue)) {
+            return false;
+        }
+        FacetValue that = (FacetValue) o;
+        return count == that.count && Objects.equals(value, that.value);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(value, count);
+    }
+
+    public String toString() {
+        return "FacetValue(value=" + this.value + ", count=" + this.count + ")";
+    }
+}
@@ -0,0 +1,52 @@
+package reactor.cosmosdb.criteria.domain;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import reactor.cosmosdb.criteria.domain.exception.AppCriteriaBuilderException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Encodes the sort key of the last result of a page, followed by its id, into an opaque value that can be safely put in urls
+ * (ej: ["2023-01-31",42,"id7"]), and decodes it back when a client asks for the next page.
+ * Unlike cosmosdb continuation tokens, cursors do not depend on the state of the query, so they stay valid over time and across instances.
+ */
+public final class KeysetCursor {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private KeysetCursor() {
+    }
+
+    /**
+     * @param sortKey : values of the sort columns of the last result of a page, its id the last one
+     * @return url safe cursor
+     */
+    public static String encode(List<Object> sortKey) {
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(MAPPER.writeValueAsBytes(sortKey));
+        } catch (JsonProcessingException e) {
+            throw new AppCriteriaBuilderException("Invalid keyset cursor values " + sortKey);
+        }
+    }
+
+    /**
+     * @param cursor : url safe cursor previously obtained with encode method
+     * @return values of the sort columns of the last result of the previous page, its id the last one. Null when no cursor is provided
+     */
+    public static List<Object> decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            Object sortKey = MAPPER.readValue(Base64.getUrlDecoder().decode(cursor), Object.class);
+            if (sortKey instanceof List) {
+                return (List<Object>) sortKey;
+            }
+        } catch (IllegalArgumentException | java.io.IOException e) {
+            // reported below
+        }
+        throw new AppCriteriaBuilderException("Invalid keyset cursor provided");
+    }
+}
@@ -0,0 +1,81 @@
+package reactor.cosmosdb.criteria.domain;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sort columns of a criteria paginated by keyset (seek pagination), always ending with the id of the documents
+ * to break the ties, so every document has a unique sort key. The next page is asked with the sort key of the last result
+ * of the previous page, and cosmosdb seeks it through the index instead of skipping the previous pages.
+ */
+public final class KeysetOrder {
+    private static final String ID_COLUMN = "id";
+
+    private final List<String> columns;
+    private final List<AppFilterOrder> orders;
+
+    /**
+     * @param columns : sort columns (ej: contactOwner.createdAt), the id is added as the last one when it is not included
+     * @param orders : order of every sort column, the id is sorted as the previous column
+     */
+    KeysetOrder(List<String> columns, List<AppFilterOrder> orders) {
+        List<String> keysetColumns = new ArrayList<>(columns);
+        List<AppFilterOrder> keysetOrders = new ArrayList<>(orders);
+        if (keysetColumns.isEmpty() || !ID_COLUMN.equals(keysetColumns.get(keysetColumns.size() - 1))) {
+            keysetColumns.add(ID_COLUMN);
+            keysetOrders.add(keysetOrders.isEmpty() ? AppFilterOrder.ASC : keysetOrders.get(keysetOrders.size() - 1));
+        }
+        this.columns = List.copyOf(keysetColumns);
+        this.orders = List.copyOf(keysetOrders);
+    }
+
+    /**
+     * @return sort columns, the id is the last one
+     */
+    public List<String> getColumns() {
+        return this.columns;
+    }
+
+    /**
+     * @return order of every sort column
+     */
+    public List<AppFilterOrder> getOrders() {
+        return this.orders;
+    }
+
+    /**
+     * @param document : last result of a page, as json
+     * @return cursor to ask for the next page
+     */
+    public String cursorOf(JsonNode document) {
+        List<Object> sortKey = new ArrayList<>(this.columns.size());
+        for (String column : this.columns) {
+            JsonNode value = document;
+            for (String attribute : column.split("\\.")) {
+                value = value.path(attribute);
+            }
+            sortKey.add(value.isNumber() ? value.numberValue() : value.isBoolean() ? (Object) value.booleanValue() : value.isValueNode() ? value.asText() : null);
+        }
+        return KeysetCursor.encode(sortKey);
+    }
+
+    /**
+     * @return order by sentence with every sort column (ej: ORDER BY c.createdAt DESC, c.id DESC)
+     */
+    String getOrderBySentence() {
+        StringBuilder sentence = new StringBuilder("ORDER BY ");
+        for (int i = 0; i < this.columns.size(); i++) {
+            if (i > 0) {
+                sentence.append(", ");
+            }
+            sentence.append("c.").append(this.columns.get(i)).append(' ').append(this.orders.get(i).getValue());
+        }
+        return sentence.toString();
+    }
+
+    public String toString() {
+        return "KeysetOrder(columns=" + this.columns + ", orders=" + this.orders + ")";
+    }
+}
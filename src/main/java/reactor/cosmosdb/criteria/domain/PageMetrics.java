@@ -0,0 +1,98 @@
+package reactor.cosmosdb.criteria.domain;
+
+import com.azure.cosmos.CosmosDiagnostics;
+import com.azure.cosmos.models.FeedResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+
+/**
+ * Metrics of a page (or a document read directly) received from cosmosdb.
+ * The diagnostics are kept as they are received, they are only serialized by the ones that need them.
+ */
+public final class PageMetrics {
+    private static final String INDEX_UTILIZATION_HEADER = "x-ms-cosmos-index-utilization";
+
+    private final double requestCharge;
+    private final int documentCount;
+    private final String continuationToken;
+    private final CosmosDiagnostics diagnostics;
+    private final Map<String, String> responseHeaders;
+
+    private PageMetrics(double requestCharge, int documentCount, String continuationToken, CosmosDiagnostics diagnostics, Map<String, String> responseHeaders) {
+        this.requestCharge = requestCharge;
+        this.documentCount = documentCount;
+        this.continuationToken = continuationToken;
+        this.diagnostics = diagnostics;
+        this.responseHeaders = responseHeaders;
+    }
+
+    /**
+     * @param page : page returned by cosmosdb
+     * @return metrics of the page
+     */
+    public static PageMetrics of(FeedResponse<?> page) {
+        return new PageMetrics(page.getRequestCharge(), page.getResults().size(), page.getContinuationToken(), page.getCosmosDiagnostics(), page.getResponseHeaders());
+    }
+
+    /**
+     * @param requestCharge : request units consumed by the request
+     * @param documentCount : number of documents returned by the request
+     * @param diagnostics : diagnostics of the response, they can be null
+     * @return metrics of a request that is not a page of a query, like a point read
+     */
+    public static PageMetrics of(double requestCharge, int documentCount, CosmosDiagnostics diagnostics) {
+        return new PageMetrics(requestCharge, documentCount, null, diagnostics, null);
+    }
+
+    public double getRequestCharge() {
+        return this.requestCharge;
+    }
+
+    public int getDocumentCount() {
+        return this.documentCount;
+    }
+
+    /**
+     * @return token to read the next page, null when it is the last page or it is not a page of a query
+     */
+    public String getContinuationToken() {
+        return this.continuationToken;
+    }
+
+    /**
+     * @return diagnostics of the response, null when they are unknown
+     */
+    public CosmosDiagnostics getDiagnostics() {
+        return this.diagnostics;
+    }
+
+    /**
+     * @return time spent by cosmosdb client to obtain the page, null when it is unknown
+     */
+    public Duration getLatency() {
+        return diagnostics != null ? diagnostics.getDuration() : null;
+    }
+
+    /**
+     * @return indexes used by the query and the ones that would improve it (json),
+     * null unless the query is launched with indexMetricsEnabled
+     */
+    public String getIndexUtilization() {
+        String indexUtilization = responseHeaders != null ? responseHeaders.get(INDEX_UTILIZATION_HEADER) : null;
+        if (indexUtilization == null) {
+            return null;
+        }
+        try {
+            return new String(Base64.getDecoder().decode(indexUtilization), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            return indexUtilization;
+        }
+    }
+
+    public String toString() {
+        return "PageMetrics(requestCharge=" + this.requestCharge + ", documentCount=" + this.documentCount + ", latency=" + this.getLatency() + ")";
+    }
+}
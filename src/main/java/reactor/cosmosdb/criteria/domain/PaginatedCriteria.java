@@ -1,9 +1,42 @@
 package reactor.cosmosdb.criteria.domain;
 
+import com.azure.cosmos.models.SqlParameter;
+import com.azure.cosmos.models.SqlQuerySpec;
+
+import java.util.List;
+
 /**
  * Interface used to declare all methods necessary to create a paginated query and his response
  */
 public interface PaginatedCriteria {
-    String getQuerySentence();
-    boolean isCountQuery();
+
+    /**
+     * The query carries the sentence and the values of its placeholders (@p0, @p1, ...), so both are always launched together.
+     * Keep the query returned by {@code buildCriteriaQuery()}, or wrap a sentence written by hand with
+     * {@code new CriteriaQuery(sentence, parameterValues, countQuery)}.
+     * @return query generated by the criteria builder
+     */
+    CriteriaQuery getCriteriaQuery();
+
+    default String getQuerySentence() {
+        return getCriteriaQuery().getQuerySentence();
+    }
+
+    default boolean isCountQuery() {
+        return getCriteriaQuery().isCountQuery();
+    }
+
+    /**
+     * @return values of the placeholders (@p0, @p1, ...) used inside the query sentence
+     */
+    default List<SqlParameter> getQueryParameters() {
+        return getCriteriaQuery().getQueryParameters();
+    }
+
+    /**
+     * @return parameterized query specification to launch against cosmosdb
+     */
+    default SqlQuerySpec getQuerySpec() {
+        return new SqlQuerySpec(getQuerySentence(), getQueryParameters());
+    }
 }
@@ -0,0 +1,38 @@
+package reactor.cosmosdb.criteria.domain;
+
+/**
+ * Describes how a value provided by the user is transformed before being sent as a query parameter.
+ */
+enum ParameterBinding {
+    VALUE,
+    LIKE,
+    LIKE_STRICT;
+
+    /**
+     * @param value : value provided by the user
+     * @return value that is sent to cosmosdb as parameter
+     */
+    Object bind(Object value) {
+        switch (this) {
+            case LIKE:
+                return "%" + tokenizeLikeValue(String.valueOf(value)) + "%";
+            case LIKE_STRICT:
+                return "%" + value + "%";
+            default:
+                return value;
+        }
+    }
+
+    /**
+     * @param value : value of a like operator
+     * @return every word of the value preceded by a wildcard
+     */
+    static String tokenizeLikeValue(String value) {
+        String[] words = value.split(" ");
+        StringBuilder tokenized = new StringBuilder(value.length() + words.length);
+        for (String word : words) {
+            tokenized.append('%').append(word);
+        }
+        return tokenized.toString();
+    }
+}
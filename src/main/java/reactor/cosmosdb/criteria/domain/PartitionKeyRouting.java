@@ -0,0 +1,95 @@
+package reactor.cosmosdb.criteria.domain;
+
+import com.azure.cosmos.models.PartitionKey;
+import com.azure.cosmos.models.PartitionKeyBuilder;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resolves the partition keys that contain every result of a criteria, using the EQUALS conditions
+ * of the criteria over the partition key paths of the container.
+ */
+public final class PartitionKeyRouting {
+    /**
+     * Maximum number of partition keys that a criteria can be split into, above it the query is launched across all partitions
+     */
+    public static final int MAX_PARTITION_KEYS = 100;
+
+    private PartitionKeyRouting() {
+    }
+
+    /**
+     * @param criteria : criteria to launch against the target container
+     * @param containerCosmosDbInfo : target container with its partition key paths
+     * @return partition keys that contain every result of the criteria, empty when the query must be launched across all partitions
+     */
+    public static List<PartitionKey> resolve(PaginatedCriteria criteria, ContainerCosmosDbInfo<?> containerCosmosDbInfo) {
+        List<String> partitionKeyPaths = containerCosmosDbInfo.getPartitionKeyPaths();
+        if (partitionKeyPaths.isEmpty()) {
+            return List.of();
+        }
+        Map<String, List<Object>> equalityFilters = criteria.getCriteriaQuery().getEqualityFilters();
+        if (equalityFilters.isEmpty()) {
+            return List.of();
+        }
+        List<List<Object>> valuesByPath = new ArrayList<>(partitionKeyPaths.size());
+        int combinations = 1;
+        for (String partitionKeyPath : partitionKeyPaths) {
+            List<Object> values = equalityFilters.get(toColumn(partitionKeyPath));
+            if (values == null || values.isEmpty()) {
+                return List.of();
+            }
+            List<Object> distinctValues = new ArrayList<>(new LinkedHashSet<>(values));
+            combinations *= distinctValues.size();
+            if (combinations > MAX_PARTITION_KEYS) {
+                return List.of();
+            }
+            valuesByPath.add(distinctValues);
+        }
+        List<PartitionKey> partitionKeys = new ArrayList<>(combinations);
+        addCombinations(valuesByPath, 0, new Object[valuesByPath.size()], partitionKeys);
+        return partitionKeys;
+    }
+
+    /**
+     * @param partitionKeyPath : path of the partition key (ej: /contactOwner/userId)
+     * @return column used by the criteria builders (ej: contactOwner.userId)
+     */
+    static String toColumn(String partitionKeyPath) {
+        String path = partitionKeyPath.startsWith("/") ? partitionKeyPath.substring(1) : partitionKeyPath;
+        return path.replace('/', '.');
+    }
+
+    private static void addCombinations(List<List<Object>> valuesByPath, int level, Object[] combination, List<PartitionKey> partitionKeys) {
+        if (level == valuesByPath.size()) {
+            partitionKeys.add(toPartitionKey(combination));
+            return;
+        }
+        for (Object value : valuesByPath.get(level)) {
+            combination[level] = value;
+            addCombinations(valuesByPath, level + 1, combination, partitionKeys);
+        }
+    }
+
+    static PartitionKey toPartitionKey(Object[] values) {
+        if (values.length == 1) {
+            return new PartitionKey(values[0]);
+        }
+        PartitionKeyBuilder builder = new PartitionKeyBuilder();
+        for (Object value : values) {
+            if (value == null) {
+                builder.addNullValue();
+            } else if (value instanceof Number) {
+                builder.add(((Number) value).doubleValue());
+            } else if (value instanceof Boolean) {
+                builder.add((Boolean) value);
+            } else {
+                builder.add(value.toString());
+            }
+        }
+        return builder.build();
+    }
+}
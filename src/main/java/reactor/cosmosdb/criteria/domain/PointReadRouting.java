@@ -0,0 +1,108 @@
+package reactor.cosmosdb.criteria.domain;
+
+import com.azure.cosmos.models.CosmosItemIdentity;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resolves the documents of a criteria that only compares the id and the partition key of the container with EQUALS,
+ * so they can be read directly (point read or read many) instead of launching a query.
+ */
+public final class PointReadRouting {
+    /**
+     * Maximum number of documents that a criteria can read directly, above it the query is launched
+     */
+    public static final int MAX_POINT_READS = 100;
+
+    private static final String ID_COLUMN = "id";
+
+    private PointReadRouting() {
+    }
+
+    /**
+     * @param criteria : criteria to launch against the target container
+     * @param containerCosmosDbInfo : target container with its partition key paths
+     * @return identities of the documents that can be the results of the criteria, empty when the query must be launched
+     */
+    public static List<CosmosItemIdentity> resolve(PaginatedCriteria criteria, ContainerCosmosDbInfo<?> containerCosmosDbInfo) {
+        List<String> partitionKeyPaths = containerCosmosDbInfo.getPartitionKeyPaths();
+        CriteriaQuery query = criteria.getCriteriaQuery();
+        CriteriaModel model = query.getCriteriaModel();
+        if (partitionKeyPaths.isEmpty() || model == null || !isPointReadShape(model)) {
+            return List.of();
+        }
+        List<String> columns = new ArrayList<>(partitionKeyPaths.size() + 1);
+        columns.add(ID_COLUMN);
+        for (String partitionKeyPath : partitionKeyPaths) {
+            String column = PartitionKeyRouting.toColumn(partitionKeyPath);
+            if (!columns.contains(column)) {
+                columns.add(column);
+            }
+        }
+        if (model.getClauses().size() != columns.size()) {
+            return List.of();
+        }
+        Map<String, List<Object>> equalityFilters = query.getEqualityFilters();
+        List<List<Object>> valuesByColumn = new ArrayList<>(columns.size());
+        int combinations = 1;
+        for (String column : columns) {
+            List<Object> values = equalityFilters.get(column);
+            if (values == null || values.isEmpty()) {
+                return List.of();
+            }
+            List<Object> distinctValues = new ArrayList<>(new LinkedHashSet<>(values));
+            combinations *= distinctValues.size();
+            if (combinations > MAX_POINT_READS) {
+                return List.of();
+            }
+            valuesByColumn.add(distinctValues);
+        }
+        for (Object id : valuesByColumn.get(0)) {
+            if (!(id instanceof String)) {
+                return List.of();
+            }
+        }
+        int[] partitionKeyColumns = new int[partitionKeyPaths.size()];
+        for (int i = 0; i < partitionKeyPaths.size(); i++) {
+            partitionKeyColumns[i] = columns.indexOf(PartitionKeyRouting.toColumn(partitionKeyPaths.get(i)));
+        }
+        List<CosmosItemIdentity> identities = new ArrayList<>(combinations);
+        addIdentities(valuesByColumn, partitionKeyColumns, 0, new Object[columns.size()], identities);
+        return identities;
+    }
+
+    /**
+     * @return true if every condition of the criteria is an EQUALS outside or groups and the criteria does not sort nor aggregate
+     */
+    private static boolean isPointReadShape(CriteriaModel model) {
+        if (model.getQueryType() != AppCriteriaBuilder.QueryType.NORMAL || !model.getGroupBySentence().isEmpty() || !model.getOrderBySentence().isEmpty()) {
+            return false;
+        }
+        for (ConditionClause clause : model.getClauses()) {
+            CriteriaCondition condition = clause.getConditions().get(0);
+            if (clause.isOrGroup() || condition.getOperator() != CriteriaOperator.EQUALS || condition.isAgainstArray()
+                    || condition.getFunction() != CriteriaCondition.SqlFunction.NONE) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void addIdentities(List<List<Object>> valuesByColumn, int[] partitionKeyColumns, int level, Object[] combination, List<CosmosItemIdentity> identities) {
+        if (level == valuesByColumn.size()) {
+            Object[] partitionKeyValues = new Object[partitionKeyColumns.length];
+            for (int i = 0; i < partitionKeyColumns.length; i++) {
+                partitionKeyValues[i] = combination[partitionKeyColumns[i]];
+            }
+            identities.add(new CosmosItemIdentity(PartitionKeyRouting.toPartitionKey(partitionKeyValues), (String) combination[0]));
+            return;
+        }
+        for (Object value : valuesByColumn.get(level)) {
+            combination[level] = value;
+            addIdentities(valuesByColumn, partitionKeyColumns, level + 1, combination, identities);
+        }
+    }
+}
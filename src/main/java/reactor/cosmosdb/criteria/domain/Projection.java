@@ -0,0 +1,256 @@
+package reactor.cosmosdb.criteria.domain;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import reactor.cosmosdb.criteria.domain.exception.AppCriteriaBuilderException;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Attributes of the documents selected by a criteria instead of the whole documents, so cosmosdb only reads,
+ * charges and sends the attributes needed and they are deserialized straight into a smaller class.
+ * <pre>
+ * Projection.builder().field("id").field("address.city", "city").build()   // SELECT c.id, c.address.city AS city FROM c
+ * Projection.of(ContactSummary.class)                                       // attributes of the fields of the class
+ * </pre>
+ * The attributes are validated when the projection is built, it fails with an AppCriteriaBuilderException when they are malformed.
+ */
+public final class Projection {
+    private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+    private static final Set<String> RESERVED_WORDS = Set.of("AND", "ARRAY", "AS", "ASC", "BETWEEN", "BY", "CASE", "CAST", "CONVERT",
+            "CROSS", "DESC", "DISTINCT", "ELSE", "END", "ESCAPE", "EXISTS", "FALSE", "FOR", "FROM", "GROUP", "HAVING", "IN", "INNER",
+            "INSERT", "INTO", "IS", "JOIN", "LEFT", "LIKE", "LIMIT", "NOT", "NULL", "OFFSET", "ON", "OR", "ORDER", "OUTER", "OVER",
+            "RIGHT", "SELECT", "SET", "THEN", "TOP", "TRUE", "UDF", "UNDEFINED", "UPDATE", "VALUE", "WHEN", "WHERE", "WITH");
+    private static final Map<Class<?>, Projection> CLASS_PROJECTIONS = new ConcurrentHashMap<>();
+
+    private final List<ProjectedField> fields;
+    private final String selectSentence;
+
+    private Projection(List<ProjectedField> fields) {
+        this.fields = List.copyOf(fields);
+        StringBuilder sentence = new StringBuilder();
+        for (ProjectedField field : this.fields) {
+            if (sentence.length() > 0) {
+                sentence.append(", ");
+            }
+            field.appendTo(sentence);
+        }
+        this.selectSentence = sentence.toString();
+    }
+
+    public static ProjectionBuilder builder() {
+        return new ProjectionBuilder();
+    }
+
+    /**
+     * @param paths : attributes of the document, nested attributes separated by dots (ej: address.city), selected with the name of their last attribute
+     * @return projection of the attributes
+     */
+    public static Projection of(String... paths) {
+        ProjectionBuilder builder = builder();
+        for (String path : paths) {
+            builder.field(path);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Derives the projection from the fields of a class or record: every non static nor transient field is selected
+     * with its json name (@JsonProperty), from the attribute with the same name or the one of its @ProjectionPath.
+     * Fields annotated with @JsonIgnore are not selected. Projections are derived once per class.
+     * @param projectionClass : class where the results are going to be deserialized
+     * @return projection of the fields of the class
+     */
+    public static Projection of(Class<?> projectionClass) {
+        Projection projection = CLASS_PROJECTIONS.get(projectionClass);
+        if (projection == null) {
+            projection = derive(projectionClass);
+            CLASS_PROJECTIONS.putIfAbsent(projectionClass, projection);
+        }
+        return projection;
+    }
+
+    /**
+     * @return attributes selected, in the order they are selected
+     */
+    public List<ProjectedField> getFields() {
+        return this.fields;
+    }
+
+    /**
+     * @return attributes selected as they are rendered after SELECT (ej: c.id, c.address.city AS city)
+     */
+    public String getSelectSentence() {
+        return this.selectSentence;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof Projection && this.selectSentence.equals(((Projection) o).selectSentence);
+    }
+
+    @Override
+    public int hashCode() {
+        return this.selectSentence.hashCode();
+    }
+
+    public String toString() {
+        return "Projection(" + this.selectSentence + ")";
+    }
+
+    private static Projection derive(Class<?> projectionClass) {
+        Deque<Class<?>> hierarchy = new ArrayDeque<>();
+        for (Class<?> type = projectionClass; type != null && type != Object.class; type = type.getSuperclass()) {
+            hierarchy.addFirst(type);
+        }
+        ProjectionBuilder builder = builder();
+        for (Class<?> type : hierarchy) {
+            for (Field field : type.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+                if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic()) {
+                    continue;
+                }
+                JsonIgnore ignore = field.getAnnotation(JsonIgnore.class);
+                if (ignore != null && ignore.value()) {
+                    continue;
+                }
+                JsonProperty property = field.getAnnotation(JsonProperty.class);
+                String name = property != null && !property.value().isEmpty() ? property.value() : field.getName();
+                ProjectionPath path = field.getAnnotation(ProjectionPath.class);
+                builder.field(path != null ? path.value() : name, name);
+            }
+        }
+        if (builder.fields.isEmpty()) {
+            throw new AppCriteriaBuilderException("Invalid projection. " + projectionClass.getName() + " does not have any field to select");
+        }
+        return builder.build();
+    }
+
+    /**
+     * Attribute of the document selected with the name it is deserialized from
+     */
+    public static final class ProjectedField {
+        private final String path;
+        private final List<String> attributes;
+        private final String alias;
+
+        private ProjectedField(String path, String alias) {
+            if (path == null || path.isBlank()) {
+                throw new AppCriteriaBuilderException("Invalid projection. You can not select an empty or null attribute");
+            }
+            this.path = path.startsWith("c.") ? path.substring(2) : path;
+            this.attributes = List.of(this.path.split("\\.", -1));
+            for (String attribute : this.attributes) {
+                if (attribute.isEmpty() || attribute.indexOf('"') >= 0 || attribute.indexOf('\\') >= 0 || attribute.indexOf('[') >= 0) {
+                    throw new AppCriteriaBuilderException("Invalid projection. Malformed attribute " + path);
+                }
+            }
+            this.alias = alias != null ? alias : this.attributes.get(this.attributes.size() - 1);
+            if (!this.alias.equals(this.getName()) && !isIdentifier(this.alias)) {
+                throw new AppCriteriaBuilderException("Invalid projection. " + this.alias + " can not be used as alias of " + path
+                        + ", it must be an identifier and not a reserved word");
+            }
+        }
+
+        /**
+         * @return attribute of the document without the alias of the container (ej: address.city)
+         */
+        public String getPath() {
+            return this.path;
+        }
+
+        /**
+         * @return name of the attribute in the results (ej: city)
+         */
+        public String getAlias() {
+            return this.alias;
+        }
+
+        /**
+         * @return name given by cosmosdb to the attribute when it is selected without alias, its last attribute
+         */
+        private String getName() {
+            return this.attributes.get(this.attributes.size() - 1);
+        }
+
+        /**
+         * appends the attribute with the alias of the container, attributes that are not identifiers are quoted (ej: c["value"])
+         */
+        private void appendTo(StringBuilder sentence) {
+            sentence.append('c');
+            for (String attribute : this.attributes) {
+                if (isIdentifier(attribute)) {
+                    sentence.append('.').append(attribute);
+                } else {
+                    sentence.append("[\"").append(attribute).append("\"]");
+                }
+            }
+            if (!this.alias.equals(this.getName())) {
+                sentence.append(" AS ").append(this.alias);
+            }
+        }
+
+        public String toString() {
+            return "ProjectedField(path=" + this.path + ", alias=" + this.alias + ")";
+        }
+    }
+
+    static boolean isIdentifier(String value) {
+        return IDENTIFIER.matcher(value).matches() && !RESERVED_WORDS.contains(value.toUpperCase(Locale.ROOT));
+    }
+
+    public static class ProjectionBuilder {
+        private final List<ProjectedField> fields = new ArrayList<>();
+
+        ProjectionBuilder() {
+        }
+
+        /**
+         * @param path : attribute of the document, nested attributes separated by dots (ej: address.city), selected with the name of its last attribute
+         */
+        public ProjectionBuilder field(String path) {
+            return field(path, null);
+        }
+
+        /**
+         * @param path : attribute of the document, nested attributes separated by dots (ej: address.city)
+         * @param alias : name of the attribute in the results (ej: city)
+         */
+        public ProjectionBuilder field(String path, String alias) {
+            this.fields.add(new ProjectedField(path, alias));
+            return this;
+        }
+
+        /**
+         * @return projection of the attributes, it fails with an AppCriteriaBuilderException when there are no attributes,
+         * or two of them are selected with the same name or from the same attribute
+         */
+        public Projection build() {
+            if (this.fields.isEmpty()) {
+                throw new AppCriteriaBuilderException("Invalid projection. You must select at least one attribute");
+            }
+            Set<String> paths = new HashSet<>();
+            Set<String> aliases = new HashSet<>();
+            for (ProjectedField field : this.fields) {
+                if (!paths.add(field.getPath())) {
+                    throw new AppCriteriaBuilderException("Invalid projection. The attribute " + field.getPath() + " is selected more than once");
+                }
+                if (!aliases.add(field.getAlias())) {
+                    throw new AppCriteriaBuilderException("Invalid projection. The name " + field.getAlias() + " is used by more than one attribute");
+                }
+            }
+            return new Projection(this.fields);
+        }
+    }
+}
@@ -12,12 +12,18 @@ public class ProjectionPaginated<T> {
     private int totalResult;
     private boolean hasNextPage;
     private List<T> data;
+    private String continuationToken;
 
     public ProjectionPaginated(int total, int totalResult, boolean hasNextPage, List<T> data) {
+        this(total, totalResult, hasNextPage, data, null);
+    }
+
+    public ProjectionPaginated(int total, int totalResult, boolean hasNextPage, List<T> data, String continuationToken) {
         this.total = total;
         this.totalResult = totalResult;
         this.hasNextPage = hasNextPage;
         this.data = data;
+        this.continuationToken = continuationToken;
     }
 
     public ProjectionPaginated() {
@@ -47,11 +53,19 @@ public class ProjectionPaginated<T> {
         this.data = data;
     }
 
+    /**
+     * @return opaque and url safe token to ask for the next page, null when there are no more pages
+     */
+    public String getContinuationToken() {
+        return this.continuationToken;
+    }
+
     public static class ProjectionPaginatedBuilder<T> {
         private int total;
         private int totalResult;
         private boolean hasNextPage;
         private List<T> data;
+        private String continuationToken;
 
         ProjectionPaginatedBuilder() {
         }
@@ -76,12 +90,17 @@ public class ProjectionPaginated<T> {
             return this;
         }
 
+        public ProjectionPaginatedBuilder<T> continuationToken(String continuationToken) {
+            this.continuationToken = continuationToken;
+            return this;
+        }
+
         public ProjectionPaginated<T> build() {
-            return new ProjectionPaginated<>(total, totalResult, hasNextPage, data);
+            return new ProjectionPaginated<>(total, totalResult, hasNextPage, data, continuationToken);
         }
 
         public String toString() {
-            return "ProjectionPaginated.ProjectionPaginatedBuilder(total=" + this.total + ", totalResult=" + this.totalResult + ", hasNextPage=" + this.hasNextPage + ", data=" + this.data + ")";
+            return "ProjectionPaginated.ProjectionPaginatedBuilder(total=" + this.total + ", totalResult=" + this.totalResult + ", hasNextPage=" + this.hasNextPage + ", data=" + this.data + ", continuationToken=" + this.continuationToken + ")";
         }
     }
 }
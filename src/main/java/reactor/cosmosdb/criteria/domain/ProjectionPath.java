@@ -0,0 +1,20 @@
+package reactor.cosmosdb.criteria.domain;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Path of the document read into a field of a projection class, when it is not the name of the field
+ * (ej: {@code @ProjectionPath("address.city") String city;} is selected as c.address.city AS city)
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD})
+public @interface ProjectionPath {
+
+    /**
+     * @return attribute of the document, nested attributes separated by dots (ej: address.city)
+     */
+    String value();
+}
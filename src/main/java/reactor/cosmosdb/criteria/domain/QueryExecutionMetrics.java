@@ -0,0 +1,108 @@
+package reactor.cosmosdb.criteria.domain;
+
+import java.time.Duration;
+
+/**
+ * Metrics of a repository call: its cost, its end to end latency, the pages read and the requests throttled.
+ */
+public final class QueryExecutionMetrics {
+    private final QueryShape shape;
+    private final Outcome outcome;
+    private final Throwable error;
+    private final Duration duration;
+    private final double requestCharge;
+    private final long pageCount;
+    private final long documentCount;
+    private final long throttleCount;
+    private final long retryCount;
+
+    /**
+     * @param shape : shape of the query launched
+     * @param outcome : how the call has finished
+     * @param error : error of the call, null unless the outcome is ERROR
+     * @param duration : end to end latency of the call
+     * @param statistics : statistics recorded by the call
+     */
+    public QueryExecutionMetrics(QueryShape shape, Outcome outcome, Throwable error, Duration duration, QueryStatistics statistics) {
+        this.shape = shape;
+        this.outcome = outcome;
+        this.error = error;
+        this.duration = duration;
+        this.requestCharge = statistics.getRequestCharge();
+        this.pageCount = statistics.getPageCount();
+        this.documentCount = statistics.getDocumentCount();
+        this.throttleCount = statistics.getThrottleCount();
+        this.retryCount = statistics.getRetryCount();
+    }
+
+    public QueryShape getShape() {
+        return this.shape;
+    }
+
+    public Outcome getOutcome() {
+        return this.outcome;
+    }
+
+    /**
+     * @return error of the call, null unless the outcome is ERROR
+     */
+    public Throwable getError() {
+        return this.error;
+    }
+
+    /**
+     * @return end to end latency of the call
+     */
+    public Duration getDuration() {
+        return this.duration;
+    }
+
+    /**
+     * @return request units consumed by every query of the call (the page and its count query)
+     */
+    public double getRequestCharge() {
+        return this.requestCharge;
+    }
+
+    /**
+     * @return number of pages read, every point read counts as a page
+     */
+    public long getPageCount() {
+        return this.pageCount;
+    }
+
+    /**
+     * @return number of documents returned by cosmosdb, including the ones read to skip the previous pages
+     */
+    public long getDocumentCount() {
+        return this.documentCount;
+    }
+
+    /**
+     * @return number of requests rejected by cosmosdb because the request units provisioned were exhausted
+     */
+    public long getThrottleCount() {
+        return this.throttleCount;
+    }
+
+    /**
+     * @return number of requests launched again after a failure
+     */
+    public long getRetryCount() {
+        return this.retryCount;
+    }
+
+    public String toString() {
+        return "QueryExecutionMetrics(shape=" + this.shape + ", outcome=" + this.outcome + ", duration=" + this.duration + ", requestCharge=" + this.requestCharge
+                + ", pageCount=" + this.pageCount + ", documentCount=" + this.documentCount + ", throttleCount=" + this.throttleCount + ", retryCount=" + this.retryCount + ")";
+    }
+
+    /**
+     * How a repository call has finished
+     */
+    public enum Outcome {
+        SUCCESS,
+        ERROR,
+        CANCELLED
+    }
+}
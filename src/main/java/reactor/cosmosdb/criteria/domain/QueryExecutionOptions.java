@@ -0,0 +1,383 @@
+package reactor.cosmosdb.criteria.domain;
+
+import com.azure.cosmos.ConsistencyLevel;
+import com.azure.cosmos.models.CosmosItemRequestOptions;
+import com.azure.cosmos.models.CosmosQueryRequestOptions;
+import com.azure.cosmos.models.DedicatedGatewayRequestOptions;
+
+import java.time.Duration;
+
+/**
+ * Immutable options that tune how a criteria query is launched against cosmosdb.
+ * Every option that is not set keeps the default behaviour, so options provided on each call
+ * can be combined with the defaults of the repository using {@link #withDefaults(QueryExecutionOptions)}.
+ */
+public final class QueryExecutionOptions {
+    private static final QueryExecutionOptions DEFAULTS = QueryExecutionOptions.builder().build();
+
+    private final Integer maxDegreeOfParallelism;
+    private final Integer maxBufferedItemCount;
+    private final Integer maxItemCount;
+    private final ConsistencyLevel consistencyLevel;
+    private final Boolean queryMetricsEnabled;
+    private final Boolean indexMetricsEnabled;
+    private final Duration endToEndTimeout;
+    private final Duration maxIntegratedCacheStaleness;
+    private final Integer responseContinuationTokenLimitInKb;
+    private final Integer maxPartitionQueryConcurrency;
+    private final TotalCountMode totalCountMode;
+    private final Boolean pointReadsEnabled;
+    private final QueryPriority priority;
+
+    private QueryExecutionOptions(QueryExecutionOptionsBuilder builder) {
+        this.maxDegreeOfParallelism = builder.maxDegreeOfParallelism;
+        this.maxBufferedItemCount = builder.maxBufferedItemCount;
+        this.maxItemCount = builder.maxItemCount;
+        this.consistencyLevel = builder.consistencyLevel;
+        this.queryMetricsEnabled = builder.queryMetricsEnabled;
+        this.indexMetricsEnabled = builder.indexMetricsEnabled;
+        this.endToEndTimeout = builder.endToEndTimeout;
+        this.maxIntegratedCacheStaleness = builder.maxIntegratedCacheStaleness;
+        this.responseContinuationTokenLimitInKb = builder.responseContinuationTokenLimitInKb;
+        this.maxPartitionQueryConcurrency = builder.maxPartitionQueryConcurrency;
+        this.totalCountMode = builder.totalCountMode;
+        this.pointReadsEnabled = builder.pointReadsEnabled;
+        this.priority = builder.priority;
+    }
+
+    /**
+     * @return options without any value set, every query is launched with the default behaviour
+     */
+    public static QueryExecutionOptions defaults() {
+        return DEFAULTS;
+    }
+
+    public static QueryExecutionOptionsBuilder builder() {
+        return new QueryExecutionOptionsBuilder();
+    }
+
+    /**
+     * @param defaults : options used for every value that is not set on these options
+     * @return options with the values of these options and the missing ones taken from defaults
+     */
+    public QueryExecutionOptions withDefaults(QueryExecutionOptions defaults) {
+        if (defaults == null || defaults == DEFAULTS || this == defaults) {
+            return this;
+        }
+        if (this == DEFAULTS) {
+            return defaults;
+        }
+        return builder()
+                .maxDegreeOfParallelism(firstNonNull(maxDegreeOfParallelism, defaults.maxDegreeOfParallelism))
+                .maxBufferedItemCount(firstNonNull(maxBufferedItemCount, defaults.maxBufferedItemCount))
+                .maxItemCount(firstNonNull(maxItemCount, defaults.maxItemCount))
+                .consistencyLevel(firstNonNull(consistencyLevel, defaults.consistencyLevel))
+                .queryMetricsEnabled(firstNonNull(queryMetricsEnabled, defaults.queryMetricsEnabled))
+                .indexMetricsEnabled(firstNonNull(indexMetricsEnabled, defaults.indexMetricsEnabled))
+                .endToEndTimeout(firstNonNull(endToEndTimeout, defaults.endToEndTimeout))
+                .maxIntegratedCacheStaleness(firstNonNull(maxIntegratedCacheStaleness, defaults.maxIntegratedCacheStaleness))
+                .responseContinuationTokenLimitInKb(firstNonNull(responseContinuationTokenLimitInKb, defaults.responseContinuationTokenLimitInKb))
+                .maxPartitionQueryConcurrency(firstNonNull(maxPartitionQueryConcurrency, defaults.maxPartitionQueryConcurrency))
+                .totalCountMode(firstNonNull(totalCountMode, defaults.totalCountMode))
+                .pointReadsEnabled(firstNonNull(pointReadsEnabled, defaults.pointReadsEnabled))
+                .priority(firstNonNull(priority, defaults.priority))
+                .build();
+    }
+
+    /**
+     * @return new request options of cosmosdb with the values set on these options
+     */
+    public CosmosQueryRequestOptions toCosmosQueryRequestOptions() {
+        CosmosQueryRequestOptions options = new CosmosQueryRequestOptions();
+        if (maxDegreeOfParallelism != null) {
+            options.setMaxDegreeOfParallelism(maxDegreeOfParallelism);
+        }
+        if (maxBufferedItemCount != null) {
+            options.setMaxBufferedItemCount(maxBufferedItemCount);
+        }
+        if (consistencyLevel != null) {
+            options.setConsistencyLevel(consistencyLevel);
+        }
+        if (queryMetricsEnabled != null) {
+            options.setQueryMetricsEnabled(queryMetricsEnabled);
+        }
+        if (indexMetricsEnabled != null) {
+            options.setIndexMetricsEnabled(indexMetricsEnabled);
+        }
+        if (maxIntegratedCacheStaleness != null) {
+            options.setDedicatedGatewayRequestOptions(new DedicatedGatewayRequestOptions().setMaxIntegratedCacheStaleness(maxIntegratedCacheStaleness));
+        }
+        if (responseContinuationTokenLimitInKb != null) {
+            options.setResponseContinuationTokenLimitInKb(responseContinuationTokenLimitInKb);
+        }
+        return options;
+    }
+
+    /**
+     * Point reads only accept the consistency level and the staleness of the integrated cache, the rest of the options apply to queries
+     * @return new cosmos request options for the point reads launched with these options
+     */
+    public CosmosItemRequestOptions toCosmosItemRequestOptions() {
+        CosmosItemRequestOptions options = new CosmosItemRequestOptions();
+        if (consistencyLevel != null) {
+            options.setConsistencyLevel(consistencyLevel);
+        }
+        if (maxIntegratedCacheStaleness != null) {
+            options.setDedicatedGatewayRequestOptions(new DedicatedGatewayRequestOptions().setMaxIntegratedCacheStaleness(maxIntegratedCacheStaleness));
+        }
+        return options;
+    }
+
+    /**
+     * @return true if the point reads launched with these options need request options (consistency level or integrated cache staleness)
+     */
+    public boolean hasItemRequestOptions() {
+        return consistencyLevel != null || maxIntegratedCacheStaleness != null;
+    }
+
+    public Integer getMaxDegreeOfParallelism() {
+        return this.maxDegreeOfParallelism;
+    }
+
+    public Integer getMaxBufferedItemCount() {
+        return this.maxBufferedItemCount;
+    }
+
+    /**
+     * @return maximum number of documents fetched per round trip (prefetch) when the page size is not provided by the caller
+     */
+    public Integer getMaxItemCount() {
+        return this.maxItemCount;
+    }
+
+    public ConsistencyLevel getConsistencyLevel() {
+        return this.consistencyLevel;
+    }
+
+    public Boolean getQueryMetricsEnabled() {
+        return this.queryMetricsEnabled;
+    }
+
+    /**
+     * @return if cosmosdb is asked for the indexes used and the ones that would improve the query
+     */
+    public Boolean getIndexMetricsEnabled() {
+        return this.indexMetricsEnabled;
+    }
+
+    /**
+     * @return maximum time to obtain the response of a repository call, including all its round trips
+     */
+    public Duration getEndToEndTimeout() {
+        return this.endToEndTimeout;
+    }
+
+    /**
+     * @return maximum staleness accepted for results served from the integrated cache of the dedicated gateway
+     */
+    public Duration getMaxIntegratedCacheStaleness() {
+        return this.maxIntegratedCacheStaleness;
+    }
+
+    public Integer getResponseContinuationTokenLimitInKb() {
+        return this.responseContinuationTokenLimitInKb;
+    }
+
+    /**
+     * @return maximum number of single partition queries launched at the same time when a criteria is split by partition key
+     */
+    public Integer getMaxPartitionQueryConcurrency() {
+        return this.maxPartitionQueryConcurrency;
+    }
+
+    /**
+     * @return how the totalResult of paginated queries is calculated
+     */
+    public TotalCountMode getTotalCountMode() {
+        return this.totalCountMode;
+    }
+
+    /**
+     * @param defaultValue : value used when the option is not set
+     * @return maximum number of documents fetched per round trip
+     */
+    public int getMaxItemCountOrDefault(int defaultValue) {
+        return this.maxItemCount != null ? this.maxItemCount : defaultValue;
+    }
+
+    /**
+     * @param defaultValue : value used when the option is not set
+     * @return maximum number of single partition queries launched at the same time
+     */
+    public int getMaxPartitionQueryConcurrencyOrDefault(int defaultValue) {
+        return this.maxPartitionQueryConcurrency != null ? this.maxPartitionQueryConcurrency : defaultValue;
+    }
+
+    /**
+     * @return how the totalResult of paginated queries is calculated, CONCURRENT when the option is not set
+     */
+    public TotalCountMode getTotalCountModeOrDefault() {
+        return this.totalCountMode != null ? this.totalCountMode : TotalCountMode.CONCURRENT;
+    }
+
+    /**
+     * @return true if criteria that only compare the id and the partition key are read directly instead of launching a query
+     */
+    public Boolean getPointReadsEnabled() {
+        return this.pointReadsEnabled;
+    }
+
+    /**
+     * @return true if criteria that only compare the id and the partition key are read directly, true when the option is not set
+     */
+    public boolean isPointReadsEnabledOrDefault() {
+        return this.pointReadsEnabled == null || this.pointReadsEnabled;
+    }
+
+    public QueryPriority getPriority() {
+        return this.priority;
+    }
+
+    /**
+     * @return lane where the query waits for request units, INTERACTIVE when it is not set
+     */
+    public QueryPriority getPriorityOrDefault() {
+        return this.priority != null ? this.priority : QueryPriority.INTERACTIVE;
+    }
+
+    private static <V> V firstNonNull(V value, V defaultValue) {
+        return value != null ? value : defaultValue;
+    }
+
+    public String toString() {
+        return "QueryExecutionOptions(maxDegreeOfParallelism=" + this.maxDegreeOfParallelism + ", maxBufferedItemCount=" + this.maxBufferedItemCount
+                + ", maxItemCount=" + this.maxItemCount + ", consistencyLevel=" + this.consistencyLevel + ", queryMetricsEnabled=" + this.queryMetricsEnabled
+                + ", indexMetricsEnabled=" + this.indexMetricsEnabled + ", endToEndTimeout=" + this.endToEndTimeout + ", maxIntegratedCacheStaleness=" + this.maxIntegratedCacheStaleness
+                + ", responseContinuationTokenLimitInKb=" + this.responseContinuationTokenLimitInKb + ", maxPartitionQueryConcurrency=" + this.maxPartitionQueryConcurrency
+                + ", totalCountMode=" + this.totalCountMode + ", pointReadsEnabled=" + this.pointReadsEnabled + ", priority=" + this.priority + ")";
+    }
+
+    public static class QueryExecutionOptionsBuilder {
+        private Integer maxDegreeOfParallelism;
+        private Integer maxBufferedItemCount;
+        private Integer maxItemCount;
+        private ConsistencyLevel consistencyLevel;
+        private Boolean queryMetricsEnabled;
+        private Boolean indexMetricsEnabled;
+        private Duration endToEndTimeout;
+        private Duration maxIntegratedCacheStaleness;
+        private Integer responseContinuationTokenLimitInKb;
+        private Integer maxPartitionQueryConcurrency;
+        private TotalCountMode totalCountMode;
+        private Boolean pointReadsEnabled;
+        private QueryPriority priority;
+
+        QueryExecutionOptionsBuilder() {
+        }
+
+        /**
+         * @param maxDegreeOfParallelism : number of partitions queried in parallel by cosmosdb sdk on cross partition queries (-1 to let the sdk decide)
+         */
+        public QueryExecutionOptionsBuilder maxDegreeOfParallelism(Integer maxDegreeOfParallelism) {
+            this.maxDegreeOfParallelism = maxDegreeOfParallelism;
+            return this;
+        }
+
+        /**
+         * @param maxBufferedItemCount : maximum number of documents buffered by cosmosdb sdk on cross partition queries
+         */
+        public QueryExecutionOptionsBuilder maxBufferedItemCount(Integer maxBufferedItemCount) {
+            this.maxBufferedItemCount = maxBufferedItemCount;
+            return this;
+        }
+
+        /**
+         * @param maxItemCount : maximum number of documents fetched per round trip when the page size is not provided by the caller
+         */
+        public QueryExecutionOptionsBuilder maxItemCount(Integer maxItemCount) {
+            if (maxItemCount != null && maxItemCount <= 0) {
+                throw new IllegalArgumentException("maxItemCount must be greater than 0");
+            }
+            this.maxItemCount = maxItemCount;
+            return this;
+        }
+
+        /**
+         * @param consistencyLevel : consistency level of the query, it can only be weaker than the consistency level of the account
+         */
+        public QueryExecutionOptionsBuilder consistencyLevel(ConsistencyLevel consistencyLevel) {
+            this.consistencyLevel = consistencyLevel;
+            return this;
+        }
+
+        public QueryExecutionOptionsBuilder queryMetricsEnabled(Boolean queryMetricsEnabled) {
+            this.queryMetricsEnabled = queryMetricsEnabled;
+            return this;
+        }
+
+        /**
+         * @param indexMetricsEnabled : asks cosmosdb for the indexes used and the ones that would improve the query, it has an extra cost so enable it only to diagnose
+         */
+        public QueryExecutionOptionsBuilder indexMetricsEnabled(Boolean indexMetricsEnabled) {
+            this.indexMetricsEnabled = indexMetricsEnabled;
+            return this;
+        }
+
+        public QueryExecutionOptionsBuilder endToEndTimeout(Duration endToEndTimeout) {
+            if (endToEndTimeout != null && (endToEndTimeout.isNegative() || endToEndTimeout.isZero())) {
+                throw new IllegalArgumentException("endToEndTimeout must be positive");
+            }
+            this.endToEndTimeout = endToEndTimeout;
+            return this;
+        }
+
+        public QueryExecutionOptionsBuilder maxIntegratedCacheStaleness(Duration maxIntegratedCacheStaleness) {
+            this.maxIntegratedCacheStaleness = maxIntegratedCacheStaleness;
+            return this;
+        }
+
+        public QueryExecutionOptionsBuilder responseContinuationTokenLimitInKb(Integer responseContinuationTokenLimitInKb) {
+            if (responseContinuationTokenLimitInKb != null && responseContinuationTokenLimitInKb <= 0) {
+                throw new IllegalArgumentException("responseContinuationTokenLimitInKb must be greater than 0");
+            }
+            this.responseContinuationTokenLimitInKb = responseContinuationTokenLimitInKb;
+            return this;
+        }
+
+        public QueryExecutionOptionsBuilder maxPartitionQueryConcurrency(Integer maxPartitionQueryConcurrency) {
+            if (maxPartitionQueryConcurrency != null && maxPartitionQueryConcurrency <= 0) {
+                throw new IllegalArgumentException("maxPartitionQueryConcurrency must be greater than 0");
+            }
+            this.maxPartitionQueryConcurrency = maxPartitionQueryConcurrency;
+            return this;
+        }
+
+        /**
+         * @param totalCountMode : how the totalResult of paginated queries is calculated
+         */
+        public QueryExecutionOptionsBuilder totalCountMode(TotalCountMode totalCountMode) {
+            this.totalCountMode = totalCountMode;
+            return this;
+        }
+
+        /**
+         * @param pointReadsEnabled : false to launch a query even when the criteria only compares the id and the partition key
+         */
+        public QueryExecutionOptionsBuilder pointReadsEnabled(Boolean pointReadsEnabled) {
+            this.pointReadsEnabled = pointReadsEnabled;
+            return this;
+        }
+
+        /**
+         * @param priority : lane where the query waits for request units when the repository has a request unit scheduler
+         */
+        public QueryExecutionOptionsBuilder priority(QueryPriority priority) {
+            this.priority = priority;
+            return this;
+        }
+
+        public QueryExecutionOptions build() {
+            return new QueryExecutionOptions(this);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package reactor.cosmosdb.criteria.domain;
+
+import java.util.List;
+
+/**
+ * Result of explaining a query with {@link QueryRewriter#explain(PaginatedCriteria)}:
+ * the original and the rewritten sql sentences and the rules that changed the query.
+ */
+public final class QueryExplanation {
+    private final CriteriaQuery originalQuery;
+    private final CriteriaQuery rewrittenQuery;
+    private final List<String> appliedRules;
+    private final boolean rewritable;
+
+    QueryExplanation(CriteriaQuery originalQuery, CriteriaQuery rewrittenQuery, List<String> appliedRules, boolean rewritable) {
+        this.originalQuery = originalQuery;
+        this.rewrittenQuery = rewrittenQuery;
+        this.appliedRules = List.copyOf(appliedRules);
+        this.rewritable = rewritable;
+    }
+
+    public CriteriaQuery getOriginalQuery() {
+        return this.originalQuery;
+    }
+
+    public CriteriaQuery getRewrittenQuery() {
+        return this.rewrittenQuery;
+    }
+
+    /**
+     * @return names of the rules that changed the query, in the order they were applied
+     */
+    public List<String> getAppliedRules() {
+        return this.appliedRules;
+    }
+
+    /**
+     * @return false if the criteria has where conditions not generated by the builder, or uses ignoreAutoGeneratedFirstConditional,
+     * in which case the query is left unchanged
+     */
+    public boolean isRewritable() {
+        return this.rewritable;
+    }
+
+    @Override
+    public String toString() {
+        return "original:  " + originalQuery.getQuerySentence() + " " + originalQuery.getParameterValues() + System.lineSeparator()
+                + "rewritten: " + rewrittenQuery.getQuerySentence() + " " + rewrittenQuery.getParameterValues() + System.lineSeparator()
+                + "rules:     " + (rewritable ? appliedRules : "not rewritable");
+    }
+}
@@ -0,0 +1,149 @@
+package reactor.cosmosdb.criteria.domain;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Normalized form of a query sentence that identifies its shape regardless of the values it is launched with.
+ * Parameters, literals and lists of them are replaced by a single ?, so
+ * <pre>
+ * SELECT * FROM c WHERE c.id IN (@p1,@p2,@p3) OFFSET 0 LIMIT 10
+ * </pre>
+ * is normalized to
+ * <pre>
+ * SELECT * FROM c WHERE c.id IN (?) OFFSET ? LIMIT ?
+ * </pre>
+ * The fingerprint is a short hash of the normalized sentence, suitable to tag metrics without exposing the query.
+ */
+public final class QueryFingerprint {
+    private static final int MAX_CACHED_SENTENCES = 1024;
+    private static final Map<String, String> CACHE = new ConcurrentHashMap<>();
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private QueryFingerprint() {
+    }
+
+    /**
+     * @param querySentence : query sentence with its values as parameters (ej: criteria.getQuerySpec().getQueryText())
+     * @return hexadecimal hash of the normalized sentence, the same for every query with the same shape
+     */
+    public static String of(String querySentence) {
+        String fingerprint = CACHE.get(querySentence);
+        if (fingerprint != null) {
+            return fingerprint;
+        }
+        String normalized = normalize(querySentence);
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < normalized.length(); i++) {
+            hash ^= normalized.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        fingerprint = String.format("%016x", hash);
+        if (CACHE.size() < MAX_CACHED_SENTENCES) {
+            CACHE.putIfAbsent(querySentence, fingerprint);
+        }
+        return fingerprint;
+    }
+
+    /**
+     * @param querySentence : query sentence with its values as parameters
+     * @return sentence with its parameters, literals and lists of them replaced by ? and its whitespace collapsed
+     */
+    public static String normalize(String querySentence) {
+        StringBuilder normalized = new StringBuilder(querySentence.length());
+        int i = 0;
+        while (i < querySentence.length()) {
+            char character = querySentence.charAt(i);
+            if (character == '@' || character == '\'' || character == '"'
+                    || (Character.isDigit(character) && !isIdentifierEnd(normalized))) {
+                i = skipValue(querySentence, i);
+                appendPlaceholder(normalized);
+            } else if (Character.isWhitespace(character)) {
+                while (i < querySentence.length() && Character.isWhitespace(querySentence.charAt(i))) {
+                    i++;
+                }
+                if (normalized.length() > 0) {
+                    normalized.append(' ');
+                }
+            } else {
+                normalized.append(character);
+                i++;
+            }
+        }
+        int end = normalized.length();
+        while (end > 0 && normalized.charAt(end - 1) == ' ') {
+            end--;
+        }
+        normalized.setLength(end);
+        return normalized.toString();
+    }
+
+    /**
+     * @param querySentence : query sentence with its values as parameters
+     * @return sentence with its string and number literals replaced by ?, the parameters are kept because they never contain values
+     */
+    public static String redact(String querySentence) {
+        StringBuilder redacted = new StringBuilder(querySentence.length());
+        int i = 0;
+        while (i < querySentence.length()) {
+            char character = querySentence.charAt(i);
+            if (character == '@') {
+                int end = skipValue(querySentence, i);
+                redacted.append(querySentence, i, end);
+                i = end;
+            } else if (character == '\'' || character == '"' || (Character.isDigit(character) && !isIdentifierEnd(redacted))) {
+                i = skipValue(querySentence, i);
+                redacted.append('?');
+            } else {
+                redacted.append(character);
+                i++;
+            }
+        }
+        return redacted.toString();
+    }
+
+    /**
+     * @return position after the parameter, string literal or number that starts at the position provided
+     */
+    private static int skipValue(String querySentence, int start) {
+        char character = querySentence.charAt(start);
+        int i = start + 1;
+        if (character == '\'' || character == '"') {
+            while (i < querySentence.length() && querySentence.charAt(i) != character) {
+                i += querySentence.charAt(i) == '\\' ? 2 : 1;
+            }
+            return Math.min(i + 1, querySentence.length());
+        }
+        while (i < querySentence.length() && (Character.isLetterOrDigit(querySentence.charAt(i)) || querySentence.charAt(i) == '_' || querySentence.charAt(i) == '.')) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Appends a ?, unless it is the next element of a list of values, which is collapsed into the previous ?
+     */
+    private static void appendPlaceholder(StringBuilder normalized) {
+        int end = normalized.length();
+        while (end > 0 && normalized.charAt(end - 1) == ' ') {
+            end--;
+        }
+        if (end > 1 && normalized.charAt(end - 1) == ',' && normalized.charAt(end - 2) == '?') {
+            normalized.setLength(end - 1);
+            return;
+        }
+        normalized.append('?');
+    }
+
+    /**
+     * @return if the last character appended is part of an identifier, so a digit that follows it is part of it too
+     */
+    private static boolean isIdentifierEnd(StringBuilder normalized) {
+        if (normalized.length() == 0) {
+            return false;
+        }
+        char last = normalized.charAt(normalized.length() - 1);
+        return Character.isLetterOrDigit(last) || last == '_';
+    }
+}
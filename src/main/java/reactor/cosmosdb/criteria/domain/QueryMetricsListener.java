@@ -0,0 +1,29 @@
+package reactor.cosmosdb.criteria.domain;
+
+/**
+ * Receives the metrics of the queries launched by a repository.
+ * The callbacks are invoked on the threads that read the pages, so they must be fast and must not block.
+ */
+public interface QueryMetricsListener {
+
+    /**
+     * Listener that ignores every metric, repositories do not collect metrics while it is set
+     */
+    QueryMetricsListener NOOP = new QueryMetricsListener() {
+    };
+
+    /**
+     * Invoked every time a page (or a document read directly) is received from cosmosdb
+     * @param shape : shape of the query the page belongs to
+     * @param page : metrics of the page
+     */
+    default void onPage(QueryShape shape, PageMetrics page) {
+    }
+
+    /**
+     * Invoked once every repository call has finished, successfully or not, or has been cancelled
+     * @param metrics : metrics of the whole call
+     */
+    default void onExecution(QueryExecutionMetrics metrics) {
+    }
+}
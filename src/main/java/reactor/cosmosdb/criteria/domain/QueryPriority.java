@@ -0,0 +1,15 @@
+package reactor.cosmosdb.criteria.domain;
+
+/**
+ * Lane where a query waits for request units when the repository has a request unit scheduler
+ */
+public enum QueryPriority {
+    /**
+     * Queries someone is waiting for, they are admitted before any batch query
+     */
+    INTERACTIVE,
+    /**
+     * Background queries, they are only admitted when there are no interactive queries waiting
+     */
+    BATCH
+}
@@ -0,0 +1,41 @@
+package reactor.cosmosdb.criteria.domain;
+
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+/**
+ * Rule applied by {@link QueryRewriter} to the clauses of a criteria.
+ * A rule must return clauses that select exactly the same documents than the clauses received.
+ */
+public interface QueryRewriteRule {
+
+    /**
+     * @return name of the rule, shown when the query is explained
+     */
+    String getName();
+
+    /**
+     * @param clauses : clauses of the criteria, joined with AND
+     * @return clauses rewritten, or the same clauses if the rule does not apply
+     */
+    List<ConditionClause> rewrite(List<ConditionClause> clauses);
+
+    /**
+     * @param name : name of the rule
+     * @param rewrite : rewrites the clauses of a criteria
+     * @return rule with the name and rewrite function provided
+     */
+    static QueryRewriteRule of(String name, UnaryOperator<List<ConditionClause>> rewrite) {
+        return new QueryRewriteRule() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public List<ConditionClause> rewrite(List<ConditionClause> clauses) {
+                return rewrite.apply(clauses);
+            }
+        };
+    }
+}
@@ -0,0 +1,158 @@
+package reactor.cosmosdb.criteria.domain;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
+/**
+ * Rewrite rules provided out of the box, all of them are applied by {@link QueryRewriter#defaults()}.
+ */
+public final class QueryRewriteRules {
+
+    private static final QueryRewriteRule DEDUPLICATE_VALUES = QueryRewriteRule.of("DeduplicateValues", clauses -> mapConditions(clauses, QueryRewriteRules::deduplicateValues));
+    private static final QueryRewriteRule COLLAPSE_REDUNDANT_CONDITIONS = QueryRewriteRule.of("CollapseRedundantConditions", QueryRewriteRules::collapseRedundantConditions);
+    private static final QueryRewriteRule MERGE_ARRAY_SUB_QUERIES = QueryRewriteRule.of("MergeArraySubQueries", QueryRewriteRules::mergeArraySubQueries);
+    private static final QueryRewriteRule INDEX_FRIENDLY_FUNCTIONS = QueryRewriteRule.of("IndexFriendlyFunctions", clauses -> mapConditions(clauses, QueryRewriteRules::indexFriendlyFunction));
+
+    private QueryRewriteRules() {
+    }
+
+    /**
+     * Removes the repeated values of the conditions compared with a list of values (IN, NOT IN, LIKE).
+     * Strict operators are not changed, because they compare the number of values with the length of the array.
+     */
+    public static QueryRewriteRule deduplicateValues() {
+        return DEDUPLICATE_VALUES;
+    }
+
+    /**
+     * Removes the conditions repeated inside an or group, the clauses repeated,
+     * and the or groups that contain a condition that every result already satisfies (A AND (A OR B) is A).
+     */
+    public static QueryRewriteRule collapseRedundantConditions() {
+        return COLLAPSE_REDUNDANT_CONDITIONS;
+    }
+
+    /**
+     * Renders the positive conditions of an or group against the same array inside a single EXISTS sub query.
+     * Conditions joined with AND are never merged, because each one of them may be satisfied by a different element of the array.
+     */
+    public static QueryRewriteRule mergeArraySubQueries() {
+        return MERGE_ARRAY_SUB_QUERIES;
+    }
+
+    /**
+     * Renders LIKE_STRICT conditions with CONTAINS(column, value, true) instead of UPPER(column) LIKE UPPER('%value%'),
+     * when their values do not have characters that LIKE interprets as wildcards.
+     */
+    public static QueryRewriteRule indexFriendlyFunctions() {
+        return INDEX_FRIENDLY_FUNCTIONS;
+    }
+
+    private static CriteriaCondition deduplicateValues(CriteriaCondition condition) {
+        switch (condition.getOperator()) {
+            case EQUALS:
+            case NOT_EQUALS:
+            case CONTAINS:
+            case NOT_CONTAINS:
+            case LIKE:
+            case LIKE_STRICT:
+                Set<String> values = new LinkedHashSet<>(condition.getValues());
+                return values.size() < condition.getValues().size() ? condition.withValues(new ArrayList<>(values)) : condition;
+            default:
+                return condition;
+        }
+    }
+
+    private static CriteriaCondition indexFriendlyFunction(CriteriaCondition condition) {
+        if (condition.getOperator() != CriteriaOperator.LIKE_STRICT || condition.getFunction() != CriteriaCondition.SqlFunction.NONE) {
+            return condition;
+        }
+        for (String value : condition.getValues()) {
+            if (value == null || value.indexOf('%') >= 0 || value.indexOf('_') >= 0 || value.indexOf('[') >= 0) {
+                return condition;
+            }
+        }
+        return condition.withFunction(CriteriaCondition.SqlFunction.CONTAINS_IGNORE_CASE);
+    }
+
+    private static List<ConditionClause> collapseRedundantConditions(List<ConditionClause> clauses) {
+        Set<ConditionClause> collapsed = new LinkedHashSet<>(clauses.size());
+        for (ConditionClause clause : clauses) {
+            Set<CriteriaCondition> conditions = new LinkedHashSet<>(clause.getConditions());
+            collapsed.add(conditions.size() < clause.getConditions().size() ? new ConditionClause(new ArrayList<>(conditions)) : clause);
+        }
+        Set<CriteriaCondition> requiredConditions = new LinkedHashSet<>();
+        for (ConditionClause clause : collapsed) {
+            if (!clause.isOrGroup()) {
+                requiredConditions.add(clause.getConditions().get(0));
+            }
+        }
+        List<ConditionClause> rewritten = new ArrayList<>(collapsed.size());
+        for (ConditionClause clause : collapsed) {
+            if (!clause.isOrGroup() || clause.getConditions().stream().noneMatch(requiredConditions::contains)) {
+                rewritten.add(clause);
+            }
+        }
+        return rewritten.equals(clauses) ? clauses : rewritten;
+    }
+
+    private static List<ConditionClause> mergeArraySubQueries(List<ConditionClause> clauses) {
+        List<ConditionClause> rewritten = new ArrayList<>(clauses.size());
+        for (ConditionClause clause : clauses) {
+            rewritten.add(clause.isOrGroup() ? mergeArraySubQueries(clause) : clause);
+        }
+        return rewritten.equals(clauses) ? clauses : rewritten;
+    }
+
+    private static ConditionClause mergeArraySubQueries(ConditionClause clause) {
+        Map<String, List<CriteriaCondition>> conditionsByArray = new LinkedHashMap<>();
+        List<Object> order = new ArrayList<>(clause.getConditions().size());
+        for (CriteriaCondition condition : clause.getConditions()) {
+            if (condition.isAgainstArray() && !condition.isNegative()) {
+                List<CriteriaCondition> arrayConditions = conditionsByArray.get(condition.getRoot());
+                if (arrayConditions == null) {
+                    arrayConditions = new ArrayList<>();
+                    conditionsByArray.put(condition.getRoot(), arrayConditions);
+                    order.add(arrayConditions);
+                }
+                arrayConditions.add(condition);
+            } else {
+                order.add(condition);
+            }
+        }
+        List<CriteriaCondition> conditions = new ArrayList<>(clause.getConditions().size());
+        for (Object element : order) {
+            if (element instanceof CriteriaCondition) {
+                conditions.add((CriteriaCondition) element);
+                continue;
+            }
+            @SuppressWarnings("unchecked")
+            List<CriteriaCondition> arrayConditions = (List<CriteriaCondition>) element;
+            for (CriteriaCondition condition : arrayConditions) {
+                conditions.add(condition.withSharedSubQuery(arrayConditions.size() > 1));
+            }
+        }
+        ConditionClause rewritten = new ConditionClause(conditions);
+        return rewritten.equals(clause) ? clause : rewritten;
+    }
+
+    private static List<ConditionClause> mapConditions(List<ConditionClause> clauses, UnaryOperator<CriteriaCondition> mapper) {
+        List<ConditionClause> rewritten = new ArrayList<>(clauses.size());
+        boolean changed = false;
+        for (ConditionClause clause : clauses) {
+            List<CriteriaCondition> conditions = new ArrayList<>(clause.getConditions().size());
+            for (CriteriaCondition condition : clause.getConditions()) {
+                CriteriaCondition mapped = mapper.apply(condition);
+                changed |= mapped != condition;
+                conditions.add(mapped);
+            }
+            rewritten.add(new ConditionClause(conditions));
+        }
+        return changed ? rewritten : clauses;
+    }
+}
@@ -0,0 +1,83 @@
+package reactor.cosmosdb.criteria.domain;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Immutable and thread safe optimizer of the queries generated by the criteria builder.
+ * It applies its rules on the structured representation of the criteria (the conditions as they were provided to the builder),
+ * renders the query again without the WHERE 1=1 sentence and binds the values of the new placeholders.
+ * Criteria with where conditions not generated by the builder, or using ignoreAutoGeneratedFirstConditional, are left unchanged.
+ */
+public final class QueryRewriter {
+    private static final QueryRewriter DEFAULTS = new QueryRewriter(List.of(
+            QueryRewriteRules.deduplicateValues(),
+            QueryRewriteRules.collapseRedundantConditions(),
+            QueryRewriteRules.mergeArraySubQueries(),
+            QueryRewriteRules.indexFriendlyFunctions()));
+
+    private final List<QueryRewriteRule> rules;
+
+    private QueryRewriter(List<QueryRewriteRule> rules) {
+        this.rules = List.copyOf(rules);
+    }
+
+    /**
+     * @return rewriter with every rule of {@link QueryRewriteRules}
+     */
+    public static QueryRewriter defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * @param rules : rules applied in order
+     * @return rewriter with the rules provided
+     */
+    public static QueryRewriter of(List<QueryRewriteRule> rules) {
+        return new QueryRewriter(rules);
+    }
+
+    /**
+     * @param rule : rule applied after the rules of this rewriter
+     * @return new rewriter with the rules of this rewriter and the rule provided
+     */
+    public QueryRewriter withRule(QueryRewriteRule rule) {
+        List<QueryRewriteRule> newRules = new ArrayList<>(this.rules);
+        newRules.add(rule);
+        return new QueryRewriter(newRules);
+    }
+
+    public List<QueryRewriteRule> getRules() {
+        return this.rules;
+    }
+
+    /**
+     * @param criteria : criteria generated by a criteria builder
+     * @return query rewritten, or the query of the criteria when it can not be rewritten
+     */
+    public CriteriaQuery rewrite(PaginatedCriteria criteria) {
+        return explain(criteria).getRewrittenQuery();
+    }
+
+    /**
+     * @param criteria : criteria generated by a criteria builder
+     * @return original and rewritten queries with the rules that changed the query
+     */
+    public QueryExplanation explain(PaginatedCriteria criteria) {
+        CriteriaQuery query = criteria.getCriteriaQuery();
+        CriteriaModel model = query.getCriteriaModel();
+        if (model == null) {
+            return new QueryExplanation(query, query, List.of(), false);
+        }
+        List<ConditionClause> clauses = model.getClauses();
+        List<String> appliedRules = new ArrayList<>();
+        for (QueryRewriteRule rule : rules) {
+            List<ConditionClause> rewritten = rule.rewrite(clauses);
+            if (!rewritten.equals(clauses)) {
+                appliedRules.add(rule.getName());
+                clauses = rewritten;
+            }
+        }
+        return new QueryExplanation(query, new RewriteCriteriaBuilder(model).build(clauses), appliedRules, true);
+    }
+}
@@ -0,0 +1,72 @@
+package reactor.cosmosdb.criteria.domain;
+
+import java.util.Objects;
+
+/**
+ * Identifies the executions of the same operation of a repository with queries of the same shape against the same container.
+ * Two criteria with the same conditions and different values have the same shape.
+ */
+public final class QueryShape {
+    private final String operation;
+    private final String containerName;
+    private final String querySentence;
+    private final String fingerprint;
+
+    private QueryShape(String operation, String containerName, String querySentence) {
+        this.operation = operation;
+        this.containerName = containerName;
+        this.querySentence = querySentence;
+        this.fingerprint = QueryFingerprint.of(querySentence);
+    }
+
+    /**
+     * @param operation : operation of the repository (ej: findByCriteriaPaginated)
+     * @param containerName : name of the target container
+     * @param querySentence : query sentence with its values as parameters
+     * @return shape of the query
+     */
+    public static QueryShape of(String operation, String containerName, String querySentence) {
+        return new QueryShape(operation, containerName, querySentence);
+    }
+
+    public String getOperation() {
+        return this.operation;
+    }
+
+    public String getContainerName() {
+        return this.containerName;
+    }
+
+    /**
+     * @return query sentence launched, its values are parameters so it never contains them
+     */
+    public String getQuerySentence() {
+        return this.querySentence;
+    }
+
+    /**
+     * @return hash of the normalized query sentence, see {@link QueryFingerprint}
+     */
+    public String getFingerprint() {
+        return this.fingerprint;
+    }
+
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof QueryShape)) {
+            return false;
+        }
+        QueryShape other = (QueryShape) o;
+        return operation.equals(other.operation) && Objects.equals(containerName, other.containerName) && fingerprint.equals(other.fingerprint);
+    }
+
+    public int hashCode() {
+        return Objects.hash(operation, containerName, fingerprint);
+    }
+
+    public String toString() {
+        return "QueryShape(operation=" + this.operation + ", containerName=" + this.containerName + ", fingerprint=" + this.fingerprint + ")";
+    }
+}
@@ -0,0 +1,143 @@
+package reactor.cosmosdb.criteria.domain;
+
+import com.azure.cosmos.models.FeedResponse;
+import reactor.core.publisher.Flux;
+
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread safe accumulator of the cost of the queries launched by a repository call.
+ * Put an instance in the subscriber context to collect the statistics of every page read by the call:
+ * <pre>
+ * QueryStatistics statistics = new QueryStatistics();
+ * repository.findByCriteriaPaginated(...).contextWrite(Context.of(QueryStatistics.class, statistics));
+ * </pre>
+ */
+public final class QueryStatistics {
+    private final DoubleAdder requestCharge = new DoubleAdder();
+    private final LongAdder pageCount = new LongAdder();
+    private final LongAdder documentCount = new LongAdder();
+    private final LongAdder throttleCount = new LongAdder();
+    private final LongAdder retryCount = new LongAdder();
+    private final QueryStatistics parent;
+    private final QueryShape shape;
+    private final QueryMetricsListener listener;
+
+    public QueryStatistics() {
+        this(null, null, QueryMetricsListener.NOOP);
+    }
+
+    /**
+     * @param parent : statistics that record every page recorded by these ones too, it can be null
+     * @param shape : shape of the query whose pages are recorded, it can be null when there is no listener
+     * @param listener : listener notified of every page recorded
+     */
+    public QueryStatistics(QueryStatistics parent, QueryShape shape, QueryMetricsListener listener) {
+        this.parent = parent;
+        this.shape = shape;
+        this.listener = listener != null ? listener : QueryMetricsListener.NOOP;
+    }
+
+    /**
+     * Records every page emitted into the statistics found in the subscriber context, if there are any
+     * @param pages : pages returned by cosmosdb
+     * @return same pages
+     */
+    public static <T> Flux<FeedResponse<T>> record(Flux<FeedResponse<T>> pages) {
+        return Flux.deferContextual(context -> {
+            QueryStatistics statistics = context.getOrDefault(QueryStatistics.class, null);
+            return statistics != null ? pages.doOnNext(statistics::record) : pages;
+        });
+    }
+
+    /**
+     * @param page : page returned by cosmosdb
+     */
+    public void record(FeedResponse<?> page) {
+        record(PageMetrics.of(page));
+    }
+
+    /**
+     * @param requestCharge : request units consumed by a request
+     * @param documents : number of documents returned by the request
+     */
+    public void record(double requestCharge, int documents) {
+        record(PageMetrics.of(requestCharge, documents, null));
+    }
+
+    /**
+     * @param page : metrics of a page, or of a document read directly
+     */
+    public void record(PageMetrics page) {
+        requestCharge.add(page.getRequestCharge());
+        pageCount.increment();
+        documentCount.add(page.getDocumentCount());
+        if (listener != QueryMetricsListener.NOOP) {
+            listener.onPage(shape, page);
+        }
+        if (parent != null) {
+            parent.record(page);
+        }
+    }
+
+    /**
+     * Records a request rejected by cosmosdb because the request units provisioned were exhausted (status 429)
+     */
+    public void recordThrottle() {
+        throttleCount.increment();
+        if (parent != null) {
+            parent.recordThrottle();
+        }
+    }
+
+    /**
+     * Records a request launched again after a failure
+     */
+    public void recordRetry() {
+        retryCount.increment();
+        if (parent != null) {
+            parent.recordRetry();
+        }
+    }
+
+    /**
+     * @return request units consumed
+     */
+    public double getRequestCharge() {
+        return requestCharge.sum();
+    }
+
+    /**
+     * @return number of pages read, every point read counts as a page
+     */
+    public long getPageCount() {
+        return pageCount.sum();
+    }
+
+    /**
+     * @return number of documents read
+     */
+    public long getDocumentCount() {
+        return documentCount.sum();
+    }
+
+    /**
+     * @return number of requests rejected by cosmosdb because the request units provisioned were exhausted
+     */
+    public long getThrottleCount() {
+        return throttleCount.sum();
+    }
+
+    /**
+     * @return number of requests launched again after a failure
+     */
+    public long getRetryCount() {
+        return retryCount.sum();
+    }
+
+    public String toString() {
+        return "QueryStatistics(requestCharge=" + this.getRequestCharge() + ", pageCount=" + this.getPageCount() + ", documentCount=" + this.getDocumentCount()
+                + ", throttleCount=" + this.getThrottleCount() + ", retryCount=" + this.getRetryCount() + ")";
+    }
+}
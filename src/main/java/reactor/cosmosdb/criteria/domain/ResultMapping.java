@@ -0,0 +1,85 @@
+package reactor.cosmosdb.criteria.domain;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * How the results of a criteria are received from cosmosdb and mapped to the entity returned by the repository.
+ * <pre>
+ * ResultMapping.toEntity(TestingContainer::toEntity)                            // whole documents, deserialized into the container class
+ * ResultMapping.projection(ContactSummary.class, summary -&gt; toEntity(summary))  // criteria built with selectProjection
+ * ResultMapping.decoded(JacksonDocumentCodec.of(Testing.class))                 // raw json decoded straight into the entity
+ * </pre>
+ * Only the results mapped from the container class can be read directly (point reads), projections and decoded results are always queried.
+ * @param <T> : class where the results are deserialized (the container class, a projection class or JsonNode)
+ * @param <E> : Entity (ej: Testing)
+ */
+public final class ResultMapping<T,E> {
+    private final Class<T> resultClass;
+    private final Function<T,E> mapper;
+    private final Object resultKey;
+
+    private ResultMapping(Class<T> resultClass, Function<T,E> mapper, Object resultKey) {
+        this.resultClass = resultClass;
+        this.mapper = Objects.requireNonNull(mapper);
+        this.resultKey = resultKey;
+    }
+
+    /**
+     * @param toEntity : entity where mapping the documents deserialized into the class of the container
+     * @return mapping of the whole documents
+     */
+    public static <C,E> ResultMapping<C,E> toEntity(Function<C,E> toEntity) {
+        return new ResultMapping<>(null, toEntity, null);
+    }
+
+    /**
+     * @param projectionClass : class where the results are going to be deserialized
+     * @param toEntity : entity where mapping the results obtained
+     * @return mapping of the attributes selected by a criteria built with selectProjection
+     */
+    public static <P,E> ResultMapping<P,E> projection(Class<P> projectionClass, Function<P,E> toEntity) {
+        return new ResultMapping<>(Objects.requireNonNull(projectionClass), toEntity, projectionClass);
+    }
+
+    /**
+     * No instance of the container class is created, and only the documents returned are decoded
+     * @param codec : decodes every document into the entity
+     * @return mapping of the documents received as raw json
+     */
+    public static <E> ResultMapping<JsonNode,E> decoded(DocumentCodec<E> codec) {
+        return new ResultMapping<>(JsonNode.class, codec::decode, Objects.requireNonNull(codec));
+    }
+
+    /**
+     * @return class where the results are deserialized, null when they are deserialized into the class of the container
+     */
+    public Class<T> getResultClass() {
+        return this.resultClass;
+    }
+
+    public Function<T,E> getMapper() {
+        return this.mapper;
+    }
+
+    /**
+     * @return identifies the results of the mapping when they are cached: the projection class or the codec,
+     * null for the documents deserialized into the class of the container
+     */
+    public Object getResultKey() {
+        return this.resultKey;
+    }
+
+    /**
+     * @return true if the results are the whole documents deserialized into the class of the container
+     */
+    public boolean isContainerMapping() {
+        return this.resultClass == null;
+    }
+
+    public String toString() {
+        return "ResultMapping(resultClass=" + (this.resultClass != null ? this.resultClass.getName() : "container") + ", resultKey=" + this.resultKey + ")";
+    }
+}
@@ -0,0 +1,17 @@
+package reactor.cosmosdb.criteria.domain;
+
+import java.util.List;
+
+/**
+ * Renders again a criteria from its structured representation once it has been rewritten.
+ */
+final class RewriteCriteriaBuilder extends AppCriteriaBuilder<RewriteCriteriaBuilder> {
+
+    RewriteCriteriaBuilder(CriteriaModel model) {
+        this.applyModel(model);
+    }
+
+    CriteriaQuery build(List<ConditionClause> clauses) {
+        return this.buildCriteriaQuery(clauses);
+    }
+}
@@ -0,0 +1,168 @@
+package reactor.cosmosdb.criteria.domain;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Repository call captured by the slow query log, with the diagnostics of the pages it read.
+ * It never contains the values of the query: the parameters are kept as placeholders and the literals are redacted.
+ */
+public final class SlowQueryEntry {
+    private final Instant capturedAt;
+    private final Reason reason;
+    private final QueryExecutionMetrics metrics;
+    private final String querySentence;
+    private final List<CapturedPage> pages;
+    private final int omittedPages;
+
+    /**
+     * @param capturedAt : when the call finished
+     * @param reason : why the call was captured
+     * @param metrics : metrics of the call
+     * @param pages : pages captured of the call
+     * @param omittedPages : pages read by the call that were not captured
+     */
+    public SlowQueryEntry(Instant capturedAt, Reason reason, QueryExecutionMetrics metrics, List<CapturedPage> pages, int omittedPages) {
+        this.capturedAt = capturedAt;
+        this.reason = reason;
+        this.metrics = metrics;
+        this.querySentence = QueryFingerprint.redact(metrics.getShape().getQuerySentence());
+        this.pages = List.copyOf(pages);
+        this.omittedPages = omittedPages;
+    }
+
+    public Instant getCapturedAt() {
+        return this.capturedAt;
+    }
+
+    public Reason getReason() {
+        return this.reason;
+    }
+
+    public QueryExecutionMetrics getMetrics() {
+        return this.metrics;
+    }
+
+    public String getOperation() {
+        return this.metrics.getShape().getOperation();
+    }
+
+    public String getContainerName() {
+        return this.metrics.getShape().getContainerName();
+    }
+
+    public String getFingerprint() {
+        return this.metrics.getShape().getFingerprint();
+    }
+
+    /**
+     * @return query sentence launched, with its parameters as placeholders and its literals redacted
+     */
+    public String getQuerySentence() {
+        return this.querySentence;
+    }
+
+    public Duration getDuration() {
+        return this.metrics.getDuration();
+    }
+
+    public double getRequestCharge() {
+        return this.metrics.getRequestCharge();
+    }
+
+    /**
+     * @return first pages read by the call
+     */
+    public List<CapturedPage> getPages() {
+        return this.pages;
+    }
+
+    /**
+     * @return pages read by the call that were not captured, because there were more than the maximum captured per call
+     */
+    public int getOmittedPages() {
+        return this.omittedPages;
+    }
+
+    public String toString() {
+        return "SlowQueryEntry(capturedAt=" + this.capturedAt + ", reason=" + this.reason + ", operation=" + this.getOperation() + ", containerName=" + this.getContainerName()
+                + ", fingerprint=" + this.getFingerprint() + ", outcome=" + this.metrics.getOutcome() + ", duration=" + this.getDuration() + ", requestCharge=" + this.getRequestCharge()
+                + ", pageCount=" + this.metrics.getPageCount() + ", documentCount=" + this.metrics.getDocumentCount() + ", querySentence=" + this.querySentence
+                + ", pages=" + this.pages + ", omittedPages=" + this.omittedPages + ")";
+    }
+
+    /**
+     * Why a call was captured, the thresholds are checked in this order
+     */
+    public enum Reason {
+        LATENCY,
+        REQUEST_CHARGE,
+        SAMPLED
+    }
+
+    /**
+     * Page read by a captured call, with its diagnostics serialized when it was captured
+     */
+    public static final class CapturedPage {
+        private final double requestCharge;
+        private final int documentCount;
+        private final Duration latency;
+        private final String continuationToken;
+        private final String diagnostics;
+        private final String indexUtilization;
+
+        /**
+         * @param page : metrics of the page
+         */
+        public CapturedPage(PageMetrics page) {
+            this.requestCharge = page.getRequestCharge();
+            this.documentCount = page.getDocumentCount();
+            this.latency = page.getLatency();
+            this.continuationToken = page.getContinuationToken();
+            this.diagnostics = page.getDiagnostics() != null ? page.getDiagnostics().toString() : null;
+            this.indexUtilization = page.getIndexUtilization();
+        }
+
+        public double getRequestCharge() {
+            return this.requestCharge;
+        }
+
+        public int getDocumentCount() {
+            return this.documentCount;
+        }
+
+        /**
+         * @return time spent by cosmosdb client to obtain the page, null when it is unknown
+         */
+        public Duration getLatency() {
+            return this.latency;
+        }
+
+        /**
+         * @return token to read the next page, null when it is the last page or it is not a page of a query
+         */
+        public String getContinuationToken() {
+            return this.continuationToken;
+        }
+
+        /**
+         * @return diagnostics as they are serialized by cosmosdb client, they include the query metrics when the query is launched with queryMetricsEnabled
+         */
+        public String getDiagnostics() {
+            return this.diagnostics;
+        }
+
+        /**
+         * @return indexes used by the query and the ones that would improve it (json), null unless the query is launched with indexMetricsEnabled
+         */
+        public String getIndexUtilization() {
+            return this.indexUtilization;
+        }
+
+        public String toString() {
+            return "CapturedPage(requestCharge=" + this.requestCharge + ", documentCount=" + this.documentCount + ", latency=" + this.latency
+                    + ", continuationToken=" + this.continuationToken + ", indexUtilization=" + this.indexUtilization + ", diagnostics=" + this.diagnostics + ")";
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package reactor.cosmosdb.criteria.domain;
+
+/**
+ * Receives every call captured by the slow query log, it is invoked on the thread that finishes the call so it must not block.
+ */
+@FunctionalInterface
+public interface SlowQuerySink {
+
+    /**
+     * @param entry : call captured
+     */
+    void accept(SlowQueryEntry entry);
+}
@@ -0,0 +1,20 @@
+package reactor.cosmosdb.criteria.domain;
+
+/**
+ * Enum used to decide how the totalResult of a paginated query is calculated.
+ */
+public enum TotalCountMode {
+    /**
+     * a count query derived from the criteria is launched at the same time that the page is fetched
+     */
+    CONCURRENT,
+    /**
+     * totalResult is not calculated, only the pages needed to know if there is a next page are fetched
+     */
+    SKIP,
+    /**
+     * the same exact count query as CONCURRENT, launched with eventual consistency, so it costs the same request units
+     * and the total may not include the latest writes. When the count query fails the query fails, as in CONCURRENT
+     */
+    APPROXIMATE
+}
@@ -0,0 +1,10 @@
+package reactor.cosmosdb.criteria.domain.exception;
+
+/**
+ * Exception launched when a document returned by cosmosdb can not be decoded by a DocumentCodec
+ */
+public class DocumentDecodingException extends RuntimeException{
+    public DocumentDecodingException(String message, Throwable cause){
+        super(message, cause);
+    }
+}
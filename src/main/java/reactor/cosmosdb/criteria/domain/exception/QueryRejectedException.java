@@ -0,0 +1,11 @@
+package reactor.cosmosdb.criteria.domain.exception;
+
+/**
+ * Exception launched when a query is not admitted by the request unit scheduler
+ * because the queue of queries waiting for request units of its container is full
+ */
+public class QueryRejectedException extends RuntimeException{
+    public QueryRejectedException(String message){
+        super(message);
+    }
+}
@@ -0,0 +1,85 @@
+package reactor.cosmosdb.criteria.infraestructure;
+
+import com.azure.cosmos.CosmosAsyncContainer;
+import com.azure.cosmos.models.CosmosChangeFeedRequestOptions;
+import com.azure.cosmos.models.FeedRange;
+import com.fasterxml.jackson.databind.JsonNode;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.cosmosdb.criteria.domain.ChangeFeedBatch;
+import reactor.cosmosdb.criteria.domain.ChangeFeedSource;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Reads the change feed of the containers with the pull model, polling it from the continuation of the previous poll.
+ * Every subscription starts reading the changes made from now, and it delivers a caught up batch after every poll.
+ * The change feed only delivers the last version of the documents created or replaced, documents deleted are not delivered,
+ * so the documents must be deleted logically (ej: with an attribute excluded by the criteria and a time to live) to be discounted.
+ */
+public class CosmosChangeFeedSource implements ChangeFeedSource {
+    private static final int DEFAULT_MAX_ITEM_COUNT = 1000;
+
+    private final CosmosContainerRegistry containerRegistry;
+    private final Duration pollInterval;
+    private final int maxItemCount;
+
+    /**
+     * @param queryLauncher : launcher whose containers are read, its registry is used when it has one
+     * @param pollInterval : time between the end of a poll and the beginning of the next one
+     */
+    public CosmosChangeFeedSource(ReactorCosmosDbQueryLauncher<?> queryLauncher, Duration pollInterval) {
+        this(registryOf(queryLauncher), pollInterval, DEFAULT_MAX_ITEM_COUNT);
+    }
+
+    /**
+     * @param containerRegistry : registry of the containers read
+     * @param pollInterval : time between the end of a poll and the beginning of the next one
+     * @param maxItemCount : maximum number of changes read in every page
+     */
+    public CosmosChangeFeedSource(CosmosContainerRegistry containerRegistry, Duration pollInterval, int maxItemCount) {
+        if (pollInterval.isNegative() || pollInterval.isZero()) {
+            throw new IllegalArgumentException("pollInterval must be positive");
+        }
+        if (maxItemCount <= 0) {
+            throw new IllegalArgumentException("maxItemCount must be greater than 0");
+        }
+        this.containerRegistry = containerRegistry;
+        this.pollInterval = pollInterval;
+        this.maxItemCount = maxItemCount;
+    }
+
+    private static CosmosContainerRegistry registryOf(ReactorCosmosDbQueryLauncher<?> queryLauncher) {
+        CosmosContainerRegistry containerRegistry = queryLauncher.getContainerRegistry();
+        return containerRegistry != null ? containerRegistry : new CosmosContainerRegistry(queryLauncher.getClientAsync(), queryLauncher.getDatabaseName());
+    }
+
+    @Override
+    public Flux<ChangeFeedBatch> changes(String containerName) {
+        return Flux.defer(() -> {
+            CosmosAsyncContainer container = containerRegistry.getContainer(containerName);
+            AtomicReference<String> continuation = new AtomicReference<>();
+            return Flux.defer(() -> poll(container, continuation))
+                    .repeatWhen(polls -> polls.delayElements(pollInterval));
+        });
+    }
+
+    /**
+     * Reads the pages of changes until the feed has no more changes, keeping the continuation of the last page read
+     */
+    private Flux<ChangeFeedBatch> poll(CosmosAsyncContainer container, AtomicReference<String> continuation) {
+        String continuationToken = continuation.get();
+        CosmosChangeFeedRequestOptions options = continuationToken == null
+                ? CosmosChangeFeedRequestOptions.createForProcessingFromNow(FeedRange.forFullRange())
+                : CosmosChangeFeedRequestOptions.createForProcessingFromContinuation(continuationToken);
+        options.setMaxItemCount(maxItemCount);
+        return container.queryChangeFeed(options, JsonNode.class)
+                .byPage()
+                .doOnNext(page -> continuation.set(page.getContinuationToken()))
+                .filter(page -> !page.getResults().isEmpty())
+                .map(page -> new ChangeFeedBatch(page.getResults(), List.of(), false))
+                .concatWith(Mono.fromSupplier(ChangeFeedBatch::caughtUp));
+    }
+}
@@ -0,0 +1,41 @@
+package reactor.cosmosdb.criteria.infraestructure;
+
+import com.azure.cosmos.CosmosAsyncClient;
+import com.azure.cosmos.CosmosAsyncContainer;
+import com.azure.cosmos.CosmosAsyncDatabase;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches the container handles of a database by name, so they are created only once per launcher.
+ * Every launcher keeps its own registry, so the handles are released with the launcher and its client.
+ */
+public final class CosmosContainerRegistry {
+    private final CosmosAsyncDatabase database;
+    private final Map<String, CosmosAsyncContainer> containers = new ConcurrentHashMap<>();
+
+    /**
+     * @param client : client used to connect to cosmosdb
+     * @param databaseName : name of the database
+     */
+    public CosmosContainerRegistry(CosmosAsyncClient client, String databaseName) {
+        this.database = client.getDatabase(databaseName);
+    }
+
+    /**
+     * @param containerName : name of the container
+     * @return cached handle of the container
+     */
+    public CosmosAsyncContainer getContainer(String containerName) {
+        return containers.computeIfAbsent(containerName, database::getContainer);
+    }
+
+    /**
+     * Removes the handle of the container, ej: after the container has been deleted and created again
+     * @param containerName : name of the container
+     */
+    public void evict(String containerName) {
+        containers.remove(containerName);
+    }
+}
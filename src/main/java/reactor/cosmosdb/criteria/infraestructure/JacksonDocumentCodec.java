@@ -0,0 +1,67 @@
+package reactor.cosmosdb.criteria.infraestructure;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import reactor.cosmosdb.criteria.domain.DocumentCodec;
+import reactor.cosmosdb.criteria.domain.exception.DocumentDecodingException;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Codec that decodes the documents with jackson databinding. The deserializer of every class is resolved once
+ * and cached with its reader, so decoding a document walks the json tree straight into the entity.
+ * Attributes of the documents that the entity does not declare are ignored.
+ * Provide your own ObjectMapper to register other modules (ej: Blackbird or Afterburner to generate the accessors of the entities).
+ * @param <E> : Entity where the documents are decoded
+ */
+public final class JacksonDocumentCodec<E> implements DocumentCodec<E> {
+    private static final ObjectMapper DEFAULT_MAPPER = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private static final Map<Class<?>, JacksonDocumentCodec<?>> DEFAULT_CODECS = new ConcurrentHashMap<>();
+
+    private final Class<E> entityClass;
+    private final ObjectReader reader;
+
+    private JacksonDocumentCodec(ObjectMapper mapper, Class<E> entityClass) {
+        this.entityClass = entityClass;
+        this.reader = mapper.readerFor(entityClass);
+    }
+
+    /**
+     * @param entityClass : class where the documents are decoded
+     * @return codec of the class with the default mapper, created once per class
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> JacksonDocumentCodec<E> of(Class<E> entityClass) {
+        return (JacksonDocumentCodec<E>) DEFAULT_CODECS.computeIfAbsent(entityClass, type -> new JacksonDocumentCodec<>(DEFAULT_MAPPER, type));
+    }
+
+    /**
+     * Keep the codec created, every codec resolves the deserializer of the class again
+     * @param mapper : mapper used to decode the documents
+     * @param entityClass : class where the documents are decoded
+     * @return codec of the class with the mapper provided
+     */
+    public static <E> JacksonDocumentCodec<E> of(ObjectMapper mapper, Class<E> entityClass) {
+        return new JacksonDocumentCodec<>(mapper, entityClass);
+    }
+
+    @Override
+    public E decode(JsonNode document) {
+        try {
+            return reader.readValue(document);
+        } catch (IOException e) {
+            throw new DocumentDecodingException("the document can not be decoded into " + entityClass.getName() + ": " + e.getMessage(), e);
+        }
+    }
+
+    public String toString() {
+        return "JacksonDocumentCodec(entityClass=" + this.entityClass.getName() + ")";
+    }
+}
@@ -0,0 +1,77 @@
+package reactor.cosmosdb.criteria.infraestructure;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.cosmosdb.criteria.domain.ChangeFeedBatch;
+import reactor.cosmosdb.criteria.domain.ChangeFeedSource;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Change feed kept in memory, to run the materialized counts without cosmosdb (ej: in tests or in local environments).
+ * The changes published are delivered to the subscribers of the container in the order they were published, already caught up,
+ * and the changes published without subscribers are lost as they would be for a change feed read from now.
+ */
+public class LocalChangeFeedSource implements ChangeFeedSource {
+    private final Map<String, Sinks.Many<ChangeFeedBatch>> containers = new ConcurrentHashMap<>();
+
+    @Override
+    public Flux<ChangeFeedBatch> changes(String containerName) {
+        return Flux.defer(() -> sinkOf(containerName).asFlux()
+                .startWith(ChangeFeedBatch.caughtUp()));
+    }
+
+    @Override
+    public boolean deliversDeletes() {
+        return true;
+    }
+
+    /**
+     * @param containerName : name of the container
+     * @param documents : last version of the documents created or replaced
+     */
+    public void upsert(String containerName, JsonNode... documents) {
+        publish(containerName, new ChangeFeedBatch(List.of(documents), List.of(), true));
+    }
+
+    /**
+     * @param containerName : name of the container
+     * @param documents : documents deleted, with their id and the attributes of their partition key at least
+     */
+    public void delete(String containerName, JsonNode... documents) {
+        publish(containerName, new ChangeFeedBatch(List.of(), List.of(documents), true));
+    }
+
+    /**
+     * @param containerName : name of the container
+     * @param batch : changes delivered to the subscribers of the container
+     */
+    public void publish(String containerName, ChangeFeedBatch batch) {
+        Sinks.Many<ChangeFeedBatch> sink = sinkOf(containerName);
+        synchronized (sink) {
+            sink.tryEmitNext(batch);
+        }
+    }
+
+    /**
+     * Fails the subscriptions of the container, as a change feed that has lost its connection.
+     * The subscriptions made afterwards receive the changes published after them
+     * @param containerName : name of the container
+     * @param error : error received by the subscribers
+     */
+    public void fail(String containerName, Throwable error) {
+        Sinks.Many<ChangeFeedBatch> sink = containers.remove(containerName);
+        if (sink != null) {
+            synchronized (sink) {
+                sink.tryEmitError(error);
+            }
+        }
+    }
+
+    private Sinks.Many<ChangeFeedBatch> sinkOf(String containerName) {
+        return containers.computeIfAbsent(containerName, name -> Sinks.many().multicast().directBestEffort());
+    }
+}
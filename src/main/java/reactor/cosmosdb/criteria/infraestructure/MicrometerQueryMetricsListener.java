@@ -0,0 +1,101 @@
+package reactor.cosmosdb.criteria.infraestructure;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import reactor.cosmosdb.criteria.domain.PageMetrics;
+import reactor.cosmosdb.criteria.domain.QueryExecutionMetrics;
+import reactor.cosmosdb.criteria.domain.QueryMetricsListener;
+import reactor.cosmosdb.criteria.domain.QueryShape;
+
+import java.time.Duration;
+
+/**
+ * Publishes the metrics of the queries into a micrometer MeterRegistry, it requires micrometer-core on the classpath.
+ * Every meter is tagged with the operation, the container and the fingerprint of the query, never with the query itself:
+ * <ul>
+ *     <li>cosmos.criteria.query : end to end latency of every call, also tagged with its outcome</li>
+ *     <li>cosmos.criteria.page : latency of every page read</li>
+ *     <li>cosmos.criteria.request.charge : request units consumed by every call</li>
+ *     <li>cosmos.criteria.pages : pages read by every call</li>
+ *     <li>cosmos.criteria.documents : documents returned by every call</li>
+ *     <li>cosmos.criteria.throttles : requests rejected with status 429</li>
+ *     <li>cosmos.criteria.retries : requests launched again after a failure</li>
+ * </ul>
+ */
+public class MicrometerQueryMetricsListener implements QueryMetricsListener {
+    private static final String PREFIX = "cosmos.criteria.";
+
+    private final MeterRegistry registry;
+
+    /**
+     * @param registry : registry where the meters are registered
+     */
+    public MicrometerQueryMetricsListener(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void onPage(QueryShape shape, PageMetrics page) {
+        Duration latency = page.getLatency();
+        if (latency == null) {
+            return;
+        }
+        Timer.builder(PREFIX + "page")
+                .description("Latency of the pages read from cosmosdb")
+                .tags(tagsOf(shape))
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(latency);
+    }
+
+    @Override
+    public void onExecution(QueryExecutionMetrics metrics) {
+        Tags tags = tagsOf(metrics.getShape());
+        Timer.builder(PREFIX + "query")
+                .description("End to end latency of the queries")
+                .tags(tags)
+                .tag("outcome", metrics.getOutcome().name())
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(metrics.getDuration());
+        DistributionSummary.builder(PREFIX + "request.charge")
+                .description("Request units consumed by the queries")
+                .baseUnit("request.units")
+                .tags(tags)
+                .register(registry)
+                .record(metrics.getRequestCharge());
+        DistributionSummary.builder(PREFIX + "pages")
+                .description("Pages read by the queries")
+                .tags(tags)
+                .register(registry)
+                .record(metrics.getPageCount());
+        DistributionSummary.builder(PREFIX + "documents")
+                .description("Documents returned by the queries")
+                .tags(tags)
+                .register(registry)
+                .record(metrics.getDocumentCount());
+        if (metrics.getThrottleCount() > 0) {
+            Counter.builder(PREFIX + "throttles")
+                    .description("Requests rejected because the request units provisioned were exhausted")
+                    .tags(tags)
+                    .register(registry)
+                    .increment(metrics.getThrottleCount());
+        }
+        if (metrics.getRetryCount() > 0) {
+            Counter.builder(PREFIX + "retries")
+                    .description("Requests launched again after a failure")
+                    .tags(tags)
+                    .register(registry)
+                    .increment(metrics.getRetryCount());
+        }
+    }
+
+    private static Tags tagsOf(QueryShape shape) {
+        return Tags.of("operation", shape.getOperation(),
+                "container", String.valueOf(shape.getContainerName()),
+                "fingerprint", shape.getFingerprint());
+    }
+}
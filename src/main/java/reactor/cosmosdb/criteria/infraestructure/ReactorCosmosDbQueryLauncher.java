@@ -2,10 +2,30 @@ package reactor.cosmosdb.criteria.infraestructure;
 
 import com.azure.cosmos.CosmosAsyncClient;
 import com.azure.cosmos.CosmosAsyncContainer;
-import com.azure.cosmos.CosmosAsyncDatabase;
+import com.azure.cosmos.models.CosmosItemIdentity;
+import com.azure.cosmos.models.CosmosItemRequestOptions;
+import com.azure.cosmos.models.CosmosItemResponse;
 import com.azure.cosmos.models.CosmosQueryRequestOptions;
+import com.azure.cosmos.models.FeedResponse;
+import com.azure.cosmos.models.PartitionKey;
 import com.azure.cosmos.models.SqlQuerySpec;
 import com.azure.cosmos.util.CosmosPagedFlux;
+import com.fasterxml.jackson.databind.JsonNode;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.cosmosdb.criteria.domain.ContainerCosmosDbInfo;
+import reactor.cosmosdb.criteria.domain.PaginatedCriteria;
+import reactor.cosmosdb.criteria.domain.PartitionKeyRouting;
+import reactor.cosmosdb.criteria.domain.QueryExecutionOptions;
+import reactor.cosmosdb.criteria.domain.QueryStatistics;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 
 /**
@@ -17,14 +37,251 @@ public interface ReactorCosmosDbQueryLauncher<T> {
     CosmosAsyncClient getClientAsync();
 
     default CosmosPagedFlux<T> launch(String querySentence, String containerName, Class<T> targetClass) {
-        SqlQuerySpec querySpec = new SqlQuerySpec(querySentence);
-        CosmosAsyncDatabase database = getClientAsync().getDatabase(getDatabaseName());
-        CosmosAsyncContainer container = database.getContainer(containerName);
-        return container.queryItems(querySpec, new CosmosQueryRequestOptions(), targetClass);
+        return launch(querySentence, containerName, targetClass, new CosmosQueryRequestOptions());
+    }
+
+    /**
+     * @param querySentence : sql sentence to launch against the target container
+     * @param containerName : name of the target container
+     * @param targetClass : class where the results are going to be deserialized
+     * @param options : request options used to launch the query
+     * @return paged flux with the results of the query
+     */
+    default CosmosPagedFlux<T> launch(String querySentence, String containerName, Class<T> targetClass, CosmosQueryRequestOptions options) {
+        return launch(new SqlQuerySpec(querySentence), containerName, targetClass, options);
+    }
+
+    /**
+     * @param querySpec : parameterized sql sentence to launch against the target container
+     * @param containerName : name of the target container
+     * @param targetClass : class where the results are going to be deserialized
+     * @return paged flux with the results of the query
+     */
+    default CosmosPagedFlux<T> launch(SqlQuerySpec querySpec, String containerName, Class<T> targetClass) {
+        return launch(querySpec, containerName, targetClass, new CosmosQueryRequestOptions());
+    }
+
+    /**
+     * @param querySpec : parameterized sql sentence to launch against the target container
+     * @param containerName : name of the target container
+     * @param targetClass : class where the results are going to be deserialized
+     * @param options : request options used to launch the query
+     * @return paged flux with the results of the query
+     */
+    default CosmosPagedFlux<T> launch(SqlQuerySpec querySpec, String containerName, Class<T> targetClass, CosmosQueryRequestOptions options) {
+        return getContainerInstance(containerName).queryItems(querySpec, options, targetClass);
+    }
+
+    /**
+     * @param querySpec : parameterized sql sentence to launch against the target container
+     * @param containerName : name of the target container
+     * @param targetClass : class where the results are going to be deserialized
+     * @param options : options used to launch the query
+     * @return paged flux with the results of the query
+     */
+    default CosmosPagedFlux<T> launch(SqlQuerySpec querySpec, String containerName, Class<T> targetClass, QueryExecutionOptions options) {
+        return launch(querySpec, containerName, targetClass, options.toCosmosQueryRequestOptions());
     }
 
+    /**
+     * Launches a query that selects some attributes of the documents (ej: criteria built with selectProjection)
+     * and deserializes its results straight into the projection class instead of the class of the container
+     * @param querySpec : parameterized sql sentence to launch against the target container
+     * @param containerName : name of the target container
+     * @param projectionClass : class where the results are going to be deserialized
+     * @param options : request options used to launch the query
+     * @return paged flux with the results of the query
+     */
+    default <P> CosmosPagedFlux<P> launchProjection(SqlQuerySpec querySpec, String containerName, Class<P> projectionClass, CosmosQueryRequestOptions options) {
+        return getContainerInstance(containerName).queryItems(querySpec, options, projectionClass);
+    }
+
+    /**
+     * Launches the criteria against the only partition that contains its results, when the criteria
+     * pins a single value of the partition key of the container. Otherwise it is launched across all partitions.
+     * @param criteria : criteria to launch against the target container
+     * @param containerCosmosDbInfo : target container with its partition key paths
+     * @param options : options used to launch the query
+     * @return paged flux with the results of the query
+     */
+    default CosmosPagedFlux<T> launch(PaginatedCriteria criteria, ContainerCosmosDbInfo<T> containerCosmosDbInfo, QueryExecutionOptions options) {
+        return launch(criteria, containerCosmosDbInfo, options.toCosmosQueryRequestOptions());
+    }
+
+    /**
+     * Launches the criteria against the only partition that contains its results, when the criteria
+     * pins a single value of the partition key of the container. Otherwise it is launched across all partitions.
+     * @param criteria : criteria to launch against the target container
+     * @param containerCosmosDbInfo : target container with its partition key paths
+     * @param options : request options used to launch the query
+     * @return paged flux with the results of the query
+     */
+    default CosmosPagedFlux<T> launch(PaginatedCriteria criteria, ContainerCosmosDbInfo<T> containerCosmosDbInfo, CosmosQueryRequestOptions options) {
+        List<PartitionKey> partitionKeys = PartitionKeyRouting.resolve(criteria, containerCosmosDbInfo);
+        if (partitionKeys.size() == 1) {
+            options.setPartitionKey(partitionKeys.get(0));
+        }
+        return launch(criteria.getQuerySpec(), containerCosmosDbInfo.getName(), containerCosmosDbInfo.getContainerClass(), options);
+    }
+
+    /**
+     * Reads a document by its id and partition key (point read), the cheapest way to retrieve a single document
+     * @param id : id of the document
+     * @param partitionKey : partition key of the document
+     * @param containerName : name of the target container
+     * @param targetClass : class where the document is going to be deserialized
+     * @return response with the document, it fails with a CosmosException (status code 404) when the document does not exist
+     */
+    default Mono<CosmosItemResponse<T>> readItem(String id, PartitionKey partitionKey, String containerName, Class<T> targetClass) {
+        return readItem(id, partitionKey, containerName, targetClass, new CosmosItemRequestOptions());
+    }
+
+    /**
+     * Reads a document by its id and partition key (point read), the cheapest way to retrieve a single document
+     * @param id : id of the document
+     * @param partitionKey : partition key of the document
+     * @param containerName : name of the target container
+     * @param targetClass : class where the document is going to be deserialized
+     * @param options : request options used to read the document (ej: consistency level or integrated cache staleness)
+     * @return response with the document, it fails with a CosmosException (status code 404) when the document does not exist
+     */
+    default Mono<CosmosItemResponse<T>> readItem(String id, PartitionKey partitionKey, String containerName, Class<T> targetClass, CosmosItemRequestOptions options) {
+        return getContainerInstance(containerName).readItem(id, partitionKey, options, targetClass);
+    }
+
+    /**
+     * Reads many documents by their ids and partition keys, the documents that do not exist are not returned.
+     * Read many does not accept request options, they are read with the consistency level of the client
+     * @param identities : id and partition key of every document
+     * @param containerName : name of the target container
+     * @param targetClass : class where the documents are going to be deserialized
+     * @return response with the documents found
+     */
+    default Mono<FeedResponse<T>> readMany(List<CosmosItemIdentity> identities, String containerName, Class<T> targetClass) {
+        return getContainerInstance(containerName).readMany(identities, targetClass);
+    }
+
+    /**
+     * Launches one single partition query per partition key and merges their results in the order of the partition keys.
+     * The query must not aggregate nor sort the documents, because every partition is sorted and aggregated on its own.
+     * @param querySpec : parameterized sql sentence to launch against the target container
+     * @param containerName : name of the target container
+     * @param targetClass : class where the results are going to be deserialized
+     * @param partitionKeys : partition keys that contain every result of the query
+     * @param options : creates the request options of every partition query
+     * @param maxConcurrency : maximum number of partition queries launched at the same time
+     * @return results of all the partition queries
+     */
+    default Flux<T> launchByPartitionKeys(SqlQuerySpec querySpec, String containerName, Class<T> targetClass, List<PartitionKey> partitionKeys,
+                                          Supplier<CosmosQueryRequestOptions> options, int maxConcurrency) {
+        return mergePartitions(partitionKeys, partitionKey -> launch(querySpec, containerName, targetClass, options.get().setPartitionKey(partitionKey)), maxConcurrency);
+    }
+
+    /**
+     * Launches one single partition projection query per partition key and merges their results in the order of the partition keys.
+     * The query must not aggregate nor sort the documents, because every partition is sorted and aggregated on its own.
+     * @param querySpec : parameterized sql sentence to launch against the target container
+     * @param containerName : name of the target container
+     * @param projectionClass : class where the results are going to be deserialized
+     * @param partitionKeys : partition keys that contain every result of the query
+     * @param options : creates the request options of every partition query
+     * @param maxConcurrency : maximum number of partition queries launched at the same time
+     * @return results of all the partition queries
+     */
+    default <P> Flux<P> launchProjectionByPartitionKeys(SqlQuerySpec querySpec, String containerName, Class<P> projectionClass, List<PartitionKey> partitionKeys,
+                                                        Supplier<CosmosQueryRequestOptions> options, int maxConcurrency) {
+        return mergePartitions(partitionKeys, partitionKey -> launchProjection(querySpec, containerName, projectionClass, options.get().setPartitionKey(partitionKey)), maxConcurrency);
+    }
+
+    private static <R> Flux<R> mergePartitions(List<PartitionKey> partitionKeys, Function<PartitionKey, CosmosPagedFlux<R>> launch, int maxConcurrency) {
+        return Flux.fromIterable(partitionKeys)
+                .flatMapSequential(partitionKey -> QueryStatistics.record(launch.apply(partitionKey).byPage())
+                        .flatMapIterable(FeedResponse::getResults), maxConcurrency);
+    }
+
+    /**
+     * Override it to cache the container handles: keep the registry in a field of the launcher, created once with its client and database
+     * (ej: new CosmosContainerRegistry(getClientAsync(), getDatabaseName())), so it is released with the launcher
+     * @return registry that caches the container handles, null when the launcher does not cache them
+     */
+    default CosmosContainerRegistry getContainerRegistry() {
+        return null;
+    }
+
+    /**
+     * @param containerName : name of the container
+     * @return handle of the container, cached by the registry of the launcher or resolved from the client when it has no registry
+     */
     default CosmosAsyncContainer getContainerInstance(String containerName){
-        CosmosAsyncDatabase database = getClientAsync().getDatabase(getDatabaseName());
-        return database.getContainer(containerName);
+        CosmosContainerRegistry containerRegistry = getContainerRegistry();
+        if (containerRegistry != null) {
+            return containerRegistry.getContainer(containerName);
+        }
+        return getClientAsync().getDatabase(getDatabaseName()).getContainer(containerName);
+    }
+
+    /**
+     * Opens the connections and initializes the caches of every container, and launches the first page of every
+     * representative criteria so their query plans are fetched before the application receives traffic.
+     * The criteria are launched with the default execution options, see warmUp with QueryExecutionOptions.
+     * Failures are reported instead of propagated.
+     * @param containers : containers used by the application
+     * @param representativeCriteria : criteria to launch by container name
+     * @return report with the time spent warming up
+     */
+    default Mono<WarmUpReport> warmUp(List<? extends ContainerCosmosDbInfo<?>> containers, Map<String, ? extends List<? extends PaginatedCriteria>> representativeCriteria) {
+        return warmUp(containers, representativeCriteria, QueryExecutionOptions.defaults());
+    }
+
+    /**
+     * Opens the connections and initializes the caches of every container, and launches the first page of every
+     * representative criteria so their query plans are fetched before the application receives traffic.
+     * Every criteria is routed as the repository launches it: against the only partition that contains its results,
+     * or against the first of its partition keys when it is launched as one query per partition key.
+     * Failures are reported instead of propagated.
+     * @param containers : containers used by the application, with their partition key paths
+     * @param representativeCriteria : criteria to launch by container name
+     * @param options : options used by the application to launch the criteria (ej: the default execution options of the repository)
+     * @return report with the time spent warming up
+     */
+    default Mono<WarmUpReport> warmUp(List<? extends ContainerCosmosDbInfo<?>> containers, Map<String, ? extends List<? extends PaginatedCriteria>> representativeCriteria,
+                                      QueryExecutionOptions options) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            AtomicInteger containersWarmedUp = new AtomicInteger();
+            AtomicInteger queriesWarmedUp = new AtomicInteger();
+            List<String> failures = new CopyOnWriteArrayList<>();
+            return Flux.fromIterable(containers)
+                    .flatMap(containerInfo -> {
+                        Mono<Void> connections = Mono.defer(() -> getContainerInstance(containerInfo.getName()).openConnectionsAndInitCaches())
+                                .doOnSuccess(ignored -> containersWarmedUp.incrementAndGet())
+                                .onErrorResume(e -> {
+                                    failures.add(containerInfo.getName() + ": " + e.getMessage());
+                                    return Mono.empty();
+                                });
+                        Flux<Void> queries = Flux.<PaginatedCriteria>fromIterable(representativeCriteria.containsKey(containerInfo.getName()) ? representativeCriteria.get(containerInfo.getName()) : List.of())
+                                .concatMap(criteria -> Flux.defer(() -> launchProjection(criteria.getQuerySpec(), containerInfo.getName(), JsonNode.class, warmUpOptions(criteria, containerInfo, options))
+                                                .byPage(1))
+                                        .take(1)
+                                        .then()
+                                        .doOnSuccess(ignored -> queriesWarmedUp.incrementAndGet())
+                                        .onErrorResume(e -> {
+                                            failures.add(containerInfo.getName() + " [" + criteria.getQuerySentence() + "]: " + e.getMessage());
+                                            return Mono.empty();
+                                        }));
+                        return connections.thenMany(queries);
+                    })
+                    .then(Mono.fromSupplier(() -> new WarmUpReport(Duration.ofNanos(System.nanoTime() - start),
+                            containersWarmedUp.get(), queriesWarmedUp.get(), failures)));
+        });
+    }
+
+    private static CosmosQueryRequestOptions warmUpOptions(PaginatedCriteria criteria, ContainerCosmosDbInfo<?> containerInfo, QueryExecutionOptions options) {
+        CosmosQueryRequestOptions requestOptions = options.toCosmosQueryRequestOptions();
+        List<PartitionKey> partitionKeys = PartitionKeyRouting.resolve(criteria, containerInfo);
+        if (partitionKeys.size() == 1 || (partitionKeys.size() > 1 && criteria.getCriteriaQuery().isPartitionSplittable())) {
+            requestOptions.setPartitionKey(partitionKeys.get(0));
+        }
+        return requestOptions;
     }
 }
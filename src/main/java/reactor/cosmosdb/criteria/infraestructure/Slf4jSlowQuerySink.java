@@ -0,0 +1,43 @@
+package reactor.cosmosdb.criteria.infraestructure;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.cosmosdb.criteria.domain.SlowQueryEntry;
+import reactor.cosmosdb.criteria.domain.SlowQuerySink;
+
+/**
+ * Writes every call captured by the slow query log as a warning, with the diagnostics of its pages at debug level.
+ */
+public class Slf4jSlowQuerySink implements SlowQuerySink {
+
+    private final Logger logger;
+
+    public Slf4jSlowQuerySink() {
+        this(LoggerFactory.getLogger(Slf4jSlowQuerySink.class));
+    }
+
+    /**
+     * @param logger : logger where the entries are written
+     */
+    public Slf4jSlowQuerySink(Logger logger) {
+        this.logger = logger;
+    }
+
+    @Override
+    public void accept(SlowQueryEntry entry) {
+        if (!logger.isWarnEnabled()) {
+            return;
+        }
+        logger.warn("{} query {} on container {} ({}): duration={}ms requestCharge={} pages={} documents={} outcome={} sentence={}",
+                entry.getReason(), entry.getOperation(), entry.getContainerName(), entry.getFingerprint(), entry.getDuration().toMillis(),
+                entry.getRequestCharge(), entry.getMetrics().getPageCount(), entry.getMetrics().getDocumentCount(), entry.getMetrics().getOutcome(),
+                entry.getQuerySentence());
+        if (logger.isDebugEnabled()) {
+            for (SlowQueryEntry.CapturedPage page : entry.getPages()) {
+                logger.debug("page of {}: requestCharge={} documents={} latency={} continuationToken={} indexUtilization={} diagnostics={}",
+                        entry.getFingerprint(), page.getRequestCharge(), page.getDocumentCount(), page.getLatency(), page.getContinuationToken(),
+                        page.getIndexUtilization(), page.getDiagnostics());
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package reactor.cosmosdb.criteria.infraestructure;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Result of warming up the connections, caches and query plans of a launcher before receiving traffic.
+ */
+public class WarmUpReport {
+    private final Duration duration;
+    private final int containersWarmedUp;
+    private final int queriesWarmedUp;
+    private final List<String> failures;
+
+    public WarmUpReport(Duration duration, int containersWarmedUp, int queriesWarmedUp, List<String> failures) {
+        this.duration = duration;
+        this.containersWarmedUp = containersWarmedUp;
+        this.queriesWarmedUp = queriesWarmedUp;
+        this.failures = List.copyOf(failures);
+    }
+
+    /**
+     * @return time spent warming up
+     */
+    public Duration getDuration() {
+        return this.duration;
+    }
+
+    /**
+     * @return number of containers whose connections and caches were initialized
+     */
+    public int getContainersWarmedUp() {
+        return this.containersWarmedUp;
+    }
+
+    /**
+     * @return number of representative criteria launched successfully
+     */
+    public int getQueriesWarmedUp() {
+        return this.queriesWarmedUp;
+    }
+
+    /**
+     * @return description of every step that failed, warming up never fails on its own
+     */
+    public List<String> getFailures() {
+        return this.failures;
+    }
+
+    /**
+     * @return true if every container and query was warmed up
+     */
+    public boolean isSuccessful() {
+        return this.failures.isEmpty();
+    }
+
+    public String toString() {
+        return "WarmUpReport(duration=" + this.duration + ", containersWarmedUp=" + this.containersWarmedUp + ", queriesWarmedUp=" + this.queriesWarmedUp + ", failures=" + this.failures + ")";
+    }
+}
@@ -0,0 +1,41 @@
+package reactor.cosmosdb.criteria;
+
+/**
+ * Document of the testing container, partitioned by tenantId
+ */
+public class TestingContainer {
+    private String id;
+    private String tenantId;
+    private String code;
+    private String state;
+
+    public TestingContainer() {
+    }
+
+    public TestingContainer(String id, String tenantId, String code, String state) {
+        this.id = id;
+        this.tenantId = tenantId;
+        this.code = code;
+        this.state = state;
+    }
+
+    public String getId() {
+        return this.id;
+    }
+
+    public String getTenantId() {
+        return this.tenantId;
+    }
+
+    public String getCode() {
+        return this.code;
+    }
+
+    public String getState() {
+        return this.state;
+    }
+
+    public String toString() {
+        return "TestingContainer(id=" + this.id + ", tenantId=" + this.tenantId + ", code=" + this.code + ", state=" + this.state + ")";
+    }
+}
@@ -0,0 +1,74 @@
+package reactor.cosmosdb.criteria;
+
+import reactor.cosmosdb.criteria.domain.AppCriteriaBuilder;
+import reactor.cosmosdb.criteria.domain.CriteriaOperator;
+import reactor.cosmosdb.criteria.domain.CriteriaQuery;
+import reactor.cosmosdb.criteria.domain.PaginatedCriteria;
+
+import java.util.List;
+
+/**
+ * Criteria of the testing container, as the applications write them
+ */
+public class TestingCriteria implements PaginatedCriteria {
+    private final CriteriaQuery criteriaQuery;
+
+    private TestingCriteria(CriteriaQuery criteriaQuery) {
+        this.criteriaQuery = criteriaQuery;
+    }
+
+    @Override
+    public CriteriaQuery getCriteriaQuery() {
+        return this.criteriaQuery;
+    }
+
+    public static class Builder extends AppCriteriaBuilder<Builder> {
+
+        public static Builder builder() {
+            return new Builder();
+        }
+
+        private Builder() {
+            super();
+        }
+
+        public Builder id(CriteriaOperator criteriaType, List<String> id) {
+            this.addWhereCondition(super.conditionalCreator(criteriaType, "id", id));
+            return this;
+        }
+
+        public Builder tenantId(CriteriaOperator criteriaType, List<String> tenantId) {
+            this.addWhereCondition(super.conditionalCreator(criteriaType, "tenantId", tenantId));
+            return this;
+        }
+
+        public Builder code(CriteriaOperator criteriaType, List<String> code) {
+            this.addWhereCondition(super.conditionalCreator(criteriaType, "code", code));
+            return this;
+        }
+
+        public Builder state(CriteriaOperator criteriaType, List<String> state) {
+            this.addWhereCondition(super.conditionalCreator(criteriaType, "state", state));
+            return this;
+        }
+
+        public Builder field(CriteriaOperator criteriaType, String targetColumn, List<String> value) {
+            this.addWhereCondition(super.conditionalCreator(criteriaType, targetColumn, value));
+            return this;
+        }
+
+        public Builder arrayField(CriteriaOperator criteriaType, String targetColumn, List<String> value) {
+            this.addWhereCondition(super.conditionalCreatorAgainstArray(criteriaType, targetColumn, value));
+            return this;
+        }
+
+        public Builder nullField(CriteriaOperator criteriaType, String targetColumn) {
+            this.addWhereCondition(super.nullConditionCreator(criteriaType, targetColumn));
+            return this;
+        }
+
+        public TestingCriteria build() {
+            return new TestingCriteria(super.buildCriteriaQuery());
+        }
+    }
+}
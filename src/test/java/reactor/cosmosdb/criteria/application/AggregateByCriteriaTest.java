@@ -0,0 +1,101 @@
+package reactor.cosmosdb.criteria.application;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.Test;
+import reactor.cosmosdb.criteria.TestingContainer;
+import reactor.cosmosdb.criteria.TestingCriteria;
+import reactor.cosmosdb.criteria.domain.Aggregation;
+import reactor.cosmosdb.criteria.domain.ContainerCosmosDbInfo;
+import reactor.cosmosdb.criteria.domain.CriteriaOperator;
+import reactor.cosmosdb.criteria.domain.exception.AppCriteriaBuilderException;
+import reactor.cosmosdb.criteria.infraestructure.FakeCosmosDbQueryLauncher;
+import reactor.cosmosdb.criteria.infraestructure.JacksonDocumentCodec;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AggregateByCriteriaTest {
+    private static final ContainerCosmosDbInfo<TestingContainer> CONTAINER = new ContainerCosmosDbInfo<>("testing", TestingContainer.class, "/tenantId");
+
+    @Test
+    void partialRowsAreMergedIntoOneRow() {
+        FakeCosmosDbQueryLauncher<TestingContainer> queryLauncher = new FakeCosmosDbQueryLauncher<>(List.of(
+                Map.of("documents", 2, "total", 7), Map.of("documents", 3, "total", 5)));
+        TestingCriteria criteria = TestingCriteria.Builder.builder()
+                .state(CriteriaOperator.EQUALS, List.of("OPEN"))
+                .count("documents")
+                .sum("amount", "total")
+                .build();
+
+        List<JsonNode> rows = repository(queryLauncher).aggregateByCriteria(criteria, CONTAINER, JacksonDocumentCodec.of(JsonNode.class)).block();
+
+        assertEquals("[{\"documents\":5,\"total\":12}]", rows.toString());
+        assertEquals(1, queryLauncher.getSubscriptions());
+    }
+
+    @Test
+    void countDistinctWithoutGroupByOnlyReadsTheDistinctValues() {
+        FakeCosmosDbQueryLauncher<TestingContainer> queryLauncher = new FakeCosmosDbQueryLauncher<>(distinctValues(3));
+
+        List<JsonNode> rows = repository(queryLauncher).aggregateByCriteria(countDistinct(), CONTAINER, JacksonDocumentCodec.of(JsonNode.class)).block();
+
+        assertEquals("[{\"tenants\":3}]", rows.toString());
+        assertEquals(1, queryLauncher.getSubscriptions());
+        assertEquals("SELECT * FROM ( SELECT c.tenantId AS tenants FROM c WHERE 1=1  GROUP BY c.tenantId )", queryLauncher.getQuerySpecs().get(0).getQueryText());
+    }
+
+    @Test
+    void countDistinctFailsOverTheMaximumDistinctValues() {
+        FakeCosmosDbQueryLauncher<TestingContainer> queryLauncher = new FakeCosmosDbQueryLauncher<>(distinctValues(Aggregation.MAX_COUNT_DISTINCT_ROWS + 500));
+        ReactorOperationsCosmosDbRepository<TestingContainer, TestingContainer> repository = repository(queryLauncher);
+
+        AppCriteriaBuilderException exception = assertThrows(AppCriteriaBuilderException.class,
+                () -> repository.aggregateByCriteria(countDistinct(), CONTAINER, JacksonDocumentCodec.of(JsonNode.class)).block());
+
+        assertTrue(exception.getMessage().startsWith("countDistinct exceeds " + Aggregation.MAX_COUNT_DISTINCT_ROWS + " distinct values"));
+        assertEquals(Aggregation.MAX_COUNT_DISTINCT_ROWS / 100 + 1, queryLauncher.getPagesEmitted());
+    }
+
+    @Test
+    void countDistinctAtTheMaximumDistinctValuesIsCounted() {
+        FakeCosmosDbQueryLauncher<TestingContainer> queryLauncher = new FakeCosmosDbQueryLauncher<>(distinctValues(Aggregation.MAX_COUNT_DISTINCT_ROWS));
+
+        List<JsonNode> rows = repository(queryLauncher).aggregateByCriteria(countDistinct(), CONTAINER, JacksonDocumentCodec.of(JsonNode.class)).block();
+
+        assertEquals("[{\"tenants\":" + Aggregation.MAX_COUNT_DISTINCT_ROWS + "}]", rows.toString());
+    }
+
+    @Test
+    void criteriaWithoutAggregateFunctionsIsRejected() {
+        FakeCosmosDbQueryLauncher<TestingContainer> queryLauncher = new FakeCosmosDbQueryLauncher<>(List.of());
+        TestingCriteria criteria = TestingCriteria.Builder.builder()
+                .state(CriteriaOperator.EQUALS, List.of("OPEN"))
+                .build();
+
+        assertThrows(AppCriteriaBuilderException.class, () -> repository(queryLauncher).aggregateByCriteria(criteria, CONTAINER, JacksonDocumentCodec.of(JsonNode.class)));
+        assertEquals(0, queryLauncher.getSubscriptions());
+    }
+
+    private static TestingCriteria countDistinct() {
+        return TestingCriteria.Builder.builder()
+                .countDistinct("tenantId", "tenants")
+                .build();
+    }
+
+    private static List<Map<String, String>> distinctValues(int values) {
+        List<Map<String, String>> rows = new ArrayList<>(values);
+        for (int i = 0; i < values; i++) {
+            rows.add(Map.of("tenants", "tenant" + i));
+        }
+        return rows;
+    }
+
+    private static ReactorOperationsCosmosDbRepository<TestingContainer, TestingContainer> repository(FakeCosmosDbQueryLauncher<TestingContainer> queryLauncher) {
+        return new ReactorOperationsCosmosDbRepository<>(queryLauncher, FakeCosmosDbQueryLauncher.counting(0));
+    }
+}
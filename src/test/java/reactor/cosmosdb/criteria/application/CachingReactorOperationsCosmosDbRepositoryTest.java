@@ -0,0 +1,90 @@
+package reactor.cosmosdb.criteria.application;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.cosmosdb.criteria.TestingContainer;
+import reactor.cosmosdb.criteria.TestingCriteria;
+import reactor.cosmosdb.criteria.domain.ContainerCosmosDbInfo;
+import reactor.cosmosdb.criteria.domain.CriteriaOperator;
+import reactor.cosmosdb.criteria.domain.DocumentCodec;
+import reactor.cosmosdb.criteria.domain.QueryExecutionOptions;
+import reactor.cosmosdb.criteria.domain.ResultMapping;
+import reactor.cosmosdb.criteria.domain.TotalCountMode;
+import reactor.cosmosdb.criteria.infraestructure.FakeCosmosDbQueryLauncher;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CachingReactorOperationsCosmosDbRepositoryTest {
+    private static final ContainerCosmosDbInfo<TestingContainer> CONTAINER = new ContainerCosmosDbInfo<>("testing", TestingContainer.class);
+    private static final QueryExecutionOptions WITHOUT_COUNT = QueryExecutionOptions.builder().totalCountMode(TotalCountMode.SKIP).build();
+
+    private FakeCosmosDbQueryLauncher<TestingContainer> queryLauncher;
+    private CachingReactorOperationsCosmosDbRepository<String, TestingContainer> repository;
+
+    @BeforeEach
+    void setUp() {
+        queryLauncher = new FakeCosmosDbQueryLauncher<>(List.of(new TestingContainer("id1", "tenant1", "code1", "OPEN")));
+        repository = new CachingReactorOperationsCosmosDbRepository<>(
+                new ReactorOperationsCosmosDbRepository<>(queryLauncher, FakeCosmosDbQueryLauncher.counting(1)),
+                new QueryResultCache(100, Duration.ofMinutes(1)));
+    }
+
+    @Test
+    void samePageIsLaunchedOnce() {
+        ResultMapping<TestingContainer, String> toId = ResultMapping.toEntity(TestingContainer::getId);
+
+        assertEquals(List.of("id1"), paginate(toId));
+        assertEquals(List.of("id1"), paginate(toId));
+
+        assertEquals(1, queryLauncher.getSubscriptions());
+        assertEquals(1, repository.getCache().getHitCount());
+    }
+
+    @Test
+    void everyMappingIsCachedApart() {
+        DocumentCodec<String> toCode = document -> document.path("code").asText();
+        DocumentCodec<String> toState = document -> document.path("state").asText();
+
+        assertEquals(List.of("id1"), paginate(ResultMapping.toEntity(TestingContainer::getId)));
+        assertEquals(List.of("tenant1"), paginate(ResultMapping.projection(JsonNode.class, row -> row.path("tenantId").asText())));
+        assertEquals(List.of("code1"), paginate(ResultMapping.decoded(toCode)));
+        assertEquals(List.of("OPEN"), paginate(ResultMapping.decoded(toState)));
+        assertEquals(List.of("code1"), paginate(ResultMapping.decoded(toCode)));
+
+        assertEquals(4, queryLauncher.getSubscriptions());
+    }
+
+    @Test
+    void invalidatedContainerIsLaunchedAgain() {
+        ResultMapping<TestingContainer, String> toId = ResultMapping.toEntity(TestingContainer::getId);
+
+        paginate(toId);
+        repository.invalidateContainer("testing");
+        paginate(toId);
+
+        assertEquals(2, queryLauncher.getSubscriptions());
+    }
+
+    @Test
+    void streamsAreNeverCached() {
+        TestingCriteria criteria = criteria();
+
+        repository.streamByCriteria(criteria, CONTAINER, TestingContainer::getId).collectList().block();
+        repository.streamByCriteria(criteria, CONTAINER, TestingContainer::getId).collectList().block();
+
+        assertEquals(2, queryLauncher.getSubscriptions());
+        assertEquals(0, repository.getCache().size());
+    }
+
+    private <T> List<String> paginate(ResultMapping<T, String> mapping) {
+        return repository.findByCriteriaPaginated(criteria(), 0, 10, CONTAINER, mapping, WITHOUT_COUNT).block().getData();
+    }
+
+    private static TestingCriteria criteria() {
+        return TestingCriteria.Builder.builder().state(CriteriaOperator.EQUALS, List.of("OPEN")).build();
+    }
+}
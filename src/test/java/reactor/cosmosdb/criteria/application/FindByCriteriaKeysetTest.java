@@ -0,0 +1,128 @@
+package reactor.cosmosdb.criteria.application;
+
+import com.azure.cosmos.models.SqlQuerySpec;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.cosmosdb.criteria.TestingContainer;
+import reactor.cosmosdb.criteria.TestingCriteria;
+import reactor.cosmosdb.criteria.domain.AppFilterOrder;
+import reactor.cosmosdb.criteria.domain.ContainerCosmosDbInfo;
+import reactor.cosmosdb.criteria.domain.CriteriaOperator;
+import reactor.cosmosdb.criteria.domain.KeysetCursor;
+import reactor.cosmosdb.criteria.domain.ProjectionPaginated;
+import reactor.cosmosdb.criteria.domain.TotalCountResponse;
+import reactor.cosmosdb.criteria.domain.exception.AppCriteriaBuilderException;
+import reactor.cosmosdb.criteria.infraestructure.FakeCosmosDbQueryLauncher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FindByCriteriaKeysetTest {
+    private static final int PAGE_SIZE = 5;
+    private static final ContainerCosmosDbInfo<TestingContainer> CONTAINER = new ContainerCosmosDbInfo<>("testing", TestingContainer.class, "/tenantId");
+
+    private FakeCosmosDbQueryLauncher<TotalCountResponse> counter;
+
+    @BeforeEach
+    void setUp() {
+        counter = FakeCosmosDbQueryLauncher.counting(0);
+    }
+
+    @Test
+    void firstPageReturnsTheCursorOfItsLastResult() {
+        FakeCosmosDbQueryLauncher<TestingContainer> queryLauncher = launcherWith(12);
+        ProjectionPaginated<TestingContainer> page = repository(queryLauncher).findByCriteriaKeyset(criteria(null), PAGE_SIZE, CONTAINER, Function.identity()).block();
+
+        assertEquals(List.of("id0", "id1", "id2", "id3", "id4"), ids(page));
+        assertTrue(page.isHasNextPage());
+        assertEquals(List.of("code4", "id4"), KeysetCursor.decode(page.getContinuationToken()));
+        assertEquals(1, queryLauncher.getSubscriptions());
+        assertEquals(1, queryLauncher.getPagesEmitted());
+        assertEquals(0, counter.getSubscriptions());
+        assertEquals("SELECT VALUE c FROM c WHERE 1=1 AND c.state = @p0  ORDER BY c.code DESC, c.id DESC", queryLauncher.getQuerySpecs().get(0).getQueryText());
+    }
+
+    @Test
+    void nextPageSeeksAfterTheCursor() {
+        FakeCosmosDbQueryLauncher<TestingContainer> queryLauncher = launcherWith(3);
+        String cursor = KeysetCursor.encode(List.of("code4", "id4"));
+        ProjectionPaginated<TestingContainer> page = repository(queryLauncher).findByCriteriaKeyset(criteria(cursor), PAGE_SIZE, CONTAINER, Function.identity()).block();
+
+        SqlQuerySpec querySpec = queryLauncher.getQuerySpecs().get(0);
+        assertEquals("SELECT VALUE c FROM c WHERE 1=1 AND c.state = @p0  AND ( c.code < @p1 OR ( c.code = @p1 AND ( c.id < @p2 ) ) ) ORDER BY c.code DESC, c.id DESC",
+                querySpec.getQueryText());
+        assertEquals(List.of("OPEN", "code4", "id4"), querySpec.getParameters().stream().map(parameter -> parameter.getValue(Object.class)).collect(Collectors.toList()));
+        assertEquals(3, page.getData().size());
+        assertFalse(page.isHasNextPage());
+        assertNull(page.getContinuationToken());
+    }
+
+    @Test
+    void pageAsLargeAsTheResultsHasNoNextPage() {
+        ProjectionPaginated<TestingContainer> page = repository(launcherWith(PAGE_SIZE)).findByCriteriaKeyset(criteria(null), PAGE_SIZE, CONTAINER, Function.identity()).block();
+
+        assertEquals(PAGE_SIZE, page.getData().size());
+        assertFalse(page.isHasNextPage());
+        assertNull(page.getContinuationToken());
+    }
+
+    @Test
+    void idIsTheDefaultSortColumn() {
+        TestingCriteria criteria = TestingCriteria.Builder.builder()
+                .seekAfter(KeysetCursor.encode(List.of("id3")))
+                .build();
+
+        assertEquals("SELECT VALUE c FROM c WHERE 1=1 AND ( c.id > @p0 ) ORDER BY c.id ASC", criteria.getCriteriaQuery().getQuerySentence());
+        assertEquals(List.of("id3"), criteria.getCriteriaQuery().getParameterValues());
+    }
+
+    @Test
+    void criteriaWithoutSeekAfterIsRejected() {
+        FakeCosmosDbQueryLauncher<TestingContainer> queryLauncher = launcherWith(12);
+        TestingCriteria criteria = TestingCriteria.Builder.builder()
+                .state(CriteriaOperator.EQUALS, List.of("OPEN"))
+                .setOrderBySentence("code", AppFilterOrder.DESC)
+                .build();
+
+        assertThrows(AppCriteriaBuilderException.class, () -> repository(queryLauncher).findByCriteriaKeyset(criteria, PAGE_SIZE, CONTAINER, Function.identity()));
+        assertEquals(0, queryLauncher.getSubscriptions());
+    }
+
+    @Test
+    void invalidCursorsAreRejected() {
+        assertThrows(AppCriteriaBuilderException.class, () -> criteria("not a cursor"));
+        assertThrows(AppCriteriaBuilderException.class, () -> criteria(KeysetCursor.encode(List.of("id4"))));
+    }
+
+    private static TestingCriteria criteria(String cursor) {
+        return TestingCriteria.Builder.builder()
+                .state(CriteriaOperator.EQUALS, List.of("OPEN"))
+                .setOrderBySentence("code", AppFilterOrder.DESC)
+                .seekAfter(cursor)
+                .build();
+    }
+
+    private static FakeCosmosDbQueryLauncher<TestingContainer> launcherWith(int documents) {
+        List<TestingContainer> containers = new ArrayList<>();
+        for (int i = 0; i < documents; i++) {
+            containers.add(new TestingContainer("id" + i, "tenant", "code" + i, "OPEN"));
+        }
+        return new FakeCosmosDbQueryLauncher<>(containers);
+    }
+
+    private ReactorOperationsCosmosDbRepository<TestingContainer, TestingContainer> repository(FakeCosmosDbQueryLauncher<TestingContainer> queryLauncher) {
+        return new ReactorOperationsCosmosDbRepository<>(queryLauncher, counter);
+    }
+
+    private static List<String> ids(ProjectionPaginated<TestingContainer> page) {
+        return page.getData().stream().map(TestingContainer::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,100 @@
+package reactor.cosmosdb.criteria.application;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.cosmosdb.criteria.TestingContainer;
+import reactor.cosmosdb.criteria.TestingCriteria;
+import reactor.cosmosdb.criteria.domain.ContainerCosmosDbInfo;
+import reactor.cosmosdb.criteria.domain.ContinuationTokenCodec;
+import reactor.cosmosdb.criteria.domain.CriteriaOperator;
+import reactor.cosmosdb.criteria.domain.ProjectionPaginated;
+import reactor.cosmosdb.criteria.domain.exception.AppCriteriaBuilderException;
+import reactor.cosmosdb.criteria.infraestructure.FakeCosmosDbQueryLauncher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FindByCriteriaPageTest {
+    private static final int DOCUMENTS = 12;
+    private static final int PAGE_SIZE = 5;
+    private static final ContainerCosmosDbInfo<TestingContainer> CONTAINER = new ContainerCosmosDbInfo<>("testing", TestingContainer.class, "/tenantId");
+
+    private FakeCosmosDbQueryLauncher<TestingContainer> queryLauncher;
+    private ReactorOperationsCosmosDbRepository<TestingContainer, TestingContainer> repository;
+
+    @BeforeEach
+    void setUp() {
+        List<TestingContainer> documents = new ArrayList<>();
+        for (int i = 0; i < DOCUMENTS; i++) {
+            documents.add(new TestingContainer("id" + i, "tenant", "code" + i, "OPEN"));
+        }
+        queryLauncher = new FakeCosmosDbQueryLauncher<>(documents);
+        repository = new ReactorOperationsCosmosDbRepository<>(queryLauncher, FakeCosmosDbQueryLauncher.counting(DOCUMENTS));
+    }
+
+    @Test
+    void readsEveryPageResumingFromTheContinuationToken() {
+        List<String> ids = new ArrayList<>();
+        String continuationToken = null;
+        int pages = 0;
+        do {
+            ProjectionPaginated<TestingContainer> page = page(continuationToken);
+            page.getData().forEach(document -> ids.add(document.getId()));
+            assertEquals(page.getContinuationToken() != null, page.isHasNextPage());
+            continuationToken = page.getContinuationToken();
+            pages++;
+        } while (continuationToken != null);
+
+        assertEquals(3, pages);
+        assertEquals(DOCUMENTS, ids.size());
+        assertEquals("id0", ids.get(0));
+        assertEquals("id11", ids.get(DOCUMENTS - 1));
+        assertEquals(pages, queryLauncher.getSubscriptions());
+        assertEquals(pages, queryLauncher.getPagesEmitted());
+    }
+
+    @Test
+    void returnsAnOpaqueTokenForTheNextPage() {
+        ProjectionPaginated<TestingContainer> page = page(null);
+
+        assertTrue(page.isHasNextPage());
+        assertNotEquals(String.valueOf(PAGE_SIZE), page.getContinuationToken());
+        assertEquals(String.valueOf(PAGE_SIZE), ContinuationTokenCodec.decode(page.getContinuationToken()));
+        assertEquals(List.of("id5", "id6", "id7", "id8", "id9"), ids(page(page.getContinuationToken())));
+    }
+
+    @Test
+    void lastPageHasNoContinuationToken() {
+        ProjectionPaginated<TestingContainer> page = page(ContinuationTokenCodec.encode("10"));
+
+        assertEquals(List.of("id10", "id11"), ids(page));
+        assertFalse(page.isHasNextPage());
+        assertNull(page.getContinuationToken());
+    }
+
+    @Test
+    void invalidTokensAreRejected() {
+        assertThrows(AppCriteriaBuilderException.class, () -> page("not a token"));
+        assertEquals(0, queryLauncher.getSubscriptions());
+    }
+
+    private ProjectionPaginated<TestingContainer> page(String continuationToken) {
+        TestingCriteria criteria = TestingCriteria.Builder.builder()
+                .state(CriteriaOperator.EQUALS, List.of("OPEN"))
+                .build();
+        return repository.findByCriteriaPage(criteria, continuationToken, PAGE_SIZE, CONTAINER, Function.identity()).block();
+    }
+
+    private static List<String> ids(ProjectionPaginated<TestingContainer> page) {
+        return page.getData().stream().map(TestingContainer::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,150 @@
+package reactor.cosmosdb.criteria.application;
+
+import com.azure.cosmos.ConsistencyLevel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.cosmosdb.criteria.TestingContainer;
+import reactor.cosmosdb.criteria.TestingCriteria;
+import reactor.cosmosdb.criteria.domain.ContainerCosmosDbInfo;
+import reactor.cosmosdb.criteria.domain.CriteriaOperator;
+import reactor.cosmosdb.criteria.domain.ProjectionPaginated;
+import reactor.cosmosdb.criteria.domain.QueryExecutionOptions;
+import reactor.cosmosdb.criteria.domain.TotalCountMode;
+import reactor.cosmosdb.criteria.domain.TotalCountResponse;
+import reactor.cosmosdb.criteria.infraestructure.FakeCosmosDbQueryLauncher;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FindByCriteriaPaginatedTest {
+    private static final int DOCUMENTS = 25;
+    private static final int PAGE_SIZE = 5;
+    private static final ContainerCosmosDbInfo<TestingContainer> CONTAINER = new ContainerCosmosDbInfo<>("testing", TestingContainer.class, "/tenantId");
+
+    private FakeCosmosDbQueryLauncher<TestingContainer> queryLauncher;
+    private FakeCosmosDbQueryLauncher<TotalCountResponse> countLauncher;
+    private ReactorOperationsCosmosDbRepository<TestingContainer, TestingContainer> repository;
+
+    @BeforeEach
+    void setUp() {
+        List<TestingContainer> documents = new ArrayList<>();
+        for (int i = 0; i < DOCUMENTS; i++) {
+            documents.add(new TestingContainer("id" + i, "tenant" + (i % 3), "code" + i, i % 2 == 0 ? "OPEN" : "CLOSED"));
+        }
+        queryLauncher = new FakeCosmosDbQueryLauncher<>(documents);
+        countLauncher = FakeCosmosDbQueryLauncher.counting(DOCUMENTS);
+        repository = new ReactorOperationsCosmosDbRepository<>(queryLauncher, countLauncher);
+    }
+
+    @Test
+    void readsThePagesUntilTheNextOneAndLaunchesTheCountOnce() {
+        ProjectionPaginated<TestingContainer> page = paginate(openCriteria(), 1, QueryExecutionOptions.defaults()).block();
+
+        assertEquals(List.of("id5", "id6", "id7", "id8", "id9"), ids(page));
+        assertTrue(page.isHasNextPage());
+        assertEquals(DOCUMENTS, page.getTotalResult());
+        assertEquals(1, queryLauncher.getSubscriptions());
+        assertTrue(queryLauncher.getPagesEmitted() <= 3, "pages emitted " + queryLauncher.getPagesEmitted());
+        assertEquals(1, countLauncher.getSubscriptions());
+        assertEquals(1, countLauncher.getQuerySpecs().size());
+    }
+
+    @Test
+    void lastPageHasNoNextPage() {
+        ProjectionPaginated<TestingContainer> page = paginate(openCriteria(), 4, QueryExecutionOptions.defaults()).block();
+
+        assertEquals(List.of("id20", "id21", "id22", "id23", "id24"), ids(page));
+        assertFalse(page.isHasNextPage());
+        assertEquals(1, queryLauncher.getSubscriptions());
+        assertEquals(5, queryLauncher.getPagesEmitted());
+        assertEquals(1, countLauncher.getSubscriptions());
+    }
+
+    @Test
+    void skipModeLaunchesNoCount() {
+        QueryExecutionOptions options = QueryExecutionOptions.builder().totalCountMode(TotalCountMode.SKIP).build();
+        ProjectionPaginated<TestingContainer> page = paginate(openCriteria(), 0, options).block();
+
+        assertEquals(PAGE_SIZE, page.getData().size());
+        assertTrue(page.isHasNextPage());
+        assertEquals(0, page.getTotalResult());
+        assertEquals(1, queryLauncher.getSubscriptions());
+        assertTrue(queryLauncher.getPagesEmitted() <= 2, "pages emitted " + queryLauncher.getPagesEmitted());
+        assertEquals(0, countLauncher.getSubscriptions());
+        assertTrue(countLauncher.getQuerySpecs().isEmpty());
+    }
+
+    @Test
+    void approximateModeLaunchesTheCountOnceWithEventualConsistency() {
+        QueryExecutionOptions options = QueryExecutionOptions.builder().totalCountMode(TotalCountMode.APPROXIMATE).build();
+        ProjectionPaginated<TestingContainer> page = paginate(openCriteria(), 0, options).block();
+
+        assertEquals(DOCUMENTS, page.getTotalResult());
+        assertEquals(1, queryLauncher.getSubscriptions());
+        assertEquals(1, countLauncher.getSubscriptions());
+        assertEquals(ConsistencyLevel.EVENTUAL, countLauncher.getQueryOptions().get(0).getConsistencyLevel());
+    }
+
+    @Test
+    void criteriaWithoutCountQueryAreCountedWithTheirPages() {
+        TestingCriteria criteria = TestingCriteria.Builder.builder()
+                .selectCustom("c.state AS state")
+                .state(CriteriaOperator.EQUALS, List.of("OPEN"))
+                .groupBy("c.state")
+                .build();
+        ProjectionPaginated<TestingContainer> page = paginate(criteria, 1, QueryExecutionOptions.defaults()).block();
+
+        assertEquals(DOCUMENTS, page.getTotalResult());
+        assertEquals(1, queryLauncher.getSubscriptions());
+        assertEquals(5, queryLauncher.getPagesEmitted());
+        assertEquals(0, countLauncher.getSubscriptions());
+    }
+
+    @Test
+    void everySubscriptionLaunchesThePagesAndTheCountOnce() {
+        Mono<ProjectionPaginated<TestingContainer>> page = paginate(openCriteria(), 0, QueryExecutionOptions.defaults());
+
+        assertEquals(0, queryLauncher.getSubscriptions());
+        page.block();
+        page.block();
+
+        assertEquals(2, queryLauncher.getSubscriptions());
+        assertEquals(2, countLauncher.getSubscriptions());
+    }
+
+    @Test
+    void criteriaPinningDocumentsAreReadDirectly() {
+        TestingCriteria criteria = TestingCriteria.Builder.builder()
+                .id(CriteriaOperator.EQUALS, List.of("id3", "id4"))
+                .tenantId(CriteriaOperator.EQUALS, List.of("tenant0"))
+                .build();
+        ProjectionPaginated<TestingContainer> page = paginate(criteria, 0, QueryExecutionOptions.defaults()).block();
+
+        // id4 belongs to tenant1, so it is not read from the partition of tenant0
+        assertEquals(List.of("id3"), ids(page));
+        assertEquals(1, queryLauncher.getReadManyCount());
+        assertEquals(0, queryLauncher.getSubscriptions());
+        assertEquals(0, countLauncher.getSubscriptions());
+    }
+
+    private Mono<ProjectionPaginated<TestingContainer>> paginate(TestingCriteria criteria, int desiredPage, QueryExecutionOptions options) {
+        return repository.findByCriteriaPaginated(criteria, desiredPage, PAGE_SIZE, CONTAINER, Function.identity(), options);
+    }
+
+    private static TestingCriteria openCriteria() {
+        return TestingCriteria.Builder.builder()
+                .state(CriteriaOperator.EQUALS, List.of("OPEN"))
+                .build();
+    }
+
+    private static List<String> ids(ProjectionPaginated<TestingContainer> page) {
+        return page.getData().stream().map(TestingContainer::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,157 @@
+package reactor.cosmosdb.criteria.application;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.cosmosdb.criteria.TestingContainer;
+import reactor.cosmosdb.criteria.TestingCriteria;
+import reactor.cosmosdb.criteria.domain.ChangeFeedBatch;
+import reactor.cosmosdb.criteria.domain.ChangeFeedSource;
+import reactor.cosmosdb.criteria.domain.ContainerCosmosDbInfo;
+import reactor.cosmosdb.criteria.domain.CriteriaOperator;
+import reactor.cosmosdb.criteria.domain.TotalCountResponse;
+import reactor.cosmosdb.criteria.domain.exception.AppCriteriaBuilderException;
+import reactor.cosmosdb.criteria.infraestructure.FakeCosmosDbQueryLauncher;
+import reactor.cosmosdb.criteria.infraestructure.LocalChangeFeedSource;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MaterializedCountsTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final ContainerCosmosDbInfo<TestingContainer> CONTAINER = new ContainerCosmosDbInfo<>("testing", TestingContainer.class);
+    private static final int LIVE_COUNT = 99;
+    private static final Duration MAX_STALENESS = Duration.ofMillis(300);
+
+    private LocalChangeFeedSource changeFeedSource;
+    private FakeCosmosDbQueryLauncher<TotalCountResponse> countLauncher;
+    private ReactorOperationsCosmosDbRepository<TestingContainer, TestingContainer> repository;
+    private MaterializedCounts<TestingContainer> counts;
+
+    @BeforeEach
+    void setUp() {
+        // the fake launcher does not evaluate the criteria, so it only contains the documents that satisfy it when they are loaded
+        FakeCosmosDbQueryLauncher<TestingContainer> queryLauncher = new FakeCosmosDbQueryLauncher<>(List.of(
+                new TestingContainer("1", null, "code1", "OPEN"),
+                new TestingContainer("2", null, "code2", "OPEN")));
+        countLauncher = FakeCosmosDbQueryLauncher.counting(LIVE_COUNT);
+        repository = new ReactorOperationsCosmosDbRepository<>(queryLauncher, countLauncher);
+        changeFeedSource = new LocalChangeFeedSource();
+        counts = new MaterializedCounts<>(repository, changeFeedSource, MAX_STALENESS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        counts.close();
+    }
+
+    @Test
+    void registerLoadsTheCountAndServesItFromMemory() {
+        assertEquals(2, counts.register(openCriteria(), CONTAINER).block().getTotalCount());
+
+        assertEquals(2, count());
+        assertEquals(1, counts.getMaterializedReadCount());
+        assertEquals(0, counts.getLiveReadCount());
+        assertEquals(0, countLauncher.getSubscriptions());
+    }
+
+    @Test
+    void upsertsInAndOutOfTheCriteriaAreApplied() {
+        counts.register(openCriteria(), CONTAINER).block();
+
+        changeFeedSource.upsert("testing", document("3", "OPEN"));
+        assertEquals(3, count());
+        changeFeedSource.upsert("testing", document("3", "OPEN"));
+        assertEquals(3, count());
+        changeFeedSource.upsert("testing", document("1", "CLOSED"));
+        assertEquals(2, count());
+        changeFeedSource.upsert("testing", document("4", "CLOSED"));
+        assertEquals(2, count());
+    }
+
+    @Test
+    void deletesAreDiscounted() {
+        counts.register(openCriteria(), CONTAINER).block();
+
+        changeFeedSource.delete("testing", document("2", "OPEN"));
+        assertEquals(1, count());
+        changeFeedSource.delete("testing", document("5", "OPEN"));
+        assertEquals(1, count());
+    }
+
+    @Test
+    void failedFeedLaunchesTheCountQueryUntilItIsLoadedAgain() throws InterruptedException {
+        counts.register(openCriteria(), CONTAINER).block();
+        changeFeedSource.upsert("testing", document("3", "OPEN"));
+        assertEquals(3, count());
+
+        changeFeedSource.fail("testing", new IllegalStateException("connection lost"));
+        assertEquals(LIVE_COUNT, count());
+        assertEquals(1, counts.getLiveReadCount());
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        int count = count();
+        while (count == LIVE_COUNT && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+            count = count();
+        }
+        // the count is loaded again from the query, the change made before the failure is not in the fake launcher
+        assertEquals(2, count);
+    }
+
+    @Test
+    void staleCountsLaunchTheCountQueryUntilTheFeedCatchesUp() throws InterruptedException {
+        counts.register(openCriteria(), CONTAINER).block();
+        Thread.sleep(MAX_STALENESS.toMillis() + 100);
+
+        assertEquals(LIVE_COUNT, count());
+        assertEquals(1, counts.getLiveReadCount());
+
+        changeFeedSource.publish("testing", ChangeFeedBatch.caughtUp());
+        assertEquals(2, count());
+        assertEquals(1, counts.getLiveReadCount());
+    }
+
+    @Test
+    void unregisteredCriteriaLaunchTheCountQuery() {
+        counts.register(openCriteria(), CONTAINER).block();
+
+        assertTrue(counts.unregister(openCriteria(), CONTAINER));
+        assertEquals(LIVE_COUNT, count());
+        assertEquals(1, countLauncher.getSubscriptions());
+    }
+
+    @Test
+    void sourcesWithoutDeletesRequireLogicalDeletes() {
+        ChangeFeedSource withoutDeletes = changeFeedSource::changes;
+        MaterializedCounts<TestingContainer> physicalDeletes = new MaterializedCounts<>(repository, withoutDeletes, MAX_STALENESS);
+        assertThrows(AppCriteriaBuilderException.class, () -> physicalDeletes.register(openCriteria(), CONTAINER));
+
+        MaterializedCounts<TestingContainer> logicalDeletes = new MaterializedCounts<>(repository, withoutDeletes, MAX_STALENESS, true);
+        try {
+            assertEquals(2, logicalDeletes.register(openCriteria(), CONTAINER).block().getTotalCount());
+        } finally {
+            logicalDeletes.close();
+        }
+    }
+
+    private int count() {
+        return counts.countByCriteria(openCriteria(), CONTAINER).block().getTotalCount();
+    }
+
+    private static TestingCriteria openCriteria() {
+        return TestingCriteria.Builder.builder()
+                .state(CriteriaOperator.EQUALS, List.of("OPEN"))
+                .build();
+    }
+
+    private static JsonNode document(String id, String state) {
+        return MAPPER.createObjectNode().put("id", id).put("state", state);
+    }
+}
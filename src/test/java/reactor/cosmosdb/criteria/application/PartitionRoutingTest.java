@@ -0,0 +1,84 @@
+package reactor.cosmosdb.criteria.application;
+
+import com.azure.cosmos.models.CosmosQueryRequestOptions;
+import com.azure.cosmos.models.PartitionKey;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.cosmosdb.criteria.TestingContainer;
+import reactor.cosmosdb.criteria.TestingCriteria;
+import reactor.cosmosdb.criteria.domain.AppFilterOrder;
+import reactor.cosmosdb.criteria.domain.ContainerCosmosDbInfo;
+import reactor.cosmosdb.criteria.domain.CriteriaOperator;
+import reactor.cosmosdb.criteria.domain.QueryExecutionOptions;
+import reactor.cosmosdb.criteria.domain.TotalCountMode;
+import reactor.cosmosdb.criteria.infraestructure.FakeCosmosDbQueryLauncher;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class PartitionRoutingTest {
+    private static final ContainerCosmosDbInfo<TestingContainer> CONTAINER = new ContainerCosmosDbInfo<>("testing", TestingContainer.class, "/tenantId");
+    private static final QueryExecutionOptions WITHOUT_COUNT = QueryExecutionOptions.builder().totalCountMode(TotalCountMode.SKIP).build();
+
+    private FakeCosmosDbQueryLauncher<TestingContainer> queryLauncher;
+    private ReactorOperationsCosmosDbRepository<TestingContainer, TestingContainer> repository;
+
+    @BeforeEach
+    void setUp() {
+        queryLauncher = new FakeCosmosDbQueryLauncher<>(List.of(new TestingContainer("id1", "tenant1", "code1", "OPEN")));
+        repository = new ReactorOperationsCosmosDbRepository<>(queryLauncher, FakeCosmosDbQueryLauncher.counting(1));
+    }
+
+    @Test
+    void singlePartitionCriteriaAreLaunchedAgainstItsPartition() {
+        TestingCriteria criteria = TestingCriteria.Builder.builder()
+                .tenantId(CriteriaOperator.EQUALS, List.of("tenant1"))
+                .state(CriteriaOperator.EQUALS, List.of("OPEN"))
+                .build();
+        repository.findByCriteriaPaginated(criteria, 0, 10, CONTAINER, Function.identity(), WITHOUT_COUNT).block();
+
+        assertEquals(List.of(new PartitionKey("tenant1")), partitionKeys());
+    }
+
+    @Test
+    void severalPartitionsAreLaunchedOnePerPartition() {
+        TestingCriteria criteria = TestingCriteria.Builder.builder()
+                .tenantId(CriteriaOperator.EQUALS, List.of("tenant1", "tenant2"))
+                .build();
+        int results = repository.findByCriteriaPaginated(criteria, 0, 10, CONTAINER, Function.identity(), WITHOUT_COUNT).block().getData().size();
+
+        assertEquals(List.of(new PartitionKey("tenant1"), new PartitionKey("tenant2")), partitionKeys());
+        assertEquals(2, results);
+    }
+
+    @Test
+    void sortedCriteriaOfSeveralPartitionsAreLaunchedAcrossPartitions() {
+        TestingCriteria criteria = TestingCriteria.Builder.builder()
+                .tenantId(CriteriaOperator.EQUALS, List.of("tenant1", "tenant2"))
+                .setOrderBySentence("code", AppFilterOrder.ASC)
+                .build();
+        repository.findByCriteriaPaginated(criteria, 0, 10, CONTAINER, Function.identity(), WITHOUT_COUNT).block();
+
+        assertEquals(1, queryLauncher.getQueryOptions().size());
+        assertNull(queryLauncher.getQueryOptions().get(0).getPartitionKey());
+    }
+
+    @Test
+    void criteriaWithoutPartitionKeyAreLaunchedAcrossPartitions() {
+        TestingCriteria criteria = TestingCriteria.Builder.builder()
+                .state(CriteriaOperator.EQUALS, List.of("OPEN"))
+                .build();
+        repository.findByCriteriaPaginated(criteria, 0, 10, CONTAINER, Function.identity(), WITHOUT_COUNT).block();
+
+        assertEquals(1, queryLauncher.getQueryOptions().size());
+        assertNull(queryLauncher.getQueryOptions().get(0).getPartitionKey());
+    }
+
+    private List<PartitionKey> partitionKeys() {
+        return queryLauncher.getQueryOptions().stream().map(CosmosQueryRequestOptions::getPartitionKey).collect(Collectors.toList());
+    }
+}
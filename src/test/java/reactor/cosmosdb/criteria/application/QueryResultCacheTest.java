@@ -0,0 +1,126 @@
+package reactor.cosmosdb.criteria.application;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.cosmosdb.criteria.TestingCriteria;
+import reactor.cosmosdb.criteria.domain.CriteriaOperator;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class QueryResultCacheTest {
+
+    @Test
+    void resultsAreServedFromMemory() {
+        QueryResultCache cache = new QueryResultCache(10, Duration.ofMinutes(1));
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals(1, cache.get(key("code1", 0), () -> load(loads)).block());
+        assertEquals(1, cache.get(key("code1", 0), () -> load(loads)).block());
+
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    void requestsInFlightAreCoalesced() {
+        QueryResultCache cache = new QueryResultCache(10, Duration.ofMinutes(1));
+        Sinks.One<Integer> upstream = Sinks.one();
+        AtomicInteger subscriptions = new AtomicInteger();
+        Mono<Integer> loader = upstream.asMono().doOnSubscribe(s -> subscriptions.incrementAndGet());
+
+        Mono<Integer> first = cache.get(key("code1", 0), () -> loader).cache();
+        Mono<Integer> second = cache.get(key("code1", 0), () -> loader).cache();
+        first.subscribe();
+        second.subscribe();
+        upstream.tryEmitValue(7);
+
+        assertEquals(7, first.block());
+        assertEquals(7, second.block());
+        assertEquals(1, subscriptions.get());
+    }
+
+    @Test
+    void differentKeysAreLoadedApart() {
+        QueryResultCache cache = new QueryResultCache(10, Duration.ofMinutes(1));
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(key("code1", 0), () -> load(loads)).block();
+        cache.get(key("code1", 1), () -> load(loads)).block();
+        cache.get(key("code2", 0), () -> load(loads)).block();
+
+        assertNotEquals(key("code1", 0), key("code2", 0));
+        assertEquals(3, loads.get());
+        assertEquals(3, cache.size());
+    }
+
+    @Test
+    void expiredResultsAreLoadedAgain() throws InterruptedException {
+        QueryResultCache cache = new QueryResultCache(10, Duration.ofMillis(50));
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(key("code1", 0), () -> load(loads)).block();
+        Thread.sleep(100);
+
+        assertEquals(2, cache.get(key("code1", 0), () -> load(loads)).block());
+    }
+
+    @Test
+    void leastRecentlyUsedResultIsEvicted() {
+        QueryResultCache cache = new QueryResultCache(2, Duration.ofMinutes(1));
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(key("code1", 0), () -> load(loads)).block();
+        cache.get(key("code2", 0), () -> load(loads)).block();
+        cache.get(key("code1", 0), () -> load(loads)).block();
+        cache.get(key("code3", 0), () -> load(loads)).block();
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        cache.get(key("code1", 0), () -> load(loads)).block();
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void failuresAreNotCached() {
+        QueryResultCache cache = new QueryResultCache(10, Duration.ofMinutes(1));
+        AtomicInteger loads = new AtomicInteger();
+
+        assertThrows(IllegalStateException.class, () -> cache.get(key("code1", 0), () -> Mono.<Integer>error(new IllegalStateException("throttled"))).block());
+
+        assertEquals(1, cache.get(key("code1", 0), () -> load(loads)).block());
+    }
+
+    @Test
+    void invalidateContainerEvictsItsResults() {
+        QueryResultCache cache = new QueryResultCache(10, Duration.ofMinutes(1));
+        AtomicInteger loads = new AtomicInteger();
+        QueryResultCache.Key other = QueryResultCache.key("count", "other", criteria("code1"));
+
+        cache.get(key("code1", 0), () -> load(loads)).block();
+        cache.get(other, () -> load(loads)).block();
+        cache.invalidateContainer("testing");
+
+        assertEquals(1, cache.size());
+        assertEquals(3, cache.get(key("code1", 0), () -> load(loads)).block());
+    }
+
+    private static Mono<Integer> load(AtomicInteger loads) {
+        return Mono.fromSupplier(loads::incrementAndGet);
+    }
+
+    private static QueryResultCache.Key key(String code, int page) {
+        return QueryResultCache.key("paginated", "testing", criteria(code), page, 10);
+    }
+
+    private static TestingCriteria criteria(String code) {
+        return TestingCriteria.Builder.builder().code(CriteriaOperator.EQUALS, List.of(code)).build();
+    }
+}
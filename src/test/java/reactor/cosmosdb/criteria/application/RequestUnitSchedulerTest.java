@@ -0,0 +1,119 @@
+package reactor.cosmosdb.criteria.application;
+
+import com.azure.cosmos.BridgeInternal;
+import com.azure.cosmos.CosmosException;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.cosmosdb.criteria.domain.QueryPriority;
+import reactor.cosmosdb.criteria.domain.exception.QueryRejectedException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RequestUnitSchedulerTest {
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    @Test
+    void admitsQueriesWhileThereAreRequestUnits() {
+        RequestUnitScheduler scheduler = RequestUnitScheduler.builder().build();
+
+        assertEquals("page", scheduler.schedule("testing", QueryPriority.INTERACTIVE, () -> Mono.just("page")).block(TIMEOUT));
+        assertEquals(0, scheduler.getQueuedQueries("testing"));
+    }
+
+    @Test
+    void throttledQueriesAreLaunchedAgain() {
+        RequestUnitScheduler scheduler = RequestUnitScheduler.builder()
+                .backoff(Duration.ofMillis(1), Duration.ofMillis(10))
+                .build();
+        AtomicInteger calls = new AtomicInteger();
+
+        String result = scheduler.schedule("testing", QueryPriority.INTERACTIVE, () -> calls.incrementAndGet() == 1
+                ? Mono.<String>error(BridgeInternal.createCosmosException(429))
+                : Mono.just("page")).block(TIMEOUT);
+
+        assertEquals("page", result);
+        assertEquals(2, calls.get());
+        assertEquals(1, scheduler.getThrottledCount());
+    }
+
+    @Test
+    void throttledQueriesFailAfterTheMaxRetries() {
+        RequestUnitScheduler scheduler = RequestUnitScheduler.builder()
+                .maxRetries(2)
+                .backoff(Duration.ofMillis(1), Duration.ofMillis(10))
+                .build();
+        AtomicInteger calls = new AtomicInteger();
+
+        CosmosException error = assertThrows(CosmosException.class, () -> scheduler.schedule("testing", QueryPriority.INTERACTIVE,
+                () -> Mono.<String>error(BridgeInternal.createCosmosException(429)).doOnSubscribe(s -> calls.incrementAndGet())).block(TIMEOUT));
+
+        assertEquals(429, error.getStatusCode());
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    void otherErrorsAreNotRetried() {
+        RequestUnitScheduler scheduler = RequestUnitScheduler.builder().build();
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThrows(CosmosException.class, () -> scheduler.schedule("testing", QueryPriority.INTERACTIVE,
+                () -> Mono.<String>error(BridgeInternal.createCosmosException(400)).doOnSubscribe(s -> calls.incrementAndGet())).block(TIMEOUT));
+
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void queriesAreRejectedWhenTheQueueIsFull() {
+        RequestUnitScheduler scheduler = RequestUnitScheduler.builder()
+                .requestUnitsPerSecond(1)
+                .estimatedRequestCharge(2)
+                .maxQueuedQueries(1)
+                .build();
+        Disposable running = scheduler.schedule("testing", QueryPriority.INTERACTIVE, Mono::never).subscribe();
+        Disposable waiting = scheduler.schedule("testing", QueryPriority.INTERACTIVE, Mono::never).subscribe();
+        try {
+            assertEquals(1, scheduler.getQueuedQueries("testing"));
+            assertThrows(QueryRejectedException.class, () -> scheduler.schedule("testing", QueryPriority.INTERACTIVE, () -> Mono.just("page")).block(TIMEOUT));
+            assertEquals("page", scheduler.schedule("other", QueryPriority.INTERACTIVE, () -> Mono.just("page")).block(TIMEOUT));
+        } finally {
+            running.dispose();
+            waiting.dispose();
+        }
+    }
+
+    @Test
+    void interactiveQueriesAreAdmittedBeforeBatchQueries() {
+        RequestUnitScheduler scheduler = RequestUnitScheduler.builder()
+                .requestUnitsPerSecond(1)
+                .estimatedRequestCharge(2)
+                .build();
+        Sinks.One<String> running = Sinks.one();
+        List<QueryPriority> admitted = new CopyOnWriteArrayList<>();
+        scheduler.schedule("testing", QueryPriority.INTERACTIVE, running::asMono).subscribe();
+        Mono<String> batch = scheduler.schedule("testing", QueryPriority.BATCH, () -> Mono.fromSupplier(() -> {
+            admitted.add(QueryPriority.BATCH);
+            return "batch";
+        })).cache();
+        Mono<String> interactive = scheduler.schedule("testing", QueryPriority.INTERACTIVE, () -> Mono.fromSupplier(() -> {
+            admitted.add(QueryPriority.INTERACTIVE);
+            return "interactive";
+        })).cache();
+        batch.subscribe();
+        interactive.subscribe();
+        assertEquals(2, scheduler.getQueuedQueries("testing"));
+
+        running.tryEmitValue("running");
+
+        assertEquals("interactive", interactive.block(TIMEOUT));
+        assertEquals("batch", batch.block(TIMEOUT));
+        assertEquals(List.of(QueryPriority.INTERACTIVE, QueryPriority.BATCH), admitted);
+    }
+}
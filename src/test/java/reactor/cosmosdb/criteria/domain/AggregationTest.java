@@ -0,0 +1,101 @@
+package reactor.cosmosdb.criteria.domain;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Test;
+import reactor.cosmosdb.criteria.TestingCriteria;
+import reactor.cosmosdb.criteria.domain.exception.AppCriteriaBuilderException;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AggregationTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Test
+    void everyFunctionIsSelectedOnceByGroup() {
+        CriteriaQuery query = grouped().getCriteriaQuery();
+
+        assertEquals("SELECT * FROM ( SELECT c.code, SUM(c.amount) AS total, SUM(c.amount) AS _sum_average, COUNT(c.amount) AS _count_average, "
+                + "MIN(c.amount) AS lowest, MAX(c.amount) AS highest, COUNT(1) AS documents FROM c WHERE 1=1 AND c.state = @p0   GROUP BY c.code )", query.getQuerySentence());
+        assertEquals(1, query.getCountDistinctQueries().size());
+        assertEquals("SELECT * FROM ( SELECT c.code, c.tenantId AS tenants FROM c WHERE 1=1 AND c.state = @p0   GROUP BY c.code, c.tenantId )",
+                query.getCountDistinctQueries().get(0).getQuerySentence());
+        assertEquals(List.of("OPEN"), query.getCountDistinctQueries().get(0).getParameterValues());
+        assertNull(query.getCountQuery());
+    }
+
+    @Test
+    void partialRowsOfEveryPartitionAreMergedByGroup() {
+        List<ObjectNode> rows = grouped().getCriteriaQuery().getAggregation().merge(
+                rows("{\"code\":\"a\",\"total\":3,\"_sum_average\":3,\"_count_average\":1,\"lowest\":3,\"highest\":3,\"documents\":1}",
+                        "{\"code\":\"b\",\"total\":10,\"_sum_average\":10,\"_count_average\":2,\"lowest\":4,\"highest\":6,\"documents\":2}",
+                        "{\"code\":\"a\",\"total\":9,\"_sum_average\":9,\"_count_average\":2,\"lowest\":1,\"highest\":8,\"documents\":2}"),
+                List.of(rows("{\"code\":\"a\",\"tenants\":\"t1\"}", "{\"code\":\"a\",\"tenants\":\"t2\"}", "{\"code\":\"b\",\"tenants\":\"t1\"}", "{\"code\":\"a\",\"tenants\":\"t1\"}")));
+
+        assertEquals(2, rows.size());
+        assertEquals("{\"code\":\"a\",\"total\":12,\"average\":4.0,\"lowest\":1,\"highest\":8,\"documents\":3,\"tenants\":2}", rows.get(0).toString());
+        assertEquals("{\"code\":\"b\",\"total\":10,\"average\":5.0,\"lowest\":4,\"highest\":6,\"documents\":2,\"tenants\":1}", rows.get(1).toString());
+    }
+
+    @Test
+    void withoutGroupByThereIsAlwaysOneRow() {
+        Aggregation aggregation = TestingCriteria.Builder.builder()
+                .count("documents")
+                .sum("amount", "total")
+                .build().getCriteriaQuery().getAggregation();
+
+        assertEquals("[{\"documents\":0}]", aggregation.merge(List.of(), List.of()).toString());
+        assertEquals("[{\"documents\":5,\"total\":2.5}]", aggregation.merge(rows("{\"documents\":2,\"total\":1}", "{\"documents\":3,\"total\":1.5}"), List.of()).toString());
+    }
+
+    @Test
+    void countDistinctWithoutGroupByOnlyLaunchesItsQuery() {
+        CriteriaQuery query = TestingCriteria.Builder.builder()
+                .countDistinct("tenantId", "tenants")
+                .build().getCriteriaQuery();
+
+        assertFalse(query.getAggregation().hasMainQuery());
+        assertEquals("SELECT * FROM ( SELECT c.tenantId AS tenants FROM c WHERE 1=1  GROUP BY c.tenantId )", query.getCountDistinctQueries().get(0).getQuerySentence());
+    }
+
+    @Test
+    void aliasesMustBeUnique() {
+        assertThrows(AppCriteriaBuilderException.class, () -> TestingCriteria.Builder.builder()
+                .sum("amount", "total")
+                .count("total"));
+    }
+
+    private static TestingCriteria grouped() {
+        return TestingCriteria.Builder.builder()
+                .state(CriteriaOperator.EQUALS, List.of("OPEN"))
+                .groupBy("c.code")
+                .sum("amount", "total")
+                .avg("amount", "average")
+                .min("amount", "lowest")
+                .max("amount", "highest")
+                .count("documents")
+                .countDistinct("tenantId", "tenants")
+                .build();
+    }
+
+    private static List<JsonNode> rows(String... rows) {
+        return Stream.of(rows).map(AggregationTest::json).collect(Collectors.toList());
+    }
+
+    private static JsonNode json(String json) {
+        try {
+            return MAPPER.readTree(json);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package reactor.cosmosdb.criteria.domain;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Test;
+import reactor.cosmosdb.criteria.TestingCriteria;
+import reactor.cosmosdb.criteria.domain.exception.AppCriteriaBuilderException;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CriteriaPredicateTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Test
+    void notEqualsIsOnlySatisfiedByStrings() {
+        CriteriaPredicate predicate = predicate(CriteriaOperator.NOT_EQUALS, List.of("a"));
+
+        assertTrue(predicate.test(document().put("code", "b")));
+        assertFalse(predicate.test(document().put("code", "a")));
+        assertFalse(predicate.test(document().put("code", 1)));
+        assertFalse(predicate.test(document().put("code", true)));
+        assertFalse(predicate.test(document().putNull("code")));
+        assertFalse(predicate.test(document()));
+    }
+
+    @Test
+    void notContainsIsOnlySatisfiedByStrings() {
+        CriteriaPredicate predicate = predicate(CriteriaOperator.NOT_CONTAINS, List.of("a", "b"));
+
+        assertTrue(predicate.test(document().put("code", "c")));
+        assertFalse(predicate.test(document().put("code", "b")));
+        assertFalse(predicate.test(document().put("code", 2.5)));
+        assertFalse(predicate.test(document().putNull("code")));
+        assertFalse(predicate.test(document()));
+    }
+
+    @Test
+    void equalsAndNullOperators() {
+        assertTrue(predicate(CriteriaOperator.EQUALS, List.of("a")).test(document().put("code", "a")));
+        assertFalse(predicate(CriteriaOperator.EQUALS, List.of("1")).test(document().put("code", 1)));
+
+        CriteriaPredicate isNull = CriteriaPredicate.of(TestingCriteria.Builder.builder().nullField(CriteriaOperator.NULL, "code").build());
+        assertTrue(isNull.test(document()));
+        assertTrue(isNull.test(document().putNull("code")));
+        assertFalse(isNull.test(document().put("code", "a")));
+    }
+
+    @Test
+    void orderedOperatorsCompareStrings() {
+        CriteriaPredicate predicate = predicate(CriteriaOperator.MORE_THAN, List.of("b"));
+
+        assertTrue(predicate.test(document().put("code", "c")));
+        assertFalse(predicate.test(document().put("code", "b")));
+        assertFalse(predicate.test(document().put("code", 3)));
+    }
+
+    @Test
+    void criteriaAgainstArraysAreRejected() {
+        TestingCriteria criteria = TestingCriteria.Builder.builder().arrayField(CriteriaOperator.EQUALS, "list.id", List.of("a")).build();
+
+        assertFalse(CriteriaPredicate.isEvaluable(criteria));
+        assertThrows(AppCriteriaBuilderException.class, () -> CriteriaPredicate.of(criteria));
+    }
+
+    private static CriteriaPredicate predicate(CriteriaOperator operator, List<String> values) {
+        return CriteriaPredicate.of(TestingCriteria.Builder.builder().code(operator, values).build());
+    }
+
+    private static ObjectNode document() {
+        return MAPPER.createObjectNode().put("id", "1");
+    }
+}
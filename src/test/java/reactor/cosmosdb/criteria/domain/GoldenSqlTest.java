@@ -0,0 +1,97 @@
+package reactor.cosmosdb.criteria.domain;
+
+import org.junit.jupiter.api.Test;
+import reactor.cosmosdb.criteria.TestingCriteria;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Compares the sql generated for every operator, kind of attribute and number of values with the sentences in golden-sql.txt,
+ * one line per criteria: name => sentence | parameter values | count => count sentence.
+ * Any change of the generated sql must be reviewed and the fixture regenerated with -Dgolden.update=true
+ */
+class GoldenSqlTest {
+    private static final String FIXTURE = "golden-sql.txt";
+    private static final List<List<String>> VALUES = List.of(List.of(), List.of("a"), List.of("a b", "c"), List.of("x y z", "w", "q"));
+
+    @Test
+    void generatedSqlMatchesTheGoldenFixture() throws IOException {
+        List<String> generated = generate();
+        if (Boolean.getBoolean("golden.update")) {
+            Files.write(Path.of("src", "test", "resources", FIXTURE), generated, StandardCharsets.UTF_8);
+        }
+        List<String> expected = readFixture();
+        for (int i = 0; i < Math.min(expected.size(), generated.size()); i++) {
+            assertEquals(expected.get(i), generated.get(i), "line " + (i + 1) + " of " + FIXTURE);
+        }
+        assertEquals(expected.size(), generated.size(), "lines of " + FIXTURE);
+    }
+
+    private static List<String> generate() {
+        List<String> lines = new ArrayList<>();
+        for (CriteriaOperator operator : CriteriaOperator.values()) {
+            if (operator == CriteriaOperator.NULL || operator == CriteriaOperator.NOT_NULL) {
+                add(lines, operator + " null field", TestingCriteria.Builder.builder().nullField(operator, "code").build());
+                add(lines, operator + " null arr", TestingCriteria.Builder.builder().arrayField(operator, "list.code", List.of("nullValue")).build());
+                continue;
+            }
+            for (List<String> value : VALUES) {
+                add(lines, operator + " " + value + " field", TestingCriteria.Builder.builder().field(operator, "code", value).build());
+                add(lines, operator + " " + value + " nested", TestingCriteria.Builder.builder().field(operator, "owner.id", value).field(operator, "state", value).build());
+                add(lines, operator + " " + value + " arr", TestingCriteria.Builder.builder().arrayField(operator, "list.id", value).build());
+                add(lines, operator + " " + value + " or", TestingCriteria.Builder.builder()
+                        .field(CriteriaOperator.EQUALS, "a", List.of("1"))
+                        .or_start()
+                        .field(operator, "code", value)
+                        .arrayField(operator, "list.id", value)
+                        .or_end()
+                        .build());
+            }
+        }
+        add(lines, "count", TestingCriteria.Builder.builder().selectCount().field(CriteriaOperator.EQUALS, "a", List.of("1")).build());
+        add(lines, "custom", TestingCriteria.Builder.builder().selectCustom("c.a as a").field(CriteriaOperator.EQUALS, "a", List.of("1")).build());
+        add(lines, "group", TestingCriteria.Builder.builder().selectCustom("c.a as a").groupBy("c.a").field(CriteriaOperator.EQUALS, "a", List.of("1")).build());
+        add(lines, "order", TestingCriteria.Builder.builder().setOrderBySentence("code", AppFilterOrder.DESC).field(CriteriaOperator.EQUALS, "a", List.of("1")).build());
+        add(lines, "manual", TestingCriteria.Builder.builder()
+                .ignoreAutoGeneratedFirstConditional()
+                .field(CriteriaOperator.EQUALS, "a", List.of("1"))
+                .and()
+                .openParenthesis()
+                .field(CriteriaOperator.LIKE, "b", List.of("x y"))
+                .or()
+                .field(CriteriaOperator.NOT_EQUALS, "c", List.of("2"))
+                .closeParenthesis()
+                .build());
+        add(lines, "aggregate", TestingCriteria.Builder.builder().count("total").sum("amount", "amount").field(CriteriaOperator.EQUALS, "a", List.of("1")).build());
+        add(lines, "empty", TestingCriteria.Builder.builder().build());
+        return lines;
+    }
+
+    private static void add(List<String> lines, String name, PaginatedCriteria criteria) {
+        CriteriaQuery query = criteria.getCriteriaQuery();
+        CriteriaQuery countQuery = query.getCountQuery();
+        lines.add(name + " => " + query.getQuerySentence() + " | " + query.getParameterValues()
+                + " | count => " + (countQuery != null ? countQuery.getQuerySentence() : "none"));
+    }
+
+    private static List<String> readFixture() throws IOException {
+        try (InputStream fixture = GoldenSqlTest.class.getClassLoader().getResourceAsStream(FIXTURE)) {
+            assertNotNull(fixture, FIXTURE + " not found, generate it with -Dgolden.update=true");
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(fixture, StandardCharsets.UTF_8))) {
+                return reader.lines().collect(Collectors.toList());
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package reactor.cosmosdb.criteria.domain;
+
+import com.azure.cosmos.models.PartitionKey;
+import com.azure.cosmos.models.PartitionKeyBuilder;
+import org.junit.jupiter.api.Test;
+import reactor.cosmosdb.criteria.TestingContainer;
+import reactor.cosmosdb.criteria.TestingCriteria;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PartitionKeyRoutingTest {
+    private static final ContainerCosmosDbInfo<TestingContainer> BY_TENANT = new ContainerCosmosDbInfo<>("testing", TestingContainer.class, "/tenantId");
+    private static final ContainerCosmosDbInfo<TestingContainer> BY_TENANT_AND_STATE = new ContainerCosmosDbInfo<>("testing", TestingContainer.class, "/tenantId", "/state");
+
+    @Test
+    void singleValuePinsOnePartition() {
+        TestingCriteria criteria = TestingCriteria.Builder.builder()
+                .tenantId(CriteriaOperator.EQUALS, List.of("tenant1"))
+                .code(CriteriaOperator.LIKE, List.of("code"))
+                .build();
+
+        assertEquals(List.of(new PartitionKey("tenant1")), PartitionKeyRouting.resolve(criteria, BY_TENANT));
+    }
+
+    @Test
+    void severalValuesPinOnePartitionEach() {
+        TestingCriteria criteria = TestingCriteria.Builder.builder()
+                .tenantId(CriteriaOperator.EQUALS, List.of("tenant1", "tenant2", "tenant1"))
+                .build();
+
+        assertEquals(List.of(new PartitionKey("tenant1"), new PartitionKey("tenant2")), PartitionKeyRouting.resolve(criteria, BY_TENANT));
+    }
+
+    @Test
+    void hierarchicalKeysCombineTheValuesOfEveryPath() {
+        TestingCriteria criteria = TestingCriteria.Builder.builder()
+                .tenantId(CriteriaOperator.EQUALS, List.of("tenant1"))
+                .state(CriteriaOperator.EQUALS, List.of("OPEN", "CLOSED"))
+                .build();
+
+        assertEquals(List.of(
+                new PartitionKeyBuilder().add("tenant1").add("OPEN").build(),
+                new PartitionKeyBuilder().add("tenant1").add("CLOSED").build()), PartitionKeyRouting.resolve(criteria, BY_TENANT_AND_STATE));
+    }
+
+    @Test
+    void criteriaWithoutEqualityOnEveryPathAreLaunchedAcrossPartitions() {
+        TestingCriteria notEquals = TestingCriteria.Builder.builder().tenantId(CriteriaOperator.NOT_EQUALS, List.of("tenant1")).build();
+        TestingCriteria otherColumn = TestingCriteria.Builder.builder().code(CriteriaOperator.EQUALS, List.of("code1")).build();
+        TestingCriteria partialPath = TestingCriteria.Builder.builder().tenantId(CriteriaOperator.EQUALS, List.of("tenant1")).build();
+        TestingCriteria orGroup = TestingCriteria.Builder.builder()
+                .or_start()
+                .tenantId(CriteriaOperator.EQUALS, List.of("tenant1"))
+                .code(CriteriaOperator.EQUALS, List.of("code1"))
+                .or_end()
+                .build();
+
+        assertTrue(PartitionKeyRouting.resolve(notEquals, BY_TENANT).isEmpty());
+        assertTrue(PartitionKeyRouting.resolve(otherColumn, BY_TENANT).isEmpty());
+        assertTrue(PartitionKeyRouting.resolve(partialPath, BY_TENANT_AND_STATE).isEmpty());
+        assertTrue(PartitionKeyRouting.resolve(orGroup, BY_TENANT).isEmpty());
+        assertTrue(PartitionKeyRouting.resolve(partialPath, new ContainerCosmosDbInfo<>("testing", TestingContainer.class)).isEmpty());
+    }
+
+    @Test
+    void tooManyPartitionsAreLaunchedAcrossPartitions() {
+        List<String> tenants = new ArrayList<>();
+        for (int i = 0; i <= PartitionKeyRouting.MAX_PARTITION_KEYS; i++) {
+            tenants.add("tenant" + i);
+        }
+        TestingCriteria criteria = TestingCriteria.Builder.builder().tenantId(CriteriaOperator.EQUALS, tenants).build();
+
+        assertTrue(PartitionKeyRouting.resolve(criteria, BY_TENANT).isEmpty());
+    }
+}
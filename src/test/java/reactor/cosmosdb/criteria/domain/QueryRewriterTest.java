@@ -0,0 +1,126 @@
+package reactor.cosmosdb.criteria.domain;
+
+import org.junit.jupiter.api.Test;
+import reactor.cosmosdb.criteria.TestingCriteria;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QueryRewriterTest {
+    private static final QueryRewriter REWRITER = QueryRewriter.defaults();
+
+    @Test
+    void repeatedValuesAreRemoved() {
+        QueryExplanation explanation = REWRITER.explain(TestingCriteria.Builder.builder()
+                .code(CriteriaOperator.EQUALS, List.of("a", "a", "b"))
+                .build());
+
+        assertEquals(List.of("DeduplicateValues"), explanation.getAppliedRules());
+        assertEquals("SELECT VALUE c FROM c WHERE c.code IN (@p0,@p1)   [a, b]", rendered(explanation.getRewrittenQuery()));
+    }
+
+    @Test
+    void strictOperatorsKeepTheirValues() {
+        QueryExplanation explanation = REWRITER.explain(TestingCriteria.Builder.builder()
+                .code(CriteriaOperator.EQUALS_STRICT, List.of("a", "a"))
+                .build());
+
+        assertTrue(explanation.getAppliedRules().isEmpty());
+        assertEquals("SELECT VALUE c FROM c WHERE ARRAY_LENGTH(c.code) = 2 AND c.code IN (@p0,@p1)   [a, a]", rendered(explanation.getRewrittenQuery()));
+    }
+
+    @Test
+    void redundantConditionsAreCollapsed() {
+        QueryExplanation repeated = REWRITER.explain(TestingCriteria.Builder.builder()
+                .code(CriteriaOperator.EQUALS, List.of("a"))
+                .code(CriteriaOperator.EQUALS, List.of("a"))
+                .build());
+        QueryExplanation absorbed = REWRITER.explain(TestingCriteria.Builder.builder()
+                .state(CriteriaOperator.EQUALS, List.of("x"))
+                .or_start()
+                .state(CriteriaOperator.EQUALS, List.of("x"))
+                .code(CriteriaOperator.EQUALS, List.of("c"))
+                .or_end()
+                .build());
+
+        assertEquals(List.of("CollapseRedundantConditions"), repeated.getAppliedRules());
+        assertEquals("SELECT VALUE c FROM c WHERE c.code = @p0   [a]", rendered(repeated.getRewrittenQuery()));
+        assertEquals(List.of("CollapseRedundantConditions"), absorbed.getAppliedRules());
+        assertEquals("SELECT VALUE c FROM c WHERE c.state = @p0   [x]", rendered(absorbed.getRewrittenQuery()));
+    }
+
+    @Test
+    void orConditionsAgainstTheSameArrayShareTheSubQuery() {
+        QueryExplanation merged = REWRITER.explain(TestingCriteria.Builder.builder()
+                .or_start()
+                .arrayField(CriteriaOperator.EQUALS, "tags.name", List.of("t1"))
+                .arrayField(CriteriaOperator.LIKE, "tags.label", List.of("l"))
+                .or_end()
+                .build());
+        QueryExplanation joinedWithAnd = REWRITER.explain(TestingCriteria.Builder.builder()
+                .arrayField(CriteriaOperator.EQUALS, "tags.name", List.of("t1"))
+                .arrayField(CriteriaOperator.LIKE, "tags.label", List.of("l"))
+                .build());
+
+        assertEquals(List.of("MergeArraySubQueries"), merged.getAppliedRules());
+        assertEquals("SELECT VALUE c FROM c WHERE (  EXISTS(SELECT tags FROM tags IN c.tags WHERE  ( tags.name = @p0  ) OR ( ( UPPER(tags.label) LIKE UPPER(@p1) )  )) )  [t1, %%l%]",
+                rendered(merged.getRewrittenQuery()));
+        assertTrue(joinedWithAnd.getAppliedRules().isEmpty());
+        assertEquals(2, joinedWithAnd.getRewrittenQuery().getQuerySentence().split("EXISTS").length - 1);
+    }
+
+    @Test
+    void likeStrictUsesContainsWithoutWildcards() {
+        QueryExplanation contains = REWRITER.explain(TestingCriteria.Builder.builder()
+                .code(CriteriaOperator.LIKE_STRICT, List.of("Jo"))
+                .build());
+        QueryExplanation wildcard = REWRITER.explain(TestingCriteria.Builder.builder()
+                .code(CriteriaOperator.LIKE_STRICT, List.of("J%o"))
+                .build());
+
+        assertEquals(List.of("IndexFriendlyFunctions"), contains.getAppliedRules());
+        assertEquals("SELECT VALUE c FROM c WHERE ( CONTAINS(c.code, @p0, true) )   [Jo]", rendered(contains.getRewrittenQuery()));
+        assertTrue(wildcard.getAppliedRules().isEmpty());
+        assertEquals("SELECT VALUE c FROM c WHERE ( UPPER(c.code) LIKE UPPER(@p0) )   [%J%o%]", rendered(wildcard.getRewrittenQuery()));
+    }
+
+    @Test
+    void onlyTheRulesProvidedAreApplied() {
+        QueryExplanation explanation = QueryRewriter.of(List.of(QueryRewriteRules.deduplicateValues())).explain(TestingCriteria.Builder.builder()
+                .code(CriteriaOperator.EQUALS, List.of("a", "a", "b"))
+                .code(CriteriaOperator.LIKE_STRICT, List.of("Jo"))
+                .build());
+
+        assertEquals(List.of("DeduplicateValues"), explanation.getAppliedRules());
+        assertEquals("SELECT VALUE c FROM c WHERE c.code IN (@p0,@p1)  AND ( UPPER(c.code) LIKE UPPER(@p2) )   [a, b, %Jo%]", rendered(explanation.getRewrittenQuery()));
+    }
+
+    @Test
+    void countQueryIsDerivedFromTheRewrittenQuery() {
+        CriteriaQuery rewritten = REWRITER.rewrite(TestingCriteria.Builder.builder()
+                .code(CriteriaOperator.EQUALS, List.of("a", "a"))
+                .build());
+
+        assertEquals("SELECT COUNT(1) AS totalCount FROM c WHERE c.code = @p0   [a]", rendered(rewritten.getCountQuery()));
+    }
+
+    @Test
+    void criteriaWithManualConditionalsAreLeftUnchanged() {
+        TestingCriteria criteria = TestingCriteria.Builder.builder()
+                .ignoreAutoGeneratedFirstConditional()
+                .code(CriteriaOperator.EQUALS, List.of("a", "a"))
+                .build();
+        QueryExplanation explanation = REWRITER.explain(criteria);
+
+        assertFalse(explanation.isRewritable());
+        assertSame(criteria.getCriteriaQuery(), explanation.getRewrittenQuery());
+    }
+
+    private static String rendered(CriteriaQuery query) {
+        return query.getQuerySentence() + " " + query.getParameterValues();
+    }
+}
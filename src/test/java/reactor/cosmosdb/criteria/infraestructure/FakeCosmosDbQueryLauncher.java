@@ -0,0 +1,183 @@
+package reactor.cosmosdb.criteria.infraestructure;
+
+import com.azure.cosmos.BridgeInternal;
+import com.azure.cosmos.CosmosAsyncClient;
+import com.azure.cosmos.models.CosmosItemIdentity;
+import com.azure.cosmos.models.CosmosItemRequestOptions;
+import com.azure.cosmos.models.CosmosItemResponse;
+import com.azure.cosmos.models.CosmosQueryRequestOptions;
+import com.azure.cosmos.models.FeedResponse;
+import com.azure.cosmos.models.ModelBridgeInternal;
+import com.azure.cosmos.models.PartitionKey;
+import com.azure.cosmos.models.SqlQuerySpec;
+import com.azure.cosmos.util.CosmosPagedFlux;
+import com.azure.cosmos.util.UtilBridgeInternal;
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.cosmosdb.criteria.domain.TotalCountResponse;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Launcher that answers every query with the same documents, split in pages of the size requested and chained by continuation tokens.
+ * The sql sentence is not evaluated, the launcher only records the queries launched, their options, the subscriptions and the pages emitted.
+ * @param <T> : class of the documents returned by the launch methods
+ */
+public class FakeCosmosDbQueryLauncher<T> implements ReactorCosmosDbQueryLauncher<T> {
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY)
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private final List<JsonNode> documents;
+    private final String partitionKeyAttribute;
+    private final AtomicInteger subscriptions = new AtomicInteger();
+    private final AtomicInteger pagesEmitted = new AtomicInteger();
+    private final AtomicInteger readManyCount = new AtomicInteger();
+    private final List<SqlQuerySpec> querySpecs = new CopyOnWriteArrayList<>();
+    private final List<CosmosQueryRequestOptions> queryOptions = new CopyOnWriteArrayList<>();
+    private final List<CosmosItemRequestOptions> itemOptions = new CopyOnWriteArrayList<>();
+
+    /**
+     * @param documents : documents returned by every query, serialized with their fields, partitioned by their tenantId
+     */
+    public FakeCosmosDbQueryLauncher(List<?> documents) {
+        this(documents, "/tenantId");
+    }
+
+    /**
+     * @param documents : documents returned by every query, serialized with their fields
+     * @param partitionKeyPath : partition key path of the container (ej: /tenantId), used by readMany
+     */
+    public FakeCosmosDbQueryLauncher(List<?> documents, String partitionKeyPath) {
+        this.documents = documents.stream().map(document -> MAPPER.<JsonNode>valueToTree(document)).collect(Collectors.toList());
+        this.partitionKeyAttribute = partitionKeyPath.substring(1);
+    }
+
+    /**
+     * @param totalCount : count returned by every query
+     * @return launcher of count queries
+     */
+    public static FakeCosmosDbQueryLauncher<TotalCountResponse> counting(int totalCount) {
+        return new FakeCosmosDbQueryLauncher<>(List.of(new TotalCountResponse(totalCount)));
+    }
+
+    @Override
+    public String getDatabaseName() {
+        return "testing";
+    }
+
+    @Override
+    public CosmosAsyncClient getClientAsync() {
+        throw new UnsupportedOperationException("The fake launcher has no client");
+    }
+
+    @Override
+    public CosmosPagedFlux<T> launch(SqlQuerySpec querySpec, String containerName, Class<T> targetClass, CosmosQueryRequestOptions options) {
+        return pagedFlux(querySpec, targetClass, options);
+    }
+
+    @Override
+    public <P> CosmosPagedFlux<P> launchProjection(SqlQuerySpec querySpec, String containerName, Class<P> projectionClass, CosmosQueryRequestOptions options) {
+        return pagedFlux(querySpec, projectionClass, options);
+    }
+
+    /**
+     * Every document is missing, the options of the point read are recorded
+     */
+    @Override
+    public Mono<CosmosItemResponse<T>> readItem(String id, PartitionKey partitionKey, String containerName, Class<T> targetClass, CosmosItemRequestOptions options) {
+        return Mono.defer(() -> {
+            itemOptions.add(options);
+            return Mono.error(BridgeInternal.createCosmosException(404));
+        });
+    }
+
+    /**
+     * @return the documents whose id and partition key match one of the identities
+     */
+    @Override
+    public Mono<FeedResponse<T>> readMany(List<CosmosItemIdentity> identities, String containerName, Class<T> targetClass) {
+        return Mono.fromSupplier(() -> {
+            readManyCount.incrementAndGet();
+            List<T> results = documents.stream()
+                    .filter(document -> identities.stream().anyMatch(identity -> identity.getId().equals(document.path("id").asText())
+                            && identity.getPartitionKey().equals(new PartitionKey(document.path(partitionKeyAttribute).asText()))))
+                    .map(document -> MAPPER.convertValue(document, targetClass))
+                    .collect(Collectors.toList());
+            return ModelBridgeInternal.createFeedResponse(results, new HashMap<>());
+        });
+    }
+
+    private <R> CosmosPagedFlux<R> pagedFlux(SqlQuerySpec querySpec, Class<R> resultClass, CosmosQueryRequestOptions options) {
+        querySpecs.add(querySpec);
+        queryOptions.add(options);
+        return UtilBridgeInternal.createCosmosPagedFlux(pagedFluxOptions -> Flux.defer(() -> {
+            subscriptions.incrementAndGet();
+            int pageSize = pagedFluxOptions.getMaxItemCount() != null ? pagedFluxOptions.getMaxItemCount() : DEFAULT_PAGE_SIZE;
+            int start = pagedFluxOptions.getRequestContinuation() != null ? Integer.parseInt(pagedFluxOptions.getRequestContinuation()) : 0;
+            return Flux.range(0, Math.max(1, (documents.size() - start + pageSize - 1) / pageSize))
+                    .map(page -> {
+                        int from = Math.min(documents.size(), start + page * pageSize);
+                        int to = Math.min(documents.size(), from + pageSize);
+                        Map<String, String> headers = new HashMap<>();
+                        if (to < documents.size()) {
+                            headers.put("x-ms-continuation", String.valueOf(to));
+                        }
+                        List<R> results = new ArrayList<>(to - from);
+                        for (JsonNode document : documents.subList(from, to)) {
+                            results.add(MAPPER.convertValue(document, resultClass));
+                        }
+                        pagesEmitted.incrementAndGet();
+                        return ModelBridgeInternal.createFeedResponse(results, headers);
+                    });
+        }));
+    }
+
+    /**
+     * @return number of times the pages of any query were subscribed
+     */
+    public int getSubscriptions() {
+        return this.subscriptions.get();
+    }
+
+    /**
+     * @return number of pages emitted by every query
+     */
+    public int getPagesEmitted() {
+        return this.pagesEmitted.get();
+    }
+
+    public int getReadManyCount() {
+        return this.readManyCount.get();
+    }
+
+    /**
+     * @return queries launched, in the order they were launched
+     */
+    public List<SqlQuerySpec> getQuerySpecs() {
+        return this.querySpecs;
+    }
+
+    public List<CosmosQueryRequestOptions> getQueryOptions() {
+        return this.queryOptions;
+    }
+
+    /**
+     * @return options of every point read
+     */
+    public List<CosmosItemRequestOptions> getItemOptions() {
+        return this.itemOptions;
+    }
+}
@@ -0,0 +1,69 @@
+package reactor.cosmosdb.criteria.infraestructure;
+
+import com.azure.cosmos.ConsistencyLevel;
+import com.azure.cosmos.models.CosmosQueryRequestOptions;
+import com.azure.cosmos.models.PartitionKey;
+import org.junit.jupiter.api.Test;
+import reactor.cosmosdb.criteria.TestingContainer;
+import reactor.cosmosdb.criteria.TestingCriteria;
+import reactor.cosmosdb.criteria.domain.ContainerCosmosDbInfo;
+import reactor.cosmosdb.criteria.domain.CriteriaOperator;
+import reactor.cosmosdb.criteria.domain.QueryExecutionOptions;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class WarmUpTest {
+    private static final ContainerCosmosDbInfo<TestingContainer> CONTAINER = new ContainerCosmosDbInfo<>("testing", TestingContainer.class, "/tenantId");
+
+    @Test
+    void criteriaAreRoutedAsTheRepositoryLaunchesThem() {
+        FakeCosmosDbQueryLauncher<TestingContainer> queryLauncher = new FakeCosmosDbQueryLauncher<>(List.of(new TestingContainer("id0", "tenant0", "code0", "OPEN")));
+        TestingCriteria pinned = TestingCriteria.Builder.builder()
+                .tenantId(CriteriaOperator.EQUALS, List.of("tenant0"))
+                .build();
+        TestingCriteria splittable = TestingCriteria.Builder.builder()
+                .tenantId(CriteriaOperator.EQUALS, List.of("tenant1", "tenant2"))
+                .build();
+        TestingCriteria crossPartition = TestingCriteria.Builder.builder()
+                .code(CriteriaOperator.EQUALS, List.of("code0"))
+                .build();
+
+        WarmUpReport report = queryLauncher.warmUp(List.of(CONTAINER), Map.of("testing", List.of(pinned, splittable, crossPartition))).block();
+
+        List<CosmosQueryRequestOptions> options = queryLauncher.getQueryOptions();
+        assertEquals(3, report.getQueriesWarmedUp());
+        assertEquals(new PartitionKey("tenant0"), options.get(0).getPartitionKey());
+        assertEquals(new PartitionKey("tenant1"), options.get(1).getPartitionKey());
+        assertNull(options.get(2).getPartitionKey());
+    }
+
+    @Test
+    void criteriaAreLaunchedWithTheOptionsProvided() {
+        FakeCosmosDbQueryLauncher<TestingContainer> queryLauncher = new FakeCosmosDbQueryLauncher<>(List.of());
+        QueryExecutionOptions options = QueryExecutionOptions.builder()
+                .maxDegreeOfParallelism(4)
+                .consistencyLevel(ConsistencyLevel.EVENTUAL)
+                .build();
+
+        queryLauncher.warmUp(List.of(CONTAINER), Map.of("testing", List.of(TestingCriteria.Builder.builder().build())), options).block();
+
+        assertEquals(4, queryLauncher.getQueryOptions().get(0).getMaxDegreeOfParallelism());
+        assertEquals(ConsistencyLevel.EVENTUAL, queryLauncher.getQueryOptions().get(0).getConsistencyLevel());
+    }
+
+    @Test
+    void failuresAreReportedInsteadOfPropagated() {
+        FakeCosmosDbQueryLauncher<TestingContainer> queryLauncher = new FakeCosmosDbQueryLauncher<>(List.of());
+
+        WarmUpReport report = queryLauncher.warmUp(List.of(CONTAINER), Map.of()).block();
+
+        assertEquals(0, report.getContainersWarmedUp());
+        assertEquals(1, report.getFailures().size());
+        assertFalse(report.isSuccessful());
+    }
+}